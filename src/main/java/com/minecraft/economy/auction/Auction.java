@@ -0,0 +1,157 @@
+package com.minecraft.economy.auction;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.UUID;
+
+/**
+ * Leilão do mercado de leilões
+ * Retrato de um documento da coleção "auctions" no momento da leitura; o estado atual (lance,
+ * fim) fica no banco e só é alterado por escritas condicionais.
+ */
+public class Auction {
+
+    /**
+     * Estado do leilão
+     */
+    public enum Status {
+        ACTIVE,
+        SETTLED
+    }
+
+    private final ObjectId id;
+    private final UUID sellerUUID;
+    private final String sellerName;
+    private final byte[] itemBytes;
+    private final String itemId;
+    private final double startPrice;
+    private final double currentBid;
+    private final UUID bidderUUID;
+    private final String bidderName;
+    private final int bidCount;
+    private final long endTime;
+    private final Status status;
+
+    private Auction(Document doc) {
+        this.id = doc.getObjectId("_id");
+        this.sellerUUID = UUID.fromString(doc.getString("seller_uuid"));
+        this.sellerName = doc.getString("seller_name");
+        Binary item = doc.get("item", Binary.class);
+        this.itemBytes = item != null ? item.getData() : null;
+        this.itemId = doc.getString("item_id");
+        this.startPrice = doc.getDouble("start_price");
+        this.currentBid = doc.getDouble("current_bid");
+        String bidder = doc.getString("bidder_uuid");
+        this.bidderUUID = bidder != null ? UUID.fromString(bidder) : null;
+        this.bidderName = doc.getString("bidder_name");
+        this.bidCount = doc.getInteger("bid_count", 0);
+        this.endTime = doc.getLong("end_time");
+        this.status = Status.valueOf(doc.getString("status"));
+    }
+
+    /**
+     * Cria o retrato de um leilão a partir de um documento do MongoDB
+     * @param doc Documento do leilão
+     * @return Leilão
+     */
+    public static Auction fromDocument(Document doc) {
+        return new Auction(doc);
+    }
+
+    /**
+     * Cria o documento de um novo leilão
+     * @param sellerUUID UUID do vendedor
+     * @param sellerName Nome do vendedor
+     * @param item Itens leiloados
+     * @param itemId ID do item
+     * @param startPrice Lance mínimo inicial
+     * @param endTime Fim do leilão (em milissegundos)
+     * @return Documento do leilão
+     */
+    public static Document newDocument(UUID sellerUUID, String sellerName, ItemStack item, String itemId,
+                                       double startPrice, long endTime) {
+        ObjectId id = new ObjectId();
+        return new Document("_id", id)
+            .append("short_id", AuctionManager.shortId(id))
+            .append("seller_uuid", sellerUUID.toString())
+            .append("seller_name", sellerName)
+            .append("item", new Binary(item.serializeAsBytes()))
+            .append("item_id", itemId)
+            .append("start_price", startPrice)
+            .append("current_bid", 0.0)
+            .append("bidder_uuid", null)
+            .append("bidder_name", null)
+            .append("bid_count", 0)
+            .append("end_time", endTime)
+            .append("status", Status.ACTIVE.name())
+            .append("created_at", System.currentTimeMillis());
+    }
+
+    /**
+     * Reconstrói os itens leiloados
+     * @return Itens leiloados, ou null se o documento não os contém
+     */
+    public ItemStack createItemStack() {
+        return itemBytes != null ? ItemStack.deserializeBytes(itemBytes) : null;
+    }
+
+    /**
+     * Obtém o menor lance aceito no momento
+     * @param incrementPercent Aumento mínimo sobre o lance atual, em porcentagem
+     * @return Menor lance aceito
+     */
+    public double getMinimumBid(double incrementPercent) {
+        if (bidCount == 0) {
+            return startPrice;
+        }
+        double increment = Math.max(1.0, currentBid * incrementPercent / 100.0);
+        return Math.ceil((currentBid + increment) * 100.0) / 100.0;
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public UUID getSellerUUID() {
+        return sellerUUID;
+    }
+
+    public String getSellerName() {
+        return sellerName;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public double getStartPrice() {
+        return startPrice;
+    }
+
+    public double getCurrentBid() {
+        return currentBid;
+    }
+
+    public UUID getBidderUUID() {
+        return bidderUUID;
+    }
+
+    public String getBidderName() {
+        return bidderName;
+    }
+
+    public int getBidCount() {
+        return bidCount;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+}
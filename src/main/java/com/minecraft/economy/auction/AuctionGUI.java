@@ -0,0 +1,161 @@
+package com.minecraft.economy.auction;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Interface gráfica da casa de leilões
+ * Cada página é consultada no banco a partir do último leilão da página anterior; apenas os
+ * leilões exibidos ficam em memória.
+ */
+public class AuctionGUI {
+
+    public static final int PREVIOUS_SLOT = 45;
+    public static final int CLAIM_SLOT = 49;
+    public static final int NEXT_SLOT = 53;
+
+    private final EconomyPlugin plugin;
+    private final AuctionManager auctionManager;
+
+    public AuctionGUI(EconomyPlugin plugin, AuctionManager auctionManager) {
+        this.plugin = plugin;
+        this.auctionManager = auctionManager;
+    }
+
+    /**
+     * Abre a primeira página do navegador de leilões
+     * @param player Jogador
+     */
+    public void openBrowser(Player player) {
+        openPage(player, new ArrayDeque<>(), null);
+    }
+
+    /**
+     * Abre uma página do navegador de leilões
+     * @param player Jogador
+     * @param previousCursors Cursores das páginas anteriores
+     * @param cursor Último leilão da página anterior, ou null para a primeira página
+     */
+    public void openPage(Player player, Deque<Auction> previousCursors, Auction cursor) {
+        auctionManager.findPage(cursor).thenAccept(page -> new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (player.isOnline()) {
+                    render(player, previousCursors, cursor, page);
+                }
+            }
+        }.runTask(plugin));
+    }
+
+    private void render(Player player, Deque<Auction> previousCursors, Auction cursor, List<Auction> page) {
+        boolean hasNext = page.size() > AuctionManager.PAGE_SIZE;
+        List<Auction> shown = hasNext ? page.subList(0, AuctionManager.PAGE_SIZE) : page;
+        Auction nextCursor = hasNext ? shown.get(shown.size() - 1) : null;
+
+        AuctionMenuHolder holder = new AuctionMenuHolder(54, previousCursors, cursor, nextCursor);
+        Inventory inventory = Bukkit.createInventory(holder, 54, "§8Casa de Leilões");
+        holder.setInventory(inventory);
+
+        double incrementPercent = plugin.getConfigManager().getAuctionMinIncrementPercent();
+        long now = System.currentTimeMillis();
+        int slot = 0;
+        for (Auction auction : shown) {
+            inventory.setItem(slot, createAuctionIcon(auction, incrementPercent, now));
+            holder.setAuction(slot, auction);
+            slot++;
+        }
+
+        if (shown.isEmpty()) {
+            inventory.setItem(22, createGuiItem(Material.BARRIER, "§cNenhum leilão ativo",
+                                                "§7Use §f/auction sell <preço> <minutos>"));
+        }
+
+        if (holder.hasPrevious()) {
+            inventory.setItem(PREVIOUS_SLOT, createGuiItem(Material.ARROW, "§aPágina Anterior"));
+        }
+        inventory.setItem(CLAIM_SLOT, createGuiItem(Material.CHEST, "§aReceber Itens",
+                                                    "§7Recebe os itens de leilões vencidos,",
+                                                    "§7cancelados ou sem lances"));
+        if (hasNext) {
+            inventory.setItem(NEXT_SLOT, createGuiItem(Material.ARROW, "§aPróxima Página"));
+        }
+
+        player.openInventory(inventory);
+    }
+
+    /**
+     * Cria o ícone de um leilão, com o lance atual e o tempo restante
+     */
+    private ItemStack createAuctionIcon(Auction auction, double incrementPercent, long now) {
+        ItemStack icon = auction.createItemStack();
+        if (icon == null) {
+            icon = new ItemStack(Material.PAPER);
+        }
+        ItemMeta meta = icon.getItemMeta();
+        if (meta == null) {
+            return icon;
+        }
+
+        List<String> lore = meta.hasLore() ? new ArrayList<>(meta.getLore()) : new ArrayList<>();
+        lore.add("");
+        lore.add("§7Leilão: §f" + AuctionManager.shortId(auction.getId()));
+        lore.add("§7Vendedor: §f" + auction.getSellerName());
+        if (auction.getBidCount() > 0) {
+            lore.add("§7Lance atual: §f" + plugin.getEconomyProvider().format(auction.getCurrentBid()) +
+                     " §7(" + auction.getBidderName() + ")");
+        } else {
+            lore.add("§7Lance inicial: §f" + plugin.getEconomyProvider().format(auction.getStartPrice()));
+        }
+        lore.add("§7Termina em: §f" + formatRemaining(auction.getEndTime() - now));
+        lore.add("");
+        lore.add("§eClique para dar um lance de §f" +
+                 plugin.getEconomyProvider().format(auction.getMinimumBid(incrementPercent)));
+        meta.setLore(lore);
+        icon.setItemMeta(meta);
+        return icon;
+    }
+
+    private String formatRemaining(long millis) {
+        long seconds = Math.max(0L, millis / 1000L);
+        if (seconds >= 3600) {
+            return (seconds / 3600) + "h " + (seconds % 3600 / 60) + "min";
+        }
+        if (seconds >= 60) {
+            return (seconds / 60) + "min " + (seconds % 60) + "s";
+        }
+        return seconds + "s";
+    }
+
+    /**
+     * Cria um item para a GUI
+     * @param material Material do item
+     * @param name Nome do item
+     * @param lore Descrição do item
+     * @return Item criado
+     */
+    private ItemStack createGuiItem(Material material, String name, String... lore) {
+        ItemStack item = new ItemStack(material, 1);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(name);
+
+        List<String> loreList = new ArrayList<>();
+        for (String line : lore) {
+            loreList.add(line);
+        }
+        meta.setLore(loreList);
+
+        item.setItemMeta(meta);
+        return item;
+    }
+}
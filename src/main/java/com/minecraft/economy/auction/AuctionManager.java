@@ -0,0 +1,679 @@
+package com.minecraft.economy.auction;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.scheduler.ScheduleSpec;
+import com.minecraft.economy.utils.ModItemUtils;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * Gerenciador da casa de leilões
+ * Os lances de um leilão são serializados pelo próprio documento: cada lance é uma escrita
+ * condicional sobre o lance observado, sem trava global. O encerramento é dirigido por uma fila
+ * de prioridade com o fim de cada leilão ativo (a thread principal só olha o primeiro da fila),
+ * e a liquidação é uma única escrita que troca o estado do leilão e registra quem recebe o item
+ * e quanto o vendedor recebe. O navegador pagina direto no banco, por cursor.
+ */
+public class AuctionManager {
+
+    static final String COLLECTION = "auctions";
+    public static final int PAGE_SIZE = 45;
+
+    private final EconomyPlugin plugin;
+    private final PriorityQueue<Expiry> expiries = new PriorityQueue<>(
+        Comparator.comparingLong(Expiry::getEndTime).thenComparing(Expiry::getId));
+    private final AuctionGUI auctionGUI;
+
+    public AuctionManager(EconomyPlugin plugin) {
+        this.plugin = plugin;
+        this.auctionGUI = new AuctionGUI(plugin, this);
+        loadExpiries();
+
+        // Encerra os leilões vencidos (apenas o topo da fila é consultado)
+        plugin.getScheduler().scheduleLocal("auction.expiries", ScheduleSpec.every(1000L), false, this::processExpiries);
+    }
+
+    /**
+     * Carrega o fim de cada leilão ativo na fila de encerramento e retoma pagamentos e estornos pendentes
+     */
+    private void loadExpiries() {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                List<Expiry> loaded = new ArrayList<>();
+                try {
+                    MongoCollection<Document> auctions = getCollection();
+                    auctions.createIndex(Indexes.ascending("status", "end_time", "_id"));
+                    auctions.createIndex(Indexes.ascending("claimant_uuid", "item_claimed"));
+                    auctions.createIndex(Indexes.ascending("seller_uuid", "status"));
+                    auctions.createIndex(Indexes.ascending("short_id"));
+
+                    auctions.find(Filters.eq("status", Auction.Status.ACTIVE.name()))
+                        .projection(Projections.include("end_time"))
+                        .forEach(doc -> loaded.add(new Expiry(doc.getObjectId("_id"), doc.getLong("end_time"))));
+
+                    // Vendedores de leilões liquidados cujo pagamento não foi concluído
+                    for (Document doc : auctions.find(Filters.and(
+                            Filters.eq("status", Auction.Status.SETTLED.name()), Filters.eq("seller_paid", false)))) {
+                        paySeller(doc);
+                    }
+
+                    // Estornos de lances que falharam
+                    for (Document doc : auctions.find(Filters.exists("pending_refunds.0"))) {
+                        retryRefunds(doc);
+                    }
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao carregar leilões: " + e.getMessage(), e);
+                }
+
+                runSync(() -> {
+                    expiries.addAll(loaded);
+                    plugin.getLogger().info("Leilões ativos: " + loaded.size());
+                });
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    /**
+     * Coloca em leilão os itens na mão do jogador
+     * Deve ser chamado na thread principal.
+     * @param player Vendedor
+     * @param startPrice Lance mínimo inicial
+     * @param durationMinutes Duração em minutos
+     */
+    public void createAuction(Player player, double startPrice, int durationMinutes) {
+        int minDuration = plugin.getConfigManager().getAuctionMinDurationMinutes();
+        int maxDuration = plugin.getConfigManager().getAuctionMaxDurationMinutes();
+        if (durationMinutes < minDuration || durationMinutes > maxDuration) {
+            player.sendMessage("§cA duração deve ficar entre §f" + minDuration + " §ce §f" + maxDuration + " §cminutos.");
+            return;
+        }
+
+        ItemStack hand = player.getInventory().getItemInMainHand();
+        if (hand == null || hand.getType().isAir()) {
+            player.sendMessage("§cSegure na mão o item que será leiloado.");
+            return;
+        }
+
+        // Os itens saem do inventário antes da gravação e voltam se ela falhar
+        ItemStack item = hand.clone();
+        player.getInventory().setItemInMainHand(null);
+
+        UUID sellerUUID = player.getUniqueId();
+        long endTime = System.currentTimeMillis() + durationMinutes * 60_000L;
+        Document doc = Auction.newDocument(sellerUUID, player.getName(), item, ModItemUtils.getItemId(item), startPrice, endTime);
+        int maxAuctions = plugin.getConfigManager().getMaxAuctionsPerPlayer();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            String error = null;
+            try {
+                long active = getCollection().countDocuments(Filters.and(
+                    Filters.eq("seller_uuid", sellerUUID.toString()), Filters.eq("status", Auction.Status.ACTIVE.name())));
+                if (active >= maxAuctions) {
+                    error = "§cVocê já tem o máximo de §f" + maxAuctions + " §cleilões ativos.";
+                } else {
+                    getCollection().insertOne(doc);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao criar leilão: " + e.getMessage(), e);
+                error = "§cOcorreu um erro ao criar o leilão.";
+            }
+
+            String message = error;
+            runSync(() -> {
+                if (message != null) {
+                    giveOrDrop(player, item);
+                    if (player.isOnline()) {
+                        player.sendMessage(message);
+                    }
+                    return;
+                }
+                expiries.add(new Expiry(doc.getObjectId("_id"), endTime));
+                if (player.isOnline()) {
+                    player.sendMessage("§aLeilão §f" + shortId(doc.getObjectId("_id")) + " §acriado: §f" + item.getAmount() + "x " +
+                                      ModItemUtils.getItemName(item) + " §aa partir de §f" +
+                                      plugin.getEconomyProvider().format(startPrice) + " §apor §f" + durationMinutes + " §aminutos.");
+                }
+            });
+        });
+    }
+
+    /**
+     * Dá um lance em um leilão
+     * O valor do lance fica retido; quando o lance é superado, o valor volta para o jogador.
+     * @param player Jogador
+     * @param auctionId ID do leilão (completo ou abreviado)
+     * @param amount Valor do lance
+     * @return CompletableFuture com true se o lance foi aceito
+     */
+    public CompletableFuture<Boolean> placeBid(Player player, String auctionId, double amount) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        UUID bidderUUID = player.getUniqueId();
+        String bidderName = player.getName();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Auction auction;
+            try {
+                auction = findAuction(auctionId);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao consultar leilão: " + e.getMessage(), e);
+                complete(future, player, false, "§cOcorreu um erro ao processar o lance.");
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            if (auction == null || auction.getStatus() != Auction.Status.ACTIVE || auction.getEndTime() <= now) {
+                complete(future, player, false, "§cLeilão não encontrado ou já encerrado.");
+                return;
+            }
+            if (auction.getSellerUUID().equals(bidderUUID)) {
+                complete(future, player, false, "§cVocê não pode dar lances no seu próprio leilão.");
+                return;
+            }
+            double minimum = auction.getMinimumBid(plugin.getConfigManager().getAuctionMinIncrementPercent());
+            if (amount < minimum) {
+                complete(future, player, false, "§cO lance mínimo agora é §f" + plugin.getEconomyProvider().format(minimum) + "§c.");
+                return;
+            }
+
+            plugin.getMongoDBManager().withdraw(bidderUUID, amount, "Lance no leilão " + shortId(auction.getId()))
+                .thenAccept(paid -> {
+                    if (!paid) {
+                        complete(future, player, false, "§cVocê não tem dinheiro suficiente para este lance.");
+                        return;
+                    }
+                    applyBid(player, bidderUUID, bidderName, auction, amount, future);
+                });
+        });
+
+        return future;
+    }
+
+    /**
+     * Grava um lance já pago, condicionado ao lance observado
+     */
+    private void applyBid(Player player, UUID bidderUUID, String bidderName, Auction auction, double amount,
+                          CompletableFuture<Boolean> future) {
+        long now = System.currentTimeMillis();
+        long snipeWindow = plugin.getConfigManager().getAuctionSnipeExtensionSeconds() * 1000L;
+        long newEnd = auction.getEndTime() - now < snipeWindow ? now + snipeWindow : auction.getEndTime();
+
+        Document before;
+        try {
+            // Só vale se ninguém deu outro lance desde a leitura
+            before = getCollection().findOneAndUpdate(
+                Filters.and(
+                    Filters.eq("_id", auction.getId()),
+                    Filters.eq("status", Auction.Status.ACTIVE.name()),
+                    Filters.gt("end_time", now),
+                    Filters.eq("bid_count", auction.getBidCount())
+                ),
+                Updates.combine(
+                    Updates.set("current_bid", amount),
+                    Updates.set("bidder_uuid", bidderUUID.toString()),
+                    Updates.set("bidder_name", bidderName),
+                    Updates.inc("bid_count", 1),
+                    Updates.set("end_time", newEnd)
+                ),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.BEFORE)
+            );
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Erro ao gravar lance: " + e.getMessage(), e);
+            before = null;
+        }
+
+        if (before == null) {
+            refundBid(auction.getId(), bidderUUID, amount, "Estorno de lance não aceito").thenAccept(refunded ->
+                complete(future, player, false, refunded
+                    ? "§cOutro lance chegou antes do seu ou o leilão terminou. Seu dinheiro foi devolvido."
+                    : "§cOutro lance chegou antes do seu ou o leilão terminou. O estorno falhou e será refeito."));
+            return;
+        }
+
+        // Devolve o valor do lance superado
+        Auction previous = Auction.fromDocument(before);
+        if (previous.getBidderUUID() != null) {
+            UUID previousBidder = previous.getBidderUUID();
+            refundBid(previous.getId(), previousBidder, previous.getCurrentBid(),
+                      "Lance superado no leilão " + shortId(previous.getId())).thenAccept(refunded ->
+                notifyPlayer(previousBidder, "§eSeu lance no leilão §f" + shortId(previous.getId()) + " §efoi superado. " +
+                            (refunded ? "O valor foi devolvido." : "O estorno falhou e será refeito.")));
+        }
+
+        if (newEnd != auction.getEndTime()) {
+            runSync(() -> expiries.add(new Expiry(auction.getId(), newEnd)));
+        }
+        complete(future, player, true, "§aLance de §f" + plugin.getEconomyProvider().format(amount) + " §aregistrado no leilão §f" +
+                 shortId(auction.getId()) + "§a.");
+    }
+
+    /**
+     * Cancela um leilão do jogador que ainda não recebeu lances
+     * @param player Vendedor
+     * @param auctionId ID do leilão (completo ou abreviado)
+     */
+    public void cancelAuction(Player player, String auctionId) {
+        UUID sellerUUID = player.getUniqueId();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Auction auction = findAuction(auctionId);
+                Document updated = auction == null ? null : getCollection().findOneAndUpdate(
+                    Filters.and(
+                        Filters.eq("_id", auction.getId()),
+                        Filters.eq("seller_uuid", sellerUUID.toString()),
+                        Filters.eq("status", Auction.Status.ACTIVE.name()),
+                        Filters.eq("bid_count", 0)
+                    ),
+                    settlement(sellerUUID, 0.0, true),
+                    new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+                );
+                if (updated == null) {
+                    sendSync(player, "§cLeilão não encontrado, já encerrado ou com lances.");
+                    return;
+                }
+                sendSync(player, "§aLeilão cancelado.");
+                runSync(() -> claim(player));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao cancelar leilão: " + e.getMessage(), e);
+                sendSync(player, "§cOcorreu um erro ao cancelar o leilão.");
+            }
+        });
+    }
+
+    /**
+     * Encerra os leilões cujo fim já passou
+     */
+    private void processExpiries() {
+        long now = System.currentTimeMillis();
+        Expiry head;
+        while ((head = expiries.peek()) != null && head.getEndTime() <= now) {
+            expiries.poll();
+            ObjectId id = head.getId();
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> settle(id));
+        }
+    }
+
+    /**
+     * Liquida um leilão vencido
+     * A troca de estado, o vencedor e o valor devido ao vendedor são gravados em uma única
+     * escrita condicional; o pagamento e a entrega partem desse registro.
+     * @param id ID do leilão
+     */
+    private void settle(ObjectId id) {
+        try {
+            Document doc = getCollection().find(Filters.eq("_id", id)).first();
+            if (doc == null) {
+                return;
+            }
+            Auction auction = Auction.fromDocument(doc);
+            if (auction.getStatus() != Auction.Status.ACTIVE) {
+                return;
+            }
+            if (auction.getEndTime() > System.currentTimeMillis()) {
+                // Prorrogado por um lance de última hora
+                runSync(() -> expiries.add(new Expiry(id, auction.getEndTime())));
+                return;
+            }
+
+            boolean sold = auction.getBidderUUID() != null;
+            UUID claimant = sold ? auction.getBidderUUID() : auction.getSellerUUID();
+            Document settled = getCollection().findOneAndUpdate(
+                Filters.and(
+                    Filters.eq("_id", id),
+                    Filters.eq("status", Auction.Status.ACTIVE.name()),
+                    Filters.eq("bid_count", auction.getBidCount())
+                ),
+                settlement(claimant, auction.getCurrentBid(), !sold),
+                new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+            );
+            if (settled == null) {
+                // Um lance chegou entre a leitura e a liquidação
+                Document current = getCollection().find(Filters.eq("_id", id)).projection(Projections.include("end_time", "status")).first();
+                if (current != null && Auction.Status.ACTIVE.name().equals(current.getString("status"))) {
+                    long endTime = current.getLong("end_time");
+                    runSync(() -> expiries.add(new Expiry(id, endTime)));
+                }
+                return;
+            }
+
+            if (sold) {
+                paySeller(settled);
+                notifyPlayer(auction.getBidderUUID(), "§aVocê venceu o leilão §f" + shortId(id) + " §apor §f" +
+                            plugin.getEconomyProvider().format(auction.getCurrentBid()) + "§a!");
+            } else {
+                notifyPlayer(auction.getSellerUUID(), "§eSeu leilão §f" + shortId(id) + " §eterminou sem lances. Os itens foram devolvidos.");
+            }
+
+            runSync(() -> {
+                Player player = plugin.getServer().getPlayer(claimant);
+                if (player != null && player.isOnline()) {
+                    claim(player);
+                }
+            });
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Erro ao liquidar leilão " + id + ": " + e.getMessage(), e);
+            // Tenta de novo em um minuto
+            long retryAt = System.currentTimeMillis() + 60_000L;
+            runSync(() -> expiries.add(new Expiry(id, retryAt)));
+        }
+    }
+
+    /**
+     * Monta a escrita de liquidação de um leilão
+     * @param claimant Jogador que recebe os itens
+     * @param finalPrice Valor devido ao vendedor
+     * @param sellerPaid true se não há nada a pagar ao vendedor
+     * @return Atualização do documento
+     */
+    private Bson settlement(UUID claimant, double finalPrice, boolean sellerPaid) {
+        return Updates.combine(
+            Updates.set("status", Auction.Status.SETTLED.name()),
+            Updates.set("claimant_uuid", claimant.toString()),
+            Updates.set("final_price", finalPrice),
+            Updates.set("item_claimed", false),
+            Updates.set("seller_paid", sellerPaid),
+            Updates.set("settled_at", System.currentTimeMillis())
+        );
+    }
+
+    /**
+     * Paga ao vendedor o lance vencedor de um leilão liquidado
+     * Quem marcar o pagamento primeiro paga; se o depósito falhar, a marca é desfeita.
+     * Deve ser chamado fora da thread principal.
+     * @param doc Documento do leilão liquidado
+     */
+    private void paySeller(Document doc) {
+        ObjectId id = doc.getObjectId("_id");
+        Document claimed = getCollection().findOneAndUpdate(
+            Filters.and(Filters.eq("_id", id), Filters.eq("seller_paid", false)),
+            Updates.set("seller_paid", true)
+        );
+        if (claimed == null) {
+            return;
+        }
+
+        UUID sellerUUID = UUID.fromString(doc.getString("seller_uuid"));
+        double amount = doc.getDouble("final_price");
+        plugin.getMongoDBManager().deposit(sellerUUID, amount, "Venda no leilão " + shortId(id)).thenAccept(paid -> {
+            if (!paid) {
+                getCollection().updateOne(Filters.eq("_id", id), Updates.set("seller_paid", false));
+                plugin.getLogger().warning("Pagamento do leilão " + id + " falhou; será refeito na próxima inicialização.");
+                return;
+            }
+            notifyPlayer(sellerUUID, "§aSeu leilão §f" + shortId(id) + " §afoi vendido por §f" +
+                        plugin.getEconomyProvider().format(amount) + "§a.");
+        });
+    }
+
+    /**
+     * Devolve a um jogador o valor retido de um lance
+     * Se o depósito falhar, o estorno fica pendente no documento do leilão e é refeito na
+     * próxima inicialização.
+     * @param auctionId ID do leilão
+     * @param bidderUUID Jogador que recebe o estorno
+     * @param amount Valor do estorno
+     * @param reason Motivo da transação
+     * @return CompletableFuture com true se o valor foi devolvido agora
+     */
+    private CompletableFuture<Boolean> refundBid(ObjectId auctionId, UUID bidderUUID, double amount, String reason) {
+        return plugin.getMongoDBManager().deposit(bidderUUID, amount, reason).handle((paid, error) -> {
+            if (error == null && Boolean.TRUE.equals(paid)) {
+                return true;
+            }
+            Document refund = new Document("_id", new ObjectId())
+                .append("player_uuid", bidderUUID.toString())
+                .append("amount", amount)
+                .append("reason", reason);
+            try {
+                getCollection().updateOne(Filters.eq("_id", auctionId), Updates.push("pending_refunds", refund));
+                plugin.getLogger().warning("Estorno de " + amount + " para " + bidderUUID + " no leilão " + auctionId +
+                                          " falhou; será refeito na próxima inicialização.");
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Estorno de " + amount + " para " + bidderUUID + " no leilão " +
+                                       auctionId + " falhou e não pôde ser registrado: " + e.getMessage(), e);
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Refaz os estornos pendentes de um leilão
+     * Cada estorno sai da lista antes do depósito (quem o remover primeiro paga) e volta se falhar de novo.
+     * Deve ser chamado fora da thread principal.
+     * @param doc Documento do leilão
+     */
+    private void retryRefunds(Document doc) {
+        ObjectId id = doc.getObjectId("_id");
+        for (Document refund : doc.getList("pending_refunds", Document.class)) {
+            ObjectId refundId = refund.getObjectId("_id");
+            long removed = getCollection().updateOne(
+                Filters.and(Filters.eq("_id", id), Filters.eq("pending_refunds._id", refundId)),
+                Updates.pull("pending_refunds", new Document("_id", refundId))
+            ).getModifiedCount();
+            if (removed == 0) {
+                continue;
+            }
+
+            UUID bidderUUID = UUID.fromString(refund.getString("player_uuid"));
+            double amount = refund.getDouble("amount");
+            refundBid(id, bidderUUID, amount, refund.getString("reason")).thenAccept(refunded -> {
+                if (refunded) {
+                    notifyPlayer(bidderUUID, "§aO estorno de §f" + plugin.getEconomyProvider().format(amount) +
+                                " §ado leilão §f" + shortId(id) + " §afoi concluído.");
+                }
+            });
+        }
+    }
+
+    /**
+     * Entrega ao jogador os itens de leilões vencidos, cancelados ou sem lances
+     * @param player Jogador
+     */
+    public void claim(Player player) {
+        UUID playerUUID = player.getUniqueId();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<Document> claimed = new ArrayList<>();
+            try {
+                Document doc;
+                while ((doc = getCollection().findOneAndUpdate(
+                        Filters.and(Filters.eq("claimant_uuid", playerUUID.toString()), Filters.eq("item_claimed", false)),
+                        Updates.set("item_claimed", true))) != null) {
+                    claimed.add(doc);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao entregar itens de leilão: " + e.getMessage(), e);
+            }
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            runSync(() -> {
+                if (!player.isOnline()) {
+                    // O jogador saiu: os itens continuam disponíveis
+                    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+                        for (Document doc : claimed) {
+                            getCollection().updateOne(Filters.eq("_id", doc.getObjectId("_id")), Updates.set("item_claimed", false));
+                        }
+                    });
+                    return;
+                }
+
+                for (Document doc : claimed) {
+                    ItemStack item = Auction.fromDocument(doc).createItemStack();
+                    if (item != null) {
+                        giveOrDrop(player, item);
+                        player.sendMessage("§aVocê recebeu §f" + item.getAmount() + "x " + ModItemUtils.getItemName(item) +
+                                          " §ado leilão §f" + shortId(doc.getObjectId("_id")) + "§a.");
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Consulta uma página de leilões ativos, dos que terminam antes aos que terminam depois
+     * A página seguinte começa depois do último leilão da anterior (paginação por cursor), então
+     * nenhuma página exige ler ou pular as anteriores.
+     * @param after Último leilão da página anterior, ou null para a primeira página
+     * @return CompletableFuture com até PAGE_SIZE + 1 leilões (o excedente indica que há outra página)
+     */
+    public CompletableFuture<List<Auction>> findPage(Auction after) {
+        CompletableFuture<List<Auction>> future = new CompletableFuture<>();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Bson filter = Filters.and(
+                    Filters.eq("status", Auction.Status.ACTIVE.name()),
+                    Filters.gt("end_time", System.currentTimeMillis())
+                );
+                if (after != null) {
+                    filter = Filters.and(filter, Filters.or(
+                        Filters.gt("end_time", after.getEndTime()),
+                        Filters.and(Filters.eq("end_time", after.getEndTime()), Filters.gt("_id", after.getId()))
+                    ));
+                }
+
+                List<Auction> page = new ArrayList<>(PAGE_SIZE + 1);
+                for (Document doc : getCollection().find(filter)
+                        .sort(Sorts.ascending("end_time", "_id"))
+                        .limit(PAGE_SIZE + 1)) {
+                    page.add(Auction.fromDocument(doc));
+                }
+                future.complete(page);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao consultar leilões: " + e.getMessage(), e);
+                future.complete(new ArrayList<>());
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Localiza um leilão pelo ID completo ou abreviado (os últimos caracteres do ID)
+     * Deve ser chamado fora da thread principal.
+     */
+    private Auction findAuction(String auctionId) {
+        String id = auctionId.toLowerCase();
+        Document doc;
+        if (ObjectId.isValid(id)) {
+            doc = getCollection().find(Filters.eq("_id", new ObjectId(id))).first();
+        } else {
+            // IDs abreviados são procurados entre os leilões ativos
+            doc = getCollection().find(Filters.and(
+                Filters.eq("short_id", id),
+                Filters.eq("status", Auction.Status.ACTIVE.name())
+            )).first();
+        }
+        return doc != null ? Auction.fromDocument(doc) : null;
+    }
+
+    /**
+     * Obtém o ID abreviado de um leilão, exibido nas mensagens
+     * @param id ID do leilão
+     * @return Últimos 8 caracteres do ID
+     */
+    public static String shortId(ObjectId id) {
+        return id.toHexString().substring(16);
+    }
+
+    /**
+     * Obtém a interface gráfica da casa de leilões
+     * @return Interface gráfica
+     */
+    public AuctionGUI getAuctionGUI() {
+        return auctionGUI;
+    }
+
+    private void giveOrDrop(Player player, ItemStack item) {
+        if (!player.isOnline()) {
+            // O jogador saiu: os itens ficam disponíveis para /auction claim
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+                Document doc = Auction.newDocument(player.getUniqueId(), player.getName(), item, ModItemUtils.getItemId(item), 0.0, 0L)
+                    .append("status", Auction.Status.SETTLED.name())
+                    .append("claimant_uuid", player.getUniqueId().toString())
+                    .append("item_claimed", false)
+                    .append("seller_paid", true);
+                getCollection().insertOne(doc);
+            });
+            return;
+        }
+        for (ItemStack overflow : player.getInventory().addItem(item).values()) {
+            player.getWorld().dropItemNaturally(player.getLocation(), overflow);
+        }
+    }
+
+    private void notifyPlayer(UUID playerUUID, String message) {
+        runSync(() -> {
+            Player player = plugin.getServer().getPlayer(playerUUID);
+            if (player != null && player.isOnline()) {
+                player.sendMessage(message);
+            }
+        });
+    }
+
+    private void complete(CompletableFuture<Boolean> future, Player player, boolean success, String message) {
+        sendSync(player, message);
+        future.complete(success);
+    }
+
+    private MongoCollection<Document> getCollection() {
+        return plugin.getMongoDBManager().getDatabase().getCollection(COLLECTION);
+    }
+
+    private void sendSync(Player player, String message) {
+        runSync(() -> {
+            if (player.isOnline()) {
+                player.sendMessage(message);
+            }
+        });
+    }
+
+    private void runSync(Runnable action) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                action.run();
+            }
+        }.runTask(plugin);
+    }
+
+    /**
+     * Entrada da fila de encerramento
+     */
+    private static final class Expiry {
+        private final ObjectId id;
+        private final long endTime;
+
+        private Expiry(ObjectId id, long endTime) {
+            this.id = id;
+            this.endTime = endTime;
+        }
+
+        private ObjectId getId() {
+            return id;
+        }
+
+        private long getEndTime() {
+            return endTime;
+        }
+    }
+}
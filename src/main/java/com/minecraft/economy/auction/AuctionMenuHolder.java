@@ -0,0 +1,123 @@
+package com.minecraft.economy.auction;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Sessão do navegador de leilões aberta por um jogador
+ * Guarda o leilão exibido em cada slot e os cursores das páginas já visitadas, para voltar
+ * sem precisar contar ou pular documentos no banco.
+ */
+public class AuctionMenuHolder implements InventoryHolder {
+
+    private final Auction[] slotAuctions;
+    private final Deque<Auction> previousCursors;
+    private final Auction cursor;
+    private final Auction nextCursor;
+    private Inventory inventory;
+    private boolean released;
+
+    /**
+     * Construtor da sessão
+     * @param size Tamanho do inventário
+     * @param previousCursors Cursores das páginas anteriores (o topo é o da página anterior)
+     * @param cursor Cursor da página exibida (null na primeira página)
+     * @param nextCursor Cursor da próxima página (null se esta for a última)
+     */
+    public AuctionMenuHolder(int size, Deque<Auction> previousCursors, Auction cursor, Auction nextCursor) {
+        this.slotAuctions = new Auction[size];
+        this.previousCursors = previousCursors;
+        this.cursor = cursor;
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Associa o inventário criado a esta sessão
+     * @param inventory Inventário
+     */
+    public void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    /**
+     * Associa um leilão a um slot
+     * @param slot Slot
+     * @param auction Leilão exibido no slot
+     */
+    public void setAuction(int slot, Auction auction) {
+        slotAuctions[slot] = auction;
+    }
+
+    /**
+     * Obtém o leilão exibido em um slot
+     * @param slot Slot clicado
+     * @return Leilão do slot, ou null
+     */
+    public Auction getAuction(int slot) {
+        if (released || slot < 0 || slot >= slotAuctions.length) {
+            return null;
+        }
+        return slotAuctions[slot];
+    }
+
+    /**
+     * Verifica se existe uma página anterior
+     * @return true se a página exibida não é a primeira
+     */
+    public boolean hasPrevious() {
+        return cursor != null;
+    }
+
+    /**
+     * Obtém os cursores para abrir a página anterior
+     * @return Pilha de cursores sem a página exibida
+     */
+    public Deque<Auction> getPreviousCursors() {
+        return previousCursors;
+    }
+
+    /**
+     * Obtém os cursores para abrir a próxima página
+     * @return Pilha de cursores incluindo a página exibida
+     */
+    public Deque<Auction> getNextCursors() {
+        Deque<Auction> cursors = new ArrayDeque<>(previousCursors);
+        if (cursor != null) {
+            cursors.push(cursor);
+        }
+        return cursors;
+    }
+
+    /**
+     * Obtém o cursor da próxima página
+     * @return Último leilão desta página, ou null se esta for a última
+     */
+    public Auction getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Obtém o tamanho do inventário da sessão
+     * @return Número de slots
+     */
+    public int getSize() {
+        return slotAuctions.length;
+    }
+
+    /**
+     * Libera as referências da sessão quando o inventário é fechado
+     */
+    public void release() {
+        released = true;
+        Arrays.fill(slotAuctions, null);
+    }
+}
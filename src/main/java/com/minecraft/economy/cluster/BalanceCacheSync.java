@@ -0,0 +1,346 @@
+package com.minecraft.economy.cluster;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.scheduler.ScheduleSpec;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Coerência dos saldos em cache entre os servidores que compartilham o banco
+ * Com um replica set, cada servidor acompanha um change stream da coleção de jogadores e aplica o
+ * novo saldo de cada escrita, feita por qualquer servidor, no seu cache. Sem replica set, cada
+ * escrita de saldo publica uma invalidação na coleção "balance_invalidations", consultada
+ * periodicamente pelos demais servidores. Enquanto a sincronização está em dia os saldos ficam em
+ * cache por horas; se ela parar, o cache volta à validade curta até que se recupere.
+ */
+public class BalanceCacheSync {
+
+    private static final String INVALIDATIONS_COLLECTION = "balance_invalidations";
+    private static final long INVALIDATION_TTL_SECONDS = 600;
+    private static final long POLL_OVERLAP_MILLIS = 2000; // Cobre escritas confirmadas fora da ordem do horário
+    private static final long STALE_MILLIS = 15_000;
+    private static final long RETRY_MILLIS = 5000;
+    private static final int NOT_REPLICA_SET = 40573;
+
+    /**
+     * Forma de sincronização em uso
+     */
+    public enum Mode {
+        CHANGE_STREAM, POLL, OFF
+    }
+
+    private final EconomyPlugin plugin;
+    private final String nodeId;
+    private final long syncedTtlMillis;
+    private final long unsyncedTtlMillis;
+
+    private volatile Mode mode;
+    private volatile boolean running = true;
+    private volatile long lastSyncMillis; // Último instante em que a sincronização estava em dia
+
+    // Estado do change stream (thread do change stream)
+    private BsonDocument resumeToken;
+
+    // Estado da consulta periódica (tarefa "balance.invalidations")
+    private Date pollWatermark;
+    private final Map<ObjectId, Long> recentInvalidations = new HashMap<>();
+
+    public BalanceCacheSync(EconomyPlugin plugin) {
+        this.plugin = plugin;
+        this.nodeId = plugin.getClusterCoordinator().getNodeId();
+        this.syncedTtlMillis = plugin.getConfigManager().getBalanceCacheMinutes() * 60_000L;
+        this.unsyncedTtlMillis = plugin.getConfigManager().getBalanceCacheUnsyncedSeconds() * 1000L;
+
+        String configured = plugin.getConfigManager().getBalanceSyncMode();
+        switch (configured) {
+            case "off":
+                mode = Mode.OFF;
+                plugin.getLogger().warning("Sincronização dos saldos em cache desativada; com vários servidores, " +
+                                           "os saldos podem ficar desatualizados por até " + (unsyncedTtlMillis / 1000) + " segundos.");
+                return;
+            case "poll":
+                startPolling();
+                return;
+            case "auto":
+                break;
+            default:
+                plugin.getLogger().warning("Modo de sincronização de saldos inválido: " + configured + ". Usando auto.");
+        }
+
+        mode = Mode.CHANGE_STREAM;
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                watchChanges();
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    /**
+     * Acompanha o change stream da coleção de jogadores até o plugin ser desativado
+     * Depois de uma falha, retoma do último evento aplicado; se não for possível, limpa os caches.
+     */
+    private void watchChanges() {
+        List<Bson> pipeline = List.of(Aggregates.match(Filters.or(
+            Filters.in("operationType", "insert", "replace", "delete"),
+            Filters.exists("updateDescription.updatedFields.balance")
+        )));
+
+        while (running) {
+            boolean resuming = resumeToken != null;
+            try {
+                ChangeStreamIterable<Document> stream = plugin.getMongoDBManager().getPlayersCollection()
+                    .watch(pipeline)
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+                if (resuming) {
+                    stream = stream.resumeAfter(resumeToken);
+                }
+
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                    plugin.getLogger().info("Sincronização dos saldos em cache por change stream ativa.");
+                    while (running) {
+                        ChangeStreamDocument<Document> event = cursor.tryNext();
+                        if (event != null) {
+                            applyChange(event);
+                        }
+                        if (cursor.getResumeToken() != null) {
+                            resumeToken = cursor.getResumeToken();
+                        }
+                        lastSyncMillis = System.currentTimeMillis();
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == NOT_REPLICA_SET) {
+                    plugin.getLogger().info("O MongoDB não é um replica set; os saldos em cache serão sincronizados " +
+                                            "por consulta periódica.");
+                    startPolling();
+                    return;
+                }
+                handleStreamFailure(e, resuming);
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                handleStreamFailure(e, resuming);
+            }
+        }
+    }
+
+    private void handleStreamFailure(Exception e, boolean resuming) {
+        if (resuming && e instanceof MongoServerException) {
+            // O servidor recusou a retomada (histórico perdido): eventos podem ter sido perdidos
+            resumeToken = null;
+            clearAllCaches();
+            plugin.getLogger().warning("Não foi possível retomar o change stream de saldos; caches limpos.");
+            return;
+        }
+
+        plugin.getLogger().log(Level.WARNING, "Change stream de saldos interrompido: " + e.getMessage() +
+                               ". Nova tentativa em " + (RETRY_MILLIS / 1000) + " segundos.", e);
+        try {
+            Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Aplica um evento do change stream aos caches deste servidor
+     * Em atualizações o saldo vem dos campos alterados pelo evento (e não do documento lido depois),
+     * então os eventos aplicados em ordem sempre terminam no saldo mais recente.
+     */
+    private void applyChange(ChangeStreamDocument<Document> event) {
+        switch (event.getOperationType()) {
+            case DELETE:
+                // O evento só traz o _id; exclusões de contas são raras, então limpa tudo
+                clearAllCaches();
+                return;
+            case INSERT:
+            case REPLACE:
+            case UPDATE:
+                break;
+            default:
+                return;
+        }
+
+        Document doc = event.getFullDocument();
+        if (doc == null || doc.getString("uuid") == null) {
+            return;
+        }
+        UUID playerId = UUID.fromString(doc.getString("uuid"));
+
+        Object balance = doc.get("balance");
+        if (event.getUpdateDescription() != null && event.getUpdateDescription().getUpdatedFields() != null
+                && event.getUpdateDescription().getUpdatedFields().containsKey("balance")) {
+            balance = event.getUpdateDescription().getUpdatedFields().getNumber("balance").doubleValue();
+        }
+
+        if (balance instanceof Number) {
+            plugin.getMongoDBManager().cacheBalance(playerId, ((Number) balance).doubleValue());
+            plugin.getEconomyProvider().clearCache(playerId);
+        } else {
+            invalidateLocal(playerId);
+        }
+    }
+
+    /**
+     * Passa a sincronizar por consulta periódica à coleção de invalidações
+     */
+    private void startPolling() {
+        mode = Mode.POLL;
+        pollWatermark = new Date(System.currentTimeMillis() - POLL_OVERLAP_MILLIS);
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    getInvalidations().createIndex(Indexes.ascending("time"),
+                        new IndexOptions().expireAfter(INVALIDATION_TTL_SECONDS, TimeUnit.SECONDS));
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.WARNING, "Não foi possível criar o índice de invalidações de saldo: " + e.getMessage(), e);
+                }
+            }
+        }.runTaskAsynchronously(plugin);
+
+        // O agendador só pode ser usado na thread principal
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                plugin.getScheduler().scheduleLocal("balance.invalidations", ScheduleSpec.every(1000), true,
+                                                    BalanceCacheSync.this::pollInvalidations);
+            }
+        }.runTask(plugin);
+    }
+
+    /**
+     * Aplica as invalidações publicadas pelos outros servidores desde a última consulta
+     * As consultas se sobrepõem um pouco; as invalidações já aplicadas são lembradas e ignoradas.
+     */
+    private void pollInvalidations() {
+        long now = System.currentTimeMillis();
+        if (lastSyncMillis > 0 && now - lastSyncMillis > INVALIDATION_TTL_SECONDS * 1000) {
+            // Invalidações podem ter expirado durante a interrupção
+            clearAllCaches();
+            plugin.getLogger().warning("Consulta de invalidações de saldo interrompida por muito tempo; caches limpos.");
+        }
+
+        Date since = new Date(pollWatermark.getTime() - POLL_OVERLAP_MILLIS);
+        for (Document doc : getInvalidations()
+                .find(Filters.and(Filters.gte("time", since), Filters.ne("node", nodeId)))
+                .sort(Sorts.ascending("time"))) {
+            Date time = doc.getDate("time");
+            if (recentInvalidations.putIfAbsent(doc.getObjectId("_id"), time.getTime()) == null) {
+                invalidateLocal(UUID.fromString(doc.getString("uuid")));
+            }
+            if (time.after(pollWatermark)) {
+                pollWatermark = time;
+            }
+        }
+
+        Iterator<Long> times = recentInvalidations.values().iterator();
+        while (times.hasNext()) {
+            if (times.next() < since.getTime()) {
+                times.remove();
+            }
+        }
+        lastSyncMillis = now;
+    }
+
+    /**
+     * Registra uma escrita de saldo feita neste servidor
+     * Invalida os caches locais do jogador e, na consulta periódica, publica a invalidação para os
+     * demais servidores (com o change stream eles já recebem a escrita). Quem grava o saldo deve
+     * chamar este método antes de atualizar o próprio cache. Deve ser chamado fora da thread principal.
+     * @param playerId UUID do jogador
+     */
+    public void publish(UUID playerId) {
+        invalidateLocal(playerId);
+        if (mode != Mode.POLL) {
+            return;
+        }
+
+        try {
+            // O horário vem do relógio do banco, comum a todos os servidores
+            getInvalidations().updateOne(Filters.eq("_id", new ObjectId()),
+                Updates.combine(Updates.set("uuid", playerId.toString()),
+                                Updates.set("node", nodeId),
+                                Updates.currentDate("time")),
+                new UpdateOptions().upsert(true));
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao publicar invalidação do saldo de " + playerId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Obtém por quanto tempo um saldo em cache pode ser usado
+     * @return Validade em milissegundos: longa com a sincronização em dia, curta caso contrário
+     */
+    public long getCacheTtlMillis() {
+        return isSynced() ? syncedTtlMillis : unsyncedTtlMillis;
+    }
+
+    /**
+     * Verifica se a sincronização dos caches está em dia
+     * @return true se as escritas dos outros servidores estão chegando a este
+     */
+    public boolean isSynced() {
+        return mode != Mode.OFF && System.currentTimeMillis() - lastSyncMillis < STALE_MILLIS;
+    }
+
+    /**
+     * Obtém a forma de sincronização em uso
+     * @return Forma de sincronização
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Interrompe o change stream; chamado ao desativar o plugin
+     */
+    public void shutdown() {
+        running = false;
+    }
+
+    private void invalidateLocal(UUID playerId) {
+        plugin.getMongoDBManager().clearCache(playerId);
+        plugin.getEconomyProvider().clearCache(playerId);
+    }
+
+    private void clearAllCaches() {
+        plugin.getMongoDBManager().clearAllCache();
+        plugin.getEconomyProvider().clearAllCache();
+    }
+
+    private MongoCollection<Document> getInvalidations() {
+        return plugin.getMongoDBManager().getDatabase().getCollection(INVALIDATIONS_COLLECTION);
+    }
+}
@@ -0,0 +1,283 @@
+package com.minecraft.economy.cluster;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.scheduler.ScheduleSpec;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * Coordenação dos servidores que compartilham o mesmo banco
+ * As tarefas globais (impostos, decaimento, preços do mercado) rodam só no servidor líder. A
+ * liderança é uma concessão gravada na coleção de configurações (chave "cluster.leader") e renovada
+ * a cada batimento; se o líder parar, outro servidor assume quando a concessão expira. Cada tarefa
+ * tem seu documento ("job.&lt;nome&gt;") com o próximo horário de execução, reivindicado com uma
+ * atualização condicional, então cada período roda uma única vez mesmo durante uma troca de líder.
+ * O documento guarda também as métricas da última execução (instante, duração, servidor e erro).
+ * Os horários são calculados pelo agendador central (EconomyScheduler).
+ */
+public class ClusterCoordinator {
+
+    public static final String JOB_PREFIX = "job.";
+    private static final String LEADER_KEY = "cluster.leader";
+
+    private final EconomyPlugin plugin;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long heartbeatMillis;
+    private final long leaseMillis;
+    private final long jobTimeoutMillis;
+
+    private volatile long leaderTerm = -1; // Mandato deste servidor, -1 se não for o líder
+    private volatile long leaderUntil; // Instante local até o qual a liderança é considerada válida
+    private volatile String leaderId;
+
+    public ClusterCoordinator(EconomyPlugin plugin) {
+        this.plugin = plugin;
+        this.heartbeatMillis = plugin.getConfigManager().getClusterHeartbeatSeconds() * 1000L;
+        this.leaseMillis = Math.max(plugin.getConfigManager().getClusterLeaseSeconds() * 1000L, heartbeatMillis * 3);
+        this.jobTimeoutMillis = plugin.getConfigManager().getClusterJobTimeoutMinutes() * 60_000L;
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    MongoCollection<Document> collection = getCollection();
+                    try {
+                        collection.createIndex(Indexes.ascending("key"), new IndexOptions().unique(true));
+                    } catch (Exception e) {
+                        plugin.getLogger().log(Level.WARNING, "Não foi possível criar o índice único de configurações: " + e.getMessage(), e);
+                    }
+                    collection.updateOne(Filters.eq("key", LEADER_KEY), Updates.setOnInsert("term", 0L),
+                                         new UpdateOptions().upsert(true));
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao preparar a coordenação dos servidores: " + e.getMessage(), e);
+                }
+            }
+        }.runTaskAsynchronously(plugin);
+
+        plugin.getScheduler().scheduleLocal("cluster.heartbeat", ScheduleSpec.every(heartbeatMillis), true,
+                                            () -> renewLeadership(System.currentTimeMillis()));
+    }
+
+    /**
+     * Batimento: renova a concessão de líder deste servidor ou a assume, se estiver livre ou expirada
+     * Cada nova liderança recebe um mandato maior que o de todas as anteriores.
+     */
+    private void renewLeadership(long now) {
+        MongoCollection<Document> collection = getCollection();
+        FindOneAndUpdateOptions after = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
+
+        Document doc = null;
+        if (leaderTerm >= 0) {
+            doc = collection.findOneAndUpdate(
+                Filters.and(Filters.eq("key", LEADER_KEY), Filters.eq("owner", nodeId), Filters.eq("term", leaderTerm)),
+                Updates.combine(Updates.set("expires", now + leaseMillis), Updates.set("heartbeat", now)),
+                after);
+        }
+        if (doc == null) {
+            doc = collection.findOneAndUpdate(
+                Filters.and(Filters.eq("key", LEADER_KEY),
+                            Filters.or(Filters.exists("expires", false), Filters.lt("expires", now))),
+                Updates.combine(Updates.set("owner", nodeId),
+                                Updates.set("expires", now + leaseMillis),
+                                Updates.set("heartbeat", now),
+                                Updates.inc("term", 1L)),
+                after);
+            if (doc != null) {
+                plugin.getLogger().info("Este servidor assumiu a liderança das tarefas globais (mandato " +
+                                        doc.get("term", Number.class).longValue() + ").");
+            }
+        }
+
+        if (doc != null) {
+            leaderTerm = doc.get("term", Number.class).longValue();
+            // Margem de um batimento: o líder para antes de a concessão expirar no banco
+            leaderUntil = now + leaseMillis - heartbeatMillis;
+            leaderId = nodeId;
+        } else {
+            if (leaderTerm >= 0) {
+                plugin.getLogger().warning("Este servidor perdeu a liderança das tarefas globais.");
+            }
+            leaderTerm = -1;
+            Document current = collection.find(Filters.eq("key", LEADER_KEY)).first();
+            leaderId = current != null ? current.getString("owner") : null;
+        }
+    }
+
+    /**
+     * Obtém o documento de uma tarefa global
+     * Deve ser chamado fora da thread principal.
+     * @param name Nome da tarefa
+     * @return Documento da tarefa ou null se ainda não foi gravada
+     */
+    public Document getJobDocument(String name) {
+        return getCollection().find(Filters.eq("key", JOB_PREFIX + name)).first();
+    }
+
+    /**
+     * Obtém os documentos de várias tarefas globais em uma única consulta
+     * Deve ser chamado fora da thread principal.
+     * @param names Nomes das tarefas
+     * @return Documentos das tarefas já gravadas
+     */
+    public List<Document> getJobDocuments(Collection<String> names) {
+        List<String> keys = new ArrayList<>(names.size());
+        for (String name : names) {
+            keys.add(JOB_PREFIX + name);
+        }
+        return getCollection().find(Filters.in("key", keys)).into(new ArrayList<>());
+    }
+
+    /**
+     * Grava o primeiro horário de uma tarefa global, se ela ainda não tiver um
+     * Deve ser chamado fora da thread principal.
+     */
+    public void initJob(String name, long nextRun) {
+        getCollection().updateOne(Filters.eq("key", JOB_PREFIX + name),
+                                  Updates.setOnInsert("next_run", nextRun),
+                                  new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * Reivindica uma execução da tarefa, se nenhuma outra estiver em andamento
+     * O próximo horário é gravado na mesma escrita, então o período não roda de novo.
+     * Deve ser chamado fora da thread principal.
+     * @param name Nome da tarefa
+     * @param expectedNextRun Horário lido do banco ou null para qualquer horário (execução manual)
+     * @param nextRun Novo horário ou null para manter o atual
+     * @return true se este servidor reivindicou a execução
+     */
+    public boolean claimJob(String name, Long expectedNextRun, Long nextRun) {
+        long now = System.currentTimeMillis();
+        List<Bson> updates = new ArrayList<>();
+        updates.add(Updates.set("running_node", nodeId));
+        updates.add(Updates.set("running_since", now));
+        if (nextRun != null) {
+            updates.add(Updates.set("next_run", nextRun));
+        }
+        return getCollection().updateOne(
+            Filters.and(Filters.eq("key", JOB_PREFIX + name),
+                        expectedNextRun != null ? Filters.eq("next_run", expectedNextRun) : new Document(),
+                        Filters.or(Filters.exists("running_since", false), Filters.lt("running_since", now - jobTimeoutMillis))),
+            Updates.combine(updates)
+        ).getModifiedCount() == 1;
+    }
+
+    /**
+     * Avança o horário de uma tarefa global sem executá-la (execuções perdidas descartadas)
+     * Deve ser chamado fora da thread principal.
+     * @return true se o horário lido ainda era o gravado
+     */
+    public boolean advanceJob(String name, long expectedNextRun, long nextRun) {
+        return getCollection().updateOne(
+            Filters.and(Filters.eq("key", JOB_PREFIX + name), Filters.eq("next_run", expectedNextRun)),
+            Updates.set("next_run", nextRun)
+        ).getModifiedCount() == 1;
+    }
+
+    /**
+     * Grava as métricas de uma execução de tarefa global
+     * Também usado por tarefas com coordenação própria (ex.: sorteios da loteria).
+     * Deve ser chamado fora da thread principal.
+     * @param name Nome da tarefa
+     * @param durationMillis Duração da execução
+     * @param error Mensagem de erro ou null se a execução teve sucesso
+     */
+    public void recordRun(String name, long durationMillis, String error) {
+        long now = System.currentTimeMillis();
+        try {
+            getCollection().updateOne(Filters.eq("key", JOB_PREFIX + name),
+                Updates.combine(Updates.set("last_run", now),
+                                Updates.set("last_duration_ms", durationMillis),
+                                Updates.set("last_node", nodeId),
+                                error != null ? Updates.set("last_error", error) : Updates.unset("last_error"),
+                                Updates.inc("runs", 1L),
+                                Updates.max("max_duration_ms", durationMillis),
+                                Updates.unset("running_node"),
+                                Updates.unset("running_since")),
+                new UpdateOptions().upsert(true));
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao gravar as métricas da tarefa " + name + ": " + e.getMessage(), e);
+        }
+        plugin.getLogger().info("Tarefa global " + name + (error != null ? " falhou" : " executada") + " em " + durationMillis + " ms.");
+    }
+
+    /**
+     * Obtém o estado das tarefas globais gravado no banco (de todos os servidores)
+     * Campos: key, next_run, last_run, last_duration_ms, max_duration_ms, last_node, last_error, runs,
+     * running_node e running_since.
+     * @return CompletableFuture com os documentos das tarefas, ordenados pelo nome
+     */
+    public CompletableFuture<List<Document>> getJobStatus() {
+        CompletableFuture<List<Document>> future = new CompletableFuture<>();
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    future.complete(getCollection()
+                        .find(Filters.regex("key", "^" + JOB_PREFIX.replace(".", "\\.")))
+                        .sort(Sorts.ascending("key"))
+                        .into(new ArrayList<>()));
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao consultar as tarefas globais: " + e.getMessage(), e);
+                    future.completeExceptionally(e);
+                }
+            }
+        }.runTaskAsynchronously(plugin);
+
+        return future;
+    }
+
+    /**
+     * Verifica se este servidor é o líder das tarefas globais
+     * @return true se a concessão de líder deste servidor ainda é válida
+     */
+    public boolean isLeader() {
+        return leaderTerm >= 0 && System.currentTimeMillis() < leaderUntil;
+    }
+
+    /**
+     * Obtém o intervalo entre os batimentos de liderança
+     * @return Intervalo em milissegundos
+     */
+    public long getHeartbeatMillis() {
+        return heartbeatMillis;
+    }
+
+    /**
+     * Obtém o ID deste servidor, único a cada inicialização
+     * @return ID do servidor
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Obtém o ID do servidor líder, conforme o último batimento
+     * @return ID do líder ou null se desconhecido
+     */
+    public String getLeaderId() {
+        return leaderId;
+    }
+
+    private MongoCollection<Document> getCollection() {
+        return plugin.getMongoDBManager().getConfigCollection();
+    }
+}
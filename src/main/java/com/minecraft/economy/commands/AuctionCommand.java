@@ -0,0 +1,154 @@
+package com.minecraft.economy.commands;
+
+import com.minecraft.economy.auction.AuctionManager;
+import com.minecraft.economy.core.EconomyPlugin;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Comando da casa de leilões
+ */
+public class AuctionCommand implements CommandExecutor, TabCompleter {
+
+    private final AuctionManager auctionManager;
+
+    /**
+     * Construtor do comando de leilões
+     * @param plugin Instância do plugin
+     */
+    public AuctionCommand(EconomyPlugin plugin) {
+        this.auctionManager = plugin.getAuctionManager();
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("§cEste comando só pode ser usado por jogadores.");
+            return true;
+        }
+
+        Player player = (Player) sender;
+
+        if (!player.hasPermission("economy.auction.use")) {
+            player.sendMessage("§cVocê não tem permissão para usar os leilões.");
+            return true;
+        }
+
+        if (args.length == 0) {
+            auctionManager.getAuctionGUI().openBrowser(player);
+            return true;
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "sell":
+                handleSellCommand(player, args);
+                break;
+            case "bid":
+                handleBidCommand(player, args);
+                break;
+            case "cancel":
+                if (args.length < 2) {
+                    player.sendMessage("§cUso correto: /auction cancel <id>");
+                    break;
+                }
+                auctionManager.cancelAuction(player, args[1]);
+                break;
+            case "claim":
+                auctionManager.claim(player);
+                break;
+            case "help":
+                sendHelpMessage(player);
+                break;
+            default:
+                player.sendMessage("§cComando desconhecido. Use /auction help para ver os comandos disponíveis.");
+                break;
+        }
+
+        return true;
+    }
+
+    /**
+     * Processa o comando de colocar o item da mão em leilão
+     */
+    private void handleSellCommand(Player player, String[] args) {
+        if (args.length < 3) {
+            player.sendMessage("§cUso correto: /auction sell <preço> <minutos>");
+            return;
+        }
+
+        double price;
+        int minutes;
+        try {
+            price = Double.parseDouble(args[1]);
+            minutes = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            player.sendMessage("§cPreço ou duração inválidos.");
+            return;
+        }
+
+        if (!Double.isFinite(price) || price <= 0) {
+            player.sendMessage("§cO preço deve ser maior que zero.");
+            return;
+        }
+
+        auctionManager.createAuction(player, price, minutes);
+    }
+
+    /**
+     * Processa o comando de lance
+     */
+    private void handleBidCommand(Player player, String[] args) {
+        if (args.length < 3) {
+            player.sendMessage("§cUso correto: /auction bid <id> <valor>");
+            return;
+        }
+
+        double amount;
+        try {
+            amount = Double.parseDouble(args[2]);
+        } catch (NumberFormatException e) {
+            player.sendMessage("§cValor inválido.");
+            return;
+        }
+
+        if (!Double.isFinite(amount) || amount <= 0) {
+            player.sendMessage("§cO valor deve ser maior que zero.");
+            return;
+        }
+
+        auctionManager.placeBid(player, args[1], amount);
+    }
+
+    /**
+     * Envia a mensagem de ajuda
+     */
+    private void sendHelpMessage(Player player) {
+        player.sendMessage("§a=== Comandos de Leilão ===");
+        player.sendMessage("§7/auction §f- Abre a casa de leilões");
+        player.sendMessage("§7/auction sell <preço> <minutos> §f- Leiloa o item na mão");
+        player.sendMessage("§7/auction bid <id> <valor> §f- Dá um lance (o valor fica retido até ser superado)");
+        player.sendMessage("§7/auction cancel <id> §f- Cancela um leilão seu sem lances");
+        player.sendMessage("§7/auction claim §f- Recebe os itens de leilões encerrados");
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1) {
+            completions.add("sell");
+            completions.add("bid");
+            completions.add("cancel");
+            completions.add("claim");
+            completions.add("help");
+        }
+
+        return completions;
+    }
+}
@@ -1,8 +1,11 @@
 package com.minecraft.economy.commands;
 
 import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.lottery.LotteryPool;
 import com.minecraft.economy.lottery.LotteryTicket;
+import org.bson.Document;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -12,9 +15,9 @@ import org.bukkit.scheduler.BukkitRunnable;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Comandos relacionados à loteria
@@ -24,6 +27,7 @@ public class LotteryCommand implements CommandExecutor {
     private final EconomyPlugin plugin;
     private static final DecimalFormat PRICE_FORMAT = new DecimalFormat("#,##0.00");
     private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+    private static final int HISTORY_LIMIT = 10;
 
     public LotteryCommand(EconomyPlugin plugin) {
         this.plugin = plugin;
@@ -31,6 +35,16 @@ public class LotteryCommand implements CommandExecutor {
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        // A compra já é uma única operação assíncrona; não precisa de outro salto de thread
+        if (args.length > 0 && args[0].equalsIgnoreCase("buy")) {
+            if (!(sender instanceof Player)) {
+                sender.sendMessage("§cApenas jogadores podem comprar bilhetes de loteria.");
+                return true;
+            }
+            buyTickets((Player) sender, args);
+            return true;
+        }
+        
         // Executa IMEDIATAMENTE em uma nova thread para evitar qualquer bloqueio do thread principal
         new BukkitRunnable() {
             @Override
@@ -67,13 +81,6 @@ public class LotteryCommand implements CommandExecutor {
         String subCommand = args[0].toLowerCase();
 
         switch (subCommand) {
-            case "buy":
-                if (!(sender instanceof Player)) {
-                    sendMessage(sender, "§cApenas jogadores podem comprar bilhetes de loteria.");
-                    return;
-                }
-                buyTicket((Player) sender);
-                break;
             case "tickets":
                 if (!(sender instanceof Player)) {
                     sendMessage(sender, "§cApenas jogadores podem ver seus bilhetes.");
@@ -81,12 +88,24 @@ public class LotteryCommand implements CommandExecutor {
                 }
                 showTickets((Player) sender);
                 break;
+            case "history":
+                if (args.length > 1 && resolvePool(sender, args, 1) == null) {
+                    return;
+                }
+                showHistory(sender, args.length > 1 ? args[1].toLowerCase() : null);
+                break;
+            case "stats":
+                showStats(sender, args);
+                break;
             case "draw":
                 if (!sender.hasPermission("economy.lottery.admin")) {
                     sendMessage(sender, "§cVocê não tem permissão para realizar sorteios.");
                     return;
                 }
-                drawLottery(sender);
+                LotteryPool drawPool = resolvePool(sender, args, 1);
+                if (drawPool != null) {
+                    drawLottery(sender, drawPool);
+                }
                 break;
             case "setprice":
                 if (!sender.hasPermission("economy.lottery.admin")) {
@@ -94,40 +113,33 @@ public class LotteryCommand implements CommandExecutor {
                     return;
                 }
                 if (args.length < 2) {
-                    sendMessage(sender, "§cUso correto: /lottery setprice <valor>");
+                    sendMessage(sender, "§cUso correto: /lottery setprice [bolão] <valor>");
+                    return;
+                }
+                LotteryPool pricePool = args.length > 2 ? resolvePool(sender, args, 1) : plugin.getLotteryManager().getDefaultPool();
+                if (pricePool == null) {
                     return;
                 }
                 try {
-                    double price = Double.parseDouble(args[1]);
-                    setTicketPrice(sender, price);
+                    double price = Double.parseDouble(args[args.length > 2 ? 2 : 1]);
+                    setTicketPrice(sender, pricePool, price);
                 } catch (NumberFormatException e) {
                     sendMessage(sender, "§cValor inválido. Use um número válido.");
                 }
                 break;
-            case "settype":
-                if (!sender.hasPermission("economy.lottery.admin")) {
-                    sendMessage(sender, "§cVocê não tem permissão para alterar o tipo da loteria.");
-                    return;
-                }
-                if (args.length < 2) {
-                    sendMessage(sender, "§cUso correto: /lottery settype <daily|weekly|hourly>");
-                    return;
-                }
-                setLotteryType(sender, args[1]);
-                break;
             case "enable":
                 if (!sender.hasPermission("economy.lottery.admin")) {
                     sendMessage(sender, "§cVocê não tem permissão para ativar a loteria.");
                     return;
                 }
-                setLotteryActive(sender, true);
+                setLotteryActive(sender, args, true);
                 break;
             case "disable":
                 if (!sender.hasPermission("economy.lottery.admin")) {
                     sendMessage(sender, "§cVocê não tem permissão para desativar a loteria.");
                     return;
                 }
-                setLotteryActive(sender, false);
+                setLotteryActive(sender, args, false);
                 break;
             case "help":
             default:
@@ -137,64 +149,61 @@ public class LotteryCommand implements CommandExecutor {
     }
 
     /**
-     * Mostra informações da loteria
+     * Mostra informações de todos os bolões da loteria
      */
     private void showLotteryInfo(CommandSender sender) {
-        // Obtém informações da loteria de forma assíncrona
-        CompletableFuture<Double> jackpotFuture = CompletableFuture.supplyAsync(() -> plugin.getLotteryManager().getJackpot());
-        CompletableFuture<Double> ticketPriceFuture = CompletableFuture.supplyAsync(() -> plugin.getLotteryManager().getTicketPrice());
-        CompletableFuture<Long> nextDrawTimeFuture = CompletableFuture.supplyAsync(() -> plugin.getLotteryManager().getNextDrawTime());
-        CompletableFuture<Boolean> activeFuture = CompletableFuture.supplyAsync(() -> plugin.getLotteryManager().isLotteryActive());
-        CompletableFuture<Integer> totalTicketsFuture = CompletableFuture.supplyAsync(() -> plugin.getLotteryManager().countTotalTickets());
-        
-        // Combina todos os futuros para evitar bloqueios
-        CompletableFuture.allOf(jackpotFuture, ticketPriceFuture, nextDrawTimeFuture, activeFuture, totalTicketsFuture)
-            .thenAccept(v -> {
-                double jackpot = jackpotFuture.join();
-                double ticketPrice = ticketPriceFuture.join();
-                long nextDrawTime = nextDrawTimeFuture.join();
-                boolean active = activeFuture.join();
-                int totalTickets = totalTicketsFuture.join();
-                
-                sendMessage(sender, "§a§l=== LOTERIA DO SERVIDOR ===");
-                sendMessage(sender, "§aStatus: " + (active ? "§aAtiva" : "§cDesativada"));
-                sendMessage(sender, "§aPrêmio atual: §f" + PRICE_FORMAT.format(jackpot));
-                sendMessage(sender, "§aPreço do bilhete: §f" + PRICE_FORMAT.format(ticketPrice));
-                sendMessage(sender, "§aPróximo sorteio: §f" + DATE_FORMAT.format(new Date(nextDrawTime)));
-                sendMessage(sender, "§aBilhetes vendidos: §f" + totalTickets);
-                sendMessage(sender, "§aUse §f/lottery buy §apara comprar um bilhete.");
-                sendMessage(sender, "§aUse §f/lottery tickets §apara ver seus bilhetes.");
-            });
+        sendMessage(sender, "§a§l=== LOTERIA DO SERVIDOR ===");
+        for (LotteryPool pool : plugin.getLotteryManager().getPools()) {
+            sendMessage(sender, "§a§l" + pool.getDisplayName() + " §7(" + pool.getId() + ") " +
+                        (pool.isActive() ? "§aAtiva" : "§cDesativada"));
+            sendMessage(sender, "§aPrêmio atual: §f" + PRICE_FORMAT.format(pool.getJackpot()) +
+                        " §a| Bilhete: §f" + PRICE_FORMAT.format(pool.getTicketPrice()) +
+                        " §a| Vendidos: §f" + pool.countTotalTickets());
+            sendMessage(sender, "§aPróximo sorteio: §f" + DATE_FORMAT.format(new Date(pool.getNextDrawTime())));
+        }
+        sendMessage(sender, "§aUse §f/lottery buy [bolão] [quantidade] §apara comprar bilhetes.");
+        sendMessage(sender, "§aUse §f/lottery tickets §apara ver seus bilhetes.");
     }
 
     /**
-     * Compra um bilhete de loteria
+     * Compra bilhetes de loteria (/lottery buy [bolão] [quantidade])
+     * Deve ser chamado na thread principal.
      */
-    private void buyTicket(Player player) {
-        // Verifica se a loteria está ativa de forma assíncrona
-        CompletableFuture.supplyAsync(() -> plugin.getLotteryManager().isLotteryActive())
-            .thenAccept(active -> {
-                if (!active) {
-                    sendMessage(player, "§cA loteria está temporariamente desativada.");
-                    return;
-                }
-                
-                // Inicia o processo de compra de forma totalmente assíncrona
-                plugin.getLotteryManager().buyTicket(player)
-                    .exceptionally(ex -> {
-                        plugin.getLogger().severe("Erro ao comprar bilhete: " + ex.getMessage());
-                        sendMessage(player, "§cOcorreu um erro ao comprar o bilhete. Tente novamente mais tarde.");
-                        return -1;
-                    });
+    private void buyTickets(Player player, String[] args) {
+        LotteryPool pool = plugin.getLotteryManager().getDefaultPool();
+        int amountIndex = 1;
+        if (args.length > 1 && plugin.getLotteryManager().getPool(args[1]) != null) {
+            pool = plugin.getLotteryManager().getPool(args[1]);
+            amountIndex = 2;
+        }
+        
+        int amount = 1;
+        if (args.length > amountIndex) {
+            try {
+                amount = Integer.parseInt(args[amountIndex]);
+            } catch (NumberFormatException e) {
+                player.sendMessage("§cBolão ou quantidade inválida. Bolões: §f" + poolIds());
+                return;
+            }
+            if (amount <= 0) {
+                player.sendMessage("§cA quantidade deve ser maior que zero.");
+                return;
+            }
+        }
+        
+        plugin.getLotteryManager().buyTickets(player, pool, amount)
+            .exceptionally(ex -> {
+                plugin.getLogger().severe("Erro ao comprar bilhetes: " + ex.getMessage());
+                sendMessage(player, "§cOcorreu um erro ao comprar os bilhetes. Tente novamente mais tarde.");
+                return null;
             });
     }
 
     /**
-     * Mostra os bilhetes de um jogador
+     * Mostra os bilhetes de um jogador em todos os bolões
      */
     private void showTickets(Player player) {
-        // Obtém os bilhetes de forma assíncrona
-        CompletableFuture.supplyAsync(() -> plugin.getLotteryManager().getPlayerTickets(player.getUniqueId()))
+        plugin.getLotteryManager().getPlayerTickets(player.getUniqueId())
             .thenAccept(tickets -> {
                 if (tickets.isEmpty()) {
                     sendMessage(player, "§cVocê não possui bilhetes de loteria.");
@@ -202,30 +211,112 @@ public class LotteryCommand implements CommandExecutor {
                 }
                 
                 sendMessage(player, "§a§l=== SEUS BILHETES DE LOTERIA ===");
-                for (int i = 0; i < tickets.size(); i++) {
-                    LotteryTicket ticket = tickets.get(i);
-                    sendMessage(player, "§aBilhete #" + (i + 1) + ": §f" + ticket.getTicketNumber());
+                for (LotteryPool pool : plugin.getLotteryManager().getPools()) {
+                    StringBuilder numbers = new StringBuilder();
+                    for (LotteryTicket ticket : tickets) {
+                        if (!pool.getId().equals(ticket.getDrawType())) {
+                            continue;
+                        }
+                        if (numbers.length() > 0) {
+                            numbers.append(", ");
+                        }
+                        numbers.append(ticket.getTicketNumber());
+                    }
+                    if (numbers.length() == 0) {
+                        continue;
+                    }
+                    sendMessage(player, "§a§l" + pool.getDisplayName() + ": §f" + numbers);
+                    sendMessage(player, "§aPrêmio atual: §f" + PRICE_FORMAT.format(pool.getJackpot()) +
+                                " §a| Próximo sorteio: §f" + DATE_FORMAT.format(new Date(pool.getNextDrawTime())));
+                }
+            })
+            .exceptionally(ex -> {
+                sendMessage(player, "§cOcorreu um erro ao consultar seus bilhetes. Tente novamente mais tarde.");
+                return null;
+            });
+    }
+
+    /**
+     * Mostra os últimos sorteios (/lottery history [bolão])
+     */
+    private void showHistory(CommandSender sender, String poolId) {
+        plugin.getLotteryManager().getHistory().getRecentDraws(poolId, HISTORY_LIMIT)
+            .thenAccept(draws -> {
+                if (draws.isEmpty()) {
+                    sendMessage(sender, "§cNenhum sorteio realizado ainda.");
+                    return;
                 }
                 
-                // Obtém informações adicionais de forma assíncrona
-                CompletableFuture<Double> jackpotFuture = CompletableFuture.supplyAsync(() -> plugin.getLotteryManager().getJackpot());
-                CompletableFuture<Long> nextDrawTimeFuture = CompletableFuture.supplyAsync(() -> plugin.getLotteryManager().getNextDrawTime());
+                sendMessage(sender, "§a§l=== ÚLTIMOS SORTEIOS DA LOTERIA ===");
+                for (Document draw : draws) {
+                    LotteryPool pool = plugin.getLotteryManager().getPool(draw.getString("pool"));
+                    String poolName = pool != null ? pool.getDisplayName() : draw.getString("pool");
+                    sendMessage(sender, "§a" + DATE_FORMAT.format(new Date(draw.getLong("draw_time"))) + " §7- §f" + poolName +
+                                " §a| Prêmio: §f" + PRICE_FORMAT.format(draw.get("pot", Number.class).doubleValue()) +
+                                " §a| Bilhetes: §f" + draw.get("total_tickets", Number.class).longValue());
+                    for (Document winner : draw.getList("winners", Document.class)) {
+                        String winnerName = Bukkit.getOfflinePlayer(UUID.fromString(winner.getString("player_uuid"))).getName();
+                        sendMessage(sender, "  §7" + winner.getInteger("tier") + "º §f" + winnerName + " §7- §f" +
+                                    PRICE_FORMAT.format(winner.get("prize", Number.class).doubleValue()) +
+                                    " §7(bilhete " + winner.getInteger("ticket_number") + ")");
+                    }
+                }
+            })
+            .exceptionally(ex -> {
+                sendMessage(sender, "§cOcorreu um erro ao consultar o histórico. Tente novamente mais tarde.");
+                return null;
+            });
+    }
+
+    /**
+     * Mostra as estatísticas de um jogador na loteria (/lottery stats [jogador])
+     */
+    private void showStats(CommandSender sender, String[] args) {
+        OfflinePlayer target;
+        if (args.length > 1) {
+            target = Bukkit.getOfflinePlayer(args[1]);
+        } else if (sender instanceof Player) {
+            target = (Player) sender;
+        } else {
+            sendMessage(sender, "§cUso correto: /lottery stats <jogador>");
+            return;
+        }
+        String targetName = target.getName() != null ? target.getName() : args[1];
+        
+        plugin.getLotteryManager().getHistory().getPlayerStats(target.getUniqueId())
+            .thenAccept(stats -> {
+                if (stats == null) {
+                    sendMessage(sender, "§c" + targetName + " ainda não participou de nenhum sorteio.");
+                    return;
+                }
                 
-                CompletableFuture.allOf(jackpotFuture, nextDrawTimeFuture)
-                    .thenAccept(v -> {
-                        sendMessage(player, "§aPrêmio atual: §f" + PRICE_FORMAT.format(jackpotFuture.join()));
-                        sendMessage(player, "§aPróximo sorteio: §f" + DATE_FORMAT.format(new Date(nextDrawTimeFuture.join())));
-                    });
+                double spent = stats.get("spent", Number.class).doubleValue();
+                double won = stats.get("total_prize", Number.class).doubleValue();
+                sendMessage(sender, "§a§l=== LOTERIA: " + targetName.toUpperCase() + " ===");
+                sendMessage(sender, "§aSorteios disputados: §f" + stats.get("draws", Number.class).intValue() +
+                            " §a| Bilhetes: §f" + stats.get("tickets", Number.class).intValue());
+                sendMessage(sender, "§aVitórias: §f" + stats.get("wins", Number.class).intValue() +
+                            " §a| Maior prêmio: §f" + PRICE_FORMAT.format(stats.get("best_prize", Number.class).doubleValue()));
+                sendMessage(sender, "§aGasto: §f" + PRICE_FORMAT.format(spent) + " §a| Ganho: §f" + PRICE_FORMAT.format(won) +
+                            " §a| Saldo: " + (won >= spent ? "§a" : "§c") + PRICE_FORMAT.format(won - spent));
+                Number lastWin = stats.get("last_win", Number.class);
+                if (lastWin != null) {
+                    sendMessage(sender, "§aÚltima vitória: §f" + DATE_FORMAT.format(new Date(lastWin.longValue())));
+                }
+            })
+            .exceptionally(ex -> {
+                sendMessage(sender, "§cOcorreu um erro ao consultar as estatísticas. Tente novamente mais tarde.");
+                return null;
             });
     }
 
     /**
-     * Realiza o sorteio da loteria
+     * Realiza o sorteio de um bolão
      */
-    private void drawLottery(CommandSender sender) {
-        sendMessage(sender, "§aIniciando sorteio da loteria...");
+    private void drawLottery(CommandSender sender, LotteryPool pool) {
+        sendMessage(sender, "§aIniciando sorteio da loteria " + pool.getDisplayName() + "...");
         
-        plugin.getLotteryManager().drawLottery()
+        plugin.getLotteryManager().drawLottery(pool)
             .exceptionally(ex -> {
                 plugin.getLogger().severe("Erro ao realizar sorteio: " + ex.getMessage());
                 sendMessage(sender, "§cOcorreu um erro ao realizar o sorteio. Verifique o console para mais detalhes.");
@@ -233,7 +324,7 @@ public class LotteryCommand implements CommandExecutor {
             })
             .thenAccept(winnerId -> {
                 if (winnerId == null) {
-                    sendMessage(sender, "§cNão foi possível realizar o sorteio. Verifique o console para mais detalhes.");
+                    sendMessage(sender, "§cNão foi possível realizar o sorteio (sem bilhetes ou sorteio em andamento).");
                     return;
                 }
                 
@@ -243,72 +334,64 @@ public class LotteryCommand implements CommandExecutor {
     }
 
     /**
-     * Define o preço do bilhete
+     * Define o preço do bilhete de um bolão
      */
-    private void setTicketPrice(CommandSender sender, double price) {
+    private void setTicketPrice(CommandSender sender, LotteryPool pool, double price) {
         if (price <= 0) {
             sendMessage(sender, "§cO preço do bilhete deve ser maior que zero.");
             return;
         }
         
-        // Define o preço de forma assíncrona
-        CompletableFuture.runAsync(() -> {
-            plugin.getLotteryManager().setTicketPrice(price);
-            sendMessage(sender, "§aPreço do bilhete definido para §f" + PRICE_FORMAT.format(price) + "§a.");
-        });
+        plugin.getLotteryManager().setTicketPrice(pool, price);
+        sendMessage(sender, "§aPreço do bilhete da loteria " + pool.getDisplayName() + " definido para §f" +
+                    PRICE_FORMAT.format(price) + "§a.");
     }
 
     /**
-     * Define o tipo da loteria
+     * Ativa ou desativa um bolão (/lottery enable|disable [bolão]); sem bolão, vale para todos
      */
-    private void setLotteryType(CommandSender sender, String type) {
-        type = type.toLowerCase();
-        
-        if (!type.equals("daily") && !type.equals("weekly") && !type.equals("hourly")) {
-            sendMessage(sender, "§cTipo de loteria inválido. Use daily, weekly ou hourly.");
-            return;
+    private void setLotteryActive(CommandSender sender, String[] args, boolean active) {
+        Collection<LotteryPool> targets;
+        if (args.length > 1) {
+            LotteryPool pool = resolvePool(sender, args, 1);
+            if (pool == null) {
+                return;
+            }
+            targets = Collections.singletonList(pool);
+        } else {
+            targets = plugin.getLotteryManager().getPools();
         }
         
-        // Define o tipo de forma assíncrona
-        final String finalType = type;
-        CompletableFuture.runAsync(() -> {
-            plugin.getLotteryManager().setLotteryType(finalType);
-            sendMessage(sender, "§aTipo de loteria definido para §f" + finalType + "§a.");
-            
-            // Traduz o tipo para português na mensagem
-            String tipoTraduzido;
-            switch (finalType) {
-                case "daily":
-                    tipoTraduzido = "diária";
-                    break;
-                case "weekly":
-                    tipoTraduzido = "semanal";
-                    break;
-                case "hourly":
-                    tipoTraduzido = "horária";
-                    break;
-                default:
-                    tipoTraduzido = finalType;
-            }
-            
-            sendMessage(sender, "§aPróximo sorteio agendado. Loteria agora é §f" + tipoTraduzido + "§a.");
-        });
+        for (LotteryPool pool : targets) {
+            plugin.getLotteryManager().setPoolActive(pool, active);
+            sendMessage(sender, "§aLoteria " + pool.getDisplayName() + (active ? " ativada" : " desativada") + " com sucesso!");
+        }
     }
 
     /**
-     * Ativa ou desativa a loteria
+     * Obtém o bolão informado em um argumento, ou o bolão padrão se o argumento não existir
+     * @return Bolão ou null se o ID for inválido (o sender é avisado)
      */
-    private void setLotteryActive(CommandSender sender, boolean active) {
-        // Ativa/desativa de forma assíncrona
-        CompletableFuture.runAsync(() -> {
-            plugin.getLotteryManager().setLotteryActive(active);
-            
-            if (active) {
-                sendMessage(sender, "§aLoteria ativada com sucesso!");
-            } else {
-                sendMessage(sender, "§aLoteria desativada com sucesso!");
+    private LotteryPool resolvePool(CommandSender sender, String[] args, int index) {
+        if (args.length <= index) {
+            return plugin.getLotteryManager().getDefaultPool();
+        }
+        LotteryPool pool = plugin.getLotteryManager().getPool(args[index]);
+        if (pool == null) {
+            sendMessage(sender, "§cBolão inválido. Bolões: §f" + poolIds());
+        }
+        return pool;
+    }
+
+    private String poolIds() {
+        StringBuilder ids = new StringBuilder();
+        for (LotteryPool pool : plugin.getLotteryManager().getPools()) {
+            if (ids.length() > 0) {
+                ids.append(", ");
             }
-        });
+            ids.append(pool.getId());
+        }
+        return ids.toString();
     }
 
     /**
@@ -317,16 +400,17 @@ public class LotteryCommand implements CommandExecutor {
     private void showHelp(CommandSender sender) {
         sendMessage(sender, "§a§l=== COMANDOS DA LOTERIA ===");
         sendMessage(sender, "§a/lottery §7- Mostra informações da loteria");
-        sendMessage(sender, "§a/lottery buy §7- Compra um bilhete de loteria");
+        sendMessage(sender, "§a/lottery buy [bolão] [quantidade] §7- Compra bilhetes de um bolão (um único débito)");
         sendMessage(sender, "§a/lottery tickets §7- Mostra seus bilhetes");
+        sendMessage(sender, "§a/lottery history [bolão] §7- Mostra os últimos sorteios e vencedores");
+        sendMessage(sender, "§a/lottery stats [jogador] §7- Mostra as estatísticas de um jogador na loteria");
         
         if (sender.hasPermission("economy.lottery.admin")) {
             sendMessage(sender, "§a§l=== COMANDOS ADMINISTRATIVOS ===");
-            sendMessage(sender, "§a/lottery draw §7- Realiza o sorteio");
-            sendMessage(sender, "§a/lottery setprice <valor> §7- Define o preço do bilhete");
-            sendMessage(sender, "§a/lottery settype <daily|weekly|hourly> §7- Define o tipo da loteria");
-            sendMessage(sender, "§a/lottery enable §7- Ativa a loteria");
-            sendMessage(sender, "§a/lottery disable §7- Desativa a loteria");
+            sendMessage(sender, "§a/lottery draw [bolão] §7- Realiza um sorteio manual");
+            sendMessage(sender, "§a/lottery setprice [bolão] <valor> §7- Define o preço do bilhete");
+            sendMessage(sender, "§a/lottery enable [bolão] §7- Ativa a loteria (todos os bolões se omitido)");
+            sendMessage(sender, "§a/lottery disable [bolão] §7- Desativa a loteria (todos os bolões se omitido)");
         }
     }
     
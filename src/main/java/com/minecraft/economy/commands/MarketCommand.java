@@ -0,0 +1,270 @@
+package com.minecraft.economy.commands;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.market.Order;
+import com.minecraft.economy.market.OrderBook;
+import com.minecraft.economy.market.OrderBookManager;
+import com.minecraft.economy.utils.ModItemUtils;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Comando do mercado de ordens de compra e venda
+ */
+public class MarketCommand implements CommandExecutor, TabCompleter {
+
+    private final EconomyPlugin plugin;
+    private final OrderBookManager orderBooks;
+
+    /**
+     * Construtor do comando do mercado
+     * @param plugin Instância do plugin
+     */
+    public MarketCommand(EconomyPlugin plugin) {
+        this.plugin = plugin;
+        this.orderBooks = plugin.getOrderBookManager();
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("§cEste comando só pode ser usado por jogadores.");
+            return true;
+        }
+
+        Player player = (Player) sender;
+
+        if (!player.hasPermission("economy.market.use")) {
+            player.sendMessage("§cVocê não tem permissão para usar o mercado.");
+            return true;
+        }
+
+        if (args.length == 0) {
+            sendHelpMessage(player);
+            return true;
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "buy":
+                handleBuyCommand(player, args);
+                break;
+            case "sell":
+                handleSellCommand(player, args);
+                break;
+            case "cancel":
+                handleCancelCommand(player, args);
+                break;
+            case "orders":
+                handleOrdersCommand(player);
+                break;
+            case "book":
+                handleBookCommand(player, args);
+                break;
+            case "claim":
+                orderBooks.claim(player);
+                break;
+            case "help":
+                sendHelpMessage(player);
+                break;
+            default:
+                player.sendMessage("§cComando desconhecido. Use /market help para ver os comandos disponíveis.");
+                break;
+        }
+
+        return true;
+    }
+
+    /**
+     * Processa o comando de ordem de compra
+     */
+    private void handleBuyCommand(Player player, String[] args) {
+        if (args.length < 4) {
+            player.sendMessage("§cUso correto: /market buy <item> <quantidade> <preço>");
+            return;
+        }
+
+        String itemId = resolveItemId(args[1]);
+        if (itemId == null) {
+            player.sendMessage("§cItem desconhecido: §f" + args[1]);
+            return;
+        }
+
+        int quantity = parseQuantity(player, args[2]);
+        double price = parsePrice(player, args[3]);
+        if (quantity <= 0 || price <= 0) {
+            return;
+        }
+
+        orderBooks.placeBuyOrder(player, itemId, quantity, price);
+    }
+
+    /**
+     * Processa o comando de ordem de venda (item na mão)
+     */
+    private void handleSellCommand(Player player, String[] args) {
+        if (args.length < 3) {
+            player.sendMessage("§cUso correto: /market sell <quantidade> <preço>");
+            return;
+        }
+
+        int quantity = parseQuantity(player, args[1]);
+        double price = parsePrice(player, args[2]);
+        if (quantity <= 0 || price <= 0) {
+            return;
+        }
+
+        orderBooks.placeSellOrder(player, quantity, price);
+    }
+
+    /**
+     * Processa o comando de cancelar ordem
+     */
+    private void handleCancelCommand(Player player, String[] args) {
+        if (args.length < 2) {
+            player.sendMessage("§cUso correto: /market cancel <id>");
+            return;
+        }
+
+        orderBooks.cancelOrder(player, args[1]);
+    }
+
+    /**
+     * Processa o comando de listar as ordens do jogador
+     */
+    private void handleOrdersCommand(Player player) {
+        orderBooks.getOrders(player.getUniqueId()).thenAccept(orders -> new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (!player.isOnline()) {
+                    return;
+                }
+                if (orders.isEmpty()) {
+                    player.sendMessage("§cVocê não tem ordens em aberto.");
+                    return;
+                }
+
+                player.sendMessage("§a=== Suas Ordens ===");
+                for (Order order : orders) {
+                    String side = order.getSide() == Order.Side.BUY ? "§2Compra" : "§6Venda";
+                    player.sendMessage("§7" + OrderBookManager.shortId(order) + " " + side + " §f" + order.getRemaining() + "/" +
+                                      order.getQuantity() + "x " + order.getItemId() + " §7a §f" +
+                                      plugin.getEconomyProvider().format(order.getPrice()));
+                }
+            }
+        }.runTask(plugin));
+    }
+
+    /**
+     * Processa o comando de consultar o livro de ofertas de um item
+     */
+    private void handleBookCommand(Player player, String[] args) {
+        if (args.length < 2) {
+            player.sendMessage("§cUso correto: /market book <item>");
+            return;
+        }
+
+        String itemId = resolveItemId(args[1]);
+        if (itemId == null) {
+            player.sendMessage("§cItem desconhecido: §f" + args[1]);
+            return;
+        }
+
+        orderBooks.getDepth(itemId, 5).thenAccept(depth -> new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (!player.isOnline()) {
+                    return;
+                }
+                player.sendMessage("§a=== Livro de ofertas: §f" + itemId + " §a===");
+                if (depth.getAsks().isEmpty() && depth.getBids().isEmpty()) {
+                    player.sendMessage("§7Nenhuma ordem em aberto.");
+                    return;
+                }
+                // Vendas do preço mais alto ao mais baixo, acima das compras
+                for (int i = depth.getAsks().size() - 1; i >= 0; i--) {
+                    OrderBook.Level level = depth.getAsks().get(i);
+                    player.sendMessage("§6Venda §f" + plugin.getEconomyProvider().format(level.getPrice()) + " §7x §f" + level.getQuantity());
+                }
+                for (OrderBook.Level level : depth.getBids()) {
+                    player.sendMessage("§2Compra §f" + plugin.getEconomyProvider().format(level.getPrice()) + " §7x §f" + level.getQuantity());
+                }
+            }
+        }.runTask(plugin));
+    }
+
+    private int parseQuantity(Player player, String input) {
+        try {
+            int quantity = Integer.parseInt(input);
+            if (quantity <= 0) {
+                player.sendMessage("§cA quantidade deve ser maior que zero.");
+            }
+            return quantity;
+        } catch (NumberFormatException e) {
+            player.sendMessage("§cQuantidade inválida.");
+            return 0;
+        }
+    }
+
+    private double parsePrice(Player player, String input) {
+        try {
+            double price = Double.parseDouble(input);
+            // NaN e infinito passariam pela comparação e iriam para o dinheiro retido
+            if (!Double.isFinite(price) || price <= 0) {
+                player.sendMessage("§cO preço deve ser maior que zero.");
+                return 0;
+            }
+            return price;
+        } catch (NumberFormatException e) {
+            player.sendMessage("§cPreço inválido.");
+            return 0;
+        }
+    }
+
+    /**
+     * Converte o nome digitado de um item no ID usado pelo mercado
+     * @param input Nome do item (ex.: diamond, minecraft:diamond ou namespace:key)
+     * @return ID do item, ou null se o item não existir
+     */
+    private String resolveItemId(String input) {
+        ItemStack itemStack = ModItemUtils.createItemStack(input);
+        return itemStack != null ? ModItemUtils.getItemId(itemStack) : null;
+    }
+
+    /**
+     * Envia a mensagem de ajuda
+     */
+    private void sendHelpMessage(Player player) {
+        player.sendMessage("§a=== Comandos do Mercado ===");
+        player.sendMessage("§7/market buy <item> <quantidade> <preço> §f- Cria uma ordem de compra (o valor fica retido)");
+        player.sendMessage("§7/market sell <quantidade> <preço> §f- Cria uma ordem de venda do item na mão (os itens ficam retidos)");
+        player.sendMessage("§7/market cancel <id> §f- Cancela uma ordem e devolve a garantia");
+        player.sendMessage("§7/market orders §f- Lista suas ordens em aberto");
+        player.sendMessage("§7/market book <item> §f- Mostra as melhores ofertas de um item");
+        player.sendMessage("§7/market claim §f- Recebe os itens comprados ou devolvidos");
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1) {
+            completions.add("buy");
+            completions.add("sell");
+            completions.add("cancel");
+            completions.add("orders");
+            completions.add("book");
+            completions.add("claim");
+            completions.add("help");
+        }
+
+        return completions;
+    }
+}
@@ -1,9 +1,13 @@
 package com.minecraft.economy.commands;
 
 import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.playershop.MarketIndex;
 import com.minecraft.economy.playershop.PlayerShop;
 import com.minecraft.economy.playershop.PlayerShopGUI;
 import com.minecraft.economy.playershop.PlayerShopManager;
+import com.minecraft.economy.playershop.PlayerShopSummary;
+import com.minecraft.economy.utils.ModItemUtils;
+import org.bukkit.block.Block;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -32,7 +36,7 @@ public class PlayerShopCommand implements CommandExecutor, TabCompleter {
     public PlayerShopCommand(EconomyPlugin plugin) {
         this.plugin = plugin;
         this.shopManager = plugin.getPlayerShopManager();
-        this.shopGUI = new PlayerShopGUI(plugin, shopManager);
+        this.shopGUI = shopManager.getShopGUI();
     }
 
     @Override
@@ -80,6 +84,18 @@ public class PlayerShopCommand implements CommandExecutor, TabCompleter {
             case "withdraw":
                 handleWithdrawCommand(player, args);
                 break;
+            case "block":
+                handleBlockCommand(player, args);
+                break;
+            case "removeblock":
+                handleRemoveBlockCommand(player);
+                break;
+            case "find":
+                handleFindCommand(player, args);
+                break;
+            case "buycheapest":
+                handleBuyCheapestCommand(player, args);
+                break;
             case "admin":
                 handleAdminCommand(player, args);
                 break;
@@ -148,21 +164,25 @@ public class PlayerShopCommand implements CommandExecutor, TabCompleter {
         // Obtém o ID da loja
         String shopId = args[1];
         
-        // Obtém a loja
-        PlayerShop shop = shopManager.getPlayerShop(shopId);
-        if (shop == null) {
-            player.sendMessage("§cLoja não encontrada.");
-            return;
-        }
-        
-        // Verifica se o jogador é o dono
-        if (shop.getOwnerUUID().equals(player.getUniqueId())) {
-            // Abre o menu de gerenciamento
-            shopGUI.openShopManagementMenu(player, shop);
-        } else {
-            // Abre o menu de compra
-            shopGUI.openShopBuyMenu(player, shop);
-        }
+        // Obtém a loja, carregando-a se necessário
+        shopManager.loadPlayerShop(shopId).thenAccept(shop -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            if (shop == null) {
+                player.sendMessage("§cLoja não encontrada.");
+                return;
+            }
+            
+            // Verifica se o jogador é o dono
+            if (shop.getOwnerUUID().equals(player.getUniqueId())) {
+                // Abre o menu de gerenciamento
+                shopGUI.openShopManagementMenu(player, shop);
+            } else {
+                // Abre o menu de compra
+                shopGUI.openShopBuyMenu(player, shop);
+            }
+        });
     }
 
     /**
@@ -332,6 +352,128 @@ public class PlayerShopCommand implements CommandExecutor, TabCompleter {
         }
     }
 
+    /**
+     * Processa o comando de transformar um baú ou placa em bloco de loja
+     */
+    private void handleBlockCommand(Player player, String[] args) {
+        // Verifica argumentos
+        if (args.length < 2) {
+            player.sendMessage("§cUso correto: /playershop block <preço>");
+            return;
+        }
+        
+        // Obtém o preço
+        double price;
+        try {
+            price = Double.parseDouble(args[1]);
+        } catch (NumberFormatException e) {
+            player.sendMessage("§cPreço inválido.");
+            return;
+        }
+        
+        if (price <= 0) {
+            player.sendMessage("§cO preço deve ser maior que zero.");
+            return;
+        }
+        
+        Block target = player.getTargetBlockExact(5);
+        if (target == null) {
+            player.sendMessage("§cOlhe para um baú, barril ou para uma placa presa a um deles.");
+            return;
+        }
+        
+        shopManager.getShopBlockManager().createShopBlock(player, target, price);
+    }
+
+    /**
+     * Processa o comando de remover um bloco de loja
+     */
+    private void handleRemoveBlockCommand(Player player) {
+        Block target = player.getTargetBlockExact(5);
+        if (target == null) {
+            player.sendMessage("§cOlhe para o baú ou placa da loja.");
+            return;
+        }
+        
+        shopManager.getShopBlockManager().removeShopBlock(player, target);
+    }
+
+    /**
+     * Processa o comando de procurar um item nas lojas
+     */
+    private void handleFindCommand(Player player, String[] args) {
+        // Verifica argumentos
+        if (args.length < 2) {
+            player.sendMessage("§cUso correto: /playershop find <item>");
+            return;
+        }
+        
+        String itemId = resolveItemId(args[1]);
+        if (itemId == null) {
+            player.sendMessage("§cItem desconhecido: §f" + args[1]);
+            return;
+        }
+        
+        shopManager.findListings(itemId, 10).thenAccept(listings -> {
+            if (listings.isEmpty()) {
+                player.sendMessage("§cNenhuma loja vende §f" + itemId + "§c.");
+                return;
+            }
+            
+            player.sendMessage("§aLojas que vendem §f" + itemId + " §a(mais baratas primeiro):");
+            for (MarketIndex.Entry entry : listings) {
+                player.sendMessage("§7- §f" + plugin.getEconomyProvider().format(entry.getPrice()) + " §7cada | estoque §f" + 
+                                  entry.getItem().getStock() + " §7| §f" + entry.getShop().getShopName() + 
+                                  " §7(" + entry.getShop().getOwnerName() + ")");
+            }
+        });
+    }
+
+    /**
+     * Processa o comando de comprar um item da loja mais barata
+     */
+    private void handleBuyCheapestCommand(Player player, String[] args) {
+        // Verifica argumentos
+        if (args.length < 2) {
+            player.sendMessage("§cUso correto: /playershop buycheapest <item> [quantidade]");
+            return;
+        }
+        
+        String itemId = resolveItemId(args[1]);
+        if (itemId == null) {
+            player.sendMessage("§cItem desconhecido: §f" + args[1]);
+            return;
+        }
+        
+        // Obtém a quantidade
+        int amount = 1;
+        if (args.length >= 3) {
+            try {
+                amount = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                player.sendMessage("§cQuantidade inválida.");
+                return;
+            }
+        }
+        
+        if (amount <= 0) {
+            player.sendMessage("§cA quantidade deve ser maior que zero.");
+            return;
+        }
+        
+        shopManager.buyCheapest(player, itemId, amount);
+    }
+
+    /**
+     * Converte o nome digitado de um item no ID usado pelos anúncios
+     * @param input Nome do item (ex.: diamond, minecraft:diamond ou namespace:key)
+     * @return ID do item, ou null se o item não existir
+     */
+    private String resolveItemId(String input) {
+        ItemStack itemStack = ModItemUtils.createItemStack(input);
+        return itemStack != null ? ModItemUtils.getItemId(itemStack) : null;
+    }
+
     /**
      * Processa comandos administrativos
      */
@@ -380,8 +522,8 @@ public class PlayerShopCommand implements CommandExecutor, TabCompleter {
         String playerName = args[2];
         UUID playerUUID = plugin.getServer().getOfflinePlayer(playerName).getUniqueId();
         
-        // Obtém as lojas do jogador
-        List<PlayerShop> playerShops = shopManager.getPlayerShopsByOwner(playerUUID);
+        // Obtém as lojas do jogador (inclusive as não carregadas)
+        List<PlayerShopSummary> playerShops = shopManager.getShopSummariesByOwner(playerUUID);
         if (playerShops.isEmpty()) {
             player.sendMessage("§cO jogador não tem nenhuma loja.");
             return;
@@ -389,7 +531,7 @@ public class PlayerShopCommand implements CommandExecutor, TabCompleter {
         
         // Lista as lojas
         player.sendMessage("§aLojas de §f" + playerName + "§a:");
-        for (PlayerShop shop : playerShops) {
+        for (PlayerShopSummary shop : playerShops) {
             player.sendMessage("§7- §f" + shop.getShopName() + " §7(ID: §f" + shop.getId().toString() + "§7)");
         }
     }
@@ -407,8 +549,14 @@ public class PlayerShopCommand implements CommandExecutor, TabCompleter {
         // Obtém o ID da loja
         String shopId = args[2];
         
-        // Deleta a loja
-        shopManager.deletePlayerShop(shopId, player);
+        // Carrega a loja se necessário e a deleta
+        shopManager.loadPlayerShop(shopId).thenAccept(shop -> {
+            if (shop == null) {
+                player.sendMessage("§cLoja não encontrada.");
+                return;
+            }
+            shopManager.deletePlayerShop(shopId, player);
+        });
     }
 
     /**
@@ -453,10 +601,14 @@ public class PlayerShopCommand implements CommandExecutor, TabCompleter {
         player.sendMessage("§7/playershop create <nome> §f- Cria uma nova loja");
         player.sendMessage("§7/playershop list §f- Lista suas lojas");
         player.sendMessage("§7/playershop open <id> §f- Abre uma loja para gerenciamento");
-        player.sendMessage("§7/playershop add <preço> §f- Adiciona o item na mão à loja");
+        player.sendMessage("§7/playershop add <preço> §f- Adiciona o item na mão à loja (preço por unidade)");
         player.sendMessage("§7/playershop remove <id> §f- Remove um item da loja");
         player.sendMessage("§7/playershop setprice <id> <preço> §f- Altera o preço de um item");
         player.sendMessage("§7/playershop withdraw §f- Retira o dinheiro acumulado na loja");
+        player.sendMessage("§7/playershop block <preço> §f- Vende o item na mão pelo baú (ou placa) para onde você está olhando");
+        player.sendMessage("§7/playershop removeblock §f- Remove o baú (ou placa) de loja para onde você está olhando");
+        player.sendMessage("§7/playershop find <item> §f- Lista as lojas que vendem um item, da mais barata à mais cara");
+        player.sendMessage("§7/playershop buycheapest <item> [quantidade] §f- Compra um item da loja mais barata");
         
         if (player.hasPermission("economy.playershop.admin")) {
             player.sendMessage("§a=== Comandos Administrativos ===");
@@ -479,6 +631,10 @@ public class PlayerShopCommand implements CommandExecutor, TabCompleter {
             completions.add("remove");
             completions.add("setprice");
             completions.add("withdraw");
+            completions.add("block");
+            completions.add("removeblock");
+            completions.add("find");
+            completions.add("buycheapest");
             completions.add("help");
             
             if (sender.hasPermission("economy.playershop.admin")) {
@@ -21,7 +21,7 @@ public class ShopCommand implements CommandExecutor {
      */
     public ShopCommand(EconomyPlugin plugin) {
         this.plugin = plugin;
-        this.shopGUI = new ShopGUI(plugin, plugin.getShopManager());
+        this.shopGUI = plugin.getShopManager().getShopGUI();
     }
 
     @Override
@@ -46,6 +46,10 @@ public class ShopCommand implements CommandExecutor {
                 // Abre o menu de venda
                 shopGUI.openSellMenu(player);
                 break;
+            case "sellall":
+                // Vende todos os itens aceitos pela loja
+                plugin.getShopManager().sellAll(player);
+                break;
             case "category":
                 if (args.length < 2) {
                     player.sendMessage("§cUso correto: /shop category <categoria>");
@@ -56,7 +60,7 @@ public class ShopCommand implements CommandExecutor {
                 shopGUI.openCategoryMenu(player, categoryId);
                 break;
             default:
-                player.sendMessage("§cComando desconhecido. Use /shop para abrir a loja ou /shop sell para vender itens.");
+                player.sendMessage("§cComando desconhecido. Use /shop para abrir a loja ou /shop sell para vender itens ou /shop sellall para vender tudo.");
                 break;
         }
         
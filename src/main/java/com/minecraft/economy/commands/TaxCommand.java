@@ -1,17 +1,16 @@
 package com.minecraft.economy.commands;
 
+import com.minecraft.economy.cluster.BalanceCacheSync;
+import com.minecraft.economy.cluster.ClusterCoordinator;
 import com.minecraft.economy.core.EconomyPlugin;
-import org.bukkit.Bukkit;
+import com.minecraft.economy.scheduler.ScheduledJob;
+import org.bson.Document;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
+import java.util.Locale;
 
 /**
  * Comando para gerenciar impostos e dinheiro rotativo
@@ -90,6 +89,9 @@ public class TaxCommand implements CommandExecutor {
             case "decay":
                 applyInactivityDecay(sender);
                 break;
+            case "status":
+                showJobStatus(sender);
+                break;
             default:
                 showHelp(sender);
                 break;
@@ -106,110 +108,15 @@ public class TaxCommand implements CommandExecutor {
         sendMessage(sender, "§e/tax rate <taxa> §7- Define a taxa de imposto sobre riqueza");
         sendMessage(sender, "§e/tax threshold <valor> §7- Define o limite para aplicação de imposto");
         sendMessage(sender, "§e/tax decay §7- Aplica decaimento por inatividade");
+        sendMessage(sender, "§e/tax status §7- Mostra o servidor líder e as métricas das tarefas agendadas");
     }
     
     /**
-     * Aplica impostos sobre riqueza
+     * Aplica impostos sobre riqueza neste servidor, registrando a execução da tarefa global
      */
     private void applyTaxes(CommandSender sender) {
         sendMessage(sender, "§6Aplicando impostos sobre riqueza...");
-        
-        double taxRate = plugin.getConfigManager().getWealthTaxRate();
-        double threshold = plugin.getConfigManager().getWealthTaxThreshold();
-        
-        // Obtém todos os jogadores com saldo acima do limite
-        plugin.getAsyncMongoDBManager().getDatabase().getCollection("players").find()
-            .forEach(doc -> {
-                String uuidStr = doc.getString("uuid");
-                double balance = doc.getDouble("balance");
-                
-                if (balance > threshold) {
-                    UUID playerId = UUID.fromString(uuidStr);
-                    double taxAmount = (balance - threshold) * taxRate;
-                    
-                    // Cobra o imposto
-                    plugin.getAsyncMongoDBManager().withdraw(playerId, taxAmount, "Imposto sobre riqueza")
-                        .thenAccept(success -> {
-                            if (success) {
-                                // Registra o imposto coletado
-                                plugin.getConfigDatabase().getConfig("tax_collected", 0.0)
-                                    .thenAccept(currentTaxes -> {
-                                        double newTotal = currentTaxes + taxAmount;
-                                        plugin.getConfigDatabase().setConfig("tax_collected", newTotal);
-                                    });
-                                
-                                // Notifica o jogador se estiver online
-                                Player player = Bukkit.getPlayer(playerId);
-                                if (player != null) {
-                                    sendMessage(player, "§cVocê pagou §f" + String.format("%.2f", taxAmount) + " §cde imposto sobre riqueza.");
-                                }
-                            }
-                        });
-                }
-            });
-        
-        // Redistribui parte dos impostos coletados
-        redistributeTaxes();
-        
-        sendMessage(sender, "§aImpostos aplicados com sucesso!");
-    }
-    
-    /**
-     * Redistribui parte dos impostos coletados
-     */
-    private void redistributeTaxes() {
-        plugin.getConfigDatabase().getConfig("tax_collected", 0.0)
-            .thenAccept(taxCollected -> {
-                if (taxCollected <= 0) {
-                    return;
-                }
-                
-                double redistributionRate = plugin.getConfigManager().getTaxRedistributionRate();
-                double amountToRedistribute = taxCollected * redistributionRate;
-                
-                if (amountToRedistribute <= 0) {
-                    return;
-                }
-                
-                // Obtém todos os jogadores ativos
-                List<UUID> activePlayers = new ArrayList<>();
-                
-                plugin.getAsyncMongoDBManager().getDatabase().getCollection("players").find()
-                    .forEach(doc -> {
-                        String uuidStr = doc.getString("uuid");
-                        long lastActivity = doc.getLong("last_activity");
-                        
-                        // Considera jogadores ativos nos últimos 7 dias
-                        if (System.currentTimeMillis() - lastActivity < 7 * 24 * 60 * 60 * 1000) {
-                            activePlayers.add(UUID.fromString(uuidStr));
-                        }
-                    });
-                
-                if (activePlayers.isEmpty()) {
-                    return;
-                }
-                
-                // Calcula o valor a ser distribuído para cada jogador
-                double amountPerPlayer = amountToRedistribute / activePlayers.size();
-                
-                // Distribui o dinheiro
-                for (UUID playerId : activePlayers) {
-                    plugin.getAsyncMongoDBManager().deposit(playerId, amountPerPlayer, "Redistribuição de impostos")
-                        .thenAccept(success -> {
-                            if (success) {
-                                // Notifica o jogador se estiver online
-                                Player player = Bukkit.getPlayer(playerId);
-                                if (player != null) {
-                                    sendMessage(player, "§aVocê recebeu §f" + String.format("%.2f", amountPerPlayer) + " §ada redistribuição de impostos.");
-                                }
-                            }
-                        });
-                }
-                
-                // Atualiza o valor de impostos coletados
-                double remainingTaxes = taxCollected - amountToRedistribute;
-                plugin.getConfigDatabase().setConfig("tax_collected", remainingTaxes);
-            });
+        runGlobalJob(sender, "wealth_tax", "§aImpostos aplicados com sucesso!");
     }
     
     /**
@@ -283,42 +190,101 @@ public class TaxCommand implements CommandExecutor {
     }
     
     /**
-     * Aplica decaimento por inatividade
+     * Aplica decaimento por inatividade neste servidor, registrando a execução da tarefa global
      */
     private void applyInactivityDecay(CommandSender sender) {
         sendMessage(sender, "§6Aplicando decaimento por inatividade...");
-        
-        int inactivityPeriod = plugin.getConfigManager().getInactivityPeriod();
-        double decayRate = plugin.getConfigManager().getInactivityDecayRate();
-        long inactivityThreshold = System.currentTimeMillis() - (inactivityPeriod * 24 * 60 * 60 * 1000);
-        
-        // Obtém todos os jogadores inativos
-        plugin.getAsyncMongoDBManager().getDatabase().getCollection("players").find()
-            .forEach(doc -> {
-                String uuidStr = doc.getString("uuid");
-                double balance = doc.getDouble("balance");
-                long lastActivity = doc.getLong("last_activity");
-                
-                if (lastActivity < inactivityThreshold && balance > 0) {
-                    UUID playerId = UUID.fromString(uuidStr);
-                    double decayAmount = balance * decayRate;
-                    
-                    // Aplica o decaimento
-                    plugin.getAsyncMongoDBManager().withdraw(playerId, decayAmount, "Decaimento por inatividade")
-                        .thenAccept(success -> {
-                            if (success) {
-                                // Registra o decaimento
-                                plugin.getConfigDatabase().getConfig("decay_collected", 0.0)
-                                    .thenAccept(currentDecay -> {
-                                        double newTotal = currentDecay + decayAmount;
-                                        plugin.getConfigDatabase().setConfig("decay_collected", newTotal);
-                                    });
-                            }
-                        });
+        runGlobalJob(sender, "inactivity_decay", "§aDecaimento por inatividade aplicado com sucesso!");
+    }
+    
+    private void runGlobalJob(CommandSender sender, String job, String successMessage) {
+        plugin.getScheduler().runNow(job).thenAccept(executed -> {
+            if (executed) {
+                sendMessage(sender, successMessage);
+            } else {
+                sendMessage(sender, "§cA tarefa já está em execução em algum servidor. Tente novamente mais tarde.");
+            }
+        });
+    }
+    
+    /**
+     * Mostra o líder, o estado das tarefas globais de todos os servidores e as métricas das tarefas
+     * locais deste servidor
+     */
+    private void showJobStatus(CommandSender sender) {
+        ClusterCoordinator coordinator = plugin.getClusterCoordinator();
+        coordinator.getJobStatus().thenAccept(jobs -> {
+            String leader = coordinator.getLeaderId();
+            sendMessage(sender, "§6=== Tarefas Globais ===");
+            sendMessage(sender, "§eServidor líder: §f" + (leader == null ? "desconhecido" : shortId(leader)) +
+                                (coordinator.isLeader() ? " §a(este servidor)" : ""));
+            BalanceCacheSync balanceSync = plugin.getBalanceCacheSync();
+            sendMessage(sender, "§eSincronização de saldos: §f" + balanceSync.getMode().name().toLowerCase(Locale.ROOT) +
+                                (balanceSync.isSynced() ? " §a(em dia)" : " §c(interrompida)") +
+                                " §7- cache válido por §f" + formatDuration(balanceSync.getCacheTtlMillis()));
+            long now = System.currentTimeMillis();
+            for (Document job : jobs) {
+                String name = job.getString("key").substring("job.".length());
+                Number lastRun = job.get("last_run", Number.class);
+                Number nextRun = job.get("next_run", Number.class);
+                StringBuilder line = new StringBuilder("§e" + name + "§7: ");
+                if (job.containsKey("running_node")) {
+                    line.append("§bem execução em ").append(shortId(job.getString("running_node"))).append("§7, ");
                 }
-            });
-        
-        sendMessage(sender, "§aDecaimento por inatividade aplicado com sucesso!");
+                if (lastRun == null) {
+                    line.append("nunca executada");
+                } else {
+                    line.append("última há §f").append(formatDuration(now - lastRun.longValue()))
+                        .append(" §7em §f").append(job.get("last_duration_ms", Number.class).longValue()).append(" ms")
+                        .append(" §7(máx. ").append(job.get("max_duration_ms", Number.class).longValue()).append(" ms, ")
+                        .append(job.get("runs", Number.class).longValue()).append(" execuções, servidor ")
+                        .append(shortId(job.getString("last_node"))).append(")");
+                }
+                if (nextRun != null && nextRun.longValue() > now) {
+                    line.append("§7, próxima em §f").append(formatDuration(nextRun.longValue() - now));
+                }
+                sendMessage(sender, line.toString());
+                if (job.containsKey("last_error")) {
+                    sendMessage(sender, "  §cÚltimo erro: " + job.getString("last_error"));
+                }
+            }
+            
+            sendMessage(sender, "§6=== Tarefas Locais deste Servidor ===");
+            for (ScheduledJob job : plugin.getScheduler().getJobs()) {
+                if (job.isGlobal()) {
+                    continue;
+                }
+                StringBuilder line = new StringBuilder("§e" + job.getName() + " §7(" + job.getSpec() + "): §f")
+                    .append(job.getRuns()).append(" §7execuções, média §f")
+                    .append(String.format("%.1f", job.getAverageDurationMillis())).append(" ms§7, máx. §f")
+                    .append(String.format("%.1f", job.getMaxDurationMillis())).append(" ms");
+                if (job.getFailures() > 0) {
+                    line.append("§7, §c").append(job.getFailures()).append(" falhas");
+                }
+                if (job.getOverlaps() > 0) {
+                    line.append("§7, §e").append(job.getOverlaps()).append(" puladas por sobreposição");
+                }
+                sendMessage(sender, line.toString());
+            }
+        }).exceptionally(e -> {
+            sendMessage(sender, "§cOcorreu um erro ao consultar as tarefas globais.");
+            return null;
+        });
+    }
+    
+    private static String shortId(String nodeId) {
+        return nodeId.length() > 8 ? nodeId.substring(0, 8) : nodeId;
+    }
+    
+    private static String formatDuration(long millis) {
+        if (millis < 60_000L) {
+            return (millis / 1000L) + "s";
+        }
+        long minutes = millis / 60_000L;
+        if (minutes < 60) {
+            return minutes + "min";
+        }
+        return (minutes / 60) + "h" + (minutes % 60) + "min";
     }
     
     /**
@@ -1,7 +1,14 @@
 package com.minecraft.economy.core;
 
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
 /**
  * Gerenciador de configurações do plugin
  */
@@ -47,11 +54,35 @@ public class ConfigManager {
         config.addDefault("mongodb.socket_timeout", 5000);
         config.addDefault("mongodb.max_wait_time", 5000);
         
+        // Configurações da loja
+        config.addDefault("shop.purchase_latency_budget_ms", 250);
+        
+        // Configurações das lojas de jogadores
+        config.addDefault("playershop.idle_unload_minutes", 10);
+        config.addDefault("playershop.block_radius", 16);
+        config.addDefault("playershop.reprice_interval_minutes", 60);
+        config.addDefault("playershop.reprice_max_step", 0.1);
+        
+        // Configurações do mercado de ordens
+        config.addDefault("market.max_orders_per_player", 20);
+        config.addDefault("market.flush_interval_ticks", 20);
+        
+        // Configurações da casa de leilões
+        config.addDefault("auction.min_duration_minutes", 5);
+        config.addDefault("auction.max_duration_minutes", 2880);
+        config.addDefault("auction.max_per_player", 10);
+        config.addDefault("auction.min_increment_percent", 5.0);
+        config.addDefault("auction.snipe_extension_seconds", 30);
+        
         // Configurações de loteria
         config.addDefault("lottery.ticket_price", 100.0);
-        config.addDefault("lottery.draw_interval", 86400000); // 24 horas em milissegundos
         config.addDefault("lottery.max_tickets_per_player", 5);
         config.addDefault("lottery.enabled", true);
+        config.addDefault("lottery.prize_tiers", Collections.singletonList(100.0));
+        config.addDefault("lottery.jackpot_flush_ticks", 100);
+        config.addDefault("lottery.default_pool", "daily");
+        config.addDefault("lottery.sync_interval_seconds", 5);
+        config.addDefault("lottery.lease_seconds", 60);
         
         config.options().copyDefaults(true);
         plugin.saveConfig();
@@ -137,6 +168,201 @@ public class ConfigManager {
         return config.getDouble("economy.inactivity_decay_rate", 0.01);
     }
 
+    /**
+     * Verifica se o imposto sobre riqueza é aplicado periodicamente
+     * @return true se o imposto periódico está ativo
+     */
+    public boolean isWealthTaxEnabled() {
+        return config.getBoolean("taxes.wealth_tax.enabled", true);
+    }
+
+    /**
+     * Verifica se o decaimento por inatividade é aplicado periodicamente
+     * @return true se o decaimento periódico está ativo
+     */
+    public boolean isInactivityDecayEnabled() {
+        return config.getBoolean("taxes.inactivity_decay.enabled", true);
+    }
+
+    /**
+     * Obtém o intervalo entre as atualizações dos preços da loja do servidor
+     * @return Intervalo em minutos
+     */
+    public long getShopUpdateIntervalMinutes() {
+        return Math.max(1, config.getLong("shop.update_interval", 30));
+    }
+
+    /**
+     * Obtém o agendamento configurado para uma tarefa (intervalo como "30m" ou expressão cron)
+     * @param job Nome da tarefa
+     * @return Agendamento ou null para usar o padrão da tarefa
+     */
+    public String getSchedulerJobSpec(String job) {
+        return config.getString("scheduler.jobs." + job + ".schedule");
+    }
+
+    /**
+     * Obtém a política de recuperação configurada para uma tarefa global (skip, once ou all)
+     * @param job Nome da tarefa
+     * @return Nome da política ou null para usar o padrão da tarefa
+     */
+    public String getSchedulerJobCatchUp(String job) {
+        return config.getString("scheduler.jobs." + job + ".catch_up");
+    }
+
+    /**
+     * Obtém o atraso aleatório máximo somado a cada horário de uma tarefa
+     * @param job Nome da tarefa
+     * @return Atraso em segundos
+     */
+    public long getSchedulerJobJitterSeconds(String job) {
+        return Math.max(0, config.getLong("scheduler.jobs." + job + ".jitter_seconds", 0));
+    }
+
+    /**
+     * Obtém o intervalo entre os batimentos da coordenação dos servidores
+     * @return Intervalo em segundos
+     */
+    public long getClusterHeartbeatSeconds() {
+        return Math.max(1, config.getLong("cluster.heartbeat_seconds", 5));
+    }
+
+    /**
+     * Obtém a duração da concessão de líder das tarefas globais (deve cobrir vários batimentos)
+     * @return Duração em segundos
+     */
+    public long getClusterLeaseSeconds() {
+        return Math.max(3, config.getLong("cluster.leader_lease_seconds", 30));
+    }
+
+    /**
+     * Obtém o tempo após o qual uma execução de tarefa global sem conclusão é considerada abandonada
+     * @return Tempo em minutos
+     */
+    public long getClusterJobTimeoutMinutes() {
+        return Math.max(1, config.getLong("cluster.job_timeout_minutes", 30));
+    }
+
+    /**
+     * Obtém a forma de sincronização dos saldos em cache entre servidores (auto, poll ou off)
+     * @return Forma de sincronização
+     */
+    public String getBalanceSyncMode() {
+        return config.getString("cluster.balance_sync", "auto").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Obtém a validade de um saldo em cache enquanto a sincronização entre servidores está em dia
+     * @return Validade em minutos
+     */
+    public long getBalanceCacheMinutes() {
+        return Math.max(1, config.getLong("cluster.balance_cache_minutes", 360));
+    }
+
+    /**
+     * Obtém a validade de um saldo em cache sem sincronização entre servidores
+     * @return Validade em segundos
+     */
+    public long getBalanceCacheUnsyncedSeconds() {
+        return Math.max(1, config.getLong("cluster.balance_cache_unsynced_seconds", 30));
+    }
+
+    /**
+     * Obtém o tempo máximo esperado para uma compra na loja, do clique à entrega
+     * @return Orçamento de latência em milissegundos
+     */
+    public long getPurchaseLatencyBudget() {
+        return config.getLong("shop.purchase_latency_budget_ms", 250);
+    }
+
+    /**
+     * Obtém por quanto tempo uma loja de jogador pode ficar ociosa antes de ser descarregada da memória
+     * @return Tempo em minutos
+     */
+    public int getPlayerShopIdleUnloadMinutes() {
+        return config.getInt("playershop.idle_unload_minutes", 10);
+    }
+
+    /**
+     * Obtém a distância máxima entre um bloco de loja (baú ou placa) e a localização da loja
+     * @return Distância em blocos
+     */
+    public int getPlayerShopBlockRadius() {
+        return config.getInt("playershop.block_radius", 16);
+    }
+
+    /**
+     * Obtém o intervalo entre os repreços dos anúncios com preço dinâmico
+     * @return Intervalo em minutos
+     */
+    public int getPlayerShopRepriceIntervalMinutes() {
+        return Math.max(1, config.getInt("playershop.reprice_interval_minutes", 60));
+    }
+
+    /**
+     * Obtém a variação máxima de preço de um anúncio dinâmico por repreço
+     * @return Variação máxima (0.1 = 10%)
+     */
+    public double getPlayerShopRepriceMaxStep() {
+        return Math.max(0.0, Math.min(0.5, config.getDouble("playershop.reprice_max_step", 0.1)));
+    }
+
+    /**
+     * Obtém o número máximo de ordens em aberto por jogador no mercado
+     * @return Número máximo de ordens
+     */
+    public int getMaxOrdersPerPlayer() {
+        return config.getInt("market.max_orders_per_player", 20);
+    }
+
+    /**
+     * Obtém o intervalo entre as gravações em lote do mercado de ordens
+     * @return Intervalo em ticks
+     */
+    public long getMarketFlushIntervalTicks() {
+        return Math.max(1, config.getLong("market.flush_interval_ticks", 20));
+    }
+
+    /**
+     * Obtém a duração mínima de um leilão
+     * @return Duração mínima em minutos
+     */
+    public int getAuctionMinDurationMinutes() {
+        return config.getInt("auction.min_duration_minutes", 5);
+    }
+
+    /**
+     * Obtém a duração máxima de um leilão
+     * @return Duração máxima em minutos
+     */
+    public int getAuctionMaxDurationMinutes() {
+        return config.getInt("auction.max_duration_minutes", 2880);
+    }
+
+    /**
+     * Obtém o número máximo de leilões ativos por jogador
+     * @return Número máximo de leilões
+     */
+    public int getMaxAuctionsPerPlayer() {
+        return config.getInt("auction.max_per_player", 10);
+    }
+
+    /**
+     * Obtém o aumento mínimo de um lance sobre o lance atual
+     * @return Aumento mínimo em porcentagem
+     */
+    public double getAuctionMinIncrementPercent() {
+        return config.getDouble("auction.min_increment_percent", 5.0);
+    }
+
+    /**
+     * Obtém a janela final em que um lance prorroga o leilão
+     * @return Janela em segundos
+     */
+    public int getAuctionSnipeExtensionSeconds() {
+        return config.getInt("auction.snipe_extension_seconds", 30);
+    }
+
     /**
      * Obtém o preço do bilhete de loteria
      * @return Preço do bilhete de loteria
@@ -145,12 +371,135 @@ public class ConfigManager {
         return config.getDouble("lottery.ticket_price", 100.0);
     }
 
+
+    /**
+     * Obtém o intervalo entre as gravações das contribuições ao prêmio da loteria
+     * @return Intervalo em ticks
+     */
+    public long getLotteryJackpotFlushTicks() {
+        return Math.max(1, config.getLong("lottery.jackpot_flush_ticks", 100));
+    }
+
+    /**
+     * Obtém as faixas de prêmio da loteria, em porcentagem do jackpot (a primeira é o prêmio principal)
+     * Se a soma passar de 100%, as faixas são reduzidas proporcionalmente.
+     * @return Porcentagem do jackpot de cada faixa
+     */
+    public List<Double> getLotteryPrizeTiers() {
+        List<Double> tiers = new ArrayList<>();
+        double sum = 0;
+        for (double share : config.getDoubleList("lottery.prize_tiers")) {
+            if (share > 0) {
+                tiers.add(share);
+                sum += share;
+            }
+        }
+        if (tiers.isEmpty()) {
+            tiers.add(100.0);
+        } else if (sum > 100.0) {
+            for (int i = 0; i < tiers.size(); i++) {
+                tiers.set(i, tiers.get(i) * 100.0 / sum);
+            }
+        }
+        return tiers;
+    }
+
+    /**
+     * Obtém os IDs dos bolões da loteria (seção lottery.pools)
+     * Sem a seção, usa os bolões horário, diário e semanal.
+     * @return IDs dos bolões, na ordem da configuração
+     */
+    public List<String> getLotteryPoolIds() {
+        ConfigurationSection section = config.getConfigurationSection("lottery.pools");
+        if (section == null || section.getKeys(false).isEmpty()) {
+            return Arrays.asList("hourly", "daily", "weekly");
+        }
+        return new ArrayList<>(section.getKeys(false));
+    }
+
+    /**
+     * Obtém o intervalo entre as leituras do estado dos bolões gravado pelos outros servidores
+     * @return Intervalo em segundos
+     */
+    public long getLotterySyncIntervalSeconds() {
+        return Math.max(1, config.getLong("lottery.sync_interval_seconds", 5));
+    }
+
+    /**
+     * Obtém a duração da concessão de sorteio de um bolão (deve cobrir um sorteio inteiro)
+     * @return Duração em segundos
+     */
+    public long getLotteryLeaseSeconds() {
+        return Math.max(10, config.getLong("lottery.lease_seconds", 60));
+    }
+
+    /**
+     * Obtém o bolão usado quando o jogador não informa um
+     * @return ID do bolão padrão
+     */
+    public String getLotteryDefaultPool() {
+        return config.getString("lottery.default_pool", "daily");
+    }
+
+    /**
+     * Obtém o nome de exibição de um bolão
+     * @param poolId ID do bolão
+     * @return Nome do bolão
+     */
+    public String getLotteryPoolName(String poolId) {
+        String fallback;
+        switch (poolId) {
+            case "hourly":
+                fallback = "Horária";
+                break;
+            case "daily":
+                fallback = "Diária";
+                break;
+            case "weekly":
+                fallback = "Semanal";
+                break;
+            default:
+                fallback = poolId;
+        }
+        return config.getString("lottery.pools." + poolId + ".name", fallback);
+    }
+
+    /**
+     * Obtém o intervalo entre os sorteios de um bolão
+     * @param poolId ID do bolão
+     * @return Intervalo em minutos
+     */
+    public long getLotteryPoolIntervalMinutes(String poolId) {
+        long fallback;
+        switch (poolId) {
+            case "hourly":
+                fallback = 60;
+                break;
+            case "weekly":
+                fallback = 10080;
+                break;
+            default:
+                fallback = 1440;
+        }
+        return Math.max(1, config.getLong("lottery.pools." + poolId + ".interval_minutes", fallback));
+    }
+
+    /**
+     * Obtém o preço inicial do bilhete de um bolão (depois de criado, o preço fica no banco)
+     * @param poolId ID do bolão
+     * @return Preço do bilhete
+     */
+    public double getLotteryPoolTicketPrice(String poolId) {
+        return config.getDouble("lottery.pools." + poolId + ".ticket_price", getLotteryTicketPrice());
+    }
+
     /**
-     * Obtém o intervalo de sorteio da loteria em milissegundos
-     * @return Intervalo de sorteio da loteria em milissegundos
+     * Obtém o prêmio inicial de um bolão, restaurado após cada sorteio
+     * @param poolId ID do bolão
+     * @return Prêmio inicial
      */
-    public long getLotteryDrawInterval() {
-        return config.getLong("lottery.draw_interval", 86400000);
+    public double getLotteryPoolInitialJackpot(String poolId) {
+        return config.getDouble("lottery.pools." + poolId + ".initial_jackpot", 1000.0);
     }
 
     /**
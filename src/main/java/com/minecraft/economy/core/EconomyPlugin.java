@@ -1,15 +1,25 @@
 package com.minecraft.economy.core;
 
+import com.minecraft.economy.auction.AuctionManager;
+import com.minecraft.economy.cluster.BalanceCacheSync;
+import com.minecraft.economy.cluster.ClusterCoordinator;
 import com.minecraft.economy.commands.*;
 import com.minecraft.economy.database.AsyncMongoDBManager;
 import com.minecraft.economy.database.ConfigDatabase;
 import com.minecraft.economy.database.ResilientMongoDBManager;
+import com.minecraft.economy.economy.TaxManager;
 import com.minecraft.economy.economy.VaultEconomyProvider;
+import com.minecraft.economy.listeners.AuctionListener;
 import com.minecraft.economy.listeners.PlayerListener;
 import com.minecraft.economy.listeners.PlayerShopListener;
+import com.minecraft.economy.listeners.ShopBlockListener;
 import com.minecraft.economy.listeners.ShopListener;
 import com.minecraft.economy.lottery.LotteryManager;
+import com.minecraft.economy.market.OrderBookManager;
 import com.minecraft.economy.playershop.PlayerShopManager;
+import com.minecraft.economy.scheduler.CatchUpPolicy;
+import com.minecraft.economy.scheduler.EconomyScheduler;
+import com.minecraft.economy.scheduler.ScheduleSpec;
 import com.minecraft.economy.shop.ShopManager;
 import net.milkbowl.vault.economy.Economy;
 import org.bukkit.command.CommandExecutor;
@@ -17,7 +27,6 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.Date;
 import java.util.logging.Level;
 
 /**
@@ -26,13 +35,19 @@ import java.util.logging.Level;
 public class EconomyPlugin extends JavaPlugin {
 
     private ConfigManager configManager;
+    private EconomyScheduler scheduler;
     private ResilientMongoDBManager mongoDBManager;
     private AsyncMongoDBManager asyncMongoDBManager;
     private VaultEconomyProvider economyProvider;
     private ShopManager shopManager;
     private PlayerShopManager playerShopManager;
     private LotteryManager lotteryManager;
+    private OrderBookManager orderBookManager;
+    private AuctionManager auctionManager;
     private ConfigDatabase configDatabase;
+    private ClusterCoordinator clusterCoordinator;
+    private BalanceCacheSync balanceCacheSync;
+    private TaxManager taxManager;
 
     @Override
     public void onEnable() {
@@ -41,6 +56,9 @@ public class EconomyPlugin extends JavaPlugin {
             saveDefaultConfig();
             configManager = new ConfigManager(this);
             
+            // Inicializa o agendador central das tarefas periódicas
+            scheduler = new EconomyScheduler(this);
+            
             // Inicializa o gerenciador de MongoDB
             String connectionString = getConfig().getString("mongodb.connection_string");
             String database = getConfig().getString("mongodb.database");
@@ -54,17 +72,34 @@ public class EconomyPlugin extends JavaPlugin {
             // Inicializa o banco de dados de configuração
             configDatabase = new ConfigDatabase(this);
             
-            // Registra o provedor de economia do Vault
+            // Inicializa a coordenação dos servidores que compartilham o banco
+            clusterCoordinator = new ClusterCoordinator(this);
+            
+            // Cria o provedor de economia do Vault
             economyProvider = new VaultEconomyProvider(this);
+            
+            // Mantém os saldos em cache coerentes com as escritas dos outros servidores
+            balanceCacheSync = new BalanceCacheSync(this);
+            
+            // Registra o provedor de economia do Vault
             getServer().getServicesManager().register(Economy.class, economyProvider, this, ServicePriority.Normal);
             getLogger().info("Integração com Vault realizada com sucesso!");
             
             // Inicializa o gerenciador de loja
             shopManager = new ShopManager(this);
             
+            // Inicializa os impostos
+            taxManager = new TaxManager(this);
+            
             // Inicializa o gerenciador de lojas de jogadores
             playerShopManager = new PlayerShopManager(this);
             
+            // Inicializa o mercado de ordens
+            orderBookManager = new OrderBookManager(this);
+            
+            // Inicializa a casa de leilões
+            auctionManager = new AuctionManager(this);
+            
             // Inicializa o gerenciador de loteria
             lotteryManager = new LotteryManager(this);
             
@@ -72,6 +107,8 @@ public class EconomyPlugin extends JavaPlugin {
             getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
             getServer().getPluginManager().registerEvents(new ShopListener(this), this);
             getServer().getPluginManager().registerEvents(new PlayerShopListener(this), this);
+            getServer().getPluginManager().registerEvents(new ShopBlockListener(this), this);
+            getServer().getPluginManager().registerEvents(new AuctionListener(this), this);
             
             // Registra os comandos de forma segura
             registerCommand("money", new MoneyCommand(this));
@@ -81,23 +118,11 @@ public class EconomyPlugin extends JavaPlugin {
             registerCommand("tax", new TaxCommand(this));
             registerCommand("lottery", new LotteryCommand(this));
             registerCommand("playershop", new PlayerShopCommand(this));
+            registerCommand("market", new MarketCommand(this));
+            registerCommand("auction", new AuctionCommand(this));
             
-            // Agenda a atualização de preços do mercado
-            int updateInterval = getConfig().getInt("shop.update_interval", 3600);
-            getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
-                shopManager.updateMarketPrices();
-            }, updateInterval * 20L, updateInterval * 20L);
-            
-            // Agenda o sorteio da loteria
-            long drawInterval = getConfig().getLong("lottery.draw_interval", 86400);
-            Date nextDraw = new Date(System.currentTimeMillis() + drawInterval * 1000);
-            getLogger().info("Configurações da loteria carregadas com sucesso!");
-            getLogger().info("Próximo sorteio: " + nextDraw);
-            getLogger().info("Prêmio atual: 1.000,00");
-            
-            getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
-                lotteryManager.drawLottery();
-            }, drawInterval * 20L, drawInterval * 20L);
+            // Registra as tarefas globais, executadas só no servidor líder
+            registerGlobalJobs();
         } catch (Exception e) {
             getLogger().log(Level.SEVERE, "Erro ao inicializar o plugin de economia", e);
             getServer().getPluginManager().disablePlugin(this);
@@ -106,6 +131,21 @@ public class EconomyPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        // Grava as execuções pendentes do mercado
+        if (orderBookManager != null) {
+            orderBookManager.shutdown();
+        }
+        
+        // Grava as contribuições pendentes ao prêmio da loteria
+        if (lotteryManager != null) {
+            lotteryManager.shutdown();
+        }
+        
+        // Interrompe a sincronização dos saldos em cache
+        if (balanceCacheSync != null) {
+            balanceCacheSync.shutdown();
+        }
+        
         // Fecha a conexão com o MongoDB
         if (mongoDBManager != null) {
             mongoDBManager.disconnect();
@@ -117,6 +157,21 @@ public class EconomyPlugin extends JavaPlugin {
         getLogger().info("Plugin de economia desativado com sucesso!");
     }
     
+    /**
+     * Registra as tarefas globais, executadas só no servidor líder
+     * Os sorteios da loteria têm coordenação própria (concessão por bolão) e só gravam suas métricas.
+     */
+    private void registerGlobalJobs() {
+        scheduler.scheduleGlobal("market_prices", ScheduleSpec.every(configManager.getShopUpdateIntervalMinutes() * 60_000L),
+                                 CatchUpPolicy.ONCE, true, shopManager::updateMarketPrices, shopManager::loadMarketPrices);
+        
+        // Com a aplicação automática desativada, impostos e decaimento rodam só por /tax apply e /tax decay
+        scheduler.scheduleGlobal("wealth_tax", ScheduleSpec.parse("0 4 * * *"), CatchUpPolicy.ONCE,
+                                 configManager.isWealthTaxEnabled(), taxManager::applyWealthTax, null);
+        scheduler.scheduleGlobal("inactivity_decay", ScheduleSpec.parse("30 4 * * *"), CatchUpPolicy.ONCE,
+                                 configManager.isInactivityDecayEnabled(), taxManager::applyInactivityDecay, null);
+    }
+    
     /**
      * Registra um comando de forma segura, com verificação de nulidade
      * @param name Nome do comando
@@ -149,6 +204,38 @@ public class EconomyPlugin extends JavaPlugin {
         return configManager;
     }
 
+    /**
+     * Obtém o agendador central das tarefas periódicas
+     * @return Agendador
+     */
+    public EconomyScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Obtém a coordenação dos servidores que compartilham o banco
+     * @return Coordenação dos servidores
+     */
+    public ClusterCoordinator getClusterCoordinator() {
+        return clusterCoordinator;
+    }
+
+    /**
+     * Obtém a sincronização dos saldos em cache entre servidores
+     * @return Sincronização dos saldos em cache
+     */
+    public BalanceCacheSync getBalanceCacheSync() {
+        return balanceCacheSync;
+    }
+
+    /**
+     * Obtém o gerenciador de impostos
+     * @return Gerenciador de impostos
+     */
+    public TaxManager getTaxManager() {
+        return taxManager;
+    }
+
     /**
      * Obtém o gerenciador de MongoDB
      * @return Gerenciador de MongoDB
@@ -197,6 +284,22 @@ public class EconomyPlugin extends JavaPlugin {
         return lotteryManager;
     }
 
+    /**
+     * Obtém o gerenciador do mercado de ordens
+     * @return Gerenciador do mercado de ordens
+     */
+    public OrderBookManager getOrderBookManager() {
+        return orderBookManager;
+    }
+
+    /**
+     * Obtém o gerenciador da casa de leilões
+     * @return Gerenciador da casa de leilões
+     */
+    public AuctionManager getAuctionManager() {
+        return auctionManager;
+    }
+
     /**
      * Obtém o banco de dados de configuração
      * @return Banco de dados de configuração
@@ -1,5 +1,6 @@
 package com.minecraft.economy.database;
 
+import com.minecraft.economy.cluster.BalanceCacheSync;
 import com.minecraft.economy.core.EconomyPlugin;
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
@@ -172,17 +173,18 @@ public class AsyncMongoDBManager {
                         );
                     }
                     
+                    publishBalanceWrite(playerId);
+                    
+                    // O saldo já foi alterado: daqui em diante a operação conta como feita
+                    future.complete(true);
+                    
                     // Registra a transação
-                    Document transactionDoc = new Document()
+                    recordTransaction(new Document()
                             .append("player_uuid", playerId.toString())
                             .append("type", "deposit")
                             .append("amount", amount)
                             .append("reason", reason)
-                            .append("timestamp", System.currentTimeMillis());
-                    
-                    transactionsCollection.insertOne(transactionDoc);
-                    
-                    future.complete(true);
+                            .append("timestamp", System.currentTimeMillis()));
                 } catch (Exception e) {
                     plugin.getLogger().log(Level.SEVERE, "Erro ao depositar: " + e.getMessage(), e);
                     future.completeExceptionally(e);
@@ -228,17 +230,18 @@ public class AsyncMongoDBManager {
                             )
                         );
                         
+                        publishBalanceWrite(playerId);
+                        
+                        // O saldo já foi alterado: daqui em diante a operação conta como feita
+                        future.complete(true);
+                        
                         // Registra a transação
-                        Document transactionDoc = new Document()
+                        recordTransaction(new Document()
                                 .append("player_uuid", playerId.toString())
                                 .append("type", "withdraw")
                                 .append("amount", amount)
                                 .append("reason", reason)
-                                .append("timestamp", System.currentTimeMillis());
-                        
-                        transactionsCollection.insertOne(transactionDoc);
-                        
-                        future.complete(true);
+                                .append("timestamp", System.currentTimeMillis()));
                     } catch (Exception e) {
                         plugin.getLogger().log(Level.SEVERE, "Erro ao retirar: " + e.getMessage(), e);
                         future.completeExceptionally(e);
@@ -359,6 +362,7 @@ public class AsyncMongoDBManager {
                             .append("last_activity", System.currentTimeMillis());
                     
                     playersCollection.insertOne(playerDoc);
+                    publishBalanceWrite(playerId);
                     
                     future.complete(true);
                 } catch (Exception e) {
@@ -371,6 +375,30 @@ public class AsyncMongoDBManager {
         return future;
     }
 
+    /**
+     * Grava uma transação no histórico
+     * Chamado depois que o saldo já foi alterado, então uma falha só é registrada no log.
+     */
+    private void recordTransaction(Document transactionDoc) {
+        try {
+            transactionsCollection.insertOne(transactionDoc);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao registrar transação " + transactionDoc.toJson() +
+                    ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Invalida o saldo do jogador nos caches deste e dos outros servidores após uma escrita
+     * @param playerId UUID do jogador
+     */
+    private void publishBalanceWrite(UUID playerId) {
+        BalanceCacheSync sync = plugin.getBalanceCacheSync();
+        if (sync != null) {
+            sync.publish(playerId);
+        }
+    }
+
     /**
      * Obtém os jogadores com mais dinheiro
      * @param limit Limite de jogadores a retornar
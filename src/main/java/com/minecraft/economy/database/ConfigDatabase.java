@@ -3,6 +3,9 @@ package com.minecraft.economy.database;
 import com.minecraft.economy.core.EconomyPlugin;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
 import org.bson.Document;
 import org.bukkit.scheduler.BukkitRunnable;
 
@@ -145,6 +148,25 @@ public class ConfigDatabase {
         return future;
     }
 
+    /**
+     * Soma um valor a uma configuração numérica com um único $inc no banco
+     * Não perde somas feitas ao mesmo tempo por outros servidores, ao contrário de ler e depois
+     * gravar o total. Deve ser chamado fora da thread principal.
+     * @param key Chave da configuração
+     * @param delta Valor a somar (negativo para subtrair)
+     * @return Novo valor da configuração
+     */
+    public double incrementConfig(String key, double delta) {
+        Document doc = mongoManager.getConfigCollection().findOneAndUpdate(
+            Filters.eq("key", key),
+            Updates.inc("value", delta),
+            new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER)
+        );
+        double value = doc.get("value", Number.class).doubleValue();
+        configCache.put(key, value);
+        return value;
+    }
+
     /**
      * Remove uma configuração do banco de dados
      * @param key Chave da configuração
@@ -1,5 +1,6 @@
 package com.minecraft.economy.database;
 
+import com.minecraft.economy.cluster.BalanceCacheSync;
 import com.minecraft.economy.core.EconomyPlugin;
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
@@ -8,10 +9,17 @@ import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.PushOptions;
+import com.mongodb.client.model.ReturnDocument;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
@@ -41,10 +49,20 @@ public class ResilientMongoDBManager {
     private MongoCollection<Document> configCollection;
     private MongoCollection<Document> lotteryCollection;
     
-    // Cache local para operações críticas
+    // Lotes de depósito já aplicados em cada conta (ver depositBatch)
+    private static final String APPLIED_BATCHES = "applied_batches";
+    private static final int APPLIED_BATCHES_KEPT = 50;
+    
+    // Cache local para operações críticas (validade definida por BalanceCacheSync)
     private final Map<UUID, Double> balanceCache = new ConcurrentHashMap<>();
     private final Map<UUID, Long> cacheTimestamps = new ConcurrentHashMap<>();
-    private final long cacheDuration = 60000; // 60 segundos
+    
+    // Geração do cache de cada jogador com saldo escrito em cache (protegida por cacheLock); jogadores
+    // sem entrada estão na geração cacheEpoch, que avança a cada invalidação
+    private final Map<UUID, Long> cacheGenerations = new HashMap<>();
+    private long cacheGenerationCounter = 0;
+    private long cacheEpoch = 0;
+    private final Object cacheLock = new Object();
     
     // Controle de estado da conexão
     private boolean isConnected = false;
@@ -269,7 +287,7 @@ public class ResilientMongoDBManager {
         // Verifica se há um valor em cache válido
         if (balanceCache.containsKey(playerId)) {
             long timestamp = cacheTimestamps.getOrDefault(playerId, 0L);
-            if (System.currentTimeMillis() - timestamp < cacheDuration) {
+            if (System.currentTimeMillis() - timestamp < getCacheDuration()) {
                 double cachedBalance = balanceCache.get(playerId);
                 plugin.getLogger().fine("Usando saldo em cache para " + playerId + ": " + cachedBalance);
                 return CompletableFuture.completedFuture(cachedBalance);
@@ -297,14 +315,14 @@ public class ResilientMongoDBManager {
                         return;
                     }
                     
+                    long generation = getCacheGeneration(playerId);
                     Document playerDoc = playersCollection.find(Filters.eq("uuid", playerId.toString())).first();
                     
                     if (playerDoc != null) {
                         double balance = playerDoc.getDouble("balance");
                         
                         // Atualiza o cache
-                        balanceCache.put(playerId, balance);
-                        cacheTimestamps.put(playerId, System.currentTimeMillis());
+                        cacheReadBalance(playerId, balance, generation);
                         
                         future.complete(balance);
                     } else {
@@ -312,8 +330,7 @@ public class ResilientMongoDBManager {
                         double initialBalance = plugin.getConfigManager().getInitialBalance();
                         
                         // Atualiza o cache
-                        balanceCache.put(playerId, initialBalance);
-                        cacheTimestamps.put(playerId, System.currentTimeMillis());
+                        cacheReadBalance(playerId, initialBalance, generation);
                         
                         future.complete(initialBalance);
                     }
@@ -351,7 +368,7 @@ public class ResilientMongoDBManager {
         // Verifica se há um valor em cache válido
         if (balanceCache.containsKey(playerId)) {
             long timestamp = cacheTimestamps.getOrDefault(playerId, 0L);
-            if (System.currentTimeMillis() - timestamp < cacheDuration) {
+            if (System.currentTimeMillis() - timestamp < getCacheDuration()) {
                 boolean hasEnough = balanceCache.get(playerId) >= amount;
                 return CompletableFuture.completedFuture(hasEnough);
             }
@@ -369,6 +386,19 @@ public class ResilientMongoDBManager {
      * @return CompletableFuture com o resultado da operação
      */
     public CompletableFuture<Boolean> deposit(UUID playerId, double amount, String reason) {
+        return deposit(playerId, amount, reason, null);
+    }
+
+    /**
+     * Deposita dinheiro na conta de um jogador, registrando detalhes na transação
+     * O saldo é incrementado atomicamente com $inc, sem ler o documento antes
+     * @param playerId UUID do jogador
+     * @param amount Valor a depositar
+     * @param reason Motivo da transação
+     * @param details Detalhes adicionais da transação (ex: itens vendidos), ou null
+     * @return CompletableFuture com o resultado da operação
+     */
+    public CompletableFuture<Boolean> deposit(UUID playerId, double amount, String reason, Document details) {
         if (amount <= 0) {
             return CompletableFuture.completedFuture(false);
         }
@@ -386,40 +416,37 @@ public class ResilientMongoDBManager {
                         return;
                     }
                     
-                    // Verifica se o jogador existe
-                    Document playerDoc = playersCollection.find(Filters.eq("uuid", playerId.toString())).first();
+                    // Incrementa o saldo e obtém o valor resultante
+                    Document playerDoc = playersCollection.findOneAndUpdate(
+                        Filters.eq("uuid", playerId.toString()),
+                        Updates.combine(
+                            Updates.inc("balance", amount),
+                            Updates.set("last_activity", System.currentTimeMillis())
+                        ),
+                        new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+                    );
                     
+                    double newBalance;
                     if (playerDoc == null) {
                         // Jogador não existe, cria um novo documento
-                        double initialBalance = plugin.getConfigManager().getInitialBalance();
+                        newBalance = plugin.getConfigManager().getInitialBalance() + amount;
                         playerDoc = new Document()
                                 .append("uuid", playerId.toString())
-                                .append("balance", initialBalance + amount)
+                                .append("balance", newBalance)
                                 .append("last_activity", System.currentTimeMillis());
                         
                         playersCollection.insertOne(playerDoc);
-                        
-                        // Atualiza o cache
-                        balanceCache.put(playerId, initialBalance + amount);
-                        cacheTimestamps.put(playerId, System.currentTimeMillis());
                     } else {
-                        // Jogador existe, atualiza o saldo
-                        double currentBalance = playerDoc.getDouble("balance");
-                        double newBalance = currentBalance + amount;
-                        
-                        playersCollection.updateOne(
-                            Filters.eq("uuid", playerId.toString()),
-                            Updates.combine(
-                                Updates.set("balance", newBalance),
-                                Updates.set("last_activity", System.currentTimeMillis())
-                            )
-                        );
-                        
-                        // Atualiza o cache
-                        balanceCache.put(playerId, newBalance);
-                        cacheTimestamps.put(playerId, System.currentTimeMillis());
+                        newBalance = playerDoc.getDouble("balance");
                     }
                     
+                    // Avisa os outros servidores e atualiza o cache
+                    publishBalanceWrite(playerId);
+                    cacheBalance(playerId, newBalance);
+                    
+                    // O saldo já foi creditado: daqui em diante o depósito conta como feito
+                    future.complete(true);
+                    
                     // Registra a transação
                     Document transactionDoc = new Document()
                             .append("player_uuid", playerId.toString())
@@ -427,10 +454,11 @@ public class ResilientMongoDBManager {
                             .append("amount", amount)
                             .append("reason", reason)
                             .append("timestamp", System.currentTimeMillis());
+                    if (details != null) {
+                        transactionDoc.append("details", details);
+                    }
                     
-                    transactionsCollection.insertOne(transactionDoc);
-                    
-                    future.complete(true);
+                    recordTransaction(transactionDoc);
                 } catch (Exception e) {
                     String errorMsg = "Erro ao depositar " + amount + " para " + playerId + ": " + e.getMessage();
                     plugin.getLogger().log(Level.SEVERE, errorMsg, e);
@@ -442,12 +470,73 @@ public class ResilientMongoDBManager {
         return future;
     }
 
+    /**
+     * Deposita valores em várias contas com uma única escrita em lote
+     * Executa de forma síncrona; deve ser chamado fora da thread principal. Contas inexistentes são ignoradas.
+     * Cada conta guarda os identificadores dos últimos lotes aplicados e só recebe um lote se ele ainda
+     * não estiver lá, então repetir um lote que falhou no meio (ou cuja resposta se perdeu) não paga duas vezes.
+     * O histórico de transações é gravado depois, sem afetar o resultado.
+     * @param batchId Identificador do lote
+     * @param credits Valor a depositar por jogador
+     * @param reason Motivo das transações
+     * @throws MongoException se a escrita dos saldos falhar
+     */
+    public void depositBatch(ObjectId batchId, Map<UUID, Double> credits, String reason) {
+        if (credits.isEmpty()) {
+            return;
+        }
+        if (!ensureConnected()) {
+            throw new MongoException("Sem conexão com o banco de dados");
+        }
+        
+        long now = System.currentTimeMillis();
+        List<WriteModel<Document>> updates = new ArrayList<>(credits.size());
+        List<Document> transactions = new ArrayList<>(credits.size());
+        for (Map.Entry<UUID, Double> credit : credits.entrySet()) {
+            if (credit.getValue() <= 0) {
+                continue;
+            }
+            updates.add(new UpdateOneModel<>(
+                Filters.and(Filters.eq("uuid", credit.getKey().toString()), Filters.ne(APPLIED_BATCHES, batchId)),
+                Updates.combine(Updates.inc("balance", credit.getValue()),
+                                Updates.set("last_activity", now),
+                                Updates.pushEach(APPLIED_BATCHES, List.of(batchId), new PushOptions().slice(-APPLIED_BATCHES_KEPT)))
+            ));
+            transactions.add(new Document()
+                    .append("player_uuid", credit.getKey().toString())
+                    .append("type", "deposit")
+                    .append("amount", credit.getValue())
+                    .append("reason", reason)
+                    .append("timestamp", now));
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        
+        try {
+            playersCollection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } finally {
+            // O saldo em cache ficou desatualizado, mesmo que só parte do lote tenha sido aplicada
+            for (UUID playerId : credits.keySet()) {
+                publishBalanceWrite(playerId);
+            }
+        }
+        
+        try {
+            transactionsCollection.insertMany(transactions);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao registrar as transações do lote " + batchId + ": " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Retira dinheiro da conta de um jogador
+     * A verificação de saldo e o débito são feitos em uma única escrita condicional
+     * (balance >= valor), então duas retiradas simultâneas nunca deixam o saldo negativo
      * @param playerId UUID do jogador
      * @param amount Valor a retirar
      * @param reason Motivo da transação
-     * @return CompletableFuture com o resultado da operação
+     * @return CompletableFuture com true se o valor foi debitado, false se o saldo era insuficiente ou houve erro
      */
     public CompletableFuture<Boolean> withdraw(UUID playerId, double amount, String reason) {
         if (amount <= 0) {
@@ -456,62 +545,115 @@ public class ResilientMongoDBManager {
         
         CompletableFuture<Boolean> future = new CompletableFuture<>();
         
-        // Primeiro verifica se o jogador tem saldo suficiente
-        getBalance(playerId).thenAccept(balance -> {
-            if (balance < amount) {
-                future.complete(false);
-                return;
-            }
-            
-            // Se tem saldo suficiente, realiza a retirada
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    try {
-                        if (!ensureConnected()) {
-                            plugin.getLogger().severe("Falha ao retirar " + amount + " de " + playerId + 
-                                    ": Sem conexão com o banco de dados");
-                            future.complete(false);
-                            return;
-                        }
-                        
-                        // Atualiza o saldo do jogador
-                        double newBalance = balance - amount;
-                        playersCollection.updateOne(
-                            Filters.eq("uuid", playerId.toString()),
-                            Updates.combine(
-                                Updates.set("balance", newBalance),
-                                Updates.set("last_activity", System.currentTimeMillis())
-                            )
-                        );
-                        
-                        // Atualiza o cache
-                        balanceCache.put(playerId, newBalance);
-                        cacheTimestamps.put(playerId, System.currentTimeMillis());
-                        
-                        // Registra a transação
-                        Document transactionDoc = new Document()
-                                .append("player_uuid", playerId.toString())
-                                .append("type", "withdraw")
-                                .append("amount", amount)
-                                .append("reason", reason)
-                                .append("timestamp", System.currentTimeMillis());
-                        
-                        transactionsCollection.insertOne(transactionDoc);
-                        
-                        future.complete(true);
-                    } catch (Exception e) {
-                        String errorMsg = "Erro ao retirar " + amount + " de " + playerId + ": " + e.getMessage();
-                        plugin.getLogger().log(Level.SEVERE, errorMsg, e);
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!ensureConnected()) {
+                        plugin.getLogger().severe("Falha ao retirar " + amount + " de " + playerId + 
+                                ": Sem conexão com o banco de dados");
                         future.complete(false);
+                        return;
+                    }
+                    
+                    boolean debited = applyDebit(playerId, amount);
+                    future.complete(debited);
+                    
+                    // Registra a transação (fora do caminho crítico de quem aguarda o débito)
+                    if (debited) {
+                        recordWithdraw(playerId, amount, reason);
                     }
+                } catch (Exception e) {
+                    String errorMsg = "Erro ao retirar " + amount + " de " + playerId + ": " + e.getMessage();
+                    plugin.getLogger().log(Level.SEVERE, errorMsg, e);
+                    future.complete(false);
                 }
-            }.runTaskAsynchronously(plugin);
-        });
+            }
+        }.runTaskAsynchronously(plugin);
         
         return future;
     }
 
+    /**
+     * Retira dinheiro da conta de um jogador na thread atual
+     * Mesma escrita condicional de {@link #withdraw(UUID, double, String)}, para quem já está fora da
+     * thread principal e não quer pagar outro salto de thread.
+     * @param playerId UUID do jogador
+     * @param amount Valor a retirar
+     * @param reason Motivo da transação
+     * @return true se o valor foi debitado, false se o saldo era insuficiente
+     * @throws MongoException se não houver conexão ou a escrita falhar
+     */
+    public boolean debit(UUID playerId, double amount, String reason) {
+        if (amount <= 0) {
+            return false;
+        }
+        if (!ensureConnected()) {
+            throw new MongoException("Sem conexão com o banco de dados");
+        }
+        
+        boolean debited = applyDebit(playerId, amount);
+        if (debited) {
+            recordWithdraw(playerId, amount, reason);
+        }
+        return debited;
+    }
+
+    /**
+     * Debita o saldo apenas se ele for suficiente e atualiza o cache
+     * @return true se o valor foi debitado
+     */
+    private boolean applyDebit(UUID playerId, double amount) {
+        Document playerDoc = playersCollection.findOneAndUpdate(
+            Filters.and(
+                Filters.eq("uuid", playerId.toString()),
+                Filters.gte("balance", amount)
+            ),
+            Updates.combine(
+                Updates.inc("balance", -amount),
+                Updates.set("last_activity", System.currentTimeMillis())
+            ),
+            new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+        );
+        
+        if (playerDoc == null) {
+            // Saldo insuficiente ou conta inexistente
+            return false;
+        }
+        
+        publishBalanceWrite(playerId);
+        cacheBalance(playerId, playerDoc.getDouble("balance"));
+        return true;
+    }
+
+    /**
+     * Registra uma retirada no histórico de transações
+     */
+    private void recordWithdraw(UUID playerId, double amount, String reason) {
+        Document transactionDoc = new Document()
+                .append("player_uuid", playerId.toString())
+                .append("type", "withdraw")
+                .append("amount", amount)
+                .append("reason", reason)
+                .append("timestamp", System.currentTimeMillis());
+        
+        recordTransaction(transactionDoc);
+    }
+
+    /**
+     * Grava uma transação no histórico
+     * Chamado depois que o saldo já foi alterado, então uma falha só é registrada no log: a operação
+     * não pode ser tratada como não realizada (quem a chamou devolveria itens ou dinheiro).
+     */
+    private void recordTransaction(Document transactionDoc) {
+        try {
+            transactionsCollection.insertOne(transactionDoc);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao registrar transação " + transactionDoc.toJson() +
+                    ": " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Transfere dinheiro entre jogadores
      * @param fromId UUID do jogador de origem
@@ -631,12 +773,12 @@ public class ResilientMongoDBManager {
                     }
                     
                     // Verifica se o jogador já tem conta
+                    long generation = getCacheGeneration(playerId);
                     Document playerDoc = playersCollection.find(Filters.eq("uuid", playerId.toString())).first();
                     
                     if (playerDoc != null) {
                         // Atualiza o cache
-                        balanceCache.put(playerId, playerDoc.getDouble("balance"));
-                        cacheTimestamps.put(playerId, System.currentTimeMillis());
+                        cacheReadBalance(playerId, playerDoc.getDouble("balance"), generation);
                         
                         future.complete(true); // Conta já existe
                         return;
@@ -651,9 +793,9 @@ public class ResilientMongoDBManager {
                     
                     playersCollection.insertOne(playerDoc);
                     
-                    // Atualiza o cache
-                    balanceCache.put(playerId, initialBalance);
-                    cacheTimestamps.put(playerId, System.currentTimeMillis());
+                    // Avisa os outros servidores e atualiza o cache
+                    publishBalanceWrite(playerId);
+                    cacheBalance(playerId, initialBalance);
                     
                     future.complete(true);
                 } catch (Exception e) {
@@ -913,20 +1055,92 @@ public class ResilientMongoDBManager {
         return isConnected;
     }
     
+    /**
+     * Guarda no cache o saldo de um jogador após uma escrita (deste ou de outro servidor)
+     * Avança a geração do jogador, então leituras iniciadas antes não sobrescrevem o valor.
+     * @param playerId UUID do jogador
+     * @param balance Saldo atual
+     */
+    public void cacheBalance(UUID playerId, double balance) {
+        synchronized (cacheLock) {
+            cacheGenerations.put(playerId, ++cacheGenerationCounter);
+            balanceCache.put(playerId, balance);
+            cacheTimestamps.put(playerId, System.currentTimeMillis());
+        }
+    }
+    
+    /**
+     * Guarda no cache um saldo lido do banco, se o cache do jogador não mudou desde o início da leitura
+     * Uma escrita ou invalidação durante a leitura pode ter tornado o valor lido antigo; nesse caso ele
+     * só é devolvido, sem entrar no cache.
+     * @param generation Geração obtida com getCacheGeneration antes da leitura
+     */
+    private void cacheReadBalance(UUID playerId, double balance, long generation) {
+        synchronized (cacheLock) {
+            if (getCacheGeneration(playerId) == generation) {
+                balanceCache.put(playerId, balance);
+                cacheTimestamps.put(playerId, System.currentTimeMillis());
+            }
+        }
+    }
+    
+    /**
+     * Obtém a geração atual do cache de um jogador
+     */
+    private long getCacheGeneration(UUID playerId) {
+        synchronized (cacheLock) {
+            return cacheGenerations.getOrDefault(playerId, cacheEpoch);
+        }
+    }
+    
+    /**
+     * Obtém por quanto tempo um saldo em cache pode ser usado
+     * @return Validade em milissegundos
+     */
+    private long getCacheDuration() {
+        BalanceCacheSync sync = plugin.getBalanceCacheSync();
+        if (sync == null) {
+            return plugin.getConfigManager().getBalanceCacheUnsyncedSeconds() * 1000L;
+        }
+        return sync.getCacheTtlMillis();
+    }
+    
+    /**
+     * Invalida o saldo do jogador nos caches deste e dos outros servidores após uma escrita
+     * @param playerId UUID do jogador
+     */
+    private void publishBalanceWrite(UUID playerId) {
+        BalanceCacheSync sync = plugin.getBalanceCacheSync();
+        if (sync != null) {
+            sync.publish(playerId);
+        }
+    }
+    
     /**
      * Limpa o cache de um jogador específico
+     * A geração do jogador sai junto com o saldo; para que uma leitura em andamento não a veja
+     * voltar a um valor antigo, a geração dos jogadores sem entrada avança. Leituras em andamento
+     * de outros jogadores sem entrada apenas deixam de ir para o cache.
      * @param playerId UUID do jogador
      */
     public void clearCache(UUID playerId) {
-        balanceCache.remove(playerId);
-        cacheTimestamps.remove(playerId);
+        synchronized (cacheLock) {
+            cacheGenerations.remove(playerId);
+            cacheEpoch = ++cacheGenerationCounter;
+            balanceCache.remove(playerId);
+            cacheTimestamps.remove(playerId);
+        }
     }
     
     /**
      * Limpa todo o cache
      */
     public void clearAllCache() {
-        balanceCache.clear();
-        cacheTimestamps.clear();
+        synchronized (cacheLock) {
+            cacheEpoch = ++cacheGenerationCounter;
+            cacheGenerations.clear();
+            balanceCache.clear();
+            cacheTimestamps.clear();
+        }
     }
 }
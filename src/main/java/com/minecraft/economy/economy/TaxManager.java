@@ -0,0 +1,166 @@
+package com.minecraft.economy.economy;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Impostos sobre riqueza, redistribuição e decaimento por inatividade
+ * São tarefas globais: rodam no servidor líder (ver ClusterCoordinator) ou por comando
+ * administrativo, nunca em todos os servidores ao mesmo tempo. Os métodos só retornam quando
+ * todas as cobranças terminaram, para que a duração medida seja a da tarefa inteira.
+ */
+public class TaxManager {
+
+    private static final long ACTIVE_PLAYER_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    private final EconomyPlugin plugin;
+
+    public TaxManager(EconomyPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Aplica o imposto sobre riqueza e redistribui parte do total coletado
+     * Deve ser chamado fora da thread principal.
+     * @return Valor coletado
+     */
+    public double applyWealthTax() {
+        double taxRate = plugin.getConfigManager().getWealthTaxRate();
+        double threshold = plugin.getConfigManager().getWealthTaxThreshold();
+        DoubleAdder collected = new DoubleAdder();
+        List<CompletableFuture<Boolean>> withdrawals = new ArrayList<>();
+
+        // Só os jogadores com saldo acima do limite são lidos
+        for (Document doc : getPlayers(Filters.gt("balance", threshold))) {
+            UUID playerId = UUID.fromString(doc.getString("uuid"));
+            double taxAmount = (doc.get("balance", Number.class).doubleValue() - threshold) * taxRate;
+
+            withdrawals.add(plugin.getAsyncMongoDBManager().withdraw(playerId, taxAmount, "Imposto sobre riqueza")
+                .whenComplete((success, error) -> {
+                    if (Boolean.TRUE.equals(success)) {
+                        collected.add(taxAmount);
+                        notifyPlayer(playerId, "§cVocê pagou §f" + String.format("%.2f", taxAmount) + " §cde imposto sobre riqueza.");
+                    }
+                }));
+        }
+        CompletableFuture.allOf(withdrawals.toArray(new CompletableFuture[0])).join();
+
+        double total = collected.sum();
+        if (total > 0) {
+            plugin.getConfigDatabase().incrementConfig("tax_collected", total);
+        }
+        redistributeTaxes();
+        return total;
+    }
+
+    /**
+     * Redistribui parte dos impostos coletados entre os jogadores ativos
+     */
+    private void redistributeTaxes() {
+        double taxCollected = plugin.getConfigDatabase().incrementConfig("tax_collected", 0.0);
+        double amountToRedistribute = taxCollected * plugin.getConfigManager().getTaxRedistributionRate();
+        if (amountToRedistribute <= 0) {
+            return;
+        }
+
+        // Considera jogadores ativos nos últimos 7 dias
+        List<UUID> activePlayers = new ArrayList<>();
+        for (Document doc : getPlayers(Filters.gte("last_activity", System.currentTimeMillis() - ACTIVE_PLAYER_MILLIS))) {
+            activePlayers.add(UUID.fromString(doc.getString("uuid")));
+        }
+        if (activePlayers.isEmpty()) {
+            return;
+        }
+
+        // O valor sai do total antes dos depósitos, então uma falha não o distribui duas vezes; as
+        // partes que não foram depositadas voltam ao total no fim
+        plugin.getConfigDatabase().incrementConfig("tax_collected", -amountToRedistribute);
+        double amountPerPlayer = amountToRedistribute / activePlayers.size();
+        DoubleAdder failed = new DoubleAdder();
+        List<CompletableFuture<Boolean>> deposits = new ArrayList<>(activePlayers.size());
+        for (UUID playerId : activePlayers) {
+            deposits.add(plugin.getAsyncMongoDBManager().deposit(playerId, amountPerPlayer, "Redistribuição de impostos")
+                .handle((success, error) -> {
+                    if (Boolean.TRUE.equals(success)) {
+                        notifyPlayer(playerId, "§aVocê recebeu §f" + String.format("%.2f", amountPerPlayer) + " §ada redistribuição de impostos.");
+                        return true;
+                    }
+                    failed.add(amountPerPlayer);
+                    return false;
+                }));
+        }
+        CompletableFuture.allOf(deposits.toArray(new CompletableFuture[0])).join();
+
+        double undelivered = failed.sum();
+        if (undelivered > 0) {
+            plugin.getConfigDatabase().incrementConfig("tax_collected", undelivered);
+            plugin.getLogger().warning("Redistribuição de impostos: " + String.format("%.2f", undelivered) +
+                                       " não depositados voltaram ao total coletado.");
+        }
+    }
+
+    /**
+     * Aplica o decaimento por inatividade
+     * Deve ser chamado fora da thread principal.
+     * @return Valor removido
+     */
+    public double applyInactivityDecay() {
+        double decayRate = plugin.getConfigManager().getInactivityDecayRate();
+        long inactivityThreshold = System.currentTimeMillis() - plugin.getConfigManager().getInactivityPeriod() * 24L * 60 * 60 * 1000;
+        DoubleAdder decayed = new DoubleAdder();
+        List<CompletableFuture<Boolean>> withdrawals = new ArrayList<>();
+
+        for (Document doc : getPlayers(Filters.and(Filters.lt("last_activity", inactivityThreshold), Filters.gt("balance", 0)))) {
+            UUID playerId = UUID.fromString(doc.getString("uuid"));
+            double decayAmount = doc.get("balance", Number.class).doubleValue() * decayRate;
+
+            withdrawals.add(plugin.getAsyncMongoDBManager().withdraw(playerId, decayAmount, "Decaimento por inatividade")
+                .whenComplete((success, error) -> {
+                    if (Boolean.TRUE.equals(success)) {
+                        decayed.add(decayAmount);
+                    }
+                }));
+        }
+        CompletableFuture.allOf(withdrawals.toArray(new CompletableFuture[0])).join();
+
+        double total = decayed.sum();
+        if (total > 0) {
+            plugin.getConfigDatabase().incrementConfig("decay_collected", total);
+        }
+        return total;
+    }
+
+    private List<Document> getPlayers(Bson filter) {
+        return plugin.getAsyncMongoDBManager().getDatabase().getCollection("players")
+            .find(filter)
+            .projection(Projections.include("uuid", "balance", "last_activity"))
+            .into(new ArrayList<>());
+    }
+
+    /**
+     * Notifica o jogador, se estiver online neste servidor
+     */
+    private void notifyPlayer(UUID playerId, String message) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                Player player = Bukkit.getPlayer(playerId);
+                if (player != null) {
+                    player.sendMessage(message);
+                }
+            }
+        }.runTask(plugin);
+    }
+}
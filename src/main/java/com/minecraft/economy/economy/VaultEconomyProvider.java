@@ -1,5 +1,6 @@
 package com.minecraft.economy.economy;
 
+import com.minecraft.economy.cluster.BalanceCacheSync;
 import com.minecraft.economy.core.EconomyPlugin;
 import net.milkbowl.vault.economy.Economy;
 import net.milkbowl.vault.economy.EconomyResponse;
@@ -23,9 +24,8 @@ public class VaultEconomyProvider implements Economy {
 
     private final EconomyPlugin plugin;
     
-    // Cache para evitar operações bloqueantes
+    // Cache para evitar operações bloqueantes (validade definida por BalanceCacheSync)
     private final java.util.Map<UUID, Double> balanceCache = new java.util.concurrent.ConcurrentHashMap<>();
-    private final long cacheDuration = 30000; // 30 segundos
     private final java.util.Map<UUID, Long> cacheTimestamps = new java.util.concurrent.ConcurrentHashMap<>();
 
     public VaultEconomyProvider(EconomyPlugin plugin) {
@@ -145,7 +145,7 @@ public class VaultEconomyProvider implements Economy {
         // Verifica se há um valor em cache válido
         if (balanceCache.containsKey(playerId)) {
             long timestamp = cacheTimestamps.getOrDefault(playerId, 0L);
-            if (System.currentTimeMillis() - timestamp < cacheDuration) {
+            if (System.currentTimeMillis() - timestamp < getCacheDuration()) {
                 return balanceCache.get(playerId);
             }
         }
@@ -207,7 +207,7 @@ public class VaultEconomyProvider implements Economy {
         // Usa o saldo em cache se disponível
         if (balanceCache.containsKey(playerId)) {
             long timestamp = cacheTimestamps.getOrDefault(playerId, 0L);
-            if (System.currentTimeMillis() - timestamp < cacheDuration) {
+            if (System.currentTimeMillis() - timestamp < getCacheDuration()) {
                 return balanceCache.get(playerId) >= amount;
             }
         }
@@ -261,10 +261,9 @@ public class VaultEconomyProvider implements Economy {
             boolean success = future.get(500, TimeUnit.MILLISECONDS);
             
             if (success) {
-                // Atualiza o cache
-                double newBalance = getBalance(playerId) - amount;
-                balanceCache.put(playerId, newBalance);
-                cacheTimestamps.put(playerId, System.currentTimeMillis());
+                // Relê o saldo, já atualizado no cache do gerenciador de MongoDB pela escrita
+                clearCache(playerId);
+                double newBalance = getBalance(playerId);
                 
                 return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
             } else {
@@ -317,10 +316,9 @@ public class VaultEconomyProvider implements Economy {
             boolean success = future.get(500, TimeUnit.MILLISECONDS);
             
             if (success) {
-                // Atualiza o cache
-                double newBalance = getBalance(playerId) + amount;
-                balanceCache.put(playerId, newBalance);
-                cacheTimestamps.put(playerId, System.currentTimeMillis());
+                // Relê o saldo, já atualizado no cache do gerenciador de MongoDB pela escrita
+                clearCache(playerId);
+                double newBalance = getBalance(playerId);
                 
                 return new EconomyResponse(amount, newBalance, EconomyResponse.ResponseType.SUCCESS, null);
             } else {
@@ -445,4 +443,33 @@ public class VaultEconomyProvider implements Economy {
             return false;
         }
     }
+    
+    /**
+     * Obtém por quanto tempo um saldo em cache pode ser usado
+     * @return Validade em milissegundos
+     */
+    private long getCacheDuration() {
+        BalanceCacheSync sync = plugin.getBalanceCacheSync();
+        if (sync == null) {
+            return plugin.getConfigManager().getBalanceCacheUnsyncedSeconds() * 1000L;
+        }
+        return sync.getCacheTtlMillis();
+    }
+    
+    /**
+     * Remove o saldo de um jogador do cache
+     * @param playerId UUID do jogador
+     */
+    public void clearCache(UUID playerId) {
+        balanceCache.remove(playerId);
+        cacheTimestamps.remove(playerId);
+    }
+    
+    /**
+     * Limpa todo o cache
+     */
+    public void clearAllCache() {
+        balanceCache.clear();
+        cacheTimestamps.clear();
+    }
 }
@@ -0,0 +1,110 @@
+package com.minecraft.economy.listeners;
+
+import com.minecraft.economy.auction.Auction;
+import com.minecraft.economy.auction.AuctionGUI;
+import com.minecraft.economy.auction.AuctionManager;
+import com.minecraft.economy.auction.AuctionMenuHolder;
+import com.minecraft.economy.core.EconomyPlugin;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Listener do navegador de leilões
+ * Os menus são identificados pelo {@link AuctionMenuHolder}, que guarda o leilão de cada slot
+ */
+public class AuctionListener implements Listener {
+
+    private final EconomyPlugin plugin;
+    private final AuctionManager auctionManager;
+    private final AuctionGUI auctionGUI;
+
+    public AuctionListener(EconomyPlugin plugin) {
+        this.plugin = plugin;
+        this.auctionManager = plugin.getAuctionManager();
+        this.auctionGUI = auctionManager.getAuctionGUI();
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onInventoryClick(InventoryClickEvent event) {
+        InventoryHolder inventoryHolder = event.getInventory().getHolder();
+        if (!(inventoryHolder instanceof AuctionMenuHolder)) {
+            return;
+        }
+
+        // Cancela o evento para evitar roubo de itens
+        event.setCancelled(true);
+
+        if (!(event.getWhoClicked() instanceof Player)) {
+            return;
+        }
+
+        Player player = (Player) event.getWhoClicked();
+        AuctionMenuHolder holder = (AuctionMenuHolder) inventoryHolder;
+
+        // Ignora cliques no inventário do próprio jogador
+        int slot = event.getRawSlot();
+        if (slot < 0 || slot >= holder.getSize()) {
+            return;
+        }
+
+        ItemStack clickedItem = event.getCurrentItem();
+        if (clickedItem == null || clickedItem.getType() == Material.AIR) {
+            return;
+        }
+
+        if (slot == AuctionGUI.PREVIOUS_SLOT && holder.hasPrevious()) {
+            Deque<Auction> cursors = new ArrayDeque<>(holder.getPreviousCursors());
+            Auction cursor = cursors.poll();
+            auctionGUI.openPage(player, cursors, cursor);
+        } else if (slot == AuctionGUI.NEXT_SLOT && holder.getNextCursor() != null) {
+            auctionGUI.openPage(player, holder.getNextCursors(), holder.getNextCursor());
+        } else if (slot == AuctionGUI.CLAIM_SLOT) {
+            player.closeInventory();
+            auctionManager.claim(player);
+        } else {
+            Auction auction = holder.getAuction(slot);
+            if (auction == null) {
+                return;
+            }
+            // Lance mínimo sobre o lance exibido; se outro lance chegou antes, o lance é recusado
+            double amount = auction.getMinimumBid(plugin.getConfigManager().getAuctionMinIncrementPercent());
+            player.closeInventory();
+            auctionManager.placeBid(player, auction.getId().toHexString(), amount);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        // Cancela o evento para evitar roubo de itens
+        if (event.getInventory().getHolder() instanceof AuctionMenuHolder) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler
+    public void onInventoryClose(InventoryCloseEvent event) {
+        // Libera a sessão do menu fechado
+        InventoryHolder holder = event.getInventory().getHolder();
+        if (holder instanceof AuctionMenuHolder) {
+            ((AuctionMenuHolder) holder).release();
+        }
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        // Entrega itens de leilões encerrados enquanto o jogador estava offline
+        auctionManager.claim(event.getPlayer());
+    }
+}
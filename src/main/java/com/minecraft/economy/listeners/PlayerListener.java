@@ -23,6 +23,9 @@ public class PlayerListener implements Listener {
         UUID uuid = player.getUniqueId();
         String playerName = player.getName();
         
+        // Entrega os itens recebidos no mercado enquanto o jogador estava offline
+        plugin.getOrderBookManager().claim(player);
+        
         // Verifica se o jogador já tem uma conta, se não, cria uma
         plugin.getMongoDBManager().hasAccount(uuid).thenAccept(hasAccount -> {
             if (!hasAccount) {
@@ -0,0 +1,128 @@
+package com.minecraft.economy.listeners;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.playershop.ShopBlock;
+import com.minecraft.economy.playershop.ShopBlockManager;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Tag;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EquipmentSlot;
+
+/**
+ * Listener dos baús e placas de loja
+ * Cada evento resolve o bloco com uma única busca no {@link ShopBlockManager}; blocos que não
+ * pertencem a lojas saem nessa primeira consulta.
+ */
+public class ShopBlockListener implements Listener {
+
+    private static final BlockFace[] HORIZONTAL_FACES = {BlockFace.NORTH, BlockFace.SOUTH, BlockFace.EAST, BlockFace.WEST};
+
+    private final ShopBlockManager shopBlocks;
+
+    public ShopBlockListener(EconomyPlugin plugin) {
+        this.shopBlocks = plugin.getPlayerShopManager().getShopBlockManager();
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        Block block = event.getClickedBlock();
+        if (block == null) {
+            return;
+        }
+
+        ShopBlock shopBlock = shopBlocks.get(block);
+        if (shopBlock == null) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        Action action = event.getAction();
+        boolean isOwner = shopBlock.getOwnerUUID().equals(player.getUniqueId());
+
+        // O dono abre o recipiente normalmente para repor o estoque
+        if (isOwner && action == Action.RIGHT_CLICK_BLOCK && !Tag.SIGNS.isTagged(block.getType())) {
+            return;
+        }
+        if (action != Action.RIGHT_CLICK_BLOCK && action != Action.LEFT_CLICK_BLOCK) {
+            return;
+        }
+
+        // Impede que clientes abram o recipiente ou editem a placa
+        if (action == Action.RIGHT_CLICK_BLOCK) {
+            event.setCancelled(true);
+        }
+        if (event.getHand() != EquipmentSlot.HAND) {
+            return;
+        }
+
+        if (action == Action.LEFT_CLICK_BLOCK || isOwner) {
+            shopBlocks.sendInfo(player, shopBlock);
+        } else {
+            shopBlocks.purchase(player, shopBlock, player.isSneaking());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        Block block = event.getBlock();
+        if (shopBlocks.get(block) == null) {
+            return;
+        }
+
+        // Só o dono ou um administrador pode quebrar um bloco de loja, o que o remove da loja
+        if (!shopBlocks.removeShopBlock(event.getPlayer(), block)) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        Block block = event.getBlockPlaced();
+        Material type = block.getType();
+        if (type != Material.CHEST && type != Material.TRAPPED_CHEST) {
+            return;
+        }
+
+        // Um baú vizinho transformaria o baú da loja em baú duplo
+        for (BlockFace face : HORIZONTAL_FACES) {
+            Block neighbor = block.getRelative(face);
+            if (neighbor.getType() == type && shopBlocks.isShopBlock(neighbor)) {
+                event.setCancelled(true);
+                event.getPlayer().sendMessage("§cNão é possível colocar um baú ao lado de um baú de loja.");
+                return;
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        event.blockList().removeIf(shopBlocks::isShopBlock);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        event.blockList().removeIf(shopBlocks::isShopBlock);
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onInventoryMoveItem(InventoryMoveItemEvent event) {
+        // Funis não podem esvaziar o recipiente de uma loja
+        Location source = event.getSource().getLocation();
+        if (source != null && source.getWorld() != null && shopBlocks.isShopBlock(source.getBlock())) {
+            event.setCancelled(true);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.minecraft.economy.lottery;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.MergeOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import org.bson.Document;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+
+/**
+ * Histórico dos sorteios da loteria
+ * Cada sorteio gera um documento em "lottery_draws" (bolão, totais e vencedores) e um documento por
+ * participante em "lottery_history", copiado dos bilhetes por uma única agregação com $merge antes
+ * de os bilhetes serem apagados. As consultas de histórico e de estatísticas por jogador usam só
+ * essas coleções, indexadas por data e por jogador.
+ */
+public class LotteryHistory {
+
+    private static final String DRAWS_COLLECTION = "lottery_draws";
+    private static final String HISTORY_COLLECTION = "lottery_history";
+
+    private final EconomyPlugin plugin;
+
+    public LotteryHistory(EconomyPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Cria os índices das coleções de histórico
+     * Deve ser chamado fora da thread principal.
+     */
+    void createIndexes() {
+        getDraws().createIndex(Indexes.descending("draw_time"));
+        getDraws().createIndex(Indexes.compoundIndex(Indexes.ascending("pool"), Indexes.descending("draw_time")));
+        getHistory().createIndex(Indexes.compoundIndex(Indexes.ascending("player_uuid"), Indexes.descending("draw_time")));
+    }
+
+    /**
+     * Arquiva um sorteio gravado
+     * A participação de cada jogador é copiada dos bilhetes sorteados por uma agregação que agrupa
+     * por jogador, marca o prêmio dos vencedores e grava com $merge no histórico (sem sobrescrever
+     * uma participação já arquivada). Pode ser repetido sem efeito; deve ser chamado antes de os
+     * bilhetes serem apagados, fora da thread principal.
+     * @param pool Bolão sorteado
+     * @param draw Resultado do sorteio (id, time, total_tickets, pot, paid, ticket_price e winners)
+     */
+    void archive(LotteryPool pool, Document draw) {
+        String drawId = draw.getString("id");
+        long drawTime = draw.getLong("time");
+        List<Document> winners = draw.getList("winners", Document.class);
+        MongoCollection<Document> tickets = plugin.getMongoDBManager().getDatabase().getCollection("lottery_tickets");
+
+        List<Document> prizeBranches = new ArrayList<>(winners.size());
+        List<Document> tierBranches = new ArrayList<>(winners.size());
+        for (Document winner : winners) {
+            Document isWinner = new Document("$eq", Arrays.asList("$_id", winner.getString("player_uuid")));
+            prizeBranches.add(new Document("case", isWinner).append("then", winner.get("prize")));
+            tierBranches.add(new Document("case", isWinner).append("then", winner.get("tier")));
+        }
+
+        tickets.aggregate(Arrays.asList(
+            Aggregates.match(LotteryManager.drawnTickets(pool, draw)),
+            Aggregates.group("$player_uuid",
+                Accumulators.last("player_name", "$player_name"),
+                Accumulators.sum("tickets", 1),
+                Accumulators.push("numbers", "$ticket_number")),
+            Aggregates.project(new Document("_id", new Document("draw_id", drawId).append("player_uuid", "$_id"))
+                .append("draw_id", drawId)
+                .append("pool", pool.getId())
+                .append("draw_time", drawTime)
+                .append("player_uuid", "$_id")
+                .append("player_name", 1)
+                .append("tickets", 1)
+                .append("numbers", 1)
+                .append("spent", new Document("$multiply", Arrays.asList("$tickets", draw.get("ticket_price"))))
+                .append("prize", new Document("$switch", new Document("branches", prizeBranches).append("default", 0.0)))
+                .append("tier", new Document("$switch", new Document("branches", tierBranches).append("default", 0)))),
+            Aggregates.merge(HISTORY_COLLECTION, new MergeOptions()
+                .whenMatched(MergeOptions.WhenMatched.KEEP_EXISTING)
+                .whenNotMatched(MergeOptions.WhenNotMatched.INSERT))
+        )).toCollection();
+        long players = getHistory().countDocuments(Filters.eq("draw_id", drawId));
+
+        getDraws().replaceOne(Filters.eq("_id", drawId), new Document("_id", drawId)
+                .append("pool", pool.getId())
+                .append("draw_time", drawTime)
+                .append("total_tickets", draw.get("total_tickets"))
+                .append("players", players)
+                .append("pot", draw.get("pot"))
+                .append("paid", draw.get("paid"))
+                .append("winners", winners), new ReplaceOptions().upsert(true));
+    }
+
+    /**
+     * Obtém os últimos sorteios
+     * @param poolId ID do bolão ou null para todos
+     * @param limit Número máximo de sorteios
+     * @return CompletableFuture com os sorteios, do mais recente para o mais antigo
+     */
+    public CompletableFuture<List<Document>> getRecentDraws(String poolId, int limit) {
+        CompletableFuture<List<Document>> future = new CompletableFuture<>();
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    List<Document> draws = getDraws()
+                        .find(poolId == null ? new Document() : Filters.eq("pool", poolId))
+                        .sort(Sorts.descending("draw_time"))
+                        .limit(limit)
+                        .into(new ArrayList<>());
+                    future.complete(draws);
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao consultar o histórico da loteria: " + e.getMessage(), e);
+                    future.completeExceptionally(e);
+                }
+            }
+        }.runTaskAsynchronously(plugin);
+
+        return future;
+    }
+
+    /**
+     * Obtém as estatísticas de um jogador na loteria
+     * Campos: draws (sorteios disputados), tickets, spent, wins, total_prize, best_prize e last_win.
+     * @param playerId UUID do jogador
+     * @return CompletableFuture com as estatísticas (null se o jogador nunca participou)
+     */
+    public CompletableFuture<Document> getPlayerStats(UUID playerId) {
+        CompletableFuture<Document> future = new CompletableFuture<>();
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    Document isWin = new Document("$gt", Arrays.asList("$prize", 0));
+                    Document stats = getHistory().aggregate(Arrays.asList(
+                        Aggregates.match(Filters.eq("player_uuid", playerId.toString())),
+                        Aggregates.group(null,
+                            Accumulators.sum("draws", 1),
+                            Accumulators.sum("tickets", "$tickets"),
+                            Accumulators.sum("spent", "$spent"),
+                            Accumulators.sum("wins", new Document("$cond", Arrays.asList(isWin, 1, 0))),
+                            Accumulators.sum("total_prize", "$prize"),
+                            Accumulators.max("best_prize", "$prize"),
+                            Accumulators.max("last_win", new Document("$cond", Arrays.asList(isWin, "$draw_time", null))))
+                    )).first();
+                    future.complete(stats);
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao consultar as estatísticas da loteria: " + e.getMessage(), e);
+                    future.completeExceptionally(e);
+                }
+            }
+        }.runTaskAsynchronously(plugin);
+
+        return future;
+    }
+
+    private MongoCollection<Document> getDraws() {
+        return plugin.getMongoDBManager().getDatabase().getCollection(DRAWS_COLLECTION);
+    }
+
+    private MongoCollection<Document> getHistory() {
+        return plugin.getMongoDBManager().getDatabase().getCollection(HISTORY_COLLECTION);
+    }
+}
@@ -1,9 +1,27 @@
 package com.minecraft.economy.lottery;
 
+import com.minecraft.economy.core.ConfigManager;
 import com.minecraft.economy.core.EconomyPlugin;
 import com.minecraft.economy.database.ConfigDatabase;
+import com.minecraft.economy.scheduler.ScheduleSpec;
+import com.minecraft.economy.utils.HierarchicalTimingWheel;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bson.Document;
@@ -11,477 +29,915 @@ import org.bson.Document;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 /**
  * Gerenciador do sistema de loteria
+ * Os bolões (horário, diário, semanal...) correm em paralelo, cada um com seus bilhetes, preço e
+ * prêmio. Os sorteios ficam na roda de temporização do agendador central (EconomyScheduler), cujo
+ * custo por tick não depende do número de bolões. O horário do próximo sorteio de cada bolão fica
+ * no banco e é reivindicado com uma atualização condicional, então um reinício não pula nem repete
+ * sorteios: um sorteio vencido durante a parada roda uma única vez ao carregar.
+ *
+ * Vários servidores podem compartilhar o mesmo banco. Bilhetes e contagens ficam só no banco; o
+ * sorteio é feito por um único servidor, que detém a concessão (lease) do bolão, e toda escrita que
+ * conclui o sorteio exige o token de cercamento (fencing token) da concessão, então um servidor que
+ * perdeu a concessão no meio do sorteio não consegue gravá-lo. Os demais servidores leem o resultado
+ * do documento do bolão na sincronização periódica e anunciam os vencedores aos seus jogadores.
  */
 public class LotteryManager {
 
     private final EconomyPlugin plugin;
     private final ConfigDatabase configDB;
     private static final DecimalFormat PRICE_FORMAT = new DecimalFormat("#,##0.00");
-    
-    // Cache de bilhetes comprados
-    private final Map<UUID, List<LotteryTicket>> playerTickets = new HashMap<>();
-    
-    // Configurações da loteria
-    private double ticketPrice;
-    private double jackpot;
-    private long nextDrawTime;
-    private String lotteryType;
-    private boolean lotteryActive;
+    private static final String POOLS_COLLECTION = "lottery_pools";
+    private static final String TICKETS_COLLECTION = "lottery_tickets";
+    private static final String LEGACY_POOL_ID = "main";
+    private static final String STATE_COMMITTED = "committed";
+    private static final String STATE_DONE = "done";
+    private static final int MAX_NUMBER_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MILLIS = 60_000L;
+
+    private final Map<String, LotteryPool> pools = new LinkedHashMap<>();
+    private final LotteryHistory history;
+    private final LotteryPool defaultPool;
+    private final String nodeId;
+    private final long leaseMillis;
 
     public LotteryManager(EconomyPlugin plugin) {
         this.plugin = plugin;
         this.configDB = plugin.getConfigDatabase();
-        loadLotteryConfig();
+        this.history = new LotteryHistory(plugin);
+        this.nodeId = plugin.getClusterCoordinator().getNodeId();
+
+        ConfigManager config = plugin.getConfigManager();
+        for (String poolId : config.getLotteryPoolIds()) {
+            String id = poolId.toLowerCase();
+            pools.put(id, new LotteryPool(id, config.getLotteryPoolName(poolId),
+                                          config.getLotteryPoolIntervalMinutes(poolId) * 60_000L,
+                                          config.getLotteryPoolTicketPrice(poolId),
+                                          config.getLotteryPoolInitialJackpot(poolId)));
+        }
+        LotteryPool configuredDefault = pools.get(config.getLotteryDefaultPool().toLowerCase());
+        this.defaultPool = configuredDefault != null ? configuredDefault : pools.values().iterator().next();
+        this.leaseMillis = config.getLotteryLeaseSeconds() * 1000L;
+
+        loadPools();
+
+        // Grava as contribuições aos prêmios em lote
+        plugin.getScheduler().scheduleLocal("lottery.jackpot_flush", ScheduleSpec.every(config.getLotteryJackpotFlushTicks() * 50L), true, () -> {
+            for (LotteryPool pool : pools.values()) {
+                try {
+                    flushJackpot(pool);
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.WARNING, "Erro ao gravar o prêmio da loteria " + pool.getId() + ": " + e.getMessage(), e);
+                }
+            }
+        });
+
+        // Sincroniza o estado dos bolões gravado pelos outros servidores
+        plugin.getScheduler().scheduleLocal("lottery.sync", ScheduleSpec.every(config.getLotterySyncIntervalSeconds() * 1000L), true,
+                                            this::syncPools);
     }
-    
-    /**
-     * Carrega as configurações da loteria do banco de dados
-     */
-    public void loadLotteryConfig() {
-        ticketPrice = configDB.getDouble("lottery.ticket_price", 100.0);
-        jackpot = configDB.getDouble("lottery.jackpot", 1000.0);
-        nextDrawTime = configDB.getLong("lottery.next_draw", System.currentTimeMillis() + 86400000); // Padrão: 24h
-        lotteryType = configDB.getString("lottery.type", "daily");
-        lotteryActive = configDB.getBoolean("lottery.active", true);
-        
-        // Carrega bilhetes existentes
-        loadTickets();
-        
-        plugin.getLogger().info("Configurações da loteria carregadas com sucesso!");
-        plugin.getLogger().info("Próximo sorteio: " + new Date(nextDrawTime));
-        plugin.getLogger().info("Prêmio atual: " + PRICE_FORMAT.format(jackpot));
-    }
-    
+
     /**
-     * Carrega os bilhetes existentes do banco de dados
+     * Carrega os bolões do banco de dados e agenda os sorteios
+     * O documento de cada bolão é criado na primeira carga; o bolão do antigo tipo único de
+     * loteria herda o prêmio, o preço e o horário de sorteio gravados pela versão anterior.
+     * Os bilhetes não são carregados: ficam só no banco, compartilhados entre os servidores.
      */
-    private void loadTickets() {
-        playerTickets.clear();
-        
+    private void loadPools() {
+        String legacyType = configDB.getString("lottery.type", "daily").toLowerCase();
+        double legacyPrice = configDB.getDouble("lottery.ticket_price", -1.0);
+        double legacyJackpot = configDB.getDouble("lottery.jackpot", -1.0);
+        long legacyNextDraw = configDB.getLong("lottery.next_draw", 0L);
+        boolean legacyActive = configDB.getBoolean("lottery.active", true);
+
         new BukkitRunnable() {
             @Override
             public void run() {
                 try {
-                    plugin.getMongoDBManager().getDatabase().getCollection("lottery_tickets")
-                        .find()
-                        .forEach(doc -> {
-                            UUID playerId = UUID.fromString(doc.getString("player_uuid"));
-                            int ticketNumber = doc.getInteger("ticket_number");
-                            long purchaseTime = doc.getLong("purchase_time");
-                            String drawType = doc.getString("draw_type");
-                            
-                            LotteryTicket ticket = new LotteryTicket(playerId, ticketNumber, purchaseTime, drawType);
-                            
-                            playerTickets.computeIfAbsent(playerId, k -> new ArrayList<>()).add(ticket);
-                        });
-                    
-                    plugin.getLogger().info("Carregados " + countTotalTickets() + " bilhetes de loteria.");
+                    MongoCollection<Document> tickets = getTicketCollection();
+                    tickets.createIndex(Indexes.ascending("draw_type", "player_uuid", "purchase_time"));
+                    tickets.createIndex(Indexes.ascending("player_uuid"));
+                    tickets.createIndex(Indexes.ascending("draw_type", "draw_seq"));
+                    try {
+                        tickets.createIndex(Indexes.ascending("draw_type", "ticket_number"), new IndexOptions().unique(true));
+                    } catch (Exception e) {
+                        plugin.getLogger().warning("Não foi possível criar o índice único dos números de bilhete " +
+                                                   "(há números repetidos no sorteio atual): " + e.getMessage());
+                    }
+                    history.createIndexes();
+
+                    // Bilhetes de bolões que não existem mais passam para o bolão padrão
+                    long moved = tickets.updateMany(Filters.nin("draw_type", new ArrayList<>(pools.keySet())),
+                                                    Updates.set("draw_type", defaultPool.getId())).getModifiedCount();
+
+                    Document legacyPool = getPoolCollection().find(Filters.eq("_id", LEGACY_POOL_ID)).first();
+                    long now = System.currentTimeMillis();
+
+                    for (LotteryPool pool : pools.values()) {
+                        Document seed = new Document("jackpot_cents", toCents(pool.getInitialJackpot()))
+                            .append("ticket_price", pool.getTicketPrice())
+                            .append("active", true)
+                            .append("next_draw", now + pool.getIntervalMillis());
+                        if (pool.getId().equals(legacyType)) {
+                            if (legacyPool != null) {
+                                seed.put("jackpot_cents", legacyPool.get("jackpot_cents", Number.class).longValue());
+                            } else if (legacyJackpot >= 0) {
+                                seed.put("jackpot_cents", toCents(legacyJackpot));
+                            }
+                            if (legacyPrice > 0) {
+                                seed.put("ticket_price", legacyPrice);
+                            }
+                            if (legacyNextDraw > 0) {
+                                seed.put("next_draw", legacyNextDraw);
+                            }
+                            seed.put("active", legacyActive);
+                        }
+
+                        Document doc = getPoolCollection().findOneAndUpdate(
+                            Filters.eq("_id", pool.getId()),
+                            new Document("$setOnInsert", seed),
+                            new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER)
+                        );
+
+                        // Contagem compartilhada de bilhetes, criada a partir dos bilhetes já vendidos
+                        if (!doc.containsKey("ticket_count")) {
+                            long count = tickets.countDocuments(Filters.eq("draw_type", pool.getId()));
+                            getPoolCollection().updateOne(
+                                Filters.and(Filters.eq("_id", pool.getId()), Filters.exists("ticket_count", false)),
+                                Updates.set("ticket_count", count));
+                        } else if (pool == defaultPool && moved > 0) {
+                            getPoolCollection().updateOne(Filters.eq("_id", pool.getId()), Updates.inc("ticket_count", moved));
+                        }
+
+                        // Sorteios anteriores à carga não são anunciados de novo
+                        Document lastDraw = doc.get("last_draw", Document.class);
+                        if (lastDraw != null) {
+                            pool.markDrawSeen(lastDraw.getString("id"));
+                        }
+                    }
+
+                    syncPools();
+
+                    for (LotteryPool pool : pools.values()) {
+                        plugin.getLogger().info("Loteria " + pool.getDisplayName() + ": " + pool.countTotalTickets() +
+                                                " bilhetes, prêmio " + PRICE_FORMAT.format(pool.getJackpot()) +
+                                                ", próximo sorteio " + new Date(pool.getNextDrawTime()));
+                    }
                 } catch (Exception e) {
-                    plugin.getLogger().log(Level.SEVERE, "Erro ao carregar bilhetes de loteria: " + e.getMessage(), e);
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao carregar a loteria: " + e.getMessage(), e);
                 }
+
+                runSync(() -> {
+                    for (LotteryPool pool : pools.values()) {
+                        scheduleDraw(pool, pool.getNextDrawTime());
+                    }
+                });
             }
         }.runTaskAsynchronously(plugin);
     }
-    
+
     /**
-     * Conta o total de bilhetes vendidos
-     * @return Número total de bilhetes
+     * Relê os documentos dos bolões com uma única consulta
+     * Atualiza prêmio, contagem, preço e horários gravados por qualquer servidor, anuncia sorteios
+     * concluídos em outros servidores e retoma sorteios interrompidos cuja concessão expirou.
+     * Deve ser chamado fora da thread principal.
      */
-    public int countTotalTickets() {
-        return playerTickets.values().stream().mapToInt(List::size).sum();
+    private void syncPools() {
+        long now = System.currentTimeMillis();
+        List<Document> docs = getPoolCollection().find(Filters.in("_id", new ArrayList<>(pools.keySet()))).into(new ArrayList<>());
+        for (Document doc : docs) {
+            LotteryPool pool = pools.get(doc.getString("_id"));
+            Number ticketCount = doc.get("ticket_count", Number.class);
+            pool.setPersistedJackpotCents(doc.get("jackpot_cents", Number.class).longValue());
+            pool.setTicketCount(ticketCount != null ? ticketCount.longValue() : 0L);
+            pool.setTicketPrice(doc.get("ticket_price", Number.class).doubleValue());
+            pool.setActive(doc.getBoolean("active", true));
+            pool.setNextDrawTime(doc.get("next_draw", Number.class).longValue());
+
+            Document lastDraw = doc.get("last_draw", Document.class);
+            if (lastDraw != null) {
+                announceIfNew(pool, lastDraw);
+            }
+
+            // Sorteio reivindicado ou gravado por um servidor que parou antes de concluí-lo ou de pagá-lo
+            boolean unfinished = doc.containsKey("pending_draw") ||
+                                 (lastDraw != null && (STATE_COMMITTED.equals(lastDraw.getString("state")) || hasUnpaidWinners(lastDraw)));
+            Number leaseExpires = doc.get("lease_expires", Number.class);
+            if (unfinished && (leaseExpires == null || leaseExpires.longValue() < now)) {
+                plugin.getLogger().warning("Retomando o sorteio interrompido da loteria " + pool.getDisplayName());
+                runDraw(pool, true);
+            }
+        }
     }
-    
+
     /**
-     * Compra um bilhete de loteria para um jogador
-     * @param player Jogador que está comprando
-     * @return CompletableFuture com o resultado da compra (número do bilhete ou -1 se falhou)
+     * Agenda o sorteio de um bolão na roda, substituindo o agendamento anterior
+     * Deve ser chamado na thread principal.
      */
-    public CompletableFuture<Integer> buyTicket(Player player) {
-        CompletableFuture<Integer> future = new CompletableFuture<>();
-        
-        // Executa toda a lógica de compra em uma nova thread dedicada
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    // Verifica se a loteria está ativa
-                    if (!lotteryActive) {
-                        new BukkitRunnable() {
-                            @Override
-                            public void run() {
-                                player.sendMessage("§cA loteria está temporariamente desativada.");
-                            }
-                        }.runTask(plugin);
-                        future.complete(-1);
-                        return;
+    private void scheduleDraw(LotteryPool pool, long deadline) {
+        HierarchicalTimingWheel.Entry<Runnable> previous = pool.getDrawTimeout();
+        if (previous != null) {
+            previous.cancel();
+        }
+        pool.setDrawTimeout(plugin.getScheduler().runAt(deadline, () -> runScheduledDraw(pool)));
+    }
+
+    /**
+     * Executa o sorteio agendado de um bolão (chamado pela roda, na thread principal)
+     * O sorteio só roda se este servidor conseguir avançar o horário gravado no banco a partir do
+     * horário previsto; do contrário ele já foi realizado (por outro servidor ou antes de um
+     * reinício) e apenas o novo horário é lido.
+     */
+    private void runScheduledDraw(LotteryPool pool) {
+        pool.setDrawTimeout(null);
+        long scheduled = pool.getNextDrawTime();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            long retryAt = 0;
+            try {
+                long next = pool.nextDrawAfter(scheduled, System.currentTimeMillis());
+                Document claimed = getPoolCollection().findOneAndUpdate(
+                    Filters.and(Filters.eq("_id", pool.getId()), Filters.eq("next_draw", scheduled)),
+                    Updates.combine(Updates.set("next_draw", next), Updates.set("pending_draw", scheduled))
+                );
+                if (claimed == null) {
+                    Document doc = getPoolCollection().find(Filters.eq("_id", pool.getId())).first();
+                    if (doc != null) {
+                        pool.setNextDrawTime(doc.get("next_draw", Number.class).longValue());
                     }
-                    
-                    // Verifica se o jogador tem dinheiro suficiente (no thread principal)
-                    final CompletableFuture<Boolean> hasMoneyCF = new CompletableFuture<>();
-                    
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            boolean hasMoney = plugin.getEconomyProvider().has(player, ticketPrice);
-                            hasMoneyCF.complete(hasMoney);
-                        }
-                    }.runTask(plugin);
-                    
-                    // Aguarda o resultado de forma assíncrona
-                    hasMoneyCF.thenAccept(hasMoney -> {
-                        if (!hasMoney) {
-                            new BukkitRunnable() {
-                                @Override
-                                public void run() {
-                                    player.sendMessage("§cVocê não tem dinheiro suficiente para comprar um bilhete de loteria.");
-                                    player.sendMessage("§cPreço do bilhete: §f" + PRICE_FORMAT.format(ticketPrice));
-                                }
-                            }.runTask(plugin);
-                            future.complete(-1);
-                            return;
-                        }
-                        
-                        // Continua o processamento de forma assíncrona
-                        new BukkitRunnable() {
-                            @Override
-                            public void run() {
-                                try {
-                                    // Verifica limite de bilhetes por jogador
-                                    int maxTicketsPerPlayer = configDB.getInt("lottery.max_tickets_per_player", 5);
-                                    List<LotteryTicket> tickets = playerTickets.getOrDefault(player.getUniqueId(), new ArrayList<>());
-                                    
-                                    if (tickets.size() >= maxTicketsPerPlayer) {
-                                        new BukkitRunnable() {
-                                            @Override
-                                            public void run() {
-                                                player.sendMessage("§cVocê já atingiu o limite de " + maxTicketsPerPlayer + " bilhetes para este sorteio.");
-                                            }
-                                        }.runTask(plugin);
-                                        future.complete(-1);
-                                        return;
-                                    }
-                                    
-                                    // Gera um número aleatório para o bilhete
-                                    Random random = new Random();
-                                    final int ticketNumber = random.nextInt(999999) + 1; // Número entre 1 e 999999
-                                    
-                                    // Cobra o jogador (no thread principal)
-                                    final CompletableFuture<Void> withdrawCF = new CompletableFuture<>();
-                                    
-                                    new BukkitRunnable() {
-                                        @Override
-                                        public void run() {
-                                            plugin.getEconomyProvider().withdrawPlayer(player, ticketPrice);
-                                            withdrawCF.complete(null);
-                                        }
-                                    }.runTask(plugin);
-                                    
-                                    // Continua o processamento após a cobrança
-                                    withdrawCF.thenAccept(v -> {
-                                        new BukkitRunnable() {
-                                            @Override
-                                            public void run() {
-                                                try {
-                                                    // Adiciona ao jackpot (80% do valor do bilhete)
-                                                    double jackpotContribution = ticketPrice * 0.8;
-                                                    jackpot += jackpotContribution;
-                                                    configDB.setConfig("lottery.jackpot", jackpot);
-                                                    
-                                                    // Cria o bilhete
-                                                    LotteryTicket ticket = new LotteryTicket(player.getUniqueId(), ticketNumber, System.currentTimeMillis(), lotteryType);
-                                                    
-                                                    // Salva no cache
-                                                    playerTickets.computeIfAbsent(player.getUniqueId(), k -> new ArrayList<>()).add(ticket);
-                                                    
-                                                    // Salva no banco de dados
-                                                    Document ticketDoc = new Document()
-                                                            .append("player_uuid", player.getUniqueId().toString())
-                                                            .append("player_name", player.getName())
-                                                            .append("ticket_number", ticketNumber)
-                                                            .append("purchase_time", System.currentTimeMillis())
-                                                            .append("draw_type", lotteryType);
-                                                    
-                                                    plugin.getMongoDBManager().getDatabase().getCollection("lottery_tickets").insertOne(ticketDoc);
-                                                    
-                                                    // Notifica o jogador (no thread principal)
-                                                    new BukkitRunnable() {
-                                                        @Override
-                                                        public void run() {
-                                                            player.sendMessage("§aVocê comprou um bilhete de loteria com o número §f" + ticketNumber + "§a!");
-                                                            player.sendMessage("§aPrêmio atual: §f" + PRICE_FORMAT.format(jackpot));
-                                                            player.sendMessage("§aPróximo sorteio: §f" + new Date(nextDrawTime));
-                                                        }
-                                                    }.runTask(plugin);
-                                                    
-                                                    future.complete(ticketNumber);
-                                                } catch (Exception e) {
-                                                    plugin.getLogger().log(Level.SEVERE, "Erro ao salvar bilhete de loteria: " + e.getMessage(), e);
-                                                    
-                                                    new BukkitRunnable() {
-                                                        @Override
-                                                        public void run() {
-                                                            player.sendMessage("§cOcorreu um erro ao comprar o bilhete. Tente novamente mais tarde.");
-                                                        }
-                                                    }.runTask(plugin);
-                                                    
-                                                    future.complete(-1);
-                                                }
-                                            }
-                                        }.runTaskAsynchronously(plugin);
-                                    });
-                                } catch (Exception e) {
-                                    plugin.getLogger().log(Level.SEVERE, "Erro ao processar compra de bilhete: " + e.getMessage(), e);
-                                    
-                                    new BukkitRunnable() {
-                                        @Override
-                                        public void run() {
-                                            player.sendMessage("§cOcorreu um erro ao comprar o bilhete. Tente novamente mais tarde.");
-                                        }
-                                    }.runTask(plugin);
-                                    
-                                    future.complete(-1);
-                                }
-                            }
-                        }.runTaskAsynchronously(plugin);
-                    });
-                } catch (Exception e) {
-                    plugin.getLogger().log(Level.SEVERE, "Erro ao iniciar compra de bilhete: " + e.getMessage(), e);
-                    
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            player.sendMessage("§cOcorreu um erro ao comprar o bilhete. Tente novamente mais tarde.");
-                        }
-                    }.runTask(plugin);
-                    
-                    future.complete(-1);
+                } else {
+                    pool.setNextDrawTime(next);
+                    runDraw(pool, true);
                 }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao realizar o sorteio agendado da loteria " + pool.getId() +
+                                       ": " + e.getMessage(), e);
+                retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
             }
-        }.runTaskAsynchronously(plugin);
-        
-        return future;
+
+            long deadline = Math.max(pool.getNextDrawTime(), retryAt);
+            runSync(() -> scheduleDraw(pool, deadline));
+        });
+    }
+
+    /**
+     * Realiza um sorteio sob a concessão do bolão
+     * Um sorteio gravado e não concluído é concluído primeiro. Se outro servidor detém a concessão,
+     * nada é feito: a marca de sorteio pendente continua no banco e é retomada quando a concessão
+     * for liberada ou expirar.
+     * Deve ser chamado fora da thread principal.
+     * @param pool Bolão
+     * @param onlyIfPending true para sortear só se houver um sorteio agendado pendente
+     * @return UUID do vencedor da primeira faixa ou null se nada foi sorteado
+     */
+    private UUID runDraw(LotteryPool pool, boolean onlyIfPending) {
+        if (!pool.beginDraw()) {
+            return null;
+        }
+        long token = -1;
+        try {
+            token = acquireLease(pool);
+            if (token < 0) {
+                return null;
+            }
+
+            Document doc = getPoolCollection().find(Filters.eq("_id", pool.getId())).first();
+            Document lastDraw = doc.get("last_draw", Document.class);
+            if (lastDraw != null && (STATE_COMMITTED.equals(lastDraw.getString("state")) || hasUnpaidWinners(lastDraw))) {
+                finishDraw(pool, lastDraw, token);
+            }
+            if (onlyIfPending && !doc.containsKey("pending_draw")) {
+                return null;
+            }
+
+            // Métricas do sorteio junto às das tarefas globais (/tax status)
+            long start = System.nanoTime();
+            String error = null;
+            try {
+                return performDraw(pool, token);
+            } catch (RuntimeException e) {
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                plugin.getClusterCoordinator().recordRun("lottery." + pool.getId(), (System.nanoTime() - start) / 1_000_000L, error);
+            }
+        } finally {
+            if (token >= 0) {
+                releaseLease(pool, token);
+            }
+            pool.endDraw();
+        }
     }
-    
+
     /**
-     * Realiza o sorteio da loteria
-     * @return CompletableFuture com o resultado do sorteio (UUID do vencedor ou null se não houver)
+     * Obtém a concessão de sorteio de um bolão, se estiver livre ou expirada
+     * Cada concessão recebe um token maior que o de todas as anteriores.
+     * @return Token de cercamento ou -1 se outro servidor detém a concessão
      */
-    public CompletableFuture<UUID> drawLottery() {
-        CompletableFuture<UUID> future = new CompletableFuture<>();
-        
-        // Executa todo o sorteio em uma nova thread dedicada
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    if (countTotalTickets() == 0) {
-                        // Não há bilhetes, adia o sorteio
-                        scheduleNextDraw();
-                        future.complete(null);
-                        return;
-                    }
-                    
-                    // Seleciona um bilhete aleatório
-                    List<LotteryTicket> allTickets = new ArrayList<>();
-                    playerTickets.values().forEach(allTickets::addAll);
-                    
-                    if (allTickets.isEmpty()) {
-                        scheduleNextDraw();
-                        future.complete(null);
-                        return;
-                    }
-                    
-                    Random random = new Random();
-                    LotteryTicket winningTicket = allTickets.get(random.nextInt(allTickets.size()));
-                    final UUID winnerId = winningTicket.getPlayerId();
-                    
-                    // Obtém o nome do jogador vencedor
-                    final OfflinePlayer winnerPlayer = Bukkit.getOfflinePlayer(winnerId);
-                    final String winnerName = winnerPlayer.getName();
-                    final int ticketNumber = winningTicket.getTicketNumber();
-                    final double currentJackpot = jackpot;
-                    
-                    // Paga o prêmio ao vencedor de forma assíncrona
-                    plugin.getMongoDBManager().deposit(winnerId, jackpot, "Prêmio da loteria")
-                        .thenAccept(success -> {
-                            if (success) {
-                                // Notifica o vencedor, se estiver online
-                                if (winnerPlayer.isOnline()) {
-                                    new BukkitRunnable() {
-                                        @Override
-                                        public void run() {
-                                            Player onlineWinner = winnerPlayer.getPlayer();
-                                            onlineWinner.sendMessage("§a§lPARABÉNS! §aVocê ganhou a loteria!");
-                                            onlineWinner.sendMessage("§aPrêmio: §f" + PRICE_FORMAT.format(currentJackpot));
-                                            onlineWinner.sendMessage("§aBilhete vencedor: §f" + ticketNumber);
-                                        }
-                                    }.runTask(plugin);
-                                }
-                                
-                                // Anuncia o vencedor para todos
-                                new BukkitRunnable() {
-                                    @Override
-                                    public void run() {
-                                        Bukkit.broadcastMessage("§a§l[LOTERIA] §f" + winnerName + " §aganhou §f" + 
-                                                              PRICE_FORMAT.format(currentJackpot) + " §ana loteria!");
-                                        Bukkit.broadcastMessage("§a§l[LOTERIA] §aBilhete vencedor: §f" + ticketNumber);
-                                    }
-                                }.runTask(plugin);
-                                
-                                // Registra no log
-                                plugin.getLogger().info("Loteria: " + winnerName + " ganhou " + currentJackpot + 
-                                                      " com o bilhete " + ticketNumber);
-                                
-                                // Limpa os bilhetes
-                                clearTickets();
-                                
-                                // Reinicia o jackpot
-                                double initialJackpot = configDB.getDouble("lottery.initial_jackpot", 1000.0);
-                                jackpot = initialJackpot;
-                                configDB.setConfig("lottery.jackpot", jackpot);
-                                
-                                // Agenda o próximo sorteio
-                                scheduleNextDraw();
-                                
-                                future.complete(winnerId);
-                            } else {
-                                plugin.getLogger().severe("Erro ao pagar prêmio da loteria ao vencedor: " + winnerName);
-                                future.complete(null);
-                            }
-                        });
-                } catch (Exception e) {
-                    plugin.getLogger().log(Level.SEVERE, "Erro ao realizar sorteio da loteria: " + e.getMessage(), e);
-                    future.complete(null);
+    private long acquireLease(LotteryPool pool) {
+        long now = System.currentTimeMillis();
+        Document doc = getPoolCollection().findOneAndUpdate(
+            Filters.and(Filters.eq("_id", pool.getId()),
+                        Filters.or(Filters.exists("lease_expires", false), Filters.lt("lease_expires", now))),
+            Updates.combine(Updates.set("lease_owner", nodeId),
+                            Updates.set("lease_expires", now + leaseMillis),
+                            Updates.inc("lease_token", 1L)),
+            new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+        );
+        return doc == null ? -1 : doc.get("lease_token", Number.class).longValue();
+    }
+
+    /**
+     * Libera a concessão, se ainda for a deste token
+     */
+    private void releaseLease(LotteryPool pool, long token) {
+        try {
+            getPoolCollection().updateOne(fenced(pool, token),
+                                          Updates.combine(Updates.unset("lease_owner"), Updates.unset("lease_expires")));
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao liberar a concessão da loteria " + pool.getId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Bson fenced(LotteryPool pool, long token) {
+        return Filters.and(Filters.eq("_id", pool.getId()), Filters.eq("lease_token", token));
+    }
+
+    /**
+     * Sorteia os vencedores de um bolão e grava o resultado
+     * O sorteio avança o número de sorteio do bolão e marca com ele os bilhetes ainda sem número (ou
+     * com o número de uma tentativa que não chegou a ser gravada); só os bilhetes marcados entram no
+     * sorteio, e os gravados depois da marcação ficam para o próximo, sem depender do relógio dos
+     * servidores. A árvore de pesos é montada a partir da contagem de
+     * bilhetes por jogador, agregada no banco, e só os bilhetes vencedores são lidos. Cada faixa de
+     * prêmio (lottery.prize_tiers) sorteia um bilhete; o jogador sorteado sai da árvore antes da faixa
+     * seguinte (sem reposição). Faixas que sobram sem jogadores acumulam para o próximo sorteio.
+     * Deve ser chamado fora da thread principal, com a concessão do bolão.
+     * @return UUID do vencedor da primeira faixa ou null se não houver bilhetes
+     */
+    private UUID performDraw(LotteryPool pool, long token) {
+        long cutoff = System.currentTimeMillis();
+        List<Double> tiers = plugin.getConfigManager().getLotteryPrizeTiers();
+        long potCents = flushJackpot(pool);
+        double pot = potCents / 100.0;
+        MongoCollection<Document> tickets = getTicketCollection();
+
+        Document advanced = getPoolCollection().findOneAndUpdate(fenced(pool, token), Updates.inc("draw_seq", 1L),
+                                                                 new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+        if (advanced == null) {
+            plugin.getLogger().warning("Sorteio da loteria " + pool.getId() + " descartado: a concessão expirou durante o sorteio.");
+            return null;
+        }
+        long seq = advanced.get("draw_seq", Number.class).longValue();
+        tickets.updateMany(Filters.and(Filters.eq("draw_type", pool.getId()),
+                                       Filters.or(Filters.exists("draw_seq", false), Filters.lt("draw_seq", seq))),
+                           Updates.set("draw_seq", seq));
+        Bson drawn = Filters.and(Filters.eq("draw_type", pool.getId()), Filters.eq("draw_seq", seq));
+
+        TicketWeightTree ticketWeights = new TicketWeightTree();
+        tickets.aggregate(Arrays.asList(
+            Aggregates.match(drawn),
+            Aggregates.group("$player_uuid", Accumulators.sum("count", 1)),
+            Aggregates.sort(Sorts.ascending("_id"))
+        )).forEach(count -> ticketWeights.add(UUID.fromString(count.getString("_id")), count.getInteger("count")));
+
+        long totalTickets = ticketWeights.getTotal();
+        long remaining = totalTickets;
+        List<Document> winners = new ArrayList<>(tiers.size());
+        for (int tier = 0; tier < tiers.size() && remaining > 0; tier++) {
+            long target = ThreadLocalRandom.current().nextLong(remaining);
+            int slot = ticketWeights.find(target);
+            UUID winnerId = ticketWeights.playerAt(slot);
+            int index = (int) (target - ticketWeights.before(slot));
+            Document ticket = tickets.find(Filters.and(drawn, Filters.eq("player_uuid", winnerId.toString())))
+                .sort(Sorts.ascending("_id"))
+                .skip(index)
+                .first();
+
+            // Sem reposição: o vencedor não concorre às faixas seguintes
+            long weight = ticketWeights.weightAt(slot);
+            ticketWeights.add(winnerId, -weight);
+            remaining -= weight;
+
+            double prize = Math.floor(pot * tiers.get(tier)) / 100.0;
+            winners.add(new Document("tier", tier + 1)
+                    .append("player_uuid", winnerId.toString())
+                    .append("player_name", ticket.getString("player_name"))
+                    .append("ticket_number", ticket.getInteger("ticket_number"))
+                    .append("prize", prize)
+                    .append("paid", false));
+        }
+
+        if (winners.isEmpty()) {
+            // Não há bilhetes, o prêmio acumula para o próximo sorteio
+            getPoolCollection().updateOne(fenced(pool, token), Updates.unset("pending_draw"));
+            plugin.getLogger().info("Loteria " + pool.getDisplayName() + ": sorteio sem bilhetes, prêmio acumulado.");
+            return null;
+        }
+
+        double paid = 0;
+        for (Document winner : winners) {
+            paid += winner.getDouble("prize");
+        }
+
+        // Grava o resultado e reinicia o jackpot (as faixas sem vencedor acumulam) em uma única
+        // escrita cercada; a escrita é relativa, para não perder contribuições de outros servidores
+        long resetCents = toCents(pool.getInitialJackpot() + Math.max(0.0, pot - paid));
+        Document draw = new Document("id", pool.getId() + "-" + cutoff)
+                .append("time", cutoff)
+                .append("seq", seq)
+                .append("total_tickets", totalTickets)
+                .append("pot", pot)
+                .append("paid", paid)
+                .append("ticket_price", pool.getTicketPrice())
+                .append("state", STATE_COMMITTED)
+                .append("payout_id", new ObjectId())
+                .append("winners", winners);
+        Document committed = getPoolCollection().findOneAndUpdate(
+            fenced(pool, token),
+            Updates.combine(Updates.inc("jackpot_cents", resetCents - potCents),
+                            Updates.inc("ticket_count", -totalTickets),
+                            Updates.set("last_draw", draw),
+                            Updates.unset("pending_draw")),
+            new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+        );
+        if (committed == null) {
+            plugin.getLogger().warning("Sorteio da loteria " + pool.getId() + " descartado: a concessão expirou durante o sorteio.");
+            return null;
+        }
+        pool.setPersistedJackpotCents(committed.get("jackpot_cents", Number.class).longValue());
+        pool.setTicketCount(committed.get("ticket_count", Number.class).longValue());
+
+        finishDraw(pool, draw, token);
+        return UUID.fromString(winners.get(0).getString("player_uuid"));
+    }
+
+    /**
+     * Conclui um sorteio gravado: arquiva, apaga os bilhetes sorteados e paga os vencedores
+     * Tudo pode ser repetido sem efeito: só os vencedores ainda sem a marca de pago recebem o prêmio,
+     * e o depósito não se repete para quem já o recebeu (ver payWinners).
+     * Deve ser chamado fora da thread principal, com a concessão do bolão.
+     */
+    private void finishDraw(LotteryPool pool, Document draw, long token) {
+        String drawId = draw.getString("id");
+
+        history.archive(pool, draw);
+        getTicketCollection().deleteMany(drawnTickets(pool, draw));
+
+        long flipped = getPoolCollection().updateOne(
+            Filters.and(fenced(pool, token), Filters.eq("last_draw.id", drawId), Filters.eq("last_draw.state", STATE_COMMITTED)),
+            Updates.set("last_draw.state", STATE_DONE)
+        ).getModifiedCount();
+        ObjectId payoutId = draw.getObjectId("payout_id");
+        if (payoutId != null) {
+            payWinners(pool, draw, payoutId);
+        } else if (flipped == 1) {
+            // Sorteio gravado por uma versão anterior, sem marcas de pagamento
+            for (Document winner : draw.getList("winners", Document.class)) {
+                payWinner(pool, winner);
+            }
+        }
+
+        announceIfNew(pool, draw);
+    }
+
+    /**
+     * Filtro dos bilhetes que entraram em um sorteio gravado
+     * Sorteios gravados por versões anteriores não têm número de sorteio e usam o horário do sorteio.
+     */
+    static Bson drawnTickets(LotteryPool pool, Document draw) {
+        Number seq = draw.get("seq", Number.class);
+        return Filters.and(Filters.eq("draw_type", pool.getId()),
+                           seq != null ? Filters.eq("draw_seq", seq.longValue()) : Filters.lt("purchase_time", draw.getLong("time")));
+    }
+
+    /**
+     * Paga os vencedores de um sorteio que ainda não receberam o prêmio
+     * Cada prêmio é depositado como parte do lote de pagamento do sorteio (depositBatch), que nunca
+     * credita duas vezes a mesma conta, e só então marcado como pago no documento do bolão. Um prêmio
+     * que falhar continua sem a marca e é pago de novo quando syncPools retomar o sorteio.
+     */
+    private void payWinners(LotteryPool pool, Document draw, ObjectId payoutId) {
+        List<Document> winners = draw.getList("winners", Document.class);
+        for (int i = 0; i < winners.size(); i++) {
+            Document winner = winners.get(i);
+            if (!Boolean.FALSE.equals(winner.getBoolean("paid"))) {
+                continue;
+            }
+            UUID winnerId = UUID.fromString(winner.getString("player_uuid"));
+            double prize = winner.getDouble("prize");
+            try {
+                plugin.getMongoDBManager().depositBatch(payoutId, Collections.singletonMap(winnerId, prize),
+                                                        "Prêmio da loteria " + pool.getDisplayName());
+                getPoolCollection().updateOne(Filters.and(Filters.eq("_id", pool.getId()), Filters.eq("last_draw.id", draw.getString("id"))),
+                                              Updates.set("last_draw.winners." + i + ".paid", true));
+                winner.put("paid", true);
+                plugin.getLogger().info("Loteria " + pool.getId() + ": " + winner.getString("player_name") + " ganhou " + prize +
+                                        " com o bilhete " + winner.getInteger("ticket_number") + " (faixa " + winner.getInteger("tier") + ")");
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao pagar prêmio da loteria ao vencedor: " + winner.getString("player_name") +
+                                       " (" + prize + "), nova tentativa na próxima sincronização: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Verifica se um sorteio gravado tem vencedores ainda não pagos
+     * Vencedores de sorteios gravados por versões anteriores não têm a marca e já foram pagos.
+     */
+    private static boolean hasUnpaidWinners(Document draw) {
+        for (Document winner : draw.getList("winners", Document.class)) {
+            if (Boolean.FALSE.equals(winner.getBoolean("paid"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Paga o prêmio de um vencedor de um sorteio gravado por uma versão anterior
+     */
+    private void payWinner(LotteryPool pool, Document winner) {
+        UUID winnerId = UUID.fromString(winner.getString("player_uuid"));
+        double prize = winner.getDouble("prize");
+        plugin.getMongoDBManager().deposit(winnerId, prize, "Prêmio da loteria " + pool.getDisplayName())
+            .thenAccept(success -> {
+                if (!success) {
+                    plugin.getLogger().severe("Erro ao pagar prêmio da loteria ao vencedor: " + winner.getString("player_name") +
+                                              " (" + prize + ")");
+                    return;
                 }
+                plugin.getLogger().info("Loteria " + pool.getId() + ": " + winner.getString("player_name") + " ganhou " + prize +
+                                        " com o bilhete " + winner.getInteger("ticket_number") + " (faixa " + winner.getInteger("tier") + ")");
+            });
+    }
+
+    /**
+     * Anuncia aos jogadores deste servidor um sorteio ainda não anunciado
+     * Os números sorteados deixam de existir, então o mapa local de números é limpo.
+     */
+    private void announceIfNew(LotteryPool pool, Document draw) {
+        if (!pool.markDrawSeen(draw.getString("id"))) {
+            return;
+        }
+        pool.getTicketNumbers().clear();
+
+        List<Document> winners = draw.getList("winners", Document.class);
+        boolean tiered = winners.size() > 1;
+        runSync(() -> {
+            for (Document winner : winners) {
+                String placement = tiered ? " §a(" + winner.getInteger("tier") + "º prêmio)" : "";
+                String prize = PRICE_FORMAT.format(winner.getDouble("prize"));
+
+                // Notifica o vencedor, se estiver neste servidor
+                Player onlineWinner = Bukkit.getPlayer(UUID.fromString(winner.getString("player_uuid")));
+                if (onlineWinner != null && onlineWinner.isOnline()) {
+                    onlineWinner.sendMessage("§a§lPARABÉNS! §aVocê ganhou a loteria " + pool.getDisplayName() + "!" + placement);
+                    onlineWinner.sendMessage("§aPrêmio: §f" + prize);
+                    onlineWinner.sendMessage("§aBilhete vencedor: §f" + winner.getInteger("ticket_number"));
+                }
+
+                // Anuncia o vencedor para todos
+                Bukkit.broadcastMessage("§a§l[LOTERIA] §f" + winner.getString("player_name") + " §aganhou §f" +
+                                      prize + " §ana loteria " + pool.getDisplayName() + "!" + placement);
+                Bukkit.broadcastMessage("§a§l[LOTERIA] §aBilhete vencedor: §f" + winner.getInteger("ticket_number"));
             }
-        }.runTaskAsynchronously(plugin);
-        
-        return future;
+        });
     }
-    
+
     /**
-     * Limpa todos os bilhetes após um sorteio
+     * Compra bilhetes de loteria para um jogador
+     * Toda a compra acontece em uma única tarefa assíncrona: conferência do limite do jogador (bilhetes
+     * no banco mais compras em andamento neste servidor), reserva de números, um único débito
+     * condicional e um único insertMany, qualquer que seja a quantidade. O índice único de números
+     * por bolão garante números distintos entre servidores: números que colidem são trocados e
+     * regravados. A thread principal só é usada uma vez, para as mensagens.
+     * @param player Jogador que está comprando
+     * @param pool Bolão
+     * @param amount Quantidade de bilhetes
+     * @return CompletableFuture com os números dos bilhetes comprados (vazia se a compra falhou)
      */
-    private void clearTickets() {
-        playerTickets.clear();
-        
-        new BukkitRunnable() {
-            @Override
-            public void run() {
+    public CompletableFuture<List<Integer>> buyTickets(Player player, LotteryPool pool, int amount) {
+        CompletableFuture<List<Integer>> future = new CompletableFuture<>();
+        UUID playerId = player.getUniqueId();
+        String playerName = player.getName();
+        double price = pool.getTicketPrice();
+        double total = price * amount;
+        int maxTicketsPerPlayer = configDB.getInt("lottery.max_tickets_per_player", 5);
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            if (!pool.isActive()) {
+                finishPurchase(player, future, Collections.emptyList(), "§cA loteria " + pool.getDisplayName() + " está temporariamente desativada.");
+                return;
+            }
+
+            AtomicInteger reservation = pool.getReservation(playerId);
+            int inFlight = reservation.addAndGet(amount) - amount;
+            int[] numbers = null;
+            boolean debited = false;
+            boolean inserted = false;
+            try {
+                // Limite de bilhetes do jogador, contado no banco (vale para todos os servidores)
+                long owned = getTicketCollection().countDocuments(Filters.and(
+                    Filters.eq("draw_type", pool.getId()), Filters.eq("player_uuid", playerId.toString()))) + inFlight;
+                if (owned + amount > maxTicketsPerPlayer) {
+                    finishPurchase(player, future, Collections.emptyList(),
+                                   "§cVocê pode comprar mais §f" + Math.max(0, maxTicketsPerPlayer - owned) +
+                                   " §cbilhete(s) neste sorteio (limite de " + maxTicketsPerPlayer + ").");
+                    return;
+                }
+
+                // Reserva números ainda não vistos por este servidor
+                int[] allocated = new int[amount];
+                if (!pool.getTicketNumbers().allocate(allocated)) {
+                    finishPurchase(player, future, Collections.emptyList(), "§cNão há mais números disponíveis neste sorteio.");
+                    return;
+                }
+                numbers = allocated;
+
+                debited = plugin.getMongoDBManager().debit(playerId, total, "Compra de " + amount + " bilhete(s) de loteria");
+                if (!debited) {
+                    pool.getTicketNumbers().release(numbers);
+                    finishPurchase(player, future, Collections.emptyList(),
+                                   "§cVocê não tem dinheiro suficiente para comprar " + amount + " bilhete(s) de loteria.",
+                                   "§cPreço do bilhete: §f" + PRICE_FORMAT.format(price));
+                    return;
+                }
+
+                insertTickets(pool, playerId, playerName, numbers, System.currentTimeMillis());
+                inserted = true;
+
+                // Os bilhetes já estão gravados: daqui em diante a compra não é mais estornada
                 try {
-                    plugin.getMongoDBManager().getDatabase().getCollection("lottery_tickets").deleteMany(new Document());
-                    plugin.getLogger().info("Bilhetes de loteria limpos com sucesso.");
+                    getPoolCollection().updateOne(Filters.eq("_id", pool.getId()), Updates.inc("ticket_count", (long) amount));
                 } catch (Exception e) {
-                    plugin.getLogger().log(Level.SEVERE, "Erro ao limpar bilhetes de loteria: " + e.getMessage(), e);
+                    plugin.getLogger().log(Level.WARNING, "Erro ao atualizar a contagem de bilhetes da loteria " + pool.getId() +
+                                           ": " + e.getMessage(), e);
+                }
+
+                // Adiciona ao jackpot (80% do valor dos bilhetes); gravado em lote por flushJackpot
+                pool.getPendingJackpotCents().add(toCents(total * 0.8));
+
+                List<Integer> purchased = new ArrayList<>(amount);
+                for (int number : numbers) {
+                    purchased.add(number);
+                }
+                String numberList = purchased.toString();
+                finishPurchase(player, future, purchased,
+                               amount == 1
+                                   ? "§aVocê comprou um bilhete da loteria " + pool.getDisplayName() + " com o número §f" + numbers[0] + "§a!"
+                                   : "§aVocê comprou §f" + amount + " §abilhetes da loteria " + pool.getDisplayName() + ": §f" +
+                                     numberList.substring(1, numberList.length() - 1),
+                               "§aPrêmio atual: §f" + PRICE_FORMAT.format(pool.getJackpot()),
+                               "§aPróximo sorteio: §f" + new Date(pool.getNextDrawTime()));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao comprar bilhetes de loteria: " + e.getMessage(), e);
+                if (numbers != null && !inserted) {
+                    pool.getTicketNumbers().release(numbers);
                 }
+                if (debited && !inserted) {
+                    plugin.getMongoDBManager().deposit(playerId, total, "Reembolso de bilhetes de loteria");
+                }
+                finishPurchase(player, future, Collections.emptyList(), "§cOcorreu um erro ao comprar os bilhetes. Tente novamente mais tarde.");
+            } finally {
+                reservation.addAndGet(-amount);
             }
-        }.runTaskAsynchronously(plugin);
+        });
+
+        return future;
     }
-    
+
     /**
-     * Agenda o próximo sorteio
+     * Grava os bilhetes de uma compra em um insertMany não ordenado
+     * Números que colidem com bilhetes vendidos por outros servidores são trocados por números livres
+     * e só esses bilhetes são regravados. Se a compra não puder ser gravada, os bilhetes já gravados
+     * são apagados antes de a exceção ser propagada.
+     * @param numbers Números reservados (os que colidirem são substituídos no próprio vetor)
      */
-    public void scheduleNextDraw() {
-        long interval;
-        
-        switch (lotteryType.toLowerCase()) {
-            case "daily":
-                interval = 86400000; // 24 horas
-                break;
-            case "weekly":
-                interval = 604800000; // 7 dias
-                break;
-            case "hourly":
-                interval = 3600000; // 1 hora
-                break;
-            default:
-                interval = 86400000; // Padrão: 24 horas
+    private void insertTickets(LotteryPool pool, UUID playerId, String playerName, int[] numbers, long purchaseTime) {
+        MongoCollection<Document> tickets = getTicketCollection();
+        List<Integer> positions = new ArrayList<>(numbers.length);
+        for (int i = 0; i < numbers.length; i++) {
+            positions.add(i);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            List<Document> ticketDocs = new ArrayList<>(positions.size());
+            for (int position : positions) {
+                ticketDocs.add(new Document()
+                        .append("player_uuid", playerId.toString())
+                        .append("player_name", playerName)
+                        .append("ticket_number", numbers[position])
+                        .append("purchase_time", purchaseTime)
+                        .append("draw_type", pool.getId()));
+            }
+
+            try {
+                tickets.insertMany(ticketDocs, new InsertManyOptions().ordered(false));
+                return;
+            } catch (MongoBulkWriteException e) {
+                List<Integer> colliding = new ArrayList<>();
+                for (BulkWriteError error : e.getWriteErrors()) {
+                    if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                        colliding.add(positions.get(error.getIndex()));
+                    }
+                }
+                int[] replacements = new int[colliding.size()];
+                if (attempt >= MAX_NUMBER_ATTEMPTS || colliding.size() != e.getWriteErrors().size() ||
+                        !pool.getTicketNumbers().allocate(replacements)) {
+                    tickets.deleteMany(Filters.and(Filters.eq("draw_type", pool.getId()),
+                                                   Filters.eq("player_uuid", playerId.toString()),
+                                                   Filters.eq("purchase_time", purchaseTime)));
+                    throw e;
+                }
+
+                // Os números que colidiram já foram vendidos por outro servidor e continuam marcados
+                for (int i = 0; i < colliding.size(); i++) {
+                    numbers[colliding.get(i)] = replacements[i];
+                }
+                positions = colliding;
+            }
         }
-        
-        nextDrawTime = System.currentTimeMillis() + interval;
-        configDB.setConfig("lottery.next_draw", nextDrawTime);
-        
-        plugin.getLogger().info("Próximo sorteio da loteria agendado para: " + new Date(nextDrawTime));
     }
-    
+
     /**
-     * Verifica se é hora de realizar o sorteio
-     * @return true se for hora do sorteio
+     * Obtém os bilhetes de um jogador em todos os bolões
+     * @param playerId UUID do jogador
+     * @return CompletableFuture com os bilhetes do jogador
      */
-    public boolean isTimeForDraw() {
-        return System.currentTimeMillis() >= nextDrawTime;
+    public CompletableFuture<List<LotteryTicket>> getPlayerTickets(UUID playerId) {
+        CompletableFuture<List<LotteryTicket>> future = new CompletableFuture<>();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                List<LotteryTicket> tickets = new ArrayList<>();
+                getTicketCollection().find(Filters.eq("player_uuid", playerId.toString()))
+                    .forEach(doc -> tickets.add(new LotteryTicket(playerId, doc.getInteger("ticket_number"),
+                                                                  doc.getLong("purchase_time"), doc.getString("draw_type"))));
+                future.complete(tickets);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao consultar bilhetes de loteria: " + e.getMessage(), e);
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
     }
-    
+
     /**
-     * Obtém os bilhetes de um jogador
-     * @param playerId UUID do jogador
-     * @return Lista de bilhetes do jogador
+     * Grava no documento do bolão as contribuições acumuladas em memória, com um único $inc
+     * Só o valor gravado é descontado do acumulador, então contribuições que chegam durante a
+     * gravação ficam para a próxima. O valor lido de volta inclui contribuições de outros servidores.
+     * Deve ser chamado fora da thread principal.
+     * @param pool Bolão
+     * @return Valor gravado do prêmio, em centavos
+     * @throws com.mongodb.MongoException se a escrita falhar (as contribuições continuam pendentes)
+     */
+    private long flushJackpot(LotteryPool pool) {
+        synchronized (pool) {
+            long delta = pool.getPendingJackpotCents().sum();
+            Document doc = getPoolCollection().findOneAndUpdate(
+                Filters.eq("_id", pool.getId()),
+                Updates.inc("jackpot_cents", delta),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER)
+            );
+            pool.setPersistedJackpotCents(doc.get("jackpot_cents", Number.class).longValue());
+            pool.getPendingJackpotCents().add(-delta);
+            return pool.getPersistedJackpotCents();
+        }
+    }
+
+    /**
+     * Grava as contribuições pendentes aos prêmios antes do desligamento
      */
-    public List<LotteryTicket> getPlayerTickets(UUID playerId) {
-        return playerTickets.getOrDefault(playerId, new ArrayList<>());
+    public void shutdown() {
+        for (LotteryPool pool : pools.values()) {
+            try {
+                flushJackpot(pool);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao gravar o prêmio da loteria " + pool.getId() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static long toCents(double value) {
+        return Math.round(value * 100.0);
+    }
+
+    private MongoCollection<Document> getPoolCollection() {
+        return plugin.getMongoDBManager().getDatabase().getCollection(POOLS_COLLECTION);
+    }
+
+    private MongoCollection<Document> getTicketCollection() {
+        return plugin.getMongoDBManager().getDatabase().getCollection(TICKETS_COLLECTION);
     }
-    
+
     /**
-     * Obtém o preço atual do bilhete
-     * @return Preço do bilhete
+     * Conclui uma compra de bilhete com um único salto para a thread principal
      */
-    public double getTicketPrice() {
-        return ticketPrice;
+    private void finishPurchase(Player player, CompletableFuture<List<Integer>> future, List<Integer> result, String... messages) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (player.isOnline()) {
+                    for (String message : messages) {
+                        player.sendMessage(message);
+                    }
+                }
+                future.complete(result);
+            }
+        }.runTask(plugin);
     }
-    
+
+    private void runSync(Runnable action) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                action.run();
+            }
+        }.runTask(plugin);
+    }
+
     /**
-     * Obtém o valor atual do jackpot
-     * @return Valor do jackpot
+     * Realiza um sorteio manual de um bolão, sem alterar o horário do próximo sorteio agendado
+     * @param pool Bolão
+     * @return CompletableFuture com o resultado do sorteio (UUID do vencedor da primeira faixa ou null se não houver)
      */
-    public double getJackpot() {
-        return jackpot;
+    public CompletableFuture<UUID> drawLottery(LotteryPool pool) {
+        CompletableFuture<UUID> future = new CompletableFuture<>();
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    future.complete(runDraw(pool, false));
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao realizar sorteio da loteria: " + e.getMessage(), e);
+                    future.complete(null);
+                }
+            }
+        }.runTaskAsynchronously(plugin);
+
+        return future;
     }
-    
+
     /**
-     * Obtém a data/hora do próximo sorteio
-     * @return Data/hora do próximo sorteio
+     * Obtém os bolões da loteria, na ordem da configuração
+     * @return Bolões
      */
-    public long getNextDrawTime() {
-        return nextDrawTime;
+    public Collection<LotteryPool> getPools() {
+        return Collections.unmodifiableCollection(pools.values());
     }
-    
+
     /**
-     * Verifica se a loteria está ativa
-     * @return true se a loteria estiver ativa
+     * Obtém um bolão pelo ID
+     * @param poolId ID do bolão (hourly, daily, weekly...)
+     * @return Bolão ou null se não existir
      */
-    public boolean isLotteryActive() {
-        return lotteryActive;
+    public LotteryPool getPool(String poolId) {
+        return pools.get(poolId.toLowerCase());
     }
-    
+
     /**
-     * Define se a loteria está ativa
-     * @param active Estado da loteria
+     * Obtém o bolão usado quando o jogador não informa um
+     * @return Bolão padrão
      */
-    public void setLotteryActive(boolean active) {
-        this.lotteryActive = active;
-        configDB.setConfig("lottery.active", active);
+    public LotteryPool getDefaultPool() {
+        return defaultPool;
     }
-    
+
     /**
-     * Define o tipo de loteria
-     * @param type Tipo de loteria (daily, weekly, hourly)
+     * Define se um bolão está ativo (aceitando compras)
+     * Deve ser chamado fora da thread principal.
+     * @param pool Bolão
+     * @param active Estado do bolão
      */
-    public void setLotteryType(String type) {
-        this.lotteryType = type;
-        configDB.setConfig("lottery.type", type);
-        scheduleNextDraw();
+    public void setPoolActive(LotteryPool pool, boolean active) {
+        pool.setActive(active);
+        getPoolCollection().updateOne(Filters.eq("_id", pool.getId()), Updates.set("active", active));
     }
-    
+
     /**
-     * Define o preço do bilhete
+     * Define o preço do bilhete de um bolão
+     * Deve ser chamado fora da thread principal.
+     * @param pool Bolão
      * @param price Novo preço
      */
-    public void setTicketPrice(double price) {
-        this.ticketPrice = price;
-        configDB.setConfig("lottery.ticket_price", price);
+    public void setTicketPrice(LotteryPool pool, double price) {
+        pool.setTicketPrice(price);
+        getPoolCollection().updateOne(Filters.eq("_id", pool.getId()), Updates.set("ticket_price", price));
+    }
+
+    /**
+     * Obtém o histórico de sorteios
+     * @return Histórico da loteria
+     */
+    public LotteryHistory getHistory() {
+        return history;
     }
 }
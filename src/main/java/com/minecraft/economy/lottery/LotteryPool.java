@@ -0,0 +1,175 @@
+package com.minecraft.economy.lottery;
+
+import com.minecraft.economy.utils.HierarchicalTimingWheel;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bolão da loteria (horário, diário, semanal...)
+ * Cada bolão tem seus próprios bilhetes, preço, prêmio e horário de sorteio. O estado compartilhado
+ * entre os servidores fica no documento do bolão na coleção "lottery_pools" (o _id é o ID do bolão)
+ * e é relido periodicamente; este objeto guarda só a última leitura e o estado local do servidor.
+ */
+public class LotteryPool {
+
+    private final String id;
+    private final String displayName;
+    private final long intervalMillis;
+    private final double initialJackpot;
+
+    // Estado local do servidor
+    private final Map<UUID, AtomicInteger> reservations = new ConcurrentHashMap<>(); // Bilhetes em compra, por jogador
+    private final TicketNumberPool ticketNumbers = new TicketNumberPool(); // Números já vistos por este servidor
+    private final AtomicBoolean drawing = new AtomicBoolean();
+    private final LongAdder pendingJackpotCents = new LongAdder(); // Contribuições ainda não gravadas
+    private HierarchicalTimingWheel.Entry<Runnable> drawTimeout; // Acessado na thread principal
+    private String lastSeenDrawId; // Último sorteio anunciado neste servidor
+
+    // Última leitura do documento do bolão
+    private volatile long persistedJackpotCents;
+    private volatile long ticketCount;
+    private volatile double ticketPrice;
+    private volatile boolean active;
+    private volatile long nextDrawTime;
+
+    LotteryPool(String id, String displayName, long intervalMillis, double ticketPrice, double initialJackpot) {
+        this.id = id;
+        this.displayName = displayName;
+        this.intervalMillis = intervalMillis;
+        this.ticketPrice = ticketPrice;
+        this.initialJackpot = initialJackpot;
+        this.active = true;
+    }
+
+    /**
+     * Obtém o horário de sorteio seguinte a um horário previsto, mantendo o alinhamento ao intervalo
+     * Sorteios atrasados mais de um intervalo não se acumulam: o próximo horário é sempre futuro.
+     * @param scheduled Horário previsto do sorteio
+     * @param now Instante atual
+     * @return Próximo horário de sorteio
+     */
+    long nextDrawAfter(long scheduled, long now) {
+        if (scheduled > now) {
+            return scheduled + intervalMillis;
+        }
+        return scheduled + ((now - scheduled) / intervalMillis + 1) * intervalMillis;
+    }
+
+    AtomicInteger getReservation(UUID playerId) {
+        return reservations.computeIfAbsent(playerId, k -> new AtomicInteger());
+    }
+
+    TicketNumberPool getTicketNumbers() {
+        return ticketNumbers;
+    }
+
+    /**
+     * Marca o início de um sorteio neste servidor
+     * @return false se este servidor já está sorteando o bolão
+     */
+    boolean beginDraw() {
+        return drawing.compareAndSet(false, true);
+    }
+
+    void endDraw() {
+        drawing.set(false);
+    }
+
+    LongAdder getPendingJackpotCents() {
+        return pendingJackpotCents;
+    }
+
+    long getPersistedJackpotCents() {
+        return persistedJackpotCents;
+    }
+
+    void setPersistedJackpotCents(long persistedJackpotCents) {
+        this.persistedJackpotCents = persistedJackpotCents;
+    }
+
+    HierarchicalTimingWheel.Entry<Runnable> getDrawTimeout() {
+        return drawTimeout;
+    }
+
+    void setDrawTimeout(HierarchicalTimingWheel.Entry<Runnable> drawTimeout) {
+        this.drawTimeout = drawTimeout;
+    }
+
+    /**
+     * Registra um sorteio como já anunciado neste servidor
+     * @param drawId ID do sorteio
+     * @return false se o sorteio já tinha sido registrado
+     */
+    synchronized boolean markDrawSeen(String drawId) {
+        if (drawId.equals(lastSeenDrawId)) {
+            return false;
+        }
+        lastSeenDrawId = drawId;
+        return true;
+    }
+
+    void setTicketCount(long ticketCount) {
+        this.ticketCount = ticketCount;
+    }
+
+    void setTicketPrice(double ticketPrice) {
+        this.ticketPrice = ticketPrice;
+    }
+
+    void setActive(boolean active) {
+        this.active = active;
+    }
+
+    void setNextDrawTime(long nextDrawTime) {
+        this.nextDrawTime = nextDrawTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public double getInitialJackpot() {
+        return initialJackpot;
+    }
+
+    public double getTicketPrice() {
+        return ticketPrice;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public long getNextDrawTime() {
+        return nextDrawTime;
+    }
+
+    /**
+     * Obtém o valor atual do prêmio, incluindo as contribuições deste servidor ainda não gravadas
+     * @return Valor do prêmio
+     */
+    public double getJackpot() {
+        return (persistedJackpotCents + pendingJackpotCents.sum()) / 100.0;
+    }
+
+    /**
+     * Obtém o total de bilhetes vendidos no bolão por todos os servidores
+     * @return Número total de bilhetes (última leitura do banco)
+     */
+    public long countTotalTickets() {
+        return ticketCount;
+    }
+}
@@ -0,0 +1,61 @@
+package com.minecraft.economy.lottery;
+
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mapa de bits dos números de bilhete já vendidos no sorteio atual
+ * Garante números únicos: cada número sorteado para um bilhete é marcado antes da gravação e
+ * liberado se a compra falhar. Ocupa 125 KB para todos os números de 1 a 999999.
+ */
+final class TicketNumberPool {
+
+    static final int MAX_NUMBER = 999999;
+
+    private final BitSet sold = new BitSet(MAX_NUMBER + 1);
+    private int soldCount;
+
+    /**
+     * Reserva números livres, escolhidos ao acaso
+     * @param numbers Vetor preenchido com os números reservados
+     * @return false se não há números livres suficientes (nada é reservado)
+     */
+    synchronized boolean allocate(int[] numbers) {
+        if (soldCount + numbers.length > MAX_NUMBER) {
+            return false;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < numbers.length; i++) {
+            // Primeiro número livre a partir de uma posição aleatória, dando a volta no fim
+            int number = sold.nextClearBit(random.nextInt(MAX_NUMBER) + 1);
+            if (number > MAX_NUMBER) {
+                number = sold.nextClearBit(1);
+            }
+            sold.set(number);
+            numbers[i] = number;
+        }
+        soldCount += numbers.length;
+        return true;
+    }
+
+    /**
+     * Libera números reservados por uma compra que falhou
+     * @param numbers Números reservados
+     */
+    synchronized void release(int[] numbers) {
+        for (int number : numbers) {
+            if (sold.get(number)) {
+                sold.clear(number);
+                soldCount--;
+            }
+        }
+    }
+
+    /**
+     * Libera todos os números (novo sorteio)
+     */
+    synchronized void clear() {
+        sold.clear();
+        soldCount = 0;
+    }
+}
@@ -0,0 +1,106 @@
+package com.minecraft.economy.lottery;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Árvore de Fenwick com o número de bilhetes de cada jogador
+ * Cada jogador ocupa um slot fixo; o sorteio desce pela árvore até o slot que contém o bilhete
+ * sorteado, em O(log n) e sem alocar memória. Cada sorteio monta a sua árvore e a usa em uma
+ * única thread, então não há sincronização.
+ */
+final class TicketWeightTree {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private UUID[] players = new UUID[INITIAL_CAPACITY];
+    private long[] weights = new long[INITIAL_CAPACITY];
+    private long[] tree = new long[INITIAL_CAPACITY + 1]; // Indexada a partir de 1
+    private int size;
+    private long total;
+
+    /**
+     * Soma bilhetes ao peso de um jogador
+     * @param player UUID do jogador
+     * @param delta Bilhetes a somar (negativo para remover)
+     */
+    void add(UUID player, long delta) {
+        Integer slot = slots.get(player);
+        if (slot == null) {
+            if (size == players.length) {
+                grow();
+            }
+            slot = size++;
+            slots.put(player, slot);
+            players[slot] = player;
+        }
+        weights[slot] += delta;
+        total += delta;
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Localiza o slot que contém um bilhete
+     * @param target Posição do bilhete, entre 0 e o total de bilhetes (exclusivo)
+     * @return Slot do jogador dono do bilhete
+     */
+    int find(long target) {
+        int position = 0;
+        long remaining = target;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Obtém o número de bilhetes dos slots anteriores a um slot
+     * @param slot Slot
+     * @return Soma dos pesos dos slots 0 até slot - 1
+     */
+    long before(int slot) {
+        long sum = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    UUID playerAt(int slot) {
+        return players[slot];
+    }
+
+    long weightAt(int slot) {
+        return weights[slot];
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    /**
+     * Dobra a capacidade e reconstrói a árvore em O(n)
+     */
+    private void grow() {
+        int capacity = players.length * 2;
+        players = Arrays.copyOf(players, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        tree = new long[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.minecraft.economy.market;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Diário de escritas do mercado de ordens
+ * Os livros de ofertas registram aqui as execuções, as quantidades restantes das ordens e os
+ * créditos de dinheiro e itens; a cada ciclo tudo é gravado em poucas escritas em lote. O lote
+ * inteiro é gravado primeiro como um único documento em "market_batches"; só depois são gravadas as
+ * execuções, os itens, os créditos e, por último, as quantidades restantes das ordens. Um lote que
+ * falhou é retomado no ciclo seguinte a partir da etapa em que parou, e os lotes que ficaram no banco
+ * (por exemplo, depois de uma queda do servidor) são concluídos pelo próximo líder antes de montar os
+ * livros (replay). Todas as etapas podem ser repetidas sem duplicar nada: execuções e itens têm
+ * identificadores fixos, os saldos guardam os lotes já aplicados e a quantidade restante de uma
+ * ordem só diminui. Só o servidor líder
+ * grava lotes novos: execuções registradas antes de uma perda de liderança são descartadas, e as
+ * ordens continuam no banco como estavam. Os avisos aos jogadores vão para "market_notices", de onde
+ * o servidor em que cada jogador está os entrega.
+ */
+public class MarketJournal {
+
+    static final String ORDERS_COLLECTION = "market_orders";
+    static final String FILLS_COLLECTION = "market_fills";
+    static final String CLAIMS_COLLECTION = "market_claims";
+    static final String NOTICES_COLLECTION = "market_notices";
+    static final String BATCHES_COLLECTION = "market_batches";
+
+    private final EconomyPlugin plugin;
+    private final Object lock = new Object();
+    private Batch current = new Batch();
+    private Batch retry;
+
+    /**
+     * Construtor do diário
+     * @param plugin Instância do plugin
+     */
+    public MarketJournal(EconomyPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Registra a quantidade restante de uma ordem (ordens sem quantidade restante são apagadas)
+     * @param order Ordem
+     */
+    void recordRemaining(Order order) {
+        synchronized (lock) {
+            current.remaining.put(order.getId(), order.getRemaining());
+        }
+    }
+
+    /**
+     * Registra uma execução entre uma ordem nova e uma ordem em espera no livro
+     * Um comprador que ofereceu mais que o preço da execução recebe a diferença de volta.
+     * @param taker Ordem nova
+     * @param maker Ordem em espera
+     * @param quantity Unidades executadas
+     * @param price Preço da execução por unidade
+     */
+    void recordFill(Order taker, Order maker, int quantity, double price) {
+        Order buy = taker.getSide() == Order.Side.BUY ? taker : maker;
+        Order sell = taker.getSide() == Order.Side.SELL ? taker : maker;
+        double total = price * quantity;
+
+        Document fill = new Document("_id", new ObjectId())
+            .append("item_id", taker.getItemId())
+            .append("price", price)
+            .append("quantity", quantity)
+            .append("buy_order", buy.getId())
+            .append("sell_order", sell.getId())
+            .append("buyer_uuid", buy.getPlayerUUID().toString())
+            .append("seller_uuid", sell.getPlayerUUID().toString())
+            .append("timestamp", System.currentTimeMillis());
+
+        synchronized (lock) {
+            current.fills.add(fill);
+            current.credit(sell.getPlayerUUID(), total);
+            if (buy.getPrice() > price) {
+                current.credit(buy.getPlayerUUID(), (buy.getPrice() - price) * quantity);
+            }
+            current.claim(buy.getPlayerUUID(), taker.getItemId(), quantity);
+            current.notify(sell.getPlayerUUID(), "§aMercado: vendidas §f" + quantity + "x " + taker.getItemId() +
+                           " §apor §f" + plugin.getEconomyProvider().format(total) + "§a.");
+            current.notify(buy.getPlayerUUID(), "§aMercado: compradas §f" + quantity + "x " + taker.getItemId() +
+                           " §apor §f" + plugin.getEconomyProvider().format(total) + "§a.");
+        }
+    }
+
+    /**
+     * Registra o cancelamento de uma ordem, devolvendo a garantia da parte não executada
+     * @param order Ordem cancelada (com a quantidade restante antes do cancelamento)
+     * @param remaining Unidades não executadas
+     */
+    void recordCancel(Order order, int remaining) {
+        synchronized (lock) {
+            current.remaining.put(order.getId(), 0);
+            if (order.getSide() == Order.Side.BUY) {
+                current.credit(order.getPlayerUUID(), order.getPrice() * remaining);
+            } else {
+                current.claim(order.getPlayerUUID(), order.getItemId(), remaining);
+            }
+        }
+    }
+
+    /**
+     * Descarta as escritas acumuladas e ainda não gravadas
+     * Usado quando os livros são descartados ou montados de novo a partir do banco.
+     */
+    synchronized void discardPending() {
+        synchronized (lock) {
+            current = new Batch();
+        }
+        if (retry != null && retry.stage == 0) {
+            retry = null;
+        }
+    }
+
+    /**
+     * Conclui os lotes gravados e não terminados, de qualquer servidor, na ordem em que foram criados
+     * Deve ser chamado pelo novo líder antes de montar os livros, fora da thread principal.
+     * @throws IllegalStateException se um lote não puder ser concluído (os livros não devem ser montados)
+     */
+    synchronized void replay() {
+        int count = 0;
+        for (Document doc : getCollection(BATCHES_COLLECTION).find().sort(Sorts.ascending("_id"))) {
+            Batch batch = Batch.fromDocument(doc);
+            batch.stage = 1;
+            if (!write(batch)) {
+                throw new IllegalStateException("O lote " + batch.id + " do mercado não pôde ser concluído");
+            }
+            count++;
+        }
+        // O lote pendente deste servidor, se havia um, estava no banco e foi concluído acima
+        retry = null;
+        if (count > 0) {
+            plugin.getLogger().info("Mercado de ordens: " + count + " lote(s) interrompido(s) concluído(s).");
+        }
+    }
+
+    /**
+     * Grava as escritas acumuladas
+     * Executa de forma síncrona; deve ser chamado fora da thread principal (exceto no desligamento).
+     */
+    public synchronized void flush() {
+        if (retry != null && retry.stage == 0 && !plugin.getClusterCoordinator().isLeader()) {
+            // Nada do lote chegou ao banco: o novo líder parte das ordens como estavam
+            retry = null;
+        }
+        if (retry != null) {
+            if (!write(retry)) {
+                return;
+            }
+            retry = null;
+        }
+
+        Batch batch;
+        synchronized (lock) {
+            if (current.isEmpty()) {
+                return;
+            }
+            if (!plugin.getClusterCoordinator().isLeader()) {
+                // Execuções de um servidor que perdeu a liderança: o novo líder parte do banco
+                current = new Batch();
+                return;
+            }
+            batch = current;
+            current = new Batch();
+        }
+
+        if (!write(batch)) {
+            retry = batch;
+        }
+    }
+
+    /**
+     * Grava um lote, a partir da etapa em que ele parou
+     * @param batch Lote
+     * @return true se o lote foi gravado por completo
+     */
+    private boolean write(Batch batch) {
+        long start = System.nanoTime();
+        try {
+            if (batch.stage == 0) {
+                getCollection(BATCHES_COLLECTION).replaceOne(Filters.eq("_id", batch.id), batch.toDocument(),
+                                                             new ReplaceOptions().upsert(true));
+                batch.stage = 1;
+            }
+            if (batch.stage == 1) {
+                writeFills(batch);
+                batch.stage = 2;
+            }
+            if (batch.stage == 2) {
+                writeClaims(batch);
+                batch.stage = 3;
+            }
+            if (batch.stage == 3) {
+                plugin.getMongoDBManager().depositBatch(batch.id, batch.credits, "Mercado de ordens");
+                batch.stage = 4;
+            }
+            if (batch.stage == 4) {
+                writeOrders(batch);
+                batch.stage = 5;
+            }
+            if (batch.stage == 5) {
+                getCollection(BATCHES_COLLECTION).deleteOne(Filters.eq("_id", batch.id));
+                batch.stage = 6;
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Erro ao gravar o diário do mercado (etapa " + batch.stage + "): " + e.getMessage(), e);
+            return false;
+        }
+
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+        plugin.getLogger().fine("Diário do mercado gravado: " + batch.fills.size() + " execuções, " +
+                               batch.remaining.size() + " ordens em " + elapsedMicros + "µs");
+
+        writeNotices(batch);
+        return true;
+    }
+
+    private void writeOrders(Batch batch) {
+        if (batch.remaining.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> models = new ArrayList<>(batch.remaining.size());
+        for (Map.Entry<ObjectId, Integer> entry : batch.remaining.entrySet()) {
+            if (entry.getValue() <= 0) {
+                models.add(new DeleteOneModel<>(Filters.eq("_id", entry.getKey())));
+            } else {
+                // Só diminui: um lote antigo repetido depois de um mais novo não desfaz execuções
+                models.add(new UpdateOneModel<>(Filters.and(Filters.eq("_id", entry.getKey()), Filters.gt("remaining", entry.getValue())),
+                                                Updates.set("remaining", entry.getValue())));
+            }
+        }
+        getCollection(ORDERS_COLLECTION).bulkWrite(models, new BulkWriteOptions().ordered(false));
+    }
+
+    private void writeFills(Batch batch) {
+        if (batch.fills.isEmpty()) {
+            return;
+        }
+        // Substituição com upsert: regravar um lote retomado não duplica execuções
+        List<WriteModel<Document>> models = new ArrayList<>(batch.fills.size());
+        for (Document fill : batch.fills) {
+            models.add(new ReplaceOneModel<>(Filters.eq("_id", fill.getObjectId("_id")), fill, new ReplaceOptions().upsert(true)));
+        }
+        getCollection(FILLS_COLLECTION).bulkWrite(models, new BulkWriteOptions().ordered(false));
+    }
+
+    private void writeClaims(Batch batch) {
+        if (batch.claims.isEmpty()) {
+            return;
+        }
+        // Um documento por lote, jogador e item, criado só se ainda não existir: um lote retomado não
+        // recria itens que já foram entregues (os documentos entregues ficam marcados, não são apagados)
+        List<WriteModel<Document>> models = new ArrayList<>();
+        for (Map.Entry<UUID, Map<String, Integer>> player : batch.claims.entrySet()) {
+            for (Map.Entry<String, Integer> item : player.getValue().entrySet()) {
+                models.add(new UpdateOneModel<>(
+                    Filters.eq("_id", batch.id.toHexString() + ":" + player.getKey() + ":" + item.getKey()),
+                    Updates.combine(Updates.setOnInsert("player_uuid", player.getKey().toString()),
+                                    Updates.setOnInsert("item_id", item.getKey()),
+                                    Updates.setOnInsert("amount", item.getValue())),
+                    new UpdateOptions().upsert(true)
+                ));
+            }
+        }
+        getCollection(CLAIMS_COLLECTION).bulkWrite(models, new BulkWriteOptions().ordered(false));
+    }
+
+    /**
+     * Grava os avisos do lote, um documento por jogador; falhas só são registradas no log
+     */
+    private void writeNotices(Batch batch) {
+        if (batch.messages.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> models = new ArrayList<>(batch.messages.size());
+        for (Map.Entry<UUID, List<String>> entry : batch.messages.entrySet()) {
+            models.add(new UpdateOneModel<>(
+                Filters.eq("_id", batch.id.toHexString() + ":" + entry.getKey()),
+                Updates.combine(Updates.setOnInsert("player_uuid", entry.getKey().toString()),
+                                Updates.setOnInsert("messages", entry.getValue()),
+                                Updates.setOnInsert("created_at", new Date())),
+                new UpdateOptions().upsert(true)
+            ));
+        }
+        try {
+            getCollection(NOTICES_COLLECTION).bulkWrite(models, new BulkWriteOptions().ordered(false));
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao gravar os avisos do mercado: " + e.getMessage(), e);
+        }
+    }
+
+    private MongoCollection<Document> getCollection(String name) {
+        return plugin.getMongoDBManager().getDatabase().getCollection(name);
+    }
+
+    /**
+     * Escritas acumuladas em um ciclo
+     */
+    private static final class Batch {
+        private final ObjectId id;
+        private final Map<ObjectId, Integer> remaining = new LinkedHashMap<>();
+        private final List<Document> fills = new ArrayList<>();
+        private final Map<UUID, Double> credits = new HashMap<>();
+        private final Map<UUID, Map<String, Integer>> claims = new HashMap<>();
+        private final Map<UUID, List<String>> messages = new HashMap<>();
+        private int stage;
+
+        private Batch() {
+            this(new ObjectId());
+        }
+
+        private Batch(ObjectId id) {
+            this.id = id;
+        }
+
+        /**
+         * Converte o lote para o documento gravado em "market_batches"
+         */
+        private Document toDocument() {
+            List<Document> remainingDocs = new ArrayList<>(remaining.size());
+            for (Map.Entry<ObjectId, Integer> entry : remaining.entrySet()) {
+                remainingDocs.add(new Document("order_id", entry.getKey()).append("remaining", entry.getValue()));
+            }
+            List<Document> creditDocs = new ArrayList<>(credits.size());
+            for (Map.Entry<UUID, Double> entry : credits.entrySet()) {
+                creditDocs.add(new Document("player_uuid", entry.getKey().toString()).append("amount", entry.getValue()));
+            }
+            List<Document> claimDocs = new ArrayList<>();
+            for (Map.Entry<UUID, Map<String, Integer>> player : claims.entrySet()) {
+                for (Map.Entry<String, Integer> item : player.getValue().entrySet()) {
+                    claimDocs.add(new Document("player_uuid", player.getKey().toString())
+                        .append("item_id", item.getKey())
+                        .append("amount", item.getValue()));
+                }
+            }
+            List<Document> messageDocs = new ArrayList<>(messages.size());
+            for (Map.Entry<UUID, List<String>> entry : messages.entrySet()) {
+                messageDocs.add(new Document("player_uuid", entry.getKey().toString()).append("messages", entry.getValue()));
+            }
+            return new Document("_id", id)
+                .append("remaining", remainingDocs)
+                .append("fills", fills)
+                .append("credits", creditDocs)
+                .append("claims", claimDocs)
+                .append("messages", messageDocs)
+                .append("created_at", new Date());
+        }
+
+        /**
+         * Lê um lote gravado em "market_batches"
+         */
+        private static Batch fromDocument(Document doc) {
+            Batch batch = new Batch(doc.getObjectId("_id"));
+            for (Document entry : doc.getList("remaining", Document.class)) {
+                batch.remaining.put(entry.getObjectId("order_id"), entry.getInteger("remaining"));
+            }
+            batch.fills.addAll(doc.getList("fills", Document.class));
+            for (Document entry : doc.getList("credits", Document.class)) {
+                batch.credits.put(UUID.fromString(entry.getString("player_uuid")), entry.getDouble("amount"));
+            }
+            for (Document entry : doc.getList("claims", Document.class)) {
+                batch.claim(UUID.fromString(entry.getString("player_uuid")), entry.getString("item_id"), entry.getInteger("amount"));
+            }
+            for (Document entry : doc.getList("messages", Document.class)) {
+                batch.messages.put(UUID.fromString(entry.getString("player_uuid")),
+                                   new ArrayList<>(entry.getList("messages", String.class)));
+            }
+            return batch;
+        }
+
+        private void credit(UUID playerUUID, double amount) {
+            if (amount > 0) {
+                credits.merge(playerUUID, amount, Double::sum);
+            }
+        }
+
+        private void claim(UUID playerUUID, String itemId, int amount) {
+            if (amount > 0) {
+                claims.computeIfAbsent(playerUUID, k -> new HashMap<>()).merge(itemId, amount, Integer::sum);
+            }
+        }
+
+        private void notify(UUID playerUUID, String message) {
+            messages.computeIfAbsent(playerUUID, k -> new ArrayList<>()).add(message);
+        }
+
+        private boolean isEmpty() {
+            return remaining.isEmpty() && fills.isEmpty() && credits.isEmpty() && claims.isEmpty();
+        }
+    }
+}
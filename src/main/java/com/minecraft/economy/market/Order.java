@@ -0,0 +1,167 @@
+package com.minecraft.economy.market;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Ordem limitada de compra ou venda de um item no livro de ofertas
+ * O dinheiro (compras) ou os itens (vendas) da parte não executada ficam retidos em garantia
+ * até a ordem ser executada ou cancelada. A quantidade restante só é alterada pela thread do
+ * livro de ofertas do item.
+ */
+public class Order {
+
+    /**
+     * Lado da ordem
+     */
+    public enum Side {
+        BUY,
+        SELL
+    }
+
+    /** Compras: maior preço primeiro; empates pela ordem de chegada */
+    static final Comparator<Order> BID_ORDER = Comparator
+        .comparingDouble(Order::getPrice).reversed()
+        .thenComparingLong(Order::getSequence);
+
+    /** Vendas: menor preço primeiro; empates pela ordem de chegada */
+    static final Comparator<Order> ASK_ORDER = Comparator
+        .comparingDouble(Order::getPrice)
+        .thenComparingLong(Order::getSequence);
+
+    private final ObjectId id;
+    private final String itemId;
+    private final Side side;
+    private final UUID playerUUID;
+    private final String playerName;
+    private final double price;
+    private final int quantity;
+    private volatile int remaining; // Alterada só pela fila do livro; lida também por outras threads
+    private final long sequence;
+    private final long createdAt;
+
+    /**
+     * Construtor para criar uma nova ordem
+     * @param itemId ID do item
+     * @param side Lado da ordem
+     * @param playerUUID UUID do jogador
+     * @param playerName Nome do jogador
+     * @param price Preço limite por unidade
+     * @param quantity Quantidade de unidades
+     * @param sequence Número de chegada (prioridade de tempo)
+     */
+    public Order(String itemId, Side side, UUID playerUUID, String playerName, double price, int quantity, long sequence) {
+        this(new ObjectId(), itemId, side, playerUUID, playerName, price, quantity, quantity, sequence, System.currentTimeMillis());
+    }
+
+    private Order(ObjectId id, String itemId, Side side, UUID playerUUID, String playerName, double price,
+                  int quantity, int remaining, long sequence, long createdAt) {
+        this.id = id;
+        this.itemId = itemId;
+        this.side = side;
+        this.playerUUID = playerUUID;
+        this.playerName = playerName;
+        this.price = price;
+        this.quantity = quantity;
+        this.remaining = remaining;
+        this.sequence = sequence;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Cria uma ordem a partir de um documento do MongoDB
+     * @param doc Documento da ordem
+     * @return Ordem
+     */
+    public static Order fromDocument(Document doc) {
+        return new Order(
+            doc.getObjectId("_id"),
+            doc.getString("item_id"),
+            Side.valueOf(doc.getString("side")),
+            UUID.fromString(doc.getString("player_uuid")),
+            doc.getString("player_name"),
+            doc.getDouble("price"),
+            doc.getInteger("quantity"),
+            doc.getInteger("remaining"),
+            doc.getLong("sequence"),
+            doc.getLong("created_at")
+        );
+    }
+
+    /**
+     * Converte a ordem para um documento do MongoDB
+     * @return Documento da ordem
+     */
+    public Document toDocument() {
+        return new Document("_id", id)
+            .append("item_id", itemId)
+            .append("side", side.name())
+            .append("player_uuid", playerUUID.toString())
+            .append("player_name", playerName)
+            .append("price", price)
+            .append("quantity", quantity)
+            .append("remaining", remaining)
+            .append("sequence", sequence)
+            .append("created_at", createdAt);
+    }
+
+    /**
+     * Verifica se esta ordem pode ser executada contra uma ordem do lado oposto
+     * @param other Ordem em espera no livro
+     * @return true se os preços se cruzam
+     */
+    boolean crosses(Order other) {
+        return side == Side.BUY ? price >= other.price : price <= other.price;
+    }
+
+    /**
+     * Reduz a quantidade restante após uma execução
+     * @param amount Unidades executadas
+     */
+    void fill(int amount) {
+        remaining -= amount;
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    public UUID getPlayerUUID() {
+        return playerUUID;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getRemaining() {
+        return remaining;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
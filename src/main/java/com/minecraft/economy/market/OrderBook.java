@@ -0,0 +1,174 @@
+package com.minecraft.economy.market;
+
+import org.bson.types.ObjectId;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Livro de ofertas de um item, com prioridade de preço e depois de tempo
+ * Todas as operações do livro passam por uma fila própria e são executadas uma de cada vez
+ * (um único escritor por item), sem travas; livros de itens diferentes rodam em paralelo.
+ * Os livros só existem no servidor líder (ver OrderBookManager).
+ */
+public class OrderBook {
+
+    private final String itemId;
+    private final PriorityQueue<Order> bids = new PriorityQueue<>(Order.BID_ORDER);
+    private final PriorityQueue<Order> asks = new PriorityQueue<>(Order.ASK_ORDER);
+    private final Map<ObjectId, Order> orders = new HashMap<>();
+    private final MarketJournal journal;
+    private final Executor executor;
+    private final Object queueLock = new Object();
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+
+    /**
+     * Construtor do livro de ofertas
+     * @param itemId ID do item
+     * @param journal Diário onde as execuções são registradas
+     * @param executor Executor onde as operações do livro rodam
+     */
+    OrderBook(String itemId, MarketJournal journal, Executor executor) {
+        this.itemId = itemId;
+        this.journal = journal;
+        this.executor = executor;
+    }
+
+    /**
+     * Enfileira uma operação no livro
+     * @param task Operação
+     * @return CompletableFuture com o resultado da operação
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        synchronized (queueLock) {
+            tail = tail.thenRunAsync(() -> {
+                try {
+                    result.complete(task.get());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            }, executor);
+        }
+        return result;
+    }
+
+    /**
+     * Executa uma ordem contra o lado oposto do livro e deixa o restante em espera
+     * A quantidade restante da ordem só é registrada se algo foi executado. Ao montar os livros, as
+     * ordens em espera são passadas aqui na ordem de chegada: como não se cruzam, só voltam ao livro.
+     * Deve ser chamado pela fila do livro.
+     * @param incoming Ordem nova
+     * @return Unidades executadas
+     */
+    int match(Order incoming) {
+        PriorityQueue<Order> opposite = incoming.getSide() == Order.Side.BUY ? asks : bids;
+        int filled = 0;
+
+        while (incoming.getRemaining() > 0) {
+            Order resting = opposite.peek();
+            if (resting == null || !incoming.crosses(resting)) {
+                break;
+            }
+
+            int quantity = Math.min(incoming.getRemaining(), resting.getRemaining());
+            incoming.fill(quantity);
+            resting.fill(quantity);
+            filled += quantity;
+
+            // Executa ao preço de quem já estava no livro
+            journal.recordFill(incoming, resting, quantity, resting.getPrice());
+            journal.recordRemaining(resting);
+            if (resting.getRemaining() <= 0) {
+                opposite.poll();
+                orders.remove(resting.getId());
+            }
+        }
+
+        if (filled > 0) {
+            journal.recordRemaining(incoming);
+        }
+        if (incoming.getRemaining() > 0) {
+            rest(incoming);
+        }
+        return filled;
+    }
+
+    private void rest(Order order) {
+        (order.getSide() == Order.Side.BUY ? bids : asks).add(order);
+        orders.put(order.getId(), order);
+    }
+
+    /**
+     * Cancela uma ordem em espera
+     * Deve ser chamado pela fila do livro.
+     * @param orderId ID da ordem
+     * @param playerUUID UUID do jogador que está cancelando (deve ser o dono da ordem)
+     * @return Ordem cancelada, ou null se ela não estiver mais no livro
+     */
+    Order cancel(ObjectId orderId, UUID playerUUID) {
+        Order order = orders.get(orderId);
+        if (order == null || !order.getPlayerUUID().equals(playerUUID)) {
+            return null;
+        }
+
+        orders.remove(orderId);
+        (order.getSide() == Order.Side.BUY ? bids : asks).remove(order);
+        int remaining = order.getRemaining();
+        order.fill(remaining);
+        journal.recordCancel(order, remaining);
+        return order;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Nível de preço agregado do livro
+     */
+    public static final class Level {
+        private final double price;
+        private final int quantity;
+
+        Level(double price, int quantity) {
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+
+    /**
+     * Profundidade do livro: melhores níveis de compra e de venda
+     */
+    public static final class Depth {
+        private final List<Level> bids;
+        private final List<Level> asks;
+
+        Depth(List<Level> bids, List<Level> asks) {
+            this.bids = bids;
+            this.asks = asks;
+        }
+
+        public List<Level> getBids() {
+            return bids;
+        }
+
+        public List<Level> getAsks() {
+            return asks;
+        }
+    }
+}
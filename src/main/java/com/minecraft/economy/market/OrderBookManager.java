@@ -0,0 +1,659 @@
+package com.minecraft.economy.market;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.scheduler.ScheduleSpec;
+import com.minecraft.economy.utils.ModItemUtils;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Gerenciador do mercado de ordens
+ * Qualquer servidor grava as ordens novas e os pedidos de cancelamento em "market_orders", retendo em
+ * garantia o dinheiro das ordens de compra e os itens das ordens de venda; só o servidor líder
+ * (ClusterCoordinator) mantém os livros de ofertas e executa as ordens, então uma ordem em espera
+ * nunca é executada por dois servidores. Os avisos e o que cada jogador recebeu (itens comprados ou
+ * devolvidos, em "market_claims") são entregues pelo servidor onde o jogador estiver online.
+ */
+public class OrderBookManager {
+
+    private static final String SEQUENCE_KEY = "market.sequence";
+
+    private final EconomyPlugin plugin;
+    private final Map<String, OrderBook> books = new ConcurrentHashMap<>();
+    private final MarketJournal journal;
+    private final Executor executor;
+    private volatile boolean loaded;
+    private boolean matching; // Este servidor mantém os livros (é o líder); protegido pelo monitor
+
+    public OrderBookManager(EconomyPlugin plugin) {
+        this.plugin = plugin;
+        this.journal = new MarketJournal(plugin);
+        this.executor = task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+        prepare();
+
+        long interval = plugin.getConfigManager().getMarketFlushIntervalTicks() * 50L;
+
+        // Grava periodicamente as execuções acumuladas
+        plugin.getScheduler().scheduleLocal("market.flush", ScheduleSpec.every(interval), true, journal::flush);
+
+        // Executa as ordens novas e os cancelamentos pedidos em qualquer servidor (só no líder)
+        plugin.getScheduler().scheduleLocal("market.match", ScheduleSpec.every(interval), true, this::runMatcher);
+
+        // Entrega avisos e itens aos jogadores online neste servidor
+        plugin.getScheduler().scheduleLocal("market.deliver", ScheduleSpec.every(interval), false, this::deliver);
+    }
+
+    /**
+     * Cria os índices e inicia o contador de chegada das ordens
+     */
+    private void prepare() {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    MongoCollection<Document> orders = getCollection(MarketJournal.ORDERS_COLLECTION);
+                    orders.createIndex(Indexes.ascending("item_id"));
+                    orders.createIndex(Indexes.ascending("player_uuid"));
+                    orders.createIndex(Indexes.ascending("matched"));
+                    MongoCollection<Document> claims = getCollection(MarketJournal.CLAIMS_COLLECTION);
+                    claims.createIndex(Indexes.ascending("player_uuid", "item_id"));
+                    // Itens entregues ficam marcados por um dia, para que um lote retomado não os recrie
+                    claims.createIndex(Indexes.ascending("claimed_at"), new IndexOptions().expireAfter(1L, TimeUnit.DAYS));
+                    getCollection(MarketJournal.NOTICES_COLLECTION)
+                        .createIndex(Indexes.ascending("created_at"), new IndexOptions().expireAfter(1L, TimeUnit.DAYS));
+
+                    // O contador compartilhado continua a partir das ordens gravadas por versões anteriores
+                    Document last = orders.find().sort(Sorts.descending("sequence")).first();
+                    long lastSequence = last != null ? last.getLong("sequence") : 0L;
+                    plugin.getMongoDBManager().getConfigCollection().updateOne(Filters.eq("key", SEQUENCE_KEY),
+                        Updates.max("value", (double) lastSequence), new UpdateOptions().upsert(true));
+
+                    loaded = true;
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao carregar o mercado de ordens: " + e.getMessage(), e);
+                }
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    /**
+     * Cria uma ordem de compra, retendo o valor total em garantia
+     * @param player Comprador
+     * @param itemId ID do item
+     * @param quantity Quantidade de unidades
+     * @param price Preço máximo por unidade
+     * @return CompletableFuture com a ordem criada, ou null se ela não pôde ser criada
+     */
+    public CompletableFuture<Order> placeBuyOrder(Player player, String itemId, int quantity, double price) {
+        if (!checkLoaded(player)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        UUID playerUUID = player.getUniqueId();
+        String playerName = player.getName();
+        double total = price * quantity;
+        CompletableFuture<Order> future = new CompletableFuture<>();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            boolean debited = false;
+            try {
+                if (!checkCanPlace(player)) {
+                    future.complete(null);
+                    return;
+                }
+                debited = plugin.getMongoDBManager().debit(playerUUID, total, "Garantia de ordem de compra de " + quantity + "x " + itemId);
+                if (!debited) {
+                    sendSync(player, "§cVocê não tem dinheiro suficiente para esta ordem (§f" +
+                             plugin.getEconomyProvider().format(total) + "§c).");
+                    future.complete(null);
+                    return;
+                }
+
+                Order order = new Order(itemId, Order.Side.BUY, playerUUID, playerName, price, quantity, nextSequence());
+                insert(order);
+                placed(player, order, future);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao gravar ordem do mercado: " + e.getMessage(), e);
+                if (debited) {
+                    plugin.getMongoDBManager().deposit(playerUUID, total, "Estorno de ordem de compra não criada");
+                }
+                sendSync(player, "§cOcorreu um erro ao criar a ordem.");
+                future.complete(null);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Cria uma ordem de venda do item na mão do jogador, retendo os itens em garantia
+     * Deve ser chamado na thread principal.
+     * @param player Vendedor
+     * @param quantity Quantidade de unidades
+     * @param price Preço mínimo por unidade
+     * @return CompletableFuture com a ordem criada, ou null se ela não pôde ser criada
+     */
+    public CompletableFuture<Order> placeSellOrder(Player player, int quantity, double price) {
+        if (!checkLoaded(player)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        ItemStack hand = player.getInventory().getItemInMainHand();
+        if (hand == null || hand.getType().isAir()) {
+            player.sendMessage("§cSegure na mão o item que será vendido.");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Só itens comuns entram no mercado: a ordem guarda apenas o ID do item
+        String itemId = ModItemUtils.getItemId(hand);
+        ItemStack template = ModItemUtils.createItemStack(itemId);
+        if (template == null || !template.isSimilar(hand)) {
+            player.sendMessage("§cItens com nome, encantamentos ou outros dados não podem ser vendidos no mercado.");
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!player.getInventory().containsAtLeast(template, quantity)) {
+            player.sendMessage("§cVocê não tem §f" + quantity + "x " + itemId + "§c.");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Retira os itens antes de gravar a ordem
+        ItemStack escrow = template.clone();
+        escrow.setAmount(quantity);
+        player.getInventory().removeItem(escrow);
+
+        UUID playerUUID = player.getUniqueId();
+        String playerName = player.getName();
+        CompletableFuture<Order> future = new CompletableFuture<>();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                if (checkCanPlace(player)) {
+                    Order order = new Order(itemId, Order.Side.SELL, playerUUID, playerName, price, quantity, nextSequence());
+                    insert(order);
+                    placed(player, order, future);
+                    return;
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao gravar ordem do mercado: " + e.getMessage(), e);
+                sendSync(player, "§cOcorreu um erro ao criar a ordem. Os itens foram devolvidos.");
+            }
+            addClaim(playerUUID, itemId, quantity);
+            runSync(() -> claim(player));
+            future.complete(null);
+        });
+
+        return future;
+    }
+
+    /**
+     * Pede o cancelamento de uma ordem do jogador
+     * O servidor líder cancela a ordem no livro e devolve a garantia da parte não executada.
+     * @param player Dono da ordem
+     * @param id ID da ordem, completo ou abreviado (o final do ID, como exibido nas mensagens)
+     * @return CompletableFuture com true se o cancelamento foi pedido
+     */
+    public CompletableFuture<Boolean> cancelOrder(Player player, String id) {
+        UUID playerUUID = player.getUniqueId();
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Order match = null;
+                for (Order order : findOrders(playerUUID)) {
+                    if (order.getId().toHexString().endsWith(id.toLowerCase())) {
+                        if (match != null) {
+                            sendSync(player, "§cMais de uma ordem termina com §f" + id + "§c. Digite o ID completo.");
+                            future.complete(false);
+                            return;
+                        }
+                        match = order;
+                    }
+                }
+                if (match == null) {
+                    sendSync(player, "§cOrdem não encontrada.");
+                    future.complete(false);
+                    return;
+                }
+
+                long requested = getCollection(MarketJournal.ORDERS_COLLECTION).updateOne(
+                    Filters.and(Filters.eq("_id", match.getId()), Filters.gt("remaining", 0)),
+                    Updates.set("cancel_requested", true)).getMatchedCount();
+                if (requested == 0) {
+                    sendSync(player, "§cA ordem já foi executada ou cancelada.");
+                    future.complete(false);
+                    return;
+                }
+                sendSync(player, "§aCancelamento da ordem §f" + shortId(match) + " §apedido. A garantia da parte não executada " +
+                         "será devolvida em instantes.");
+                future.complete(true);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao cancelar ordem do mercado: " + e.getMessage(), e);
+                sendSync(player, "§cOcorreu um erro ao cancelar a ordem.");
+                future.complete(false);
+                return;
+            }
+            wakeMatcher();
+        });
+
+        return future;
+    }
+
+    /**
+     * Obtém a profundidade do livro de ofertas de um item, a partir das ordens gravadas
+     * @param itemId ID do item
+     * @param levels Número máximo de níveis por lado
+     * @return CompletableFuture com a profundidade do livro
+     */
+    public CompletableFuture<OrderBook.Depth> getDepth(String itemId, int levels) {
+        CompletableFuture<OrderBook.Depth> future = new CompletableFuture<>();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(new OrderBook.Depth(loadLevels(itemId, Order.Side.BUY, levels),
+                                                    loadLevels(itemId, Order.Side.SELL, levels)));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao consultar o livro de ofertas: " + e.getMessage(), e);
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Obtém as ordens em aberto de um jogador, das mais antigas às mais novas
+     * @param playerUUID UUID do jogador
+     * @return CompletableFuture com as ordens
+     */
+    public CompletableFuture<List<Order>> getOrders(UUID playerUUID) {
+        CompletableFuture<List<Order>> future = new CompletableFuture<>();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                future.complete(findOrders(playerUUID));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao consultar ordens do mercado: " + e.getMessage(), e);
+                future.completeExceptionally(e);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Entrega ao jogador os itens que ele recebeu no mercado (compras e devoluções)
+     * @param player Jogador
+     */
+    public void claim(Player player) {
+        UUID playerUUID = player.getUniqueId();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<Document> claimed = new ArrayList<>();
+            try {
+                MongoCollection<Document> claims = getCollection(MarketJournal.CLAIMS_COLLECTION);
+                for (Document doc : claims.find(Filters.and(Filters.eq("player_uuid", playerUUID.toString()),
+                                                            Filters.exists("claimed_at", false)))) {
+                    // Cada documento só é entregue por quem conseguir marcá-lo como entregue
+                    Document marked = claims.findOneAndUpdate(
+                        Filters.and(Filters.eq("_id", doc.get("_id")), Filters.exists("claimed_at", false)),
+                        Updates.set("claimed_at", new Date()));
+                    if (marked != null) {
+                        claimed.add(marked);
+                    }
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao entregar itens do mercado: " + e.getMessage(), e);
+            }
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            runSync(() -> {
+                if (!player.isOnline()) {
+                    // O jogador saiu: os itens voltam para a coleção
+                    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+                        for (Document doc : claimed) {
+                            addClaim(playerUUID, doc.getString("item_id"), doc.getInteger("amount", 0));
+                        }
+                    });
+                    return;
+                }
+
+                for (Document doc : claimed) {
+                    give(player, doc.getString("item_id"), doc.getInteger("amount", 0));
+                }
+            });
+        });
+    }
+
+    /**
+     * Grava as execuções pendentes (usado no desligamento do plugin)
+     */
+    public void shutdown() {
+        journal.flush();
+    }
+
+    /**
+     * Ciclo do motor de ordens
+     * No líder, passa aos livros as ordens ainda não executadas (na ordem de chegada) e os
+     * cancelamentos pedidos. Ao assumir a liderança, os lotes do diário que ficaram pela metade são
+     * concluídos e os livros são montados de novo a partir de todas as ordens em aberto no banco; ao perdê-la, são descartados, junto com as execuções ainda não
+     * gravadas (as ordens continuam no banco como estavam e são executadas pelo novo líder).
+     * Deve ser chamado fora da thread principal.
+     */
+    private synchronized void runMatcher() {
+        if (!loaded) {
+            return;
+        }
+        if (!plugin.getClusterCoordinator().isLeader()) {
+            if (matching) {
+                matching = false;
+                dropBooks();
+                plugin.getLogger().info("Este servidor deixou de executar o mercado de ordens.");
+            }
+            return;
+        }
+
+        MongoCollection<Document> orders = getCollection(MarketJournal.ORDERS_COLLECTION);
+        if (!matching) {
+            dropBooks();
+            journal.replay();
+            int count = submitOrders(orders.find(Filters.gt("remaining", 0))
+                .sort(Sorts.ascending("sequence")).into(new ArrayList<>()));
+            matching = true;
+            plugin.getLogger().info("Este servidor passou a executar o mercado de ordens: " + count + " ordens em " +
+                                    books.size() + " itens");
+        } else {
+            submitOrders(orders.find(Filters.and(Filters.eq("matched", false), Filters.gt("remaining", 0)))
+                .sort(Sorts.ascending("sequence")).into(new ArrayList<>()));
+        }
+
+        // O pedido fica gravado até a ordem sair do banco; repeti-lo não tem efeito
+        for (Document doc : orders.find(Filters.and(Filters.eq("cancel_requested", true), Filters.gt("remaining", 0)))) {
+            ObjectId orderId = doc.getObjectId("_id");
+            UUID playerUUID = UUID.fromString(doc.getString("player_uuid"));
+            OrderBook book = getBook(doc.getString("item_id"));
+            book.submit(() -> book.cancel(orderId, playerUUID));
+        }
+    }
+
+    /**
+     * Roda um ciclo do motor logo após uma ordem ou um cancelamento, sem esperar o próximo ciclo
+     * Deve ser chamado fora da thread principal.
+     */
+    private void wakeMatcher() {
+        try {
+            runMatcher();
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao executar o mercado de ordens: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Descarta os livros e as execuções ainda não gravadas
+     * Espera as operações já enfileiradas nos livros terminarem, para que nenhuma registre
+     * execuções depois do descarte.
+     */
+    private void dropBooks() {
+        List<CompletableFuture<Object>> drained = new ArrayList<>(books.size());
+        for (OrderBook book : books.values()) {
+            drained.add(book.submit(() -> null));
+        }
+        books.clear();
+        CompletableFuture.allOf(drained.toArray(new CompletableFuture[0])).join();
+        journal.discardPending();
+    }
+
+    /**
+     * Marca as ordens como recebidas pelo motor e as executa nos livros, na ordem da lista
+     * @param docs Ordens em aberto, na ordem de chegada
+     * @return Ordens passadas aos livros
+     */
+    private int submitOrders(List<Document> docs) {
+        if (docs.isEmpty()) {
+            return 0;
+        }
+        List<ObjectId> ids = new ArrayList<>(docs.size());
+        for (Document doc : docs) {
+            ids.add(doc.getObjectId("_id"));
+        }
+        getCollection(MarketJournal.ORDERS_COLLECTION).updateMany(Filters.in("_id", ids), Updates.set("matched", true));
+
+        int count = 0;
+        for (Document doc : docs) {
+            try {
+                Order order = Order.fromDocument(doc);
+                OrderBook book = getBook(order.getItemId());
+                book.submit(() -> book.match(order)).whenComplete((filled, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().log(Level.SEVERE, "Erro ao executar ordem do mercado: " + error.getMessage(), error);
+                    }
+                });
+                count++;
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao carregar ordem do mercado: " + e.getMessage(), e);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Entrega os avisos e os itens pendentes dos jogadores online neste servidor
+     * Deve ser chamado na thread principal.
+     */
+    private void deliver() {
+        List<String> online = new ArrayList<>();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            online.add(player.getUniqueId().toString());
+        }
+        if (online.isEmpty()) {
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Map<UUID, List<String>> messages = new HashMap<>();
+            List<UUID> withClaims = new ArrayList<>();
+            try {
+                MongoCollection<Document> notices = getCollection(MarketJournal.NOTICES_COLLECTION);
+                for (Document doc : notices.find(Filters.in("player_uuid", online))) {
+                    // Cada aviso é mostrado só por quem conseguir apagá-lo
+                    if (notices.deleteOne(Filters.eq("_id", doc.get("_id"))).getDeletedCount() == 1) {
+                        messages.computeIfAbsent(UUID.fromString(doc.getString("player_uuid")), k -> new ArrayList<>())
+                                .addAll(doc.getList("messages", String.class));
+                    }
+                }
+                for (String playerUUID : getCollection(MarketJournal.CLAIMS_COLLECTION).distinct("player_uuid",
+                        Filters.and(Filters.in("player_uuid", online), Filters.exists("claimed_at", false)), String.class)) {
+                    withClaims.add(UUID.fromString(playerUUID));
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Erro ao entregar avisos do mercado: " + e.getMessage(), e);
+            }
+            if (messages.isEmpty() && withClaims.isEmpty()) {
+                return;
+            }
+
+            runSync(() -> {
+                for (Map.Entry<UUID, List<String>> entry : messages.entrySet()) {
+                    Player player = plugin.getServer().getPlayer(entry.getKey());
+                    if (player != null && player.isOnline()) {
+                        for (String message : entry.getValue()) {
+                            player.sendMessage(message);
+                        }
+                    }
+                }
+                for (UUID playerUUID : withClaims) {
+                    Player player = plugin.getServer().getPlayer(playerUUID);
+                    if (player != null && player.isOnline()) {
+                        claim(player);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Avisa o jogador da ordem gravada e a passa ao motor, se este servidor for o líder
+     * Deve ser chamado fora da thread principal.
+     */
+    private void placed(Player player, Order order, CompletableFuture<Order> future) {
+        String side = order.getSide() == Order.Side.BUY ? "compra" : "venda";
+        sendSync(player, "§aOrdem de " + side + " §f" + shortId(order) + " §acriada: §f" + order.getQuantity() + "x " +
+                 order.getItemId() + " §aa §f" + plugin.getEconomyProvider().format(order.getPrice()) + " §acada.");
+        future.complete(order);
+        wakeMatcher();
+    }
+
+    /**
+     * Verifica se o mercado já foi carregado
+     * @param player Jogador
+     * @return true se o mercado pode receber ordens
+     */
+    private boolean checkLoaded(Player player) {
+        if (!loaded) {
+            player.sendMessage("§cO mercado ainda está sendo carregado. Tente novamente em instantes.");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Verifica se o jogador pode criar mais uma ordem, contando as ordens em aberto no banco
+     * Deve ser chamado fora da thread principal.
+     * @param player Jogador
+     * @return true se a ordem pode ser criada
+     */
+    private boolean checkCanPlace(Player player) {
+        int max = plugin.getConfigManager().getMaxOrdersPerPlayer();
+        long open = getCollection(MarketJournal.ORDERS_COLLECTION).countDocuments(
+            Filters.and(Filters.eq("player_uuid", player.getUniqueId().toString()), Filters.gt("remaining", 0)));
+        if (open >= max) {
+            sendSync(player, "§cVocê já tem o máximo de §f" + max + " §cordens em aberto.");
+            return false;
+        }
+        return true;
+    }
+
+    private List<Order> findOrders(UUID playerUUID) {
+        List<Order> orders = new ArrayList<>();
+        for (Document doc : getCollection(MarketJournal.ORDERS_COLLECTION)
+                .find(Filters.and(Filters.eq("player_uuid", playerUUID.toString()), Filters.gt("remaining", 0)))
+                .sort(Sorts.ascending("sequence"))) {
+            orders.add(Order.fromDocument(doc));
+        }
+        return orders;
+    }
+
+    private List<OrderBook.Level> loadLevels(String itemId, Order.Side side, int levels) {
+        List<OrderBook.Level> result = new ArrayList<>(levels);
+        getCollection(MarketJournal.ORDERS_COLLECTION).aggregate(Arrays.asList(
+            Aggregates.match(Filters.and(Filters.eq("item_id", itemId), Filters.eq("side", side.name()), Filters.gt("remaining", 0))),
+            Aggregates.group("$price", Accumulators.sum("quantity", "$remaining")),
+            Aggregates.sort(side == Order.Side.BUY ? Sorts.descending("_id") : Sorts.ascending("_id")),
+            Aggregates.limit(levels)
+        )).forEach(doc -> result.add(new OrderBook.Level(doc.getDouble("_id"), doc.getInteger("quantity"))));
+        return result;
+    }
+
+    /**
+     * Obtém o próximo número de chegada, compartilhado entre os servidores
+     */
+    private long nextSequence() {
+        return (long) plugin.getConfigDatabase().incrementConfig(SEQUENCE_KEY, 1);
+    }
+
+    private OrderBook getBook(String itemId) {
+        return books.computeIfAbsent(itemId, id -> new OrderBook(id, journal, executor));
+    }
+
+    private void insert(Order order) {
+        // Ordens novas esperam o motor do líder (ver runMatcher)
+        getCollection(MarketJournal.ORDERS_COLLECTION).insertOne(order.toDocument().append("matched", false));
+    }
+
+    private void addClaim(UUID playerUUID, String itemId, int amount) {
+        try {
+            getCollection(MarketJournal.CLAIMS_COLLECTION).insertOne(new Document("player_uuid", playerUUID.toString())
+                .append("item_id", itemId)
+                .append("amount", amount));
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Erro ao devolver " + amount + "x " + itemId + " para " + playerUUID + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Entrega itens ao jogador, largando aos seus pés o que não couber no inventário
+     */
+    private void give(Player player, String itemId, int amount) {
+        ItemStack template = ModItemUtils.createItemStack(itemId);
+        if (template == null || amount <= 0) {
+            plugin.getLogger().warning("Item desconhecido no mercado: " + itemId + " (" + amount + "x para " + player.getName() + ")");
+            return;
+        }
+
+        int remaining = amount;
+        while (remaining > 0) {
+            ItemStack stack = template.clone();
+            stack.setAmount(Math.min(remaining, template.getMaxStackSize()));
+            remaining -= stack.getAmount();
+            for (ItemStack overflow : player.getInventory().addItem(stack).values()) {
+                player.getWorld().dropItemNaturally(player.getLocation(), overflow);
+            }
+        }
+        player.sendMessage("§aVocê recebeu §f" + amount + "x " + itemId + " §ado mercado.");
+    }
+
+    /**
+     * Obtém o ID abreviado de uma ordem, exibido nas mensagens
+     * @param order Ordem
+     * @return Últimos 8 caracteres do ID
+     */
+    public static String shortId(Order order) {
+        return order.getId().toHexString().substring(16);
+    }
+
+    private MongoCollection<Document> getCollection(String name) {
+        return plugin.getMongoDBManager().getDatabase().getCollection(name);
+    }
+
+    private void sendSync(Player player, String message) {
+        runSync(() -> {
+            if (player.isOnline()) {
+                player.sendMessage(message);
+            }
+        });
+    }
+
+    private void runSync(Runnable action) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                action.run();
+            }
+        }.runTask(plugin);
+    }
+}
@@ -0,0 +1,166 @@
+package com.minecraft.economy.playershop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice de mercado das lojas de jogadores
+ * Mapeia cada tipo de item para o conjunto, ordenado por preço, dos anúncios com estoque em lojas
+ * abertas. É mantido incrementalmente pelas lojas a cada adição, remoção, venda ou mudança de preço,
+ * de modo que a consulta do anúncio mais barato não percorre as lojas.
+ * As entradas guardam uma cópia do preço no momento da indexação, então a ordem do conjunto não é
+ * afetada quando o preço do anúncio muda antes da reindexação.
+ */
+public class MarketIndex {
+
+    private static final Comparator<Entry> PRICE_ORDER = Comparator
+        .comparingDouble(Entry::getPrice)
+        .thenComparingLong(entry -> entry.getItem().getCreatedAt())
+        .thenComparing(entry -> entry.getItem().getId());
+
+    private final Map<String, NavigableSet<Entry>> byItem = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> byListing = new ConcurrentHashMap<>();
+
+    /**
+     * Indexa ou reindexa um anúncio com o preço e o estoque atuais
+     * Anúncios sem estoque ou de lojas fechadas são removidos do índice
+     * @param shop Loja do anúncio
+     * @param item Anúncio
+     */
+    public void update(PlayerShop shop, PlayerShopItem item) {
+        if (!shop.isOpen() || !item.isAvailable() || item.getItemId() == null) {
+            remove(item);
+            return;
+        }
+
+        Entry entry = new Entry(shop, item, item.getPrice());
+        Entry previous = byListing.put(item.getId(), entry);
+        if (previous != null) {
+            if (previous.getPrice() == entry.getPrice() && previous.getShop() == shop) {
+                return; // Mesma posição no índice
+            }
+            removeEntry(previous);
+        }
+        byItem.computeIfAbsent(item.getItemId(), k -> new ConcurrentSkipListSet<>(PRICE_ORDER)).add(entry);
+    }
+
+    /**
+     * Remove um anúncio do índice
+     * @param item Anúncio
+     */
+    public void remove(PlayerShopItem item) {
+        Entry previous = byListing.remove(item.getId());
+        if (previous != null) {
+            removeEntry(previous);
+        }
+    }
+
+    /**
+     * Remove todos os anúncios de uma loja do índice
+     * @param shop Loja
+     */
+    public void removeShop(PlayerShop shop) {
+        for (PlayerShopItem item : shop.getItems()) {
+            remove(item);
+        }
+    }
+
+    /**
+     * Obtém o anúncio mais barato de um item
+     * @param itemId ID do item
+     * @return Anúncio mais barato, ou null se ninguém vende o item
+     */
+    public Entry getCheapest(String itemId) {
+        NavigableSet<Entry> entries = byItem.get(itemId);
+        if (entries == null) {
+            return null;
+        }
+        try {
+            return entries.first();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Obtém os anúncios mais baratos de um item, em ordem de preço
+     * @param itemId ID do item
+     * @param limit Número máximo de anúncios
+     * @return Lista de anúncios (vazia se ninguém vende o item)
+     */
+    public List<Entry> find(String itemId, int limit) {
+        NavigableSet<Entry> entries = byItem.get(itemId);
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+
+        List<Entry> result = new ArrayList<>(Math.min(limit, 16));
+        for (Entry entry : entries) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Obtém os anúncios de um item em ordem de preço, para percorrer do mais barato ao mais caro
+     * @param itemId ID do item
+     * @return Visão ordenada dos anúncios (vazia se ninguém vende o item)
+     */
+    public Iterable<Entry> iterate(String itemId) {
+        NavigableSet<Entry> entries = byItem.get(itemId);
+        return entries != null ? entries : Collections.<Entry>emptyList();
+    }
+
+    /**
+     * Obtém o número de anúncios indexados
+     * @return Número de anúncios
+     */
+    public int size() {
+        return byListing.size();
+    }
+
+    private void removeEntry(Entry entry) {
+        NavigableSet<Entry> entries = byItem.get(entry.getItem().getItemId());
+        if (entries != null) {
+            entries.remove(entry);
+        }
+    }
+
+    /**
+     * Anúncio indexado, com o preço no momento da indexação
+     */
+    public static final class Entry {
+        private final PlayerShop shop;
+        private final PlayerShopItem item;
+        private final double price;
+
+        private Entry(PlayerShop shop, PlayerShopItem item, double price) {
+            this.shop = shop;
+            this.item = item;
+            this.price = price;
+        }
+
+        public PlayerShop getShop() {
+            return shop;
+        }
+
+        public PlayerShopItem getItem() {
+            return item;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+    }
+}
@@ -1,21 +1,40 @@
 package com.minecraft.economy.playershop;
 
 import com.minecraft.economy.core.EconomyPlugin;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 /**
  * Representa uma loja de jogador
+ * O documento da loja guarda apenas os dados da loja e o saldo; os anúncios ficam na coleção
+ * "player_shop_listings", um documento por anúncio com preço por unidade e estoque.
+ * As alterações são persistidas como atualizações pontuais ($inc de estoque e saldo, $set de preço)
+ * e cada anúncio tem um campo "version" usado como controle de concorrência otimista nas edições do dono.
  */
 public class PlayerShop {
 
+    public static final String LISTINGS_COLLECTION = "player_shop_listings";
+
     private final ObjectId id;
     private final UUID ownerUUID;
     private String ownerName;
@@ -26,17 +45,23 @@ public class PlayerShop {
     private final Date creationDate;
     private boolean isOpen;
     private final EconomyPlugin plugin;
+    private final MarketIndex marketIndex;
+    private final Executor asyncExecutor;
+    private CompletableFuture<Void> pendingWrites = CompletableFuture.completedFuture(null);
+    private volatile long lastAccess = System.currentTimeMillis();
 
     /**
      * Construtor para criar uma nova loja
      * @param plugin Instância do plugin
+     * @param marketIndex Índice de mercado mantido pela loja
      * @param ownerUUID UUID do dono da loja
      * @param ownerName Nome do dono da loja
      * @param shopName Nome da loja
      * @param location Localização da loja (opcional)
      */
-    public PlayerShop(EconomyPlugin plugin, UUID ownerUUID, String ownerName, String shopName, Location location) {
+    public PlayerShop(EconomyPlugin plugin, MarketIndex marketIndex, UUID ownerUUID, String ownerName, String shopName, Location location) {
         this.plugin = plugin;
+        this.marketIndex = marketIndex;
         this.id = new ObjectId();
         this.ownerUUID = ownerUUID;
         this.ownerName = ownerName;
@@ -46,15 +71,19 @@ public class PlayerShop {
         this.balance = 0.0;
         this.creationDate = new Date();
         this.isOpen = true;
+        this.asyncExecutor = task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
     }
 
     /**
      * Construtor para carregar uma loja existente do banco de dados
+     * Os anúncios são carregados à parte, a partir da coleção de anúncios
      * @param plugin Instância do plugin
+     * @param marketIndex Índice de mercado mantido pela loja
      * @param document Documento do MongoDB
      */
-    public PlayerShop(EconomyPlugin plugin, Document document) {
+    public PlayerShop(EconomyPlugin plugin, MarketIndex marketIndex, Document document) {
         this.plugin = plugin;
+        this.marketIndex = marketIndex;
         this.id = document.getObjectId("_id");
         this.ownerUUID = UUID.fromString(document.getString("owner_uuid"));
         this.ownerName = document.getString("owner_name");
@@ -78,20 +107,12 @@ public class PlayerShop {
         this.balance = document.getDouble("balance");
         this.creationDate = document.getDate("creation_date");
         this.isOpen = document.getBoolean("is_open", true);
-        
-        // Carrega os itens
         this.items = new ArrayList<>();
-        List<Document> itemDocs = document.getList("items", Document.class);
-        if (itemDocs != null) {
-            for (Document itemDoc : itemDocs) {
-                PlayerShopItem item = new PlayerShopItem(plugin, itemDoc);
-                this.items.add(item);
-            }
-        }
+        this.asyncExecutor = task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
     }
 
     /**
-     * Converte a loja para um documento do MongoDB
+     * Converte a loja para um documento do MongoDB (sem os anúncios)
      * @return Documento do MongoDB
      */
     public Document toDocument() {
@@ -118,46 +139,116 @@ public class PlayerShop {
         doc.append("creation_date", creationDate);
         doc.append("is_open", isOpen);
         
-        // Salva os itens
-        List<Document> itemDocs = new ArrayList<>();
-        for (PlayerShopItem item : items) {
-            itemDocs.add(item.toDocument());
-        }
-        doc.append("items", itemDocs);
-        
         return doc;
     }
 
     /**
-     * Adiciona um item à loja
-     * @param item Item a ser adicionado
+     * Adiciona um anúncio já persistido, durante o carregamento das lojas
+     * @param item Anúncio carregado do banco
+     */
+    void loadItem(PlayerShopItem item) {
+        items.add(item);
+        marketIndex.update(this, item);
+    }
+
+    /**
+     * Adiciona itens à loja
+     * Se já existir um anúncio do mesmo item (incluindo encantamentos, nome e demais dados), com o
+     * mesmo preço e modo de preço, o estoque dele é incrementado; caso contrário um novo anúncio é criado.
+     * Comparar só o identificador juntaria um item encantado a cópias comuns, e os compradores
+     * receberiam clones do item do anúncio.
+     * @param item Anúncio a ser adicionado
      * @return true se o item foi adicionado com sucesso
      */
     public boolean addItem(PlayerShopItem item) {
-        // Verifica se já atingiu o limite de itens
+        // Junta ao anúncio equivalente, se existir
+        for (PlayerShopItem listing : items) {
+            if (listing.getItemId().equals(item.getItemId())
+                    && listing.getItemStack() != null && listing.getItemStack().isSimilar(item.getItemStack())
+                    && listing.getPrice() == item.getPrice() && listing.isDynamicPrice() == item.isDynamicPrice()) {
+                int amount = item.getStock();
+                listing.setStock(listing.getStock() + amount);
+                marketIndex.update(this, listing);
+                queueWrite("repor estoque", listings -> restock(listings, listing, amount));
+                return true;
+            }
+        }
+        
+        // Verifica se já atingiu o limite de anúncios
         int maxItems = plugin.getConfig().getInt("playershop.max_items_per_shop", 54);
         if (items.size() >= maxItems) {
             return false;
         }
         
         items.add(item);
+        marketIndex.update(this, item);
+        queueWrite("adicionar item", listings -> listings.insertOne(item.toDocument(id)));
         return true;
     }
 
     /**
-     * Remove um item da loja
-     * @param itemId ID do item a ser removido
-     * @return O item removido, ou null se não foi encontrado
+     * Remove um anúncio da loja e devolve ao dono o estoque que restava no banco
+     * @param owner Dono da loja
+     * @param itemId ID do anúncio a ser removido
+     * @return O anúncio removido, ou null se não foi encontrado
      */
-    public PlayerShopItem removeItem(String itemId) {
-        for (int i = 0; i < items.size(); i++) {
-            PlayerShopItem item = items.get(i);
-            if (item.getId().toString().equals(itemId)) {
-                items.remove(i);
-                return item;
-            }
+    public PlayerShopItem removeItem(Player owner, String itemId) {
+        PlayerShopItem item = getItem(itemId);
+        if (item == null) {
+            return null;
         }
-        return null;
+        items.remove(item);
+        marketIndex.remove(item);
+        
+        queueWrite("remover item", listings -> {
+            // O estoque devolvido é o do banco, que já desconta compras de outros servidores
+            Document removed = listings.findOneAndDelete(Filters.eq("_id", itemId));
+            int units = removed != null ? removed.getInteger("stock", 0) : 0;
+            if (units <= 0) {
+                return;
+            }
+            
+            runSync(() -> {
+                if (owner.isOnline()) {
+                    for (ItemStack overflow : owner.getInventory().addItem(item.createItemStack(units)).values()) {
+                        owner.getWorld().dropItemNaturally(owner.getLocation(), overflow);
+                    }
+                    owner.sendMessage("§a" + units + "x §f" + item.getDisplayName() + " §adevolvidos ao seu inventário.");
+                    return;
+                }
+                
+                // O dono saiu: mantém o estoque na loja
+                item.setStock(units);
+                items.add(item);
+                marketIndex.update(this, item);
+                queueWrite("restaurar item", restore -> restock(restore, item, units));
+            });
+        });
+        return item;
+    }
+
+    /**
+     * Altera o preço de um anúncio da loja
+     * Deve ser chamado na thread principal; o future é concluído na thread principal.
+     * @param item Anúncio da loja
+     * @param price Novo preço por unidade
+     * @return CompletableFuture com true se o preço foi gravado, false se o anúncio foi alterado
+     *         em outro servidor (o preço em memória volta ao do banco e o dono pode tentar de novo)
+     */
+    public CompletableFuture<Boolean> setItemPrice(PlayerShopItem item, double price) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        item.setPrice(price);
+        marketIndex.update(this, item);
+        queueWrite("alterar preço", listings -> {
+            boolean applied = false;
+            try {
+                applied = updateVersioned(listings, item, Updates.set("price", price));
+            } finally {
+                boolean result = applied;
+                runSync(() -> future.complete(result));
+            }
+        });
+        return future;
     }
 
     /**
@@ -175,59 +266,303 @@ public class PlayerShop {
     }
 
     /**
-     * Processa a compra de um item
+     * Processa a compra de uma unidade de um anúncio
      * @param buyer Jogador que está comprando
-     * @param itemId ID do item
-     * @return true se a compra foi bem-sucedida
+     * @param itemId ID do anúncio
+     * @return CompletableFuture com true se a compra foi concluída
+     */
+    public CompletableFuture<Boolean> buyItem(Player buyer, String itemId) {
+        return buyItem(buyer, itemId, 1);
+    }
+
+    /**
+     * Processa a compra de várias unidades de um anúncio de forma totalmente assíncrona
+     * Na thread principal o espaço no inventário é conferido e as unidades são reservadas em memória;
+     * em uma única tarefa assíncrona o estoque é decrementado com uma escrita condicional (só se ainda
+     * houver unidades suficientes no banco), o comprador é debitado e a loja é creditada. Se o débito
+     * falhar, o estoque é devolvido; se o crédito da loja falhar, o comprador também é reembolsado.
+     * A entrega acontece no tick seguinte.
+     * Deve ser chamado na thread principal.
+     * @param buyer Jogador que está comprando
+     * @param itemId ID do anúncio
+     * @param amount Quantidade de unidades
+     * @return CompletableFuture com true se a compra foi concluída
      */
-    public boolean buyItem(Player buyer, String itemId) {
+    public CompletableFuture<Boolean> buyItem(Player buyer, String itemId, int amount) {
         PlayerShopItem item = getItem(itemId);
-        if (item == null || !item.isAvailable()) {
-            return false;
+        if (amount <= 0 || item == null || item.getStock() < amount) {
+            buyer.sendMessage("§cEste item não tem estoque suficiente.");
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        if (getFreeSpace(buyer, item.createItemStack(1)) < amount) {
+            buyer.sendMessage("§cSeu inventário não tem espaço para §f" + amount + "x " + item.getDisplayName() + "§c.");
+            return CompletableFuture.completedFuture(false);
         }
         
-        // Verifica se o jogador tem dinheiro suficiente
-        double price = item.getPrice();
+        touch();
+        
+        // Reserva as unidades: novos cliques neste servidor já veem o estoque reduzido
+        item.setStock(item.getStock() - amount);
+        marketIndex.update(this, item);
+        
+        double total = item.getPrice() * amount;
         UUID buyerUUID = buyer.getUniqueId();
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
         
-        return plugin.getMongoDBManager().hasBalance(buyerUUID, price).thenCompose(hasMoney -> {
-            if (!hasMoney) {
-                buyer.sendMessage("§cVocê não tem dinheiro suficiente para comprar este item.");
-                return java.util.concurrent.CompletableFuture.completedFuture(false);
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            MongoCollection<Document> listings = getListings();
+            
+            // Decrementa o estoque apenas se ainda houver unidades suficientes
+            try {
+                boolean claimed = listings.updateOne(
+                    Filters.and(Filters.eq("_id", itemId), Filters.gte("stock", amount)),
+                    Updates.inc("stock", -amount)
+                ).getModifiedCount() > 0;
+                
+                if (!claimed) {
+                    // Vendido em outro servidor ou removido; sincroniza com o estoque do banco
+                    Document current = listings.find(Filters.eq("_id", itemId)).first();
+                    int stock = current != null ? current.getInteger("stock", 0) : 0;
+                    completePurchase(future, buyer, false, "§cEste item não tem mais estoque suficiente.", () -> syncStock(item, stock));
+                    return;
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao reservar item da loja " + shopName + ": " + e.getMessage(), e);
+                completePurchase(future, buyer, false, "§cOcorreu um erro ao processar a compra.", () -> restoreStock(item, amount));
+                return;
+            }
+            
+            // Cobra o comprador
+            String reason = "Compra de " + amount + "x " + item.getItemId() + " na loja " + shopName;
+            boolean paid;
+            try {
+                paid = plugin.getMongoDBManager().debit(buyerUUID, total, reason);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao cobrar compra na loja " + shopName + ": " + e.getMessage(), e);
+                releaseStock(listings, item, amount);
+                completePurchase(future, buyer, false, "§cOcorreu um erro ao processar a compra.", () -> restoreStock(item, amount));
+                return;
+            }
+            if (!paid) {
+                releaseStock(listings, item, amount);
+                completePurchase(future, buyer, false, "§cVocê não tem dinheiro suficiente para comprar este item.", () -> restoreStock(item, amount));
+                return;
+            }
+            
+            // Credita a loja na mesma tarefa: o comprador só fica sem o dinheiro se a loja o recebeu
+            try {
+                creditBalance(total);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao creditar venda na loja " + shopName + ": " + e.getMessage(), e);
+                releaseStock(listings, item, amount);
+                plugin.getMongoDBManager().deposit(buyerUUID, total, "Reembolso de compra não concluída na loja " + shopName);
+                completePurchase(future, buyer, false, "§cOcorreu um erro ao processar a compra.", () -> restoreStock(item, amount));
+                return;
             }
             
-            // Cobra o jogador
-            return plugin.getMongoDBManager().withdraw(buyerUUID, price, "Compra de item na loja " + shopName)
-                .thenCompose(success -> {
-                    if (!success) {
-                        buyer.sendMessage("§cOcorreu um erro ao processar o pagamento.");
-                        return java.util.concurrent.CompletableFuture.completedFuture(false);
+            // Entrega no tick seguinte
+            runSync(() -> {
+                if (!buyer.isOnline()) {
+                    // O comprador saiu antes da entrega: devolve o estoque, o dinheiro e o crédito da loja
+                    restoreStock(item, amount);
+                    plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+                        releaseStock(listings, item, amount);
+                        try {
+                            creditBalance(-total);
+                        } catch (Exception e) {
+                            plugin.getLogger().log(Level.SEVERE, "Erro ao estornar venda na loja " + shopName + ": " + e.getMessage(), e);
+                        }
+                        plugin.getMongoDBManager().deposit(buyerUUID, total, "Reembolso de compra não entregue na loja " + shopName);
+                    });
+                    future.complete(false);
+                    return;
+                }
+                
+                balance += total;
+                deliverItem(buyer, item, amount, total);
+                collectSoldOut(item);
+                future.complete(true);
+            });
+        });
+        
+        return future;
+    }
+
+    /**
+     * Soma um valor ao saldo da loja no banco
+     * Deve ser chamado fora da thread principal.
+     * @param amount Valor (negativo para estornar)
+     */
+    private void creditBalance(double amount) {
+        plugin.getMongoDBManager().getDatabase().getCollection("player_shops")
+            .updateOne(Filters.eq("_id", id), Updates.inc("balance", amount));
+    }
+
+    /**
+     * Calcula quantas unidades de um item ainda cabem no inventário do jogador
+     * @param player Jogador
+     * @param itemStack Item a ser adicionado
+     * @return Quantidade de unidades que cabem
+     */
+    private static int getFreeSpace(Player player, ItemStack itemStack) {
+        int maxStack = itemStack.getMaxStackSize();
+        int free = 0;
+        for (ItemStack stack : player.getInventory().getStorageContents()) {
+            if (stack == null || stack.getType().isAir()) {
+                free += maxStack;
+            } else if (stack.isSimilar(itemStack)) {
+                free += Math.max(0, maxStack - stack.getAmount());
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Remove um anúncio que esgotou
+     * Deve ser chamado na thread principal.
+     * @param item Anúncio vendido
+     */
+    private void collectSoldOut(PlayerShopItem item) {
+        if (item.getStock() > 0) {
+            return;
+        }
+        items.remove(item);
+        marketIndex.remove(item);
+        
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                // Só se ninguém tiver reposto o estoque
+                getListings().deleteOne(Filters.and(Filters.eq("_id", item.getId().toString()), Filters.lte("stock", 0)));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao remover anúncio esgotado da loja " + shopName + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Credita no saldo da loja uma venda feita fora dos anúncios (por exemplo, por um baú da loja)
+     * Deve ser chamado na thread principal.
+     * @param total Valor da venda
+     */
+    public void creditSale(double total) {
+        touch();
+        balance += total;
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                creditBalance(total);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao creditar venda na loja " + shopName + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Devolve ao banco unidades reservadas de um anúncio, recriando-o se já tiver sido apagado
+     * Deve ser chamado fora da thread principal
+     * @param listings Coleção de anúncios
+     * @param item Anúncio
+     * @param amount Unidades devolvidas
+     */
+    private void releaseStock(MongoCollection<Document> listings, PlayerShopItem item, int amount) {
+        try {
+            restock(listings, item, amount);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Erro ao devolver estoque da loja " + shopName + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Incrementa o estoque de um anúncio no banco, criando o documento se ele não existir mais
+     * @param listings Coleção de anúncios
+     * @param item Anúncio
+     * @param amount Unidades adicionadas
+     */
+    private void restock(MongoCollection<Document> listings, PlayerShopItem item, int amount) {
+        Document insert = item.toDocument(id);
+        insert.remove("_id");
+        insert.remove("stock");
+        
+        Document update = new Document("$inc", new Document("stock", amount))
+            .append("$setOnInsert", insert);
+        listings.updateOne(Filters.eq("_id", item.getId().toString()), update, new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * Devolve à memória unidades reservadas de um anúncio
+     * Deve ser chamado na thread principal.
+     * @param item Anúncio
+     * @param amount Unidades devolvidas
+     */
+    private void restoreStock(PlayerShopItem item, int amount) {
+        item.setStock(item.getStock() + amount);
+        if (!items.contains(item)) {
+            items.add(item);
+        }
+        marketIndex.update(this, item);
+    }
+
+    /**
+     * Ajusta o estoque em memória ao valor do banco, removendo o anúncio se ele esgotou
+     * Deve ser chamado na thread principal.
+     * @param item Anúncio
+     * @param stock Estoque no banco
+     */
+    private void syncStock(PlayerShopItem item, int stock) {
+        item.setStock(stock);
+        if (stock <= 0) {
+            items.remove(item);
+        }
+        marketIndex.update(this, item);
+    }
+
+    /**
+     * Conclui uma compra na thread principal
+     * @param future Future da compra
+     * @param buyer Comprador
+     * @param success Resultado da compra
+     * @param message Mensagem para o comprador (ou null)
+     * @param action Ação a executar na thread principal (ou null)
+     */
+    private void completePurchase(CompletableFuture<Boolean> future, Player buyer, boolean success, String message, Runnable action) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    if (action != null) {
+                        action.run();
                     }
-                    
-                    // Adiciona o dinheiro ao saldo da loja
-                    balance += price;
-                    
-                    // Marca o item como vendido
-                    item.setAvailable(false);
-                    
-                    // Dá o item ao jogador
-                    buyer.getInventory().addItem(item.createItemStack());
-                    buyer.sendMessage("§aVocê comprou §f" + item.getDisplayName() + " §apor §f" + 
-                                     plugin.getEconomyProvider().format(price) + "§a.");
-                    
-                    // Notifica o dono da loja se estiver online
-                    Player owner = plugin.getServer().getPlayer(ownerUUID);
-                    if (owner != null && owner.isOnline()) {
-                        owner.sendMessage("§a" + buyer.getName() + " comprou §f" + item.getDisplayName() + 
-                                         " §ada sua loja por §f" + plugin.getEconomyProvider().format(price) + "§a.");
+                    if (message != null && buyer.isOnline()) {
+                        buyer.sendMessage(message);
                     }
-                    
-                    // Salva a loja no banco de dados
-                    saveAsync();
-                    
-                    return java.util.concurrent.CompletableFuture.completedFuture(true);
-                });
-        }).join();
+                } finally {
+                    future.complete(success);
+                }
+            }
+        }.runTask(plugin);
+    }
+
+    /**
+     * Entrega itens comprados e notifica o dono da loja
+     * @param buyer Comprador
+     * @param item Anúncio comprado
+     * @param amount Quantidade de unidades
+     * @param total Valor pago
+     */
+    private void deliverItem(Player buyer, PlayerShopItem item, int amount, double total) {
+        // O que não couber no inventário é largado aos pés do jogador
+        for (ItemStack overflow : buyer.getInventory().addItem(item.createItemStack(amount)).values()) {
+            buyer.getWorld().dropItemNaturally(buyer.getLocation(), overflow);
+        }
+        buyer.sendMessage("§aVocê comprou §f" + amount + "x " + item.getDisplayName() + " §apor §f" + 
+                         plugin.getEconomyProvider().format(total) + "§a.");
+        
+        // Notifica o dono da loja se estiver online
+        Player owner = plugin.getServer().getPlayer(ownerUUID);
+        if (owner != null && owner.isOnline()) {
+            owner.sendMessage("§a" + buyer.getName() + " comprou §f" + amount + "x " + item.getDisplayName() + 
+                             " §ada sua loja por §f" + plugin.getEconomyProvider().format(total) + "§a.");
+        }
     }
 
     /**
@@ -248,46 +583,178 @@ public class PlayerShop {
         double amount = balance;
         balance = 0;
         
-        plugin.getMongoDBManager().deposit(ownerUUID, amount, "Saque da loja " + shopName)
-            .thenAccept(success -> {
-                if (success) {
-                    player.sendMessage("§aVocê sacou §f" + plugin.getEconomyProvider().format(amount) + 
-                                      " §ada sua loja.");
-                    
-                    // Salva a loja no banco de dados
-                    saveAsync();
-                } else {
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            // Debita o saldo da loja apenas se ele ainda cobrir o saque
+            boolean debited;
+            try {
+                debited = plugin.getMongoDBManager().getDatabase().getCollection("player_shops").updateOne(
+                    Filters.and(Filters.eq("_id", id), Filters.gte("balance", amount)),
+                    Updates.inc("balance", -amount)
+                ).getModifiedCount() > 0;
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao debitar saldo da loja " + shopName + ": " + e.getMessage(), e);
+                debited = false;
+            }
+            
+            if (!debited) {
+                runSync(() -> {
+                    balance += amount; // Restaura o saldo
                     player.sendMessage("§cOcorreu um erro ao processar o saque.");
-                    balance = amount; // Restaura o saldo
-                }
-            });
+                });
+                return;
+            }
+            
+            plugin.getMongoDBManager().deposit(ownerUUID, amount, "Saque da loja " + shopName)
+                .thenAccept(success -> {
+                    if (success) {
+                        runSync(() -> player.sendMessage("§aVocê sacou §f" + plugin.getEconomyProvider().format(amount) + 
+                                                         " §ada sua loja."));
+                        return;
+                    }
+                    
+                    // Devolve o valor à loja
+                    try {
+                        plugin.getMongoDBManager().getDatabase().getCollection("player_shops")
+                            .updateOne(Filters.eq("_id", id), Updates.inc("balance", amount));
+                    } catch (Exception e) {
+                        plugin.getLogger().log(Level.SEVERE, "Erro ao estornar saque da loja " + shopName + ": " + e.getMessage(), e);
+                    }
+                    runSync(() -> {
+                        balance += amount; // Restaura o saldo
+                        player.sendMessage("§cOcorreu um erro ao processar o saque.");
+                    });
+                });
+        });
         
         return true;
     }
 
     /**
-     * Salva a loja no banco de dados de forma assíncrona
+     * Registra um acesso à loja, adiando o seu descarregamento por ociosidade
      */
-    public void saveAsync() {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+    public void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * Obtém o momento do último acesso à loja
+     * @return Timestamp do último acesso em milissegundos
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Verifica se ainda há escritas da loja na fila
+     * @return true se alguma escrita ainda não foi concluída
+     */
+    public boolean hasPendingWrites() {
+        return !pendingWrites.isDone();
+    }
+
+    /**
+     * Enfileira uma escrita na coleção de anúncios
+     * As escritas de uma loja são executadas em ordem, uma de cada vez, fora da thread principal.
+     * Deve ser chamado na thread principal.
+     * @param description Descrição da operação (para o log)
+     * @param write Escrita a executar
+     */
+    private void queueWrite(String description, Consumer<MongoCollection<Document>> write) {
+        pendingWrites = pendingWrites.thenRunAsync(() -> {
             try {
-                Document doc = toDocument();
-                plugin.getMongoDBManager().getDatabase().getCollection("player_shops")
-                    .replaceOne(new Document("_id", id), doc, new com.mongodb.client.model.ReplaceOptions().upsert(true));
+                write.accept(getListings());
             } catch (Exception e) {
-                plugin.getLogger().severe("Erro ao salvar loja de jogador: " + e.getMessage());
+                plugin.getLogger().log(Level.SEVERE, "Erro ao " + description + " na loja " + shopName + ": " + e.getMessage(), e);
             }
+        }, asyncExecutor);
+    }
+
+    /**
+     * Aplica uma edição do dono a um anúncio com controle de concorrência otimista
+     * A escrita só é aceita se a versão do documento for a última conhecida; em caso de conflito
+     * (o anúncio foi editado por outro servidor) a edição é descartada, o anúncio em memória é
+     * sincronizado com o documento atual e o conflito é informado a quem chamou.
+     * Deve ser chamado fora da thread principal, pela fila de escritas.
+     * @param listings Coleção de anúncios
+     * @param item Anúncio editado
+     * @param update Atualização a aplicar
+     * @return true se a edição foi gravada
+     */
+    private boolean updateVersioned(MongoCollection<Document> listings, PlayerShopItem item, Bson update) {
+        String itemId = item.getId().toString();
+        Bson versioned = Updates.combine(update, Updates.inc("version", 1L));
+        FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
+        
+        Document result = listings.findOneAndUpdate(versionFilter(itemId, item.getDocumentVersion()), versioned, options);
+        if (result != null) {
+            item.setDocumentVersion(PlayerShopItem.getDocumentVersion(result));
+            return true;
+        }
+        
+        // Conflito: a edição não é repetida sobre uma versão que o dono não viu
+        Document current = listings.find(Filters.eq("_id", itemId)).first();
+        if (current == null) {
+            // Esgotado ou removido em outro servidor
+            runSync(() -> {
+                items.remove(item);
+                marketIndex.remove(item);
+            });
+            return false;
+        }
+        
+        item.setDocumentVersion(PlayerShopItem.getDocumentVersion(current));
+        double price = current.getDouble("price");
+        runSync(() -> {
+            item.setPrice(price);
+            marketIndex.update(this, item);
         });
+        return false;
+    }
+
+    /**
+     * Monta o filtro de uma escrita versionada em um anúncio
+     * @param itemId ID do anúncio
+     * @param expectedVersion Versão esperada do documento
+     * @return Filtro da escrita
+     */
+    private Bson versionFilter(String itemId, long expectedVersion) {
+        // Documentos sem o campo de versão equivalem à versão 0
+        Bson versionFilter = expectedVersion == 0
+            ? Filters.or(Filters.eq("version", 0L), Filters.exists("version", false))
+            : Filters.eq("version", expectedVersion);
+        return Filters.and(Filters.eq("_id", itemId), versionFilter);
     }
 
     /**
-     * Deleta a loja do banco de dados
+     * Obtém a coleção de anúncios
+     * @return Coleção de anúncios
+     */
+    private MongoCollection<Document> getListings() {
+        return plugin.getMongoDBManager().getDatabase().getCollection(LISTINGS_COLLECTION);
+    }
+
+    /**
+     * Executa uma ação na thread principal
+     * @param action Ação
+     */
+    private void runSync(Runnable action) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                action.run();
+            }
+        }.runTask(plugin);
+    }
+
+    /**
+     * Deleta a loja e os seus anúncios do banco de dados
      */
     public void delete() {
         plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
                 plugin.getMongoDBManager().getDatabase().getCollection("player_shops")
                     .deleteOne(new Document("_id", id));
+                getListings().deleteMany(Filters.eq("shop_id", id));
             } catch (Exception e) {
                 plugin.getLogger().severe("Erro ao deletar loja de jogador: " + e.getMessage());
             }
@@ -346,5 +813,8 @@ public class PlayerShop {
 
     public void setOpen(boolean open) {
         isOpen = open;
+        for (PlayerShopItem item : items) {
+            marketIndex.update(this, item);
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.minecraft.economy.playershop;
 
 import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.utils.IconCache;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -19,11 +20,19 @@ import java.util.UUID;
  */
 public class PlayerShopGUI {
 
+    /**
+     * Quantidades oferecidas no diálogo de compra, pelos slots 10, 11 e 12
+     */
+    public static final int[] BUY_AMOUNTS = {1, 16, 64};
+    public static final int BUY_AMOUNT_FIRST_SLOT = 10;
+
+    private static final int MANAGE_PAGE_SIZE = 18; // Slots 27-44
+    private static final int SHOP_PAGE_SIZE = 36; // Slots 9-44
+    private static final int ICON_CACHE_SIZE = 4096;
+
     private final EconomyPlugin plugin;
     private final PlayerShopManager shopManager;
-    private final Map<Player, Inventory> openInventories = new HashMap<>();
-    private final Map<Player, PlayerShop> currentShop = new HashMap<>();
-    private final Map<Player, Integer> currentPage = new HashMap<>();
+    private final IconCache iconCache = new IconCache(ICON_CACHE_SIZE);
     private final Map<UUID, ItemStack> pendingItems = new HashMap<>();
     private final Map<UUID, Boolean> pendingDynamicPrice = new HashMap<>();
 
@@ -37,7 +46,9 @@ public class PlayerShopGUI {
      * @param player Jogador
      */
     public void openMainMenu(Player player) {
-        Inventory inventory = Bukkit.createInventory(null, 54, "§8Lojas de Jogadores");
+        PlayerShopMenuHolder holder = new PlayerShopMenuHolder(PlayerShopMenuHolder.MenuType.MAIN, null, 0, 54);
+        Inventory inventory = Bukkit.createInventory(holder, 54, "§8Lojas de Jogadores");
+        holder.setInventory(inventory);
         
         // Adiciona botões de ação
         ItemStack createShopButton = createGuiItem(Material.EMERALD_BLOCK, "§aCriar Nova Loja", 
@@ -58,6 +69,7 @@ public class PlayerShopGUI {
                                                  "§7Itens à venda: §f" + shop.getItems().size(),
                                                  "§7Saldo: §f" + plugin.getEconomyProvider().format(shop.getBalance()));
                 inventory.setItem(slot, shopItem);
+                holder.setShop(slot, shop);
                 slot++;
                 if ((slot % 9) == 8) {
                     slot += 2;
@@ -73,7 +85,6 @@ public class PlayerShopGUI {
         
         // Abre o inventário
         player.openInventory(inventory);
-        openInventories.put(player, inventory);
     }
 
     /**
@@ -82,7 +93,20 @@ public class PlayerShopGUI {
      * @param shop Loja
      */
     public void openShopManagementMenu(Player player, PlayerShop shop) {
-        Inventory inventory = Bukkit.createInventory(null, 54, "§8Gerenciar Loja: " + shop.getShopName());
+        openShopManagementMenu(player, shop, 0);
+    }
+
+    /**
+     * Abre uma página do menu de gerenciamento de uma loja
+     * @param player Jogador
+     * @param shop Loja
+     * @param page Página a ser exibida (começando em 0)
+     */
+    public void openShopManagementMenu(Player player, PlayerShop shop, int page) {
+        shop.touch();
+        PlayerShopMenuHolder holder = new PlayerShopMenuHolder(PlayerShopMenuHolder.MenuType.MANAGE, shop, page, 54);
+        Inventory inventory = Bukkit.createInventory(holder, 54, "§8Gerenciar Loja: " + shop.getShopName());
+        holder.setInventory(inventory);
         
         // Informações da loja
         ItemStack infoItem = createGuiItem(Material.BOOK, "§aInformações da Loja", 
@@ -111,10 +135,9 @@ public class PlayerShopGUI {
         inventory.setItem(24, deleteButton);
         
         // Lista os itens da loja
-        List<PlayerShopItem> items = shop.getItems();
-        int page = currentPage.getOrDefault(player, 0);
-        int startIndex = page * 27;
-        int endIndex = Math.min(startIndex + 27, items.size());
+        List<PlayerShopItem> items = new ArrayList<>(shop.getItems());
+        int startIndex = page * MANAGE_PAGE_SIZE;
+        int endIndex = Math.min(startIndex + MANAGE_PAGE_SIZE, items.size());
         
         if (items.isEmpty()) {
             ItemStack noItemsItem = createGuiItem(Material.BARRIER, "§cNenhum item à venda", 
@@ -124,10 +147,10 @@ public class PlayerShopGUI {
             int slot = 27;
             for (int i = startIndex; i < endIndex; i++) {
                 PlayerShopItem item = items.get(i);
-                ItemStack displayItem = item.createDisplayItem();
+                ItemStack displayItem = getDisplayIcon(item);
                 inventory.setItem(slot, displayItem);
+                holder.setItem(slot, item);
                 slot++;
-                if (slot >= 54) break;
             }
         }
         
@@ -137,7 +160,7 @@ public class PlayerShopGUI {
         inventory.setItem(45, backButton);
         
         // Botões de navegação
-        if (items.size() > 27) {
+        if (items.size() > MANAGE_PAGE_SIZE) {
             // Botão de página anterior
             if (page > 0) {
                 ItemStack prevButton = createGuiItem(Material.PAPER, "§ePágina Anterior", 
@@ -154,14 +177,12 @@ public class PlayerShopGUI {
             
             // Informações da página
             ItemStack pageInfo = createGuiItem(Material.BOOK, "§ePágina " + (page + 1), 
-                                             "§7Total de páginas: " + ((items.size() / 27) + 1));
+                                             "§7Total de páginas: " + pageCount(items.size(), MANAGE_PAGE_SIZE));
             inventory.setItem(49, pageInfo);
         }
         
         // Abre o inventário
         player.openInventory(inventory);
-        openInventories.put(player, inventory);
-        currentShop.put(player, shop);
     }
 
     /**
@@ -169,13 +190,22 @@ public class PlayerShopGUI {
      * @param player Jogador
      */
     public void openBrowseShopsMenu(Player player) {
-        Inventory inventory = Bukkit.createInventory(null, 54, "§8Procurar Lojas");
+        openBrowseShopsMenu(player, 0);
+    }
+
+    /**
+     * Abre uma página do menu de todas as lojas disponíveis
+     * @param player Jogador
+     * @param page Página a ser exibida (começando em 0)
+     */
+    public void openBrowseShopsMenu(Player player, int page) {
+        PlayerShopMenuHolder holder = new PlayerShopMenuHolder(PlayerShopMenuHolder.MenuType.BROWSE, null, page, 54);
+        Inventory inventory = Bukkit.createInventory(holder, 54, "§8Procurar Lojas");
+        holder.setInventory(inventory);
         
-        // Lista todas as lojas
-        Map<String, PlayerShop> allShops = shopManager.getAllPlayerShops();
-        List<PlayerShop> shopList = new ArrayList<>(allShops.values());
+        // Lista todas as lojas pelos resumos; a loja só é carregada quando for aberta
+        List<PlayerShopSummary> shopList = shopManager.getShopSummaries();
         
-        int page = currentPage.getOrDefault(player, 0);
         int startIndex = page * 45;
         int endIndex = Math.min(startIndex + 45, shopList.size());
         
@@ -186,12 +216,12 @@ public class PlayerShopGUI {
         } else {
             int slot = 0;
             for (int i = startIndex; i < endIndex; i++) {
-                PlayerShop shop = shopList.get(i);
+                PlayerShopSummary shop = shopList.get(i);
                 ItemStack shopItem = createGuiItem(Material.CHEST, "§a" + shop.getShopName(), 
                                                  "§7Dono: §f" + shop.getOwnerName(),
-                                                 "§7Itens à venda: §f" + shop.getItems().size(),
                                                  "§7Clique para ver os itens");
                 inventory.setItem(slot, shopItem);
+                holder.setSummary(slot, shop);
                 slot++;
                 if (slot >= 45) break;
             }
@@ -220,13 +250,12 @@ public class PlayerShopGUI {
             
             // Informações da página
             ItemStack pageInfo = createGuiItem(Material.BOOK, "§ePágina " + (page + 1), 
-                                             "§7Total de páginas: " + ((shopList.size() / 45) + 1));
+                                             "§7Total de páginas: " + pageCount(shopList.size(), 45));
             inventory.setItem(49, pageInfo);
         }
         
         // Abre o inventário
         player.openInventory(inventory);
-        openInventories.put(player, inventory);
     }
 
     /**
@@ -235,7 +264,20 @@ public class PlayerShopGUI {
      * @param shop Loja
      */
     public void openShopBuyMenu(Player player, PlayerShop shop) {
-        Inventory inventory = Bukkit.createInventory(null, 54, "§8Loja: " + shop.getShopName());
+        openShopBuyMenu(player, shop, 0);
+    }
+
+    /**
+     * Abre uma página do menu de uma loja para compra
+     * @param player Jogador
+     * @param shop Loja
+     * @param page Página a ser exibida (começando em 0)
+     */
+    public void openShopBuyMenu(Player player, PlayerShop shop, int page) {
+        shop.touch();
+        PlayerShopMenuHolder holder = new PlayerShopMenuHolder(PlayerShopMenuHolder.MenuType.SHOP, shop, page, 54);
+        Inventory inventory = Bukkit.createInventory(holder, 54, "§8Loja: " + shop.getShopName());
+        holder.setInventory(inventory);
         
         // Informações da loja
         ItemStack infoItem = createGuiItem(Material.BOOK, "§aInformações da Loja", 
@@ -244,11 +286,10 @@ public class PlayerShopGUI {
                                          "§7Itens à venda: §f" + shop.getItems().size());
         inventory.setItem(4, infoItem);
         
-        // Lista os itens da loja
-        List<PlayerShopItem> items = shop.getItems();
-        int page = currentPage.getOrDefault(player, 0);
-        int startIndex = page * 45;
-        int endIndex = Math.min(startIndex + 45, items.size());
+        // Lista os itens disponíveis da loja
+        List<PlayerShopItem> items = getAvailableItems(shop);
+        int startIndex = page * SHOP_PAGE_SIZE;
+        int endIndex = Math.min(startIndex + SHOP_PAGE_SIZE, items.size());
         
         if (items.isEmpty()) {
             ItemStack noItemsItem = createGuiItem(Material.BARRIER, "§cNenhum item à venda", 
@@ -258,15 +299,10 @@ public class PlayerShopGUI {
             int slot = 9;
             for (int i = startIndex; i < endIndex; i++) {
                 PlayerShopItem item = items.get(i);
-                if (item.isAvailable()) {
-                    ItemStack displayItem = item.createDisplayItem();
-                    inventory.setItem(slot, displayItem);
-                    slot++;
-                    if ((slot % 9) == 0) {
-                        slot += 1;
-                    }
-                    if (slot >= 45) break;
-                }
+                ItemStack displayItem = getDisplayIcon(item);
+                inventory.setItem(slot, displayItem);
+                holder.setItem(slot, item);
+                slot++;
             }
         }
         
@@ -276,7 +312,7 @@ public class PlayerShopGUI {
         inventory.setItem(45, backButton);
         
         // Botões de navegação
-        if (items.size() > 36) {
+        if (items.size() > SHOP_PAGE_SIZE) {
             // Botão de página anterior
             if (page > 0) {
                 ItemStack prevButton = createGuiItem(Material.PAPER, "§ePágina Anterior", 
@@ -293,14 +329,12 @@ public class PlayerShopGUI {
             
             // Informações da página
             ItemStack pageInfo = createGuiItem(Material.BOOK, "§ePágina " + (page + 1), 
-                                             "§7Total de páginas: " + ((items.size() / 36) + 1));
+                                             "§7Total de páginas: " + pageCount(items.size(), SHOP_PAGE_SIZE));
             inventory.setItem(49, pageInfo);
         }
         
         // Abre o inventário
         player.openInventory(inventory);
-        openInventories.put(player, inventory);
-        currentShop.put(player, shop);
     }
 
     /**
@@ -310,7 +344,10 @@ public class PlayerShopGUI {
      * @param itemStack Item a ser adicionado
      */
     public void openAddItemDialog(Player player, PlayerShop shop, ItemStack itemStack) {
-        Inventory inventory = Bukkit.createInventory(null, 36, "§8Adicionar Item à Loja");
+        PlayerShopMenuHolder holder = new PlayerShopMenuHolder(PlayerShopMenuHolder.MenuType.ADD_ITEM, shop, 0, 36);
+        holder.setPendingItem(itemStack.clone());
+        Inventory inventory = Bukkit.createInventory(holder, 36, "§8Adicionar Item à Loja");
+        holder.setInventory(inventory);
         
         // Item a ser adicionado
         inventory.setItem(13, itemStack);
@@ -383,28 +420,36 @@ public class PlayerShopGUI {
         
         // Abre o inventário
         player.openInventory(inventory);
-        openInventories.put(player, inventory);
-        currentShop.put(player, shop);
-        pendingItems.put(player.getUniqueId(), itemStack.clone());
     }
 
     /**
      * Abre o diálogo de confirmação para comprar um item
+     * Oferece as quantidades de {@link #BUY_AMOUNTS} que o estoque atual comporta
      * @param player Jogador
      * @param shop Loja
      * @param item Item a ser comprado
      */
     public void openBuyConfirmationDialog(Player player, PlayerShop shop, PlayerShopItem item) {
-        Inventory inventory = Bukkit.createInventory(null, 27, "§8Confirmar Compra");
+        PlayerShopMenuHolder holder = new PlayerShopMenuHolder(PlayerShopMenuHolder.MenuType.CONFIRM_BUY, shop, 0, 27);
+        Inventory inventory = Bukkit.createInventory(holder, 27, "§8Confirmar Compra");
+        holder.setInventory(inventory);
         
         // Item a ser comprado
-        inventory.setItem(13, item.createDisplayItem());
-        
-        // Botão de confirmar
-        ItemStack confirmButton = createGuiItem(Material.EMERALD_BLOCK, "§aConfirmar Compra", 
-                                              "§7Clique para comprar este item por",
-                                              "§f" + plugin.getEconomyProvider().format(item.getPrice()));
-        inventory.setItem(11, confirmButton);
+        inventory.setItem(13, getDisplayIcon(item));
+        holder.setItem(13, item);
+        
+        // Botões de compra por quantidade
+        for (int i = 0; i < BUY_AMOUNTS.length; i++) {
+            int amount = BUY_AMOUNTS[i];
+            if (amount > item.getStock()) {
+                break;
+            }
+            ItemStack confirmButton = createGuiItem(Material.EMERALD_BLOCK, "§aComprar " + amount + "x", 
+                                                  "§7Clique para comprar por",
+                                                  "§f" + plugin.getEconomyProvider().format(item.getPrice() * amount));
+            confirmButton.setAmount(amount);
+            inventory.setItem(BUY_AMOUNT_FIRST_SLOT + i, confirmButton);
+        }
         
         // Botão de cancelar
         ItemStack cancelButton = createGuiItem(Material.BARRIER, "§cCancelar", 
@@ -413,8 +458,6 @@ public class PlayerShopGUI {
         
         // Abre o inventário
         player.openInventory(inventory);
-        openInventories.put(player, inventory);
-        currentShop.put(player, shop);
     }
 
     /**
@@ -422,7 +465,7 @@ public class PlayerShopGUI {
      * @param player Jogador
      * @param shop Loja
      * @param itemStack Item a ser adicionado
-     * @param price Preço do item
+     * @param price Preço por unidade
      * @param dynamicPrice Se o preço deve ser atualizado conforme oferta e demanda
      */
     public void addItemToShop(Player player, PlayerShop shop, ItemStack itemStack, double price, boolean dynamicPrice) {
@@ -438,7 +481,7 @@ public class PlayerShopGUI {
             return;
         }
         
-        // Cria o item da loja
+        // Cria o anúncio; a quantidade do stack vira o estoque
         PlayerShopItem shopItem = new PlayerShopItem(plugin, itemStack, price, dynamicPrice);
         
         // Adiciona o item à loja
@@ -450,12 +493,11 @@ public class PlayerShopGUI {
         // Remove o item do inventário do jogador
         player.getInventory().removeItem(itemStack);
         
-        // Salva a loja no banco de dados
-        shop.saveAsync();
-        
         // Mensagem de confirmação
         String priceType = dynamicPrice ? "dinâmico" : "fixo";
-        player.sendMessage("§aItem adicionado à loja com sucesso com preço " + priceType + ".");
+        player.sendMessage("§a" + shopItem.getStock() + "x §f" + shopItem.getDisplayName() + 
+                          " §aadicionados à loja por §f" + plugin.getEconomyProvider().format(price) + 
+                          " §acada, com preço " + priceType + ".");
         
         // Abre o menu de gerenciamento
         openShopManagementMenu(player, shop);
@@ -484,76 +526,64 @@ public class PlayerShopGUI {
     }
 
     /**
-     * Verifica se um inventário pertence a esta GUI
-     * @param title Título do inventário
-     * @return true se o inventário pertence a esta GUI
+     * Obtém o ícone de exibição de um item, reconstruído apenas quando a versão do item muda
+     * @param item Item da loja
+     * @return Ícone em cache
      */
-    public boolean isPlayerShopInventory(String title) {
-        return title.startsWith("§8Lojas de Jogadores") ||
-               title.startsWith("§8Gerenciar Loja:") ||
-               title.startsWith("§8Procurar Lojas") ||
-               title.startsWith("§8Loja:") ||
-               title.startsWith("§8Adicionar Item à Loja") ||
-               title.startsWith("§8Confirmar Compra");
+    private ItemStack getDisplayIcon(PlayerShopItem item) {
+        return iconCache.get(item.getId().toString(), item.getVersion(), item::createDisplayItem);
     }
 
     /**
-     * Obtém o tipo de inventário
-     * @param title Título do inventário
-     * @return Tipo de inventário
+     * Obtém os itens disponíveis de uma loja, na ordem da loja
+     * @param shop Loja
+     * @return Lista de itens disponíveis
      */
-    public String getInventoryType(String title) {
-        if (title.equals("§8Lojas de Jogadores")) {
-            return "main";
-        } else if (title.startsWith("§8Gerenciar Loja:")) {
-            return "manage";
-        } else if (title.equals("§8Procurar Lojas")) {
-            return "browse";
-        } else if (title.startsWith("§8Loja:")) {
-            return "shop";
-        } else if (title.equals("§8Adicionar Item à Loja")) {
-            return "add_item";
-        } else if (title.equals("§8Confirmar Compra")) {
-            return "confirm_buy";
+    private List<PlayerShopItem> getAvailableItems(PlayerShop shop) {
+        List<PlayerShopItem> available = new ArrayList<>();
+        for (PlayerShopItem item : shop.getItems()) {
+            if (item.isAvailable()) {
+                available.add(item);
+            }
         }
-        return "";
+        return available;
     }
 
     /**
-     * Obtém a loja atual de um jogador
-     * @param player Jogador
-     * @return Loja atual
+     * Calcula o número de páginas para uma quantidade de entradas
+     * @param size Quantidade de entradas
+     * @param pageSize Entradas por página
+     * @return Número de páginas (mínimo 1)
      */
-    public PlayerShop getCurrentShop(Player player) {
-        return currentShop.get(player);
+    private int pageCount(int size, int pageSize) {
+        return Math.max(1, (size + pageSize - 1) / pageSize);
     }
 
     /**
-     * Define a página atual de um jogador
-     * @param player Jogador
-     * @param page Página
+     * Verifica se existe uma página seguinte no menu de gerenciamento
+     * @param shop Loja
+     * @param page Página atual
+     * @return true se houver mais itens após a página
      */
-    public void setCurrentPage(Player player, int page) {
-        currentPage.put(player, page);
+    public boolean hasNextManagePage(PlayerShop shop, int page) {
+        return (page + 1) * MANAGE_PAGE_SIZE < shop.getItems().size();
     }
 
     /**
-     * Obtém a página atual de um jogador
-     * @param player Jogador
-     * @return Página atual
+     * Verifica se existe uma página seguinte no menu de compra de uma loja
+     * @param shop Loja
+     * @param page Página atual
+     * @return true se houver mais itens disponíveis após a página
      */
-    public int getCurrentPage(Player player) {
-        return currentPage.getOrDefault(player, 0);
+    public boolean hasNextShopPage(PlayerShop shop, int page) {
+        return (page + 1) * SHOP_PAGE_SIZE < getAvailableItems(shop).size();
     }
 
     /**
-     * Remove um jogador das listas de controle
+     * Remove o estado pendente de um jogador (preço personalizado via chat)
      * @param player Jogador
      */
-    public void removePlayer(Player player) {
-        openInventories.remove(player);
-        currentShop.remove(player);
-        currentPage.remove(player);
+    public void clearPending(Player player) {
         pendingItems.remove(player.getUniqueId());
         pendingDynamicPrice.remove(player.getUniqueId());
     }
@@ -568,11 +598,13 @@ public class PlayerShopGUI {
     }
     
     /**
-     * Define se o preço pendente é dinâmico
+     * Define o item pendente de um jogador, aguardando o preço pelo chat
      * @param player Jogador
+     * @param itemStack Item a ser adicionado
      * @param isDynamic Se o preço é dinâmico
      */
-    public void setPendingDynamicPrice(Player player, boolean isDynamic) {
+    public void setPendingItem(Player player, ItemStack itemStack, boolean isDynamic) {
+        pendingItems.put(player.getUniqueId(), itemStack.clone());
         pendingDynamicPrice.put(player.getUniqueId(), isDynamic);
     }
     
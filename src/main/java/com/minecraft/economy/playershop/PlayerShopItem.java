@@ -3,15 +3,19 @@ package com.minecraft.economy.playershop;
 import com.minecraft.economy.core.EconomyPlugin;
 import com.minecraft.economy.utils.ModItemUtils;
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Representa um item à venda em uma loja de jogador
+ * Representa um anúncio de uma loja de jogador
+ * Cada anúncio guarda um tipo de item, o preço por unidade e a quantidade em estoque, e é
+ * persistido como um documento próprio na coleção "player_shop_listings".
  */
 public class PlayerShopItem {
 
@@ -19,48 +23,63 @@ public class PlayerShopItem {
     private final UUID id;
     private final ItemStack itemStack;
     private double price;
-    private boolean available;
+    private int stock;
+    private long documentVersion; // Versão do documento no banco, acessada apenas pela fila de escritas da loja
     private final long createdAt;
+    private long repricedAt; // Início do último repreço aplicado ao preço dinâmico (acessado na thread principal)
     private boolean dynamicPrice; // Indica se o preço é dinâmico (baseado em oferta e demanda)
+    private final AtomicInteger version = new AtomicInteger(); // Incrementada a cada alteração visível
 
     /**
-     * Construtor para criar um novo item
+     * Construtor para criar um novo anúncio
      * @param plugin Instância do plugin
-     * @param itemStack Item a ser vendido
-     * @param price Preço do item
+     * @param itemStack Itens a serem vendidos (a quantidade do stack vira o estoque)
+     * @param price Preço por unidade
      */
     public PlayerShopItem(EconomyPlugin plugin, ItemStack itemStack, double price) {
         this(plugin, itemStack, price, false);
     }
     
     /**
-     * Construtor para criar um novo item com opção de preço dinâmico
+     * Construtor para criar um novo anúncio com opção de preço dinâmico
      * @param plugin Instância do plugin
-     * @param itemStack Item a ser vendido
-     * @param price Preço do item
+     * @param itemStack Itens a serem vendidos (a quantidade do stack vira o estoque)
+     * @param price Preço por unidade
      * @param dynamicPrice Se o preço deve ser atualizado conforme oferta e demanda
      */
     public PlayerShopItem(EconomyPlugin plugin, ItemStack itemStack, double price, boolean dynamicPrice) {
         this.plugin = plugin;
         this.id = UUID.randomUUID();
         this.itemStack = itemStack.clone();
+        this.itemStack.setAmount(1);
         this.price = price;
-        this.available = true;
+        this.stock = itemStack.getAmount();
+        this.documentVersion = 0;
         this.createdAt = System.currentTimeMillis();
+        this.repricedAt = createdAt;
         this.dynamicPrice = dynamicPrice;
     }
 
     /**
-     * Construtor para carregar um item do banco de dados
+     * Construtor para carregar um anúncio do banco de dados
+     * Aceita tanto documentos da coleção de anúncios quanto itens antigos embutidos na loja
+     * (um item por documento, com o campo "available")
      * @param plugin Instância do plugin
      * @param doc Documento do MongoDB
      */
     public PlayerShopItem(EconomyPlugin plugin, Document doc) {
         this.plugin = plugin;
-        this.id = UUID.fromString(doc.getString("id"));
+        this.id = UUID.fromString(doc.containsKey("_id") ? doc.getString("_id") : doc.getString("id"));
         this.price = doc.getDouble("price");
-        this.available = doc.getBoolean("available", true);
+        if (doc.containsKey("stock")) {
+            this.stock = doc.getInteger("stock", 0);
+        } else {
+            this.stock = doc.getBoolean("available", true) ? 1 : 0;
+        }
+        this.documentVersion = getDocumentVersion(doc);
         this.createdAt = doc.getLong("created_at");
+        Object repriced = doc.get("repriced_at");
+        this.repricedAt = repriced instanceof Number ? ((Number) repriced).longValue() : 0L;
         this.dynamicPrice = doc.getBoolean("dynamic_price", false);
         
         // Carrega o item
@@ -78,20 +97,34 @@ public class PlayerShopItem {
     }
 
     /**
-     * Converte o item para um documento do MongoDB
+     * Converte o anúncio para um documento da coleção de anúncios
+     * @param shopId ID da loja dona do anúncio
      * @return Documento do MongoDB
      */
-    public Document toDocument() {
+    public Document toDocument(ObjectId shopId) {
         Document doc = new Document();
-        doc.append("id", id.toString());
-        doc.append("item_id", ModItemUtils.getItemId(itemStack));
+        doc.append("_id", id.toString());
+        doc.append("shop_id", shopId);
+        doc.append("item_id", getItemId());
         doc.append("price", price);
-        doc.append("available", available);
+        doc.append("stock", stock);
         doc.append("created_at", createdAt);
         doc.append("dynamic_price", dynamicPrice);
+        doc.append("repriced_at", repricedAt);
+        doc.append("version", documentVersion);
         return doc;
     }
 
+    /**
+     * Obtém a versão de um documento de anúncio (0 para documentos sem versão)
+     * @param doc Documento do anúncio
+     * @return Versão do documento
+     */
+    static long getDocumentVersion(Document doc) {
+        Object value = doc.get("version");
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
     /**
      * Obtém o nome de exibição do item
      * @return Nome de exibição do item
@@ -108,8 +141,12 @@ public class PlayerShopItem {
         ItemStack displayItem = itemStack.clone();
         ItemMeta meta = displayItem.getItemMeta();
         
+        // A quantidade do ícone acompanha o estoque, limitada a um stack
+        displayItem.setAmount(Math.max(1, Math.min(stock, displayItem.getMaxStackSize())));
+        
         List<String> lore = new ArrayList<>();
-        lore.add("§7Preço: §f" + plugin.getEconomyProvider().format(price));
+        lore.add("§7Preço por unidade: §f" + plugin.getEconomyProvider().format(price));
+        lore.add("§7Estoque: §f" + stock);
         
         if (dynamicPrice) {
             lore.add("§7Preço dinâmico: §aSim");
@@ -118,8 +155,8 @@ public class PlayerShopItem {
             lore.add("§7Preço fixo: §aSim");
         }
         
-        if (!available) {
-            lore.add("§cItem vendido");
+        if (stock <= 0) {
+            lore.add("§cEsgotado");
         }
         
         meta.setLore(lore);
@@ -130,10 +167,22 @@ public class PlayerShopItem {
 
     /**
      * Cria um ItemStack para o inventário do jogador
+     * O stack pode passar do tamanho máximo; o addItem do inventário o divide em vários slots
+     * @param amount Quantidade de unidades
      * @return ItemStack para o inventário
      */
-    public ItemStack createItemStack() {
-        return itemStack.clone();
+    public ItemStack createItemStack(int amount) {
+        ItemStack stack = itemStack.clone();
+        stack.setAmount(amount);
+        return stack;
+    }
+
+    /**
+     * Obtém o ID do tipo de item (considerando itens de mods)
+     * @return ID do tipo de item
+     */
+    public String getItemId() {
+        return ModItemUtils.getItemId(itemStack);
     }
 
     /**
@@ -166,22 +215,50 @@ public class PlayerShopItem {
      */
     public void setPrice(double price) {
         this.price = price;
+        version.incrementAndGet();
     }
 
     /**
-     * Verifica se o item está disponível
-     * @return true se o item estiver disponível
+     * Verifica se o anúncio ainda tem estoque
+     * @return true se houver ao menos uma unidade
      */
     public boolean isAvailable() {
-        return available;
+        return stock > 0;
     }
 
     /**
-     * Define se o item está disponível
-     * @param available Disponibilidade do item
+     * Obtém a quantidade em estoque
+     * @return Unidades disponíveis
      */
-    public void setAvailable(boolean available) {
-        this.available = available;
+    public int getStock() {
+        return stock;
+    }
+
+    /**
+     * Define a quantidade em estoque
+     * @param stock Unidades disponíveis
+     */
+    public void setStock(int stock) {
+        if (this.stock != stock) {
+            this.stock = stock;
+            version.incrementAndGet();
+        }
+    }
+
+    long getDocumentVersion() {
+        return documentVersion;
+    }
+
+    void setDocumentVersion(long documentVersion) {
+        this.documentVersion = documentVersion;
+    }
+
+    long getRepricedAt() {
+        return repricedAt;
+    }
+
+    void setRepricedAt(long repricedAt) {
+        this.repricedAt = repricedAt;
     }
 
     /**
@@ -206,6 +283,15 @@ public class PlayerShopItem {
      */
     public void setDynamicPrice(boolean dynamicPrice) {
         this.dynamicPrice = dynamicPrice;
+        version.incrementAndGet();
+    }
+    
+    /**
+     * Obtém a versão do item, incrementada a cada alteração de preço ou estoque
+     * @return Versão atual
+     */
+    public int getVersion() {
+        return version.get();
     }
     
     /**
@@ -226,6 +312,8 @@ public class PlayerShopItem {
             // Garante um preço mínimo
             double minPrice = 1.0;
             if (price < minPrice) price = minPrice;
+            
+            version.incrementAndGet();
         }
     }
 }
@@ -1,9 +1,22 @@
 package com.minecraft.economy.playershop;
 
 import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.scheduler.ScheduleSpec;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitRunnable;
 
@@ -14,20 +27,41 @@ import java.util.logging.Level;
 
 /**
  * Gerenciador de lojas de jogadores
+ * Na inicialização só os resumos das lojas (dono, nome e chunk) são carregados. Uma loja é
+ * materializada, com anúncios e ItemStacks, quando o seu chunk carrega, quando o dono entra no
+ * servidor ou quando alguém a abre, e é descarregada depois de ficar ociosa.
  */
 public class PlayerShopManager {
 
+    private static final int WARM_LISTINGS = 20; // Anúncios consultados no banco antes de uma busca de mercado
+
     private final EconomyPlugin plugin;
     private final Map<String, PlayerShop> playerShops = new ConcurrentHashMap<>();
     private final Map<UUID, List<PlayerShop>> playerShopsByOwner = new ConcurrentHashMap<>();
+    private final Map<String, PlayerShopSummary> summaries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<PlayerShop>> loading = new ConcurrentHashMap<>();
+    private final ShopChunkIndex chunkIndex = new ShopChunkIndex();
+    private final PlayerShopGUI shopGUI;
+    private final MarketIndex marketIndex = new MarketIndex();
+    private final ShopBlockManager shopBlockManager;
+    private final PlayerShopRepricer repricer;
 
     public PlayerShopManager(EconomyPlugin plugin) {
         this.plugin = plugin;
+        this.shopGUI = new PlayerShopGUI(plugin, this);
+        this.shopBlockManager = new ShopBlockManager(plugin, this);
+        this.repricer = new PlayerShopRepricer(plugin, this);
         loadPlayerShops();
+        shopBlockManager.load();
+        repricer.start();
+        
+        // Descarrega periodicamente as lojas ociosas
+        plugin.getScheduler().scheduleLocal("playershop.unload_idle", ScheduleSpec.every(60_000L), false, this::unloadIdleShops);
     }
 
     /**
-     * Carrega todas as lojas de jogadores do banco de dados
+     * Carrega os resumos das lojas de jogadores e materializa as lojas já em uso
+     * (em chunks carregados ou de jogadores online)
      */
     private void loadPlayerShops() {
         new BukkitRunnable() {
@@ -38,23 +72,53 @@ public class PlayerShopManager {
                     
                     playerShops.clear();
                     playerShopsByOwner.clear();
+                    summaries.clear();
+                    chunkIndex.clear();
                     
-                    plugin.getMongoDBManager().getDatabase().getCollection("player_shops")
-                        .find()
+                    MongoCollection<Document> shops = plugin.getMongoDBManager().getDatabase().getCollection("player_shops");
+                    MongoCollection<Document> listings = plugin.getMongoDBManager().getDatabase()
+                        .getCollection(PlayerShop.LISTINGS_COLLECTION);
+                    
+                    // Índices das coleções de lojas e anúncios
+                    shops.createIndex(Indexes.ascending("owner_uuid"));
+                    listings.createIndex(Indexes.ascending("shop_id"));
+                    listings.createIndex(Indexes.ascending("item_id", "price"));
+                    
+                    // Lojas antigas guardavam os itens embutidos no documento
+                    for (Document doc : shops.find(Filters.exists("items"))) {
+                        try {
+                            migrateEmbeddedItems(shops, listings, doc);
+                        } catch (Exception e) {
+                            plugin.getLogger().log(Level.SEVERE, "Erro ao migrar itens de loja de jogador: " + e.getMessage(), e);
+                        }
+                    }
+                    
+                    // Remove anúncios esgotados
+                    listings.deleteMany(Filters.lte("stock", 0));
+                    
+                    // Carrega apenas os resumos
+                    shops.find()
+                        .projection(Projections.include("owner_uuid", "owner_name", "shop_name", 
+                                                        "location.world", "location.x", "location.z"))
                         .forEach(doc -> {
                             try {
-                                PlayerShop shop = new PlayerShop(plugin, doc);
-                                playerShops.put(shop.getId().toString(), shop);
-                                
-                                // Adiciona à lista de lojas do jogador
-                                UUID ownerUUID = shop.getOwnerUUID();
-                                playerShopsByOwner.computeIfAbsent(ownerUUID, k -> new ArrayList<>()).add(shop);
+                                PlayerShopSummary summary = PlayerShopSummary.fromDocument(doc);
+                                summaries.put(summary.getId().toString(), summary);
+                                chunkIndex.add(summary);
                             } catch (Exception e) {
                                 plugin.getLogger().log(Level.SEVERE, "Erro ao carregar loja de jogador: " + e.getMessage(), e);
                             }
                         });
                     
-                    plugin.getLogger().info("Lojas de jogadores carregadas com sucesso: " + playerShops.size() + " lojas");
+                    plugin.getLogger().info("Lojas de jogadores indexadas: " + summaries.size() + " lojas");
+                    
+                    // Materializa as lojas já em uso
+                    new BukkitRunnable() {
+                        @Override
+                        public void run() {
+                            loadActiveShops();
+                        }
+                    }.runTask(plugin);
                 } catch (Exception e) {
                     plugin.getLogger().log(Level.SEVERE, "Erro ao carregar lojas de jogadores: " + e.getMessage(), e);
                 }
@@ -62,6 +126,221 @@ public class PlayerShopManager {
         }.runTaskAsynchronously(plugin);
     }
 
+    /**
+     * Materializa as lojas em chunks carregados e as lojas dos jogadores online
+     */
+    private void loadActiveShops() {
+        for (PlayerShopSummary summary : summaries.values()) {
+            if (isChunkLoaded(summary)) {
+                loadPlayerShop(summary.getId().toString());
+            }
+        }
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            loadPlayerShopsOf(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Obtém uma loja, carregando-a do banco se ela ainda não estiver em memória
+     * Deve ser chamado na thread principal; o future é concluído na thread principal.
+     * @param shopId ID da loja
+     * @return CompletableFuture com a loja, ou null se ela não existir
+     */
+    public CompletableFuture<PlayerShop> loadPlayerShop(String shopId) {
+        PlayerShop loaded = playerShops.get(shopId);
+        if (loaded != null) {
+            loaded.touch();
+            return CompletableFuture.completedFuture(loaded);
+        }
+        if (!summaries.containsKey(shopId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        CompletableFuture<PlayerShop> pending = loading.get(shopId);
+        if (pending != null) {
+            return pending;
+        }
+        
+        CompletableFuture<PlayerShop> future = new CompletableFuture<>();
+        loading.put(shopId, future);
+        
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Document shopDoc;
+            List<Document> listingDocs = new ArrayList<>();
+            try {
+                ObjectId id = new ObjectId(shopId);
+                shopDoc = plugin.getMongoDBManager().getDatabase().getCollection("player_shops")
+                    .find(Filters.eq("_id", id)).first();
+                if (shopDoc != null) {
+                    plugin.getMongoDBManager().getDatabase().getCollection(PlayerShop.LISTINGS_COLLECTION)
+                        .find(Filters.and(Filters.eq("shop_id", id), Filters.gt("stock", 0)))
+                        .into(listingDocs);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao carregar loja de jogador " + shopId + ": " + e.getMessage(), e);
+                shopDoc = null;
+            }
+            
+            Document doc = shopDoc;
+            new BukkitRunnable() {
+                @Override
+                public void run() {
+                    loading.remove(shopId);
+                    if (doc == null) {
+                        future.complete(null);
+                        return;
+                    }
+                    
+                    PlayerShop shop = new PlayerShop(plugin, marketIndex, doc);
+                    for (Document listingDoc : listingDocs) {
+                        try {
+                            shop.loadItem(new PlayerShopItem(plugin, listingDoc));
+                        } catch (Exception e) {
+                            plugin.getLogger().log(Level.SEVERE, "Erro ao carregar anúncio de loja de jogador: " + e.getMessage(), e);
+                        }
+                    }
+                    register(shop);
+                    future.complete(shop);
+                }
+            }.runTask(plugin);
+        });
+        
+        return future;
+    }
+
+    /**
+     * Materializa as lojas de um jogador
+     * @param ownerUUID UUID do dono
+     */
+    public void loadPlayerShopsOf(UUID ownerUUID) {
+        for (PlayerShopSummary summary : summaries.values()) {
+            if (summary.getOwnerUUID().equals(ownerUUID)) {
+                loadPlayerShop(summary.getId().toString());
+            }
+        }
+    }
+
+    /**
+     * Materializa as lojas de um chunk recém-carregado
+     * @param world Mundo do chunk
+     * @param chunkX Coordenada X do chunk
+     * @param chunkZ Coordenada Z do chunk
+     */
+    public void onChunkLoad(World world, int chunkX, int chunkZ) {
+        Set<ObjectId> ids = chunkIndex.get(world.getName(), ShopChunkIndex.chunkKey(chunkX, chunkZ));
+        for (ObjectId id : ids) {
+            loadPlayerShop(id.toString());
+        }
+    }
+
+    /**
+     * Registra uma loja materializada
+     * @param shop Loja
+     */
+    private void register(PlayerShop shop) {
+        playerShops.put(shop.getId().toString(), shop);
+        playerShopsByOwner.computeIfAbsent(shop.getOwnerUUID(), k -> new ArrayList<>()).add(shop);
+        repricer.catchUp(shop);
+    }
+
+    /**
+     * Descarta da memória uma loja materializada (o resumo continua indexado)
+     * @param shop Loja
+     */
+    private void unregister(PlayerShop shop) {
+        String shopId = shop.getId().toString();
+        playerShops.remove(shopId);
+        List<PlayerShop> ownerShops = playerShopsByOwner.get(shop.getOwnerUUID());
+        if (ownerShops != null) {
+            ownerShops.removeIf(s -> s.getId().toString().equals(shopId));
+            if (ownerShops.isEmpty()) {
+                playerShopsByOwner.remove(shop.getOwnerUUID());
+            }
+        }
+        marketIndex.removeShop(shop);
+    }
+
+    /**
+     * Descarrega as lojas ociosas: sem acesso recente, fora de chunks carregados, com o dono offline,
+     * sem escritas pendentes e sem menus abertos
+     */
+    private void unloadIdleShops() {
+        long idleMillis = plugin.getConfigManager().getPlayerShopIdleUnloadMinutes() * 60_000L;
+        long now = System.currentTimeMillis();
+        
+        // Lojas exibidas em menus abertos não são descarregadas
+        Set<PlayerShop> viewed = new HashSet<>();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            InventoryHolder holder = player.getOpenInventory().getTopInventory().getHolder();
+            if (holder instanceof PlayerShopMenuHolder && ((PlayerShopMenuHolder) holder).getShop() != null) {
+                viewed.add(((PlayerShopMenuHolder) holder).getShop());
+            }
+        }
+        
+        int unloaded = 0;
+        for (PlayerShop shop : new ArrayList<>(playerShops.values())) {
+            if (now - shop.getLastAccess() < idleMillis || shop.hasPendingWrites() || viewed.contains(shop)
+                    || plugin.getServer().getPlayer(shop.getOwnerUUID()) != null) {
+                continue;
+            }
+            PlayerShopSummary summary = summaries.get(shop.getId().toString());
+            if (summary != null && isChunkLoaded(summary)) {
+                continue;
+            }
+            unregister(shop);
+            unloaded++;
+        }
+        
+        if (unloaded > 0) {
+            plugin.getLogger().fine("Lojas de jogadores ociosas descarregadas: " + unloaded);
+        }
+    }
+
+    /**
+     * Verifica se o chunk de uma loja está carregado
+     * @param summary Resumo da loja
+     * @return true se a loja tiver localização e o chunk estiver carregado
+     */
+    private boolean isChunkLoaded(PlayerShopSummary summary) {
+        if (summary.getWorldName() == null) {
+            return false;
+        }
+        World world = plugin.getServer().getWorld(summary.getWorldName());
+        return world != null && world.isChunkLoaded(ShopChunkIndex.chunkX(summary.getChunkKey()), 
+                                                    ShopChunkIndex.chunkZ(summary.getChunkKey()));
+    }
+
+    /**
+     * Move os itens embutidos de uma loja antiga para a coleção de anúncios
+     * Itens já vendidos são descartados; a operação é idempotente (upsert pelo ID do item).
+     * @param shops Coleção de lojas
+     * @param listings Coleção de anúncios
+     * @param shopDoc Documento da loja
+     */
+    private void migrateEmbeddedItems(MongoCollection<Document> shops, MongoCollection<Document> listings, Document shopDoc) {
+        ObjectId shopId = shopDoc.getObjectId("_id");
+        List<Document> itemDocs = shopDoc.getList("items", Document.class);
+        
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        if (itemDocs != null) {
+            for (Document itemDoc : itemDocs) {
+                PlayerShopItem item = new PlayerShopItem(plugin, itemDoc);
+                if (item.isAvailable()) {
+                    writes.add(new ReplaceOneModel<>(Filters.eq("_id", item.getId().toString()), item.toDocument(shopId),
+                                                     new ReplaceOptions().upsert(true)));
+                }
+            }
+        }
+        
+        if (!writes.isEmpty()) {
+            listings.bulkWrite(writes);
+        }
+        shops.updateOne(Filters.eq("_id", shopId), Updates.unset("items"));
+        
+        plugin.getLogger().info("Loja " + shopDoc.getString("shop_name") + ": " + writes.size() + 
+                                " itens migrados para a coleção de anúncios");
+    }
+
     /**
      * Cria uma nova loja para um jogador
      * @param player Jogador que está criando a loja
@@ -77,8 +356,7 @@ public class PlayerShopManager {
         
         // Verifica se o jogador já atingiu o limite de lojas
         int maxShops = plugin.getConfig().getInt("playershop.max_shops_per_player", 3);
-        List<PlayerShop> playerShops = getPlayerShopsByOwner(playerUUID);
-        if (playerShops.size() >= maxShops) {
+        if (countPlayerShops(playerUUID) >= maxShops) {
             player.sendMessage("§cVocê já atingiu o limite de lojas (" + maxShops + ").");
             future.complete(false);
             return future;
@@ -124,7 +402,7 @@ public class PlayerShopManager {
         String playerName = player.getName();
         
         // Cria a loja
-        PlayerShop shop = new PlayerShop(plugin, playerUUID, playerName, shopName, location);
+        PlayerShop shop = new PlayerShop(plugin, marketIndex, playerUUID, playerName, shopName, location);
         
         // Salva a loja no banco de dados
         new BukkitRunnable() {
@@ -135,14 +413,16 @@ public class PlayerShopManager {
                     plugin.getMongoDBManager().getDatabase().getCollection("player_shops")
                         .insertOne(doc);
                     
-                    // Adiciona à lista de lojas
-                    playerShops.put(shop.getId().toString(), shop);
-                    playerShopsByOwner.computeIfAbsent(playerUUID, k -> new ArrayList<>()).add(shop);
-                    
                     // Notifica o jogador
                     new BukkitRunnable() {
                         @Override
                         public void run() {
+                            // Adiciona à lista de lojas
+                            PlayerShopSummary summary = PlayerShopSummary.of(shop);
+                            summaries.put(summary.getId().toString(), summary);
+                            chunkIndex.add(summary);
+                            register(shop);
+                            
                             player.sendMessage("§aLoja criada com sucesso: §f" + shopName);
                             future.complete(true);
                         }
@@ -184,11 +464,12 @@ public class PlayerShopManager {
         }
         
         // Remove a loja
-        playerShops.remove(shopId);
-        List<PlayerShop> ownerShops = playerShopsByOwner.get(shop.getOwnerUUID());
-        if (ownerShops != null) {
-            ownerShops.removeIf(s -> s.getId().toString().equals(shopId));
+        unregister(shop);
+        PlayerShopSummary summary = summaries.remove(shopId);
+        if (summary != null) {
+            chunkIndex.remove(summary);
         }
+        shopBlockManager.removeShop(shop.getId());
         
         // Deleta a loja do banco de dados
         shop.delete();
@@ -224,7 +505,7 @@ public class PlayerShopManager {
             return false;
         }
         
-        // Cria o item da loja
+        // Cria o anúncio; a quantidade do stack vira o estoque
         PlayerShopItem shopItem = new PlayerShopItem(plugin, itemStack, price);
         
         // Adiciona o item à loja
@@ -236,10 +517,8 @@ public class PlayerShopManager {
         // Remove o item do inventário do jogador
         player.getInventory().removeItem(itemStack);
         
-        // Salva a loja no banco de dados
-        shop.saveAsync();
-        
-        player.sendMessage("§aItem adicionado à loja com sucesso.");
+        player.sendMessage("§a" + shopItem.getStock() + "x §f" + shopItem.getDisplayName() + 
+                          " §aadicionados à loja por §f" + plugin.getEconomyProvider().format(price) + " §acada.");
         return true;
     }
 
@@ -263,21 +542,13 @@ public class PlayerShopManager {
             return false;
         }
         
-        // Remove o item da loja
-        PlayerShopItem item = shop.removeItem(itemId);
+        // Remove o item da loja; o estoque restante é devolvido ao jogador
+        PlayerShopItem item = shop.removeItem(player, itemId);
         if (item == null) {
             player.sendMessage("§cItem não encontrado.");
             return false;
         }
         
-        // Devolve o item ao jogador se ainda estiver disponível
-        if (item.isAvailable()) {
-            player.getInventory().addItem(item.createItemStack());
-        }
-        
-        // Salva a loja no banco de dados
-        shop.saveAsync();
-        
         player.sendMessage("§aItem removido da loja com sucesso.");
         return true;
     }
@@ -288,7 +559,7 @@ public class PlayerShopManager {
      * @param shopId ID da loja
      * @param itemId ID do item
      * @param newPrice Novo preço
-     * @return true se o preço foi alterado com sucesso
+     * @return true se o item foi encontrado e a alteração foi enviada (o resultado é informado ao jogador)
      */
     public boolean setItemPrice(Player player, String shopId, String itemId, double newPrice) {
         PlayerShop shop = playerShops.get(shopId);
@@ -316,27 +587,126 @@ public class PlayerShopManager {
             return false;
         }
         
-        // Altera o preço
-        item.setPrice(newPrice);
+        // Altera o preço; se o anúncio mudou em outro servidor, o dono confere e tenta de novo
+        shop.setItemPrice(item, newPrice).thenAccept(applied -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            if (applied) {
+                player.sendMessage("§aPreço alterado com sucesso para §f" + plugin.getEconomyProvider().format(newPrice) + "§a.");
+            } else {
+                player.sendMessage("§cO item foi alterado em outro servidor. Confira o preço atual e tente de novo.");
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Obtém os anúncios mais baratos de um item entre todas as lojas
+     * Deve ser chamado na thread principal; o future é concluído na thread principal.
+     * @param itemId ID do item
+     * @param limit Número máximo de anúncios
+     * @return CompletableFuture com os anúncios em ordem de preço
+     */
+    public CompletableFuture<List<MarketIndex.Entry>> findListings(String itemId, int limit) {
+        return warmListings(itemId).thenApply(v -> marketIndex.find(itemId, limit));
+    }
+
+    /**
+     * Compra um item do anúncio mais barato que tenha a quantidade pedida
+     * Anúncios das lojas do próprio comprador são ignorados.
+     * Deve ser chamado na thread principal.
+     * @param player Comprador
+     * @param itemId ID do item
+     * @param amount Quantidade de unidades
+     * @return CompletableFuture com true se a compra foi concluída
+     */
+    public CompletableFuture<Boolean> buyCheapest(Player player, String itemId, int amount) {
+        return warmListings(itemId).thenCompose(v -> {
+            for (MarketIndex.Entry entry : marketIndex.iterate(itemId)) {
+                PlayerShop shop = entry.getShop();
+                PlayerShopItem item = entry.getItem();
+                if (shop.getOwnerUUID().equals(player.getUniqueId()) || item.getStock() < amount) {
+                    continue;
+                }
+                return shop.buyItem(player, item.getId().toString(), amount);
+            }
+            
+            player.sendMessage("§cNenhuma loja tem §f" + amount + "x " + itemId + " §cà venda.");
+            return CompletableFuture.completedFuture(false);
+        });
+    }
+
+    /**
+     * Materializa as lojas dos anúncios mais baratos de um item que ainda não estão em memória,
+     * para que o índice de mercado cubra também as lojas descarregadas
+     * Usa o índice (item_id, price) da coleção de anúncios.
+     * Deve ser chamado na thread principal; o future é concluído na thread principal.
+     * @param itemId ID do item
+     * @return CompletableFuture concluído quando as lojas estiverem carregadas
+     */
+    private CompletableFuture<Void> warmListings(String itemId) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
         
-        // Salva a loja no banco de dados
-        shop.saveAsync();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Set<String> shopIds = new LinkedHashSet<>();
+            try {
+                plugin.getMongoDBManager().getDatabase().getCollection(PlayerShop.LISTINGS_COLLECTION)
+                    .find(Filters.and(Filters.eq("item_id", itemId), Filters.gt("stock", 0)))
+                    .sort(Sorts.ascending("price"))
+                    .projection(Projections.include("shop_id"))
+                    .limit(WARM_LISTINGS)
+                    .forEach(doc -> shopIds.add(doc.getObjectId("shop_id").toString()));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao consultar anúncios de " + itemId + ": " + e.getMessage(), e);
+            }
+            
+            new BukkitRunnable() {
+                @Override
+                public void run() {
+                    List<CompletableFuture<PlayerShop>> loads = new ArrayList<>();
+                    for (String shopId : shopIds) {
+                        if (!playerShops.containsKey(shopId)) {
+                            loads.add(loadPlayerShop(shopId));
+                        }
+                    }
+                    CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]))
+                        .whenComplete((v, error) -> future.complete(null));
+                }
+            }.runTask(plugin);
+        });
         
-        player.sendMessage("§aPreço alterado com sucesso para §f" + plugin.getEconomyProvider().format(newPrice) + "§a.");
-        return true;
+        return future;
+    }
+
+    /**
+     * Obtém o índice de mercado das lojas de jogadores
+     * @return Índice de mercado
+     */
+    public MarketIndex getMarketIndex() {
+        return marketIndex;
     }
 
     /**
-     * Obtém uma loja pelo ID
+     * Obtém uma loja já carregada em memória pelo ID
+     * Para lojas que podem estar descarregadas, use {@link #loadPlayerShop(String)}
      * @param shopId ID da loja
-     * @return A loja, ou null se não foi encontrada
+     * @return A loja, ou null se não foi encontrada ou não está carregada
      */
     public PlayerShop getPlayerShop(String shopId) {
         return playerShops.get(shopId);
     }
 
     /**
-     * Obtém todas as lojas de um jogador
+     * Obtém as lojas carregadas em memória
+     * @return Lojas carregadas
+     */
+    public Collection<PlayerShop> getLoadedShops() {
+        return playerShops.values();
+    }
+
+    /**
+     * Obtém as lojas carregadas de um jogador (as lojas de jogadores online ficam sempre carregadas)
      * @param ownerUUID UUID do jogador
      * @return Lista de lojas do jogador
      */
@@ -345,10 +715,78 @@ public class PlayerShopManager {
     }
 
     /**
-     * Obtém todas as lojas
-     * @return Mapa de lojas
+     * Obtém os resumos de todas as lojas, carregadas ou não, em ordem de nome
+     * @return Lista de resumos
+     */
+    public List<PlayerShopSummary> getShopSummaries() {
+        List<PlayerShopSummary> list = new ArrayList<>(summaries.values());
+        list.sort(Comparator.comparing(PlayerShopSummary::getShopName, String.CASE_INSENSITIVE_ORDER));
+        return list;
+    }
+
+    /**
+     * Obtém o resumo de uma loja, carregada ou não
+     * @param shopId ID da loja
+     * @return Resumo da loja, ou null se ela não existir
+     */
+    public PlayerShopSummary getShopSummary(String shopId) {
+        return summaries.get(shopId);
+    }
+
+    /**
+     * Obtém os resumos das lojas de um jogador, carregadas ou não
+     * @param ownerUUID UUID do jogador
+     * @return Lista de resumos
+     */
+    public List<PlayerShopSummary> getShopSummariesByOwner(UUID ownerUUID) {
+        List<PlayerShopSummary> list = new ArrayList<>();
+        for (PlayerShopSummary summary : summaries.values()) {
+            if (summary.getOwnerUUID().equals(ownerUUID)) {
+                list.add(summary);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Conta as lojas de um jogador, carregadas ou não
+     * @param ownerUUID UUID do jogador
+     * @return Número de lojas
+     */
+    public int countPlayerShops(UUID ownerUUID) {
+        return getShopSummariesByOwner(ownerUUID).size();
+    }
+
+    /**
+     * Verifica se uma loja existe (carregada ou não)
+     * @param shopId ID da loja
+     * @return true se a loja existir
+     */
+    public boolean exists(String shopId) {
+        return summaries.containsKey(shopId);
+    }
+
+    /**
+     * Obtém o número total de lojas
+     * @return Número de lojas
+     */
+    public int getShopCount() {
+        return summaries.size();
+    }
+
+    /**
+     * Obtém o gerenciador dos baús e placas de loja
+     * @return Gerenciador de blocos de loja
+     */
+    public ShopBlockManager getShopBlockManager() {
+        return shopBlockManager;
+    }
+
+    /**
+     * Obtém a interface gráfica compartilhada das lojas de jogadores
+     * @return Interface gráfica
      */
-    public Map<String, PlayerShop> getAllPlayerShops() {
-        return new HashMap<>(playerShops);
+    public PlayerShopGUI getShopGUI() {
+        return shopGUI;
     }
 }
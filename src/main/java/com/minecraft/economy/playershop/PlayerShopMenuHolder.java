@@ -0,0 +1,205 @@
+package com.minecraft.economy.playershop;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+
+/**
+ * Sessão de um menu de loja de jogador aberta por um jogador
+ * Congela, no momento da renderização, o mapeamento de slots para lojas/itens e o preço
+ * de cada item, de modo que um clique nunca resolva para um anúncio ou preço diferente do exibido
+ */
+public class PlayerShopMenuHolder implements InventoryHolder {
+
+    /**
+     * Tipos de menu das lojas de jogadores
+     */
+    public enum MenuType {
+        MAIN,
+        MANAGE,
+        BROWSE,
+        SHOP,
+        ADD_ITEM,
+        CONFIRM_BUY
+    }
+
+    private final MenuType type;
+    private final PlayerShop shop;
+    private final int page;
+    private final PlayerShop[] slotShops;
+    private final PlayerShopSummary[] slotSummaries;
+    private final PlayerShopItem[] slotItems;
+    private final double[] slotPrices;
+    private ItemStack pendingItem;
+    private Inventory inventory;
+    private boolean released;
+
+    /**
+     * Construtor da sessão
+     * @param type Tipo do menu
+     * @param shop Loja exibida (ou null)
+     * @param page Página exibida
+     * @param size Tamanho do inventário
+     */
+    public PlayerShopMenuHolder(MenuType type, PlayerShop shop, int page, int size) {
+        this.type = type;
+        this.shop = shop;
+        this.page = page;
+        this.slotShops = new PlayerShop[size];
+        this.slotSummaries = new PlayerShopSummary[size];
+        this.slotItems = new PlayerShopItem[size];
+        this.slotPrices = new double[size];
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Associa o inventário criado a esta sessão
+     * @param inventory Inventário
+     */
+    public void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    /**
+     * Obtém o tipo do menu
+     * @return Tipo do menu
+     */
+    public MenuType getType() {
+        return type;
+    }
+
+    /**
+     * Obtém a loja exibida
+     * @return Loja, ou null se o menu não for de uma loja específica
+     */
+    public PlayerShop getShop() {
+        return shop;
+    }
+
+    /**
+     * Obtém a página exibida
+     * @return Página (começando em 0)
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Associa uma loja a um slot
+     * @param slot Slot
+     * @param shop Loja exibida no slot
+     */
+    public void setShop(int slot, PlayerShop shop) {
+        slotShops[slot] = shop;
+    }
+
+    /**
+     * Obtém a loja exibida em um slot
+     * @param slot Slot clicado
+     * @return Loja do slot, ou null
+     */
+    public PlayerShop getShop(int slot) {
+        if (released || slot < 0 || slot >= slotShops.length) {
+            return null;
+        }
+        return slotShops[slot];
+    }
+
+    /**
+     * Associa o resumo de uma loja (possivelmente não carregada) a um slot
+     * @param slot Slot
+     * @param summary Resumo da loja exibida no slot
+     */
+    public void setSummary(int slot, PlayerShopSummary summary) {
+        slotSummaries[slot] = summary;
+    }
+
+    /**
+     * Obtém o resumo da loja exibida em um slot
+     * @param slot Slot clicado
+     * @return Resumo da loja do slot, ou null
+     */
+    public PlayerShopSummary getSummary(int slot) {
+        if (released || slot < 0 || slot >= slotSummaries.length) {
+            return null;
+        }
+        return slotSummaries[slot];
+    }
+
+    /**
+     * Associa um item a um slot, registrando o preço exibido
+     * @param slot Slot
+     * @param item Item exibido no slot
+     */
+    public void setItem(int slot, PlayerShopItem item) {
+        slotItems[slot] = item;
+        slotPrices[slot] = item.getPrice();
+    }
+
+    /**
+     * Obtém o item exibido em um slot
+     * @param slot Slot clicado
+     * @return Item do slot, ou null
+     */
+    public PlayerShopItem getItem(int slot) {
+        if (released || slot < 0 || slot >= slotItems.length) {
+            return null;
+        }
+        return slotItems[slot];
+    }
+
+    /**
+     * Verifica se o item de um slot ainda corresponde ao que foi exibido
+     * (mesmo preço e ainda presente na loja; mudanças de estoque não invalidam o slot)
+     * @param slot Slot clicado
+     * @return true se o item não mudou desde a renderização
+     */
+    public boolean isCurrent(int slot) {
+        PlayerShopItem item = getItem(slot);
+        if (item == null || item.getPrice() != slotPrices[slot]) {
+            return false;
+        }
+        return shop == null || shop.getItem(item.getId().toString()) == item;
+    }
+
+    /**
+     * Obtém o item pendente do diálogo de adicionar item
+     * @return Item pendente, ou null
+     */
+    public ItemStack getPendingItem() {
+        return pendingItem;
+    }
+
+    /**
+     * Define o item pendente do diálogo de adicionar item
+     * @param pendingItem Item pendente
+     */
+    public void setPendingItem(ItemStack pendingItem) {
+        this.pendingItem = pendingItem;
+    }
+
+    /**
+     * Obtém o tamanho do inventário da sessão
+     * @return Número de slots
+     */
+    public int getSize() {
+        return slotItems.length;
+    }
+
+    /**
+     * Libera as referências da sessão quando o inventário é fechado
+     */
+    public void release() {
+        released = true;
+        Arrays.fill(slotShops, null);
+        Arrays.fill(slotSummaries, null);
+        Arrays.fill(slotItems, null);
+        pendingItem = null;
+    }
+}
@@ -0,0 +1,254 @@
+package com.minecraft.economy.playershop;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.scheduler.CatchUpPolicy;
+import com.minecraft.economy.scheduler.ScheduleSpec;
+import com.minecraft.economy.scheduler.ScheduledJob;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repreço periódico dos anúncios com preço dinâmico
+ * O fator de mercado de cada tipo de item é calculado uma vez por ciclo a partir das execuções
+ * do mercado de ordens (preço médio ponderado do último intervalo contra o do intervalo anterior)
+ * e aplicado a todos os anúncios dinâmicos daquele tipo: no banco, por um único bulkWrite com uma
+ * atualização relativa por tipo de item; em memória, por uma passada sobre as lojas carregadas.
+ * Cada anúncio guarda o início do último ciclo aplicado ("repriced_at"), de modo que um ciclo
+ * nunca é aplicado duas vezes ao mesmo anúncio, mesmo que a loja seja carregada durante o ciclo.
+ * O ciclo é uma tarefa global: só o servidor líder calcula e grava no banco, usando o horário
+ * agendado como início; os fatores ficam na coleção de configurações e cada servidor os aplica
+ * às suas lojas em memória quando vê a execução.
+ */
+public class PlayerShopRepricer {
+
+    private static final double MIN_PRICE = 1.0;
+    private final EconomyPlugin plugin;
+    private final PlayerShopManager shopManager;
+    private static final String PASS_CONFIG_KEY = "playershop.reprice";
+
+    private ScheduledJob job;
+    private long lastPassStart; // Acessado na thread principal
+    private Map<String, Double> lastFactors = Collections.emptyMap(); // Acessado na thread principal
+
+    public PlayerShopRepricer(EconomyPlugin plugin, PlayerShopManager shopManager) {
+        this.plugin = plugin;
+        this.shopManager = shopManager;
+    }
+
+    /**
+     * Agenda o repreço periódico como tarefa global (só o servidor líder grava no banco)
+     */
+    public void start() {
+        long period = plugin.getConfigManager().getPlayerShopRepriceIntervalMinutes() * 60_000L;
+        job = plugin.getScheduler().scheduleGlobal("playershop_reprice", ScheduleSpec.every(period), CatchUpPolicy.ONCE,
+                                                   true, this::reprice, this::loadPass);
+    }
+
+    /**
+     * Executa um ciclo de repreço no banco e grava os fatores para os demais servidores
+     * O início do ciclo é o horário agendado da tarefa, o mesmo em qualquer servidor que a execute,
+     * então uma nova tentativa do mesmo ciclo não aplica o fator de novo.
+     * Deve ser chamado fora da thread principal.
+     */
+    private void reprice() {
+        long passStart = job.getScheduledRun();
+        long window = plugin.getConfigManager().getPlayerShopRepriceIntervalMinutes() * 60_000L;
+        double maxStep = plugin.getConfigManager().getPlayerShopRepriceMaxStep();
+
+        long started = System.currentTimeMillis();
+        Map<String, Double> factors = computeFactors(passStart, window, maxStep);
+        long aggregated = System.currentTimeMillis();
+        long modified = writeFactors(factors, passStart);
+        long written = System.currentTimeMillis();
+
+        Document factorDoc = new Document();
+        factors.forEach(factorDoc::append);
+        plugin.getMongoDBManager().getConfigCollection().updateOne(
+            Filters.eq("key", PASS_CONFIG_KEY),
+            Updates.set("value", new Document("pass_start", passStart).append("factors", factorDoc)),
+            new UpdateOptions().upsert(true)
+        );
+
+        plugin.getLogger().info("Repreço de anúncios dinâmicos: " + factors.size() + " tipos de item, " +
+                                modified + " anúncios no banco em " + (System.currentTimeMillis() - started) +
+                                " ms (agregação " + (aggregated - started) + " ms, gravação " +
+                                (written - aggregated) + " ms)");
+    }
+
+    /**
+     * Aplica às lojas em memória o último ciclo gravado pelo líder (em todos os servidores)
+     * Deve ser chamado fora da thread principal.
+     */
+    private void loadPass() {
+        Document doc = plugin.getMongoDBManager().getConfigCollection().find(Filters.eq("key", PASS_CONFIG_KEY)).first();
+        if (doc == null || !(doc.get("value") instanceof Document)) {
+            return;
+        }
+        Document value = doc.get("value", Document.class);
+        long passStart = value.get("pass_start", Number.class).longValue();
+        Map<String, Double> factors = new HashMap<>();
+        Document factorDoc = value.get("factors", Document.class);
+        if (factorDoc != null) {
+            for (Map.Entry<String, Object> entry : factorDoc.entrySet()) {
+                factors.put(entry.getKey(), ((Number) entry.getValue()).doubleValue());
+            }
+        }
+
+        runSync(() -> {
+            if (passStart <= lastPassStart) {
+                return;
+            }
+            lastPassStart = passStart;
+            lastFactors = factors;
+            int applied = 0;
+            for (PlayerShop shop : shopManager.getLoadedShops()) {
+                applied += apply(shop, factors, passStart);
+            }
+            plugin.getLogger().fine("Repreço aplicado a " + applied + " anúncios em memória");
+        });
+    }
+
+    /**
+     * Aplica o último ciclo de repreço a uma loja recém-carregada
+     * Anúncios lidos do banco depois da gravação do ciclo já trazem o preço novo e são ignorados.
+     * Deve ser chamado na thread principal.
+     * @param shop Loja carregada
+     */
+    public void catchUp(PlayerShop shop) {
+        if (!lastFactors.isEmpty()) {
+            apply(shop, lastFactors, lastPassStart);
+        }
+    }
+
+    /**
+     * Aplica os fatores de um ciclo aos anúncios dinâmicos de uma loja em memória
+     * @return Número de anúncios repreçados
+     */
+    private int apply(PlayerShop shop, Map<String, Double> factors, long passStart) {
+        int applied = 0;
+        for (PlayerShopItem item : shop.getItems()) {
+            if (!item.isDynamicPrice() || item.getRepricedAt() >= passStart) {
+                continue;
+            }
+            Double factor = factors.get(item.getItemId());
+            if (factor == null) {
+                continue;
+            }
+            item.updateDynamicPrice(factor);
+            item.setRepricedAt(passStart);
+            // Acompanha a versão gravada por writeFactors com a mesma condição
+            item.setDocumentVersion(item.getDocumentVersion() + 1);
+            shopManager.getMarketIndex().update(shop, item);
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Calcula o fator de mercado de cada tipo de item negociado nos dois últimos intervalos
+     * Deve ser chamado fora da thread principal.
+     * @param passStart Início do ciclo
+     * @param window Duração de um intervalo em milissegundos
+     * @param maxStep Variação máxima por ciclo (0.1 = 10%)
+     * @return Fator por ID de item
+     */
+    private Map<String, Double> computeFactors(long passStart, long window, double maxStep) {
+        MongoCollection<Document> fills = plugin.getMongoDBManager().getDatabase().getCollection("market_fills");
+        fills.createIndex(Indexes.ascending("timestamp"));
+
+        long currentStart = passStart - window;
+        Document isCurrent = new Document("$gte", Arrays.asList("$timestamp", currentStart));
+        Document value = new Document("$multiply", Arrays.asList("$price", "$quantity"));
+
+        List<Document> stats = fills.aggregate(Arrays.asList(
+            Aggregates.match(Filters.and(Filters.gte("timestamp", passStart - 2 * window), Filters.lt("timestamp", passStart))),
+            Aggregates.group("$item_id",
+                Accumulators.sum("current_value", new Document("$cond", Arrays.asList(isCurrent, value, 0))),
+                Accumulators.sum("current_quantity", new Document("$cond", Arrays.asList(isCurrent, "$quantity", 0))),
+                Accumulators.sum("previous_value", new Document("$cond", Arrays.asList(isCurrent, 0, value))),
+                Accumulators.sum("previous_quantity", new Document("$cond", Arrays.asList(isCurrent, 0, "$quantity"))))
+        )).into(new ArrayList<>());
+
+        Map<String, Double> factors = new HashMap<>();
+        for (Document stat : stats) {
+            double currentQuantity = stat.get("current_quantity", Number.class).doubleValue();
+            double previousQuantity = stat.get("previous_quantity", Number.class).doubleValue();
+            if (currentQuantity <= 0 || previousQuantity <= 0) {
+                continue;
+            }
+            double currentAverage = stat.get("current_value", Number.class).doubleValue() / currentQuantity;
+            double previousAverage = stat.get("previous_value", Number.class).doubleValue() / previousQuantity;
+            if (previousAverage <= 0) {
+                continue;
+            }
+            double factor = Math.max(1.0 - maxStep, Math.min(1.0 + maxStep, currentAverage / previousAverage));
+            if (factor != 1.0) {
+                factors.put(stat.getString("_id"), factor);
+            }
+        }
+        return factors;
+    }
+
+    /**
+     * Grava os fatores de um ciclo em um único bulkWrite, com uma atualização relativa por tipo de item
+     * A atualização multiplica o preço gravado (preservando edições do dono feitas durante o ciclo) e
+     * ignora anúncios criados ou já repreçados depois do início do ciclo. A versão do anúncio sobe
+     * na mesma escrita, então uma edição do dono feita sobre o preço anterior é recusada como conflito.
+     * Deve ser chamado fora da thread principal.
+     * @return Número de anúncios alterados
+     */
+    private long writeFactors(Map<String, Double> factors, long passStart) {
+        if (factors.isEmpty()) {
+            return 0;
+        }
+
+        List<WriteModel<Document>> models = new ArrayList<>(factors.size());
+        for (Map.Entry<String, Double> entry : factors.entrySet()) {
+            Document price = new Document("$max", Arrays.asList(MIN_PRICE,
+                new Document("$multiply", Arrays.asList("$price", entry.getValue()))));
+            // Documentos sem o campo de versão equivalem à versão 0
+            Document version = new Document("$add", Arrays.asList(
+                new Document("$ifNull", Arrays.asList("$version", 0L)), 1L));
+            models.add(new UpdateManyModel<>(
+                Filters.and(
+                    Filters.eq("item_id", entry.getKey()),
+                    Filters.eq("dynamic_price", true),
+                    Filters.not(Filters.gte("repriced_at", passStart))
+                ),
+                Collections.singletonList(new Document("$set", new Document("price", price)
+                    .append("repriced_at", passStart)
+                    .append("version", version)))
+            ));
+        }
+
+        return plugin.getMongoDBManager().getDatabase().getCollection(PlayerShop.LISTINGS_COLLECTION)
+            .bulkWrite(models, new BulkWriteOptions().ordered(false))
+            .getModifiedCount();
+    }
+
+    private void runSync(Runnable action) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                action.run();
+            }
+        }.runTask(plugin);
+    }
+}
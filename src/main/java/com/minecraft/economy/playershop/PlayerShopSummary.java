@@ -0,0 +1,101 @@
+package com.minecraft.economy.playershop;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.bukkit.Location;
+
+import java.util.UUID;
+
+/**
+ * Resumo de uma loja de jogador, mantido em memória para todas as lojas
+ * Guarda apenas o necessário para localizar a loja (dono, nome e chunk); os anúncios e os
+ * ItemStacks só são carregados quando a loja é materializada.
+ */
+public class PlayerShopSummary {
+
+    private final ObjectId id;
+    private final UUID ownerUUID;
+    private final String ownerName;
+    private final String shopName;
+    private final String worldName;
+    private final long chunkKey;
+
+    /**
+     * Construtor do resumo
+     * @param id ID da loja
+     * @param ownerUUID UUID do dono
+     * @param ownerName Nome do dono
+     * @param shopName Nome da loja
+     * @param worldName Mundo da loja (ou null se a loja não tiver localização)
+     * @param chunkKey Chave do chunk da loja
+     */
+    public PlayerShopSummary(ObjectId id, UUID ownerUUID, String ownerName, String shopName, String worldName, long chunkKey) {
+        this.id = id;
+        this.ownerUUID = ownerUUID;
+        this.ownerName = ownerName;
+        this.shopName = shopName;
+        this.worldName = worldName;
+        this.chunkKey = chunkKey;
+    }
+
+    /**
+     * Cria o resumo de uma loja carregada
+     * @param shop Loja
+     * @return Resumo da loja
+     */
+    public static PlayerShopSummary of(PlayerShop shop) {
+        Location location = shop.getLocation();
+        String worldName = location != null && location.getWorld() != null ? location.getWorld().getName() : null;
+        long chunkKey = location != null ? ShopChunkIndex.chunkKey(location) : 0L;
+        return new PlayerShopSummary(shop.getId(), shop.getOwnerUUID(), shop.getOwnerName(), shop.getShopName(), worldName, chunkKey);
+    }
+
+    /**
+     * Cria o resumo a partir de um documento de loja (pode ser uma projeção)
+     * @param document Documento da loja
+     * @return Resumo da loja
+     */
+    public static PlayerShopSummary fromDocument(Document document) {
+        String worldName = null;
+        long chunkKey = 0L;
+        Document locDoc = document.get("location", Document.class);
+        if (locDoc != null) {
+            worldName = locDoc.getString("world");
+            int chunkX = (int) Math.floor(locDoc.getDouble("x")) >> 4;
+            int chunkZ = (int) Math.floor(locDoc.getDouble("z")) >> 4;
+            chunkKey = ShopChunkIndex.chunkKey(chunkX, chunkZ);
+        }
+        return new PlayerShopSummary(
+            document.getObjectId("_id"),
+            UUID.fromString(document.getString("owner_uuid")),
+            document.getString("owner_name"),
+            document.getString("shop_name"),
+            worldName,
+            chunkKey
+        );
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public UUID getOwnerUUID() {
+        return ownerUUID;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public String getShopName() {
+        return shopName;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public long getChunkKey() {
+        return chunkKey;
+    }
+}
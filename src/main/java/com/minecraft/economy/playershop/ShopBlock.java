@@ -0,0 +1,185 @@
+package com.minecraft.economy.playershop;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.UUID;
+
+/**
+ * Bloco físico de uma loja de jogador: um recipiente (baú, barril etc.) e, opcionalmente, uma placa
+ * presa a ele. O estoque é o conteúdo do recipiente; cada clique de um cliente compra unidades do
+ * item anunciado pelo preço por unidade do bloco.
+ * Persistido como um documento da coleção "player_shop_blocks".
+ */
+public class ShopBlock {
+
+    public static final String COLLECTION = "player_shop_blocks";
+
+    private final ObjectId id;
+    private final ObjectId shopId;
+    private final UUID ownerUUID;
+    private final String worldName;
+    private final int x;
+    private final int y;
+    private final int z;
+    private final boolean hasSign;
+    private final int signX;
+    private final int signY;
+    private final int signZ;
+    private final String itemId;
+    private final double price;
+
+    /**
+     * Construtor do bloco de loja
+     * @param id ID do bloco
+     * @param shopId ID da loja
+     * @param ownerUUID UUID do dono da loja
+     * @param container Bloco do recipiente
+     * @param sign Placa presa ao recipiente (ou null)
+     * @param itemId ID do item vendido
+     * @param price Preço por unidade
+     */
+    public ShopBlock(ObjectId id, ObjectId shopId, UUID ownerUUID, Block container, Block sign, String itemId, double price) {
+        this(id, shopId, ownerUUID, container.getWorld().getName(), container.getX(), container.getY(), container.getZ(),
+             sign != null, sign != null ? sign.getX() : 0, sign != null ? sign.getY() : 0, sign != null ? sign.getZ() : 0,
+             itemId, price);
+    }
+
+    private ShopBlock(ObjectId id, ObjectId shopId, UUID ownerUUID, String worldName, int x, int y, int z,
+                      boolean hasSign, int signX, int signY, int signZ, String itemId, double price) {
+        this.id = id;
+        this.shopId = shopId;
+        this.ownerUUID = ownerUUID;
+        this.worldName = worldName;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.hasSign = hasSign;
+        this.signX = signX;
+        this.signY = signY;
+        this.signZ = signZ;
+        this.itemId = itemId;
+        this.price = price;
+    }
+
+    /**
+     * Empacota a posição de um bloco em um long (26 bits para X e Z, 12 bits para Y)
+     * @param x Coordenada X
+     * @param y Coordenada Y
+     * @param z Coordenada Z
+     * @return Chave do bloco
+     */
+    public static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * Obtém a chave da posição de um bloco
+     * @param block Bloco
+     * @return Chave do bloco
+     */
+    public static long blockKey(Block block) {
+        return blockKey(block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Cria o bloco de loja a partir de um documento do MongoDB
+     * @param doc Documento do bloco
+     * @return Bloco de loja
+     */
+    public static ShopBlock fromDocument(Document doc) {
+        Document container = doc.get("container", Document.class);
+        Document sign = doc.get("sign", Document.class);
+        return new ShopBlock(
+            doc.getObjectId("_id"),
+            doc.getObjectId("shop_id"),
+            UUID.fromString(doc.getString("owner_uuid")),
+            doc.getString("world"),
+            container.getInteger("x"), container.getInteger("y"), container.getInteger("z"),
+            sign != null,
+            sign != null ? sign.getInteger("x") : 0, sign != null ? sign.getInteger("y") : 0, sign != null ? sign.getInteger("z") : 0,
+            doc.getString("item_id"),
+            doc.getDouble("price")
+        );
+    }
+
+    /**
+     * Converte o bloco de loja para um documento do MongoDB
+     * @return Documento do bloco
+     */
+    public Document toDocument() {
+        Document doc = new Document("_id", id)
+            .append("shop_id", shopId)
+            .append("owner_uuid", ownerUUID.toString())
+            .append("world", worldName)
+            .append("container", new Document("x", x).append("y", y).append("z", z));
+        if (hasSign) {
+            doc.append("sign", new Document("x", signX).append("y", signY).append("z", signZ));
+        }
+        return doc.append("item_id", itemId).append("price", price);
+    }
+
+    /**
+     * Obtém a chave da posição do recipiente
+     * @return Chave do bloco
+     */
+    public long getContainerKey() {
+        return blockKey(x, y, z);
+    }
+
+    /**
+     * Obtém a chave da posição da placa
+     * @return Chave do bloco
+     */
+    public long getSignKey() {
+        return blockKey(signX, signY, signZ);
+    }
+
+    /**
+     * Obtém o bloco do recipiente
+     * @param world Mundo do bloco
+     * @return Bloco do recipiente
+     */
+    public Block getContainerBlock(World world) {
+        return world.getBlockAt(x, y, z);
+    }
+
+    /**
+     * Obtém o bloco da placa
+     * @param world Mundo do bloco
+     * @return Bloco da placa, ou null se o bloco de loja não tiver placa
+     */
+    public Block getSignBlock(World world) {
+        return hasSign ? world.getBlockAt(signX, signY, signZ) : null;
+    }
+
+    public ObjectId getId() {
+        return id;
+    }
+
+    public ObjectId getShopId() {
+        return shopId;
+    }
+
+    public UUID getOwnerUUID() {
+        return ownerUUID;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public boolean hasSign() {
+        return hasSign;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+}
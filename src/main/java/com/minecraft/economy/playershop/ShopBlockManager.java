@@ -0,0 +1,556 @@
+package com.minecraft.economy.playershop;
+
+import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.utils.LongObjectMap;
+import com.minecraft.economy.utils.ModItemUtils;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import org.bukkit.block.DoubleChest;
+import org.bukkit.block.Sign;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.WallSign;
+import org.bukkit.block.sign.Side;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Gerenciador dos blocos físicos das lojas de jogadores (baús e placas de loja)
+ * As posições dos blocos ficam em um mapa por mundo de chaves long empacotadas, então resolver o
+ * bloco clicado em uma interação é uma única busca sem alocação; interações com blocos comuns
+ * saem na primeira consulta. Deve ser usado apenas na thread principal.
+ */
+public class ShopBlockManager {
+
+    private final EconomyPlugin plugin;
+    private final PlayerShopManager shopManager;
+    private final Map<String, LongObjectMap<ShopBlock>> byWorld = new HashMap<>();
+    private final Map<ObjectId, List<ShopBlock>> byShop = new HashMap<>();
+
+    /**
+     * Construtor do gerenciador de blocos de loja
+     * @param plugin Instância do plugin
+     * @param shopManager Gerenciador de lojas de jogadores
+     */
+    public ShopBlockManager(EconomyPlugin plugin, PlayerShopManager shopManager) {
+        this.plugin = plugin;
+        this.shopManager = shopManager;
+    }
+
+    /**
+     * Carrega os blocos de loja do banco de dados
+     */
+    public void load() {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                List<ShopBlock> loaded = new ArrayList<>();
+                try {
+                    MongoCollection<Document> collection = getCollection();
+                    collection.createIndex(Indexes.ascending("shop_id"));
+                    for (Document doc : collection.find()) {
+                        try {
+                            loaded.add(ShopBlock.fromDocument(doc));
+                        } catch (Exception e) {
+                            plugin.getLogger().log(Level.SEVERE, "Erro ao carregar bloco de loja: " + e.getMessage(), e);
+                        }
+                    }
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao carregar blocos de loja: " + e.getMessage(), e);
+                    return;
+                }
+
+                runSync(() -> {
+                    byWorld.clear();
+                    byShop.clear();
+                    for (ShopBlock shopBlock : loaded) {
+                        index(shopBlock);
+                    }
+                    plugin.getLogger().info("Blocos de loja carregados: " + loaded.size());
+                });
+            }
+        }.runTaskAsynchronously(plugin);
+    }
+
+    /**
+     * Obtém o bloco de loja de uma posição
+     * @param block Bloco clicado ou afetado
+     * @return Bloco de loja, ou null se o bloco não pertence a nenhuma loja
+     */
+    public ShopBlock get(Block block) {
+        if (byWorld.isEmpty()) {
+            return null;
+        }
+        LongObjectMap<ShopBlock> blocks = byWorld.get(block.getWorld().getName());
+        return blocks != null ? blocks.get(ShopBlock.blockKey(block)) : null;
+    }
+
+    /**
+     * Verifica se um bloco pertence a uma loja
+     * @param block Bloco
+     * @return true se o bloco for um baú ou placa de loja
+     */
+    public boolean isShopBlock(Block block) {
+        return get(block) != null;
+    }
+
+    /**
+     * Transforma o recipiente (ou a placa presa a ele) para onde o jogador está olhando em um bloco de loja
+     * O item na mão do jogador define o item vendido; o estoque é o conteúdo do recipiente.
+     * @param player Dono da loja
+     * @param target Recipiente ou placa de parede presa a um recipiente
+     * @param price Preço por unidade
+     * @return true se o bloco de loja foi criado
+     */
+    public boolean createShopBlock(Player player, Block target, double price) {
+        ItemStack hand = player.getInventory().getItemInMainHand();
+        if (hand == null || hand.getType().isAir()) {
+            player.sendMessage("§cSegure na mão o item que será vendido.");
+            return false;
+        }
+        String itemId = ModItemUtils.getItemId(hand);
+
+        // A placa precisa estar presa a um recipiente
+        Block sign = null;
+        Block containerBlock = target;
+        BlockData data = target.getBlockData();
+        if (data instanceof WallSign) {
+            sign = target;
+            containerBlock = target.getRelative(((WallSign) data).getFacing().getOppositeFace());
+        }
+
+        BlockState state = containerBlock.getState();
+        if (!(state instanceof Container)) {
+            player.sendMessage("§cOlhe para um baú, barril ou para uma placa presa a um deles.");
+            return false;
+        }
+        if (((Container) state).getInventory().getHolder() instanceof DoubleChest) {
+            player.sendMessage("§cBaús duplos não podem ser usados como loja.");
+            return false;
+        }
+        if (isShopBlock(containerBlock) || (sign != null && isShopBlock(sign))) {
+            player.sendMessage("§cEste bloco já pertence a uma loja.");
+            return false;
+        }
+
+        PlayerShop shop = findNearestShop(player, containerBlock.getLocation());
+        if (shop == null) {
+            player.sendMessage("§cO bloco precisa estar a até §f" + plugin.getConfigManager().getPlayerShopBlockRadius() +
+                              " §cblocos de uma de suas lojas.");
+            return false;
+        }
+
+        ShopBlock shopBlock = new ShopBlock(new ObjectId(), shop.getId(), player.getUniqueId(), containerBlock, sign, itemId, price);
+
+        // Indexa antes de gravar para que cliques seguintes já vejam o bloco
+        index(shopBlock);
+        writeSign(shopBlock, shop);
+
+        Document doc = shopBlock.toDocument();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                getCollection().insertOne(doc);
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao salvar bloco de loja: " + e.getMessage(), e);
+                runSync(() -> {
+                    unindex(shopBlock);
+                    if (player.isOnline()) {
+                        player.sendMessage("§cOcorreu um erro ao criar o bloco de loja.");
+                    }
+                });
+            }
+        });
+
+        player.sendMessage("§aBloco de loja criado: §f" + ModItemUtils.getItemName(hand) + " §apor §f" +
+                          plugin.getEconomyProvider().format(price) + " §acada na loja §f" + shop.getShopName() + "§a.");
+        player.sendMessage("§7Coloque os itens no recipiente; clientes compram clicando nele com o botão direito.");
+        return true;
+    }
+
+    /**
+     * Remove o bloco de loja de uma posição
+     * @param player Jogador que está removendo (deve ser o dono ou um administrador)
+     * @param block Recipiente ou placa do bloco de loja
+     * @return true se o bloco de loja foi removido
+     */
+    public boolean removeShopBlock(Player player, Block block) {
+        ShopBlock shopBlock = get(block);
+        if (shopBlock == null) {
+            player.sendMessage("§cEste bloco não pertence a nenhuma loja.");
+            return false;
+        }
+        if (!shopBlock.getOwnerUUID().equals(player.getUniqueId()) &&
+            !player.hasPermission("economy.playershop.admin")) {
+            player.sendMessage("§cVocê não é o dono desta loja.");
+            return false;
+        }
+
+        unindex(shopBlock);
+        clearSign(shopBlock);
+
+        ObjectId id = shopBlock.getId();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                getCollection().deleteOne(Filters.eq("_id", id));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao remover bloco de loja: " + e.getMessage(), e);
+            }
+        });
+
+        player.sendMessage("§aBloco de loja removido.");
+        return true;
+    }
+
+    /**
+     * Remove todos os blocos de uma loja (usado quando a loja é deletada)
+     * @param shopId ID da loja
+     */
+    public void removeShop(ObjectId shopId) {
+        List<ShopBlock> blocks = byShop.get(shopId);
+        if (blocks != null) {
+            for (ShopBlock shopBlock : new ArrayList<>(blocks)) {
+                unindex(shopBlock);
+                clearSign(shopBlock);
+            }
+        }
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                getCollection().deleteMany(Filters.eq("shop_id", shopId));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Erro ao remover blocos de loja: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Envia ao jogador as informações de um bloco de loja
+     * @param player Jogador
+     * @param shopBlock Bloco de loja
+     */
+    public void sendInfo(Player player, ShopBlock shopBlock) {
+        Container container = getContainer(shopBlock);
+        int stock = container != null ? countUnits(container.getInventory(), shopBlock.getItemId()) : 0;
+        PlayerShopSummary summary = shopManager.getShopSummary(shopBlock.getShopId().toString());
+        String shopName = summary != null ? summary.getShopName() : "?";
+
+        player.sendMessage("§aLoja §f" + shopName + "§a: §f" + shopBlock.getItemId() + " §apor §f" +
+                          plugin.getEconomyProvider().format(shopBlock.getPrice()) + " §acada §7| estoque §f" + stock);
+        player.sendMessage("§7Clique com o botão direito para comprar 1 unidade, ou agachado para comprar um stack.");
+    }
+
+    /**
+     * Compra unidades de um bloco de loja, retirando-as do recipiente
+     * As unidades saem do recipiente antes da cobrança, de modo que cliques simultâneos não vendem
+     * o mesmo item duas vezes; se a cobrança falhar, elas voltam para o recipiente.
+     * @param buyer Comprador
+     * @param shopBlock Bloco de loja
+     * @param fullStack true para comprar um stack, false para comprar uma unidade
+     */
+    public void purchase(Player buyer, ShopBlock shopBlock, boolean fullStack) {
+        shopManager.loadPlayerShop(shopBlock.getShopId().toString()).thenAccept(shop -> {
+            if (shop == null) {
+                buyer.sendMessage("§cEsta loja não existe mais.");
+                return;
+            }
+            if (!shop.isOpen()) {
+                buyer.sendMessage("§cEsta loja está fechada.");
+                return;
+            }
+
+            Container container = getContainer(shopBlock);
+            if (container == null) {
+                buyer.sendMessage("§cO recipiente desta loja não existe mais.");
+                return;
+            }
+
+            Inventory inventory = container.getInventory();
+            ItemStack sample = findUnit(inventory, shopBlock.getItemId());
+            if (sample == null) {
+                buyer.sendMessage("§cEsta loja está sem estoque deste item.");
+                return;
+            }
+            if (buyer.getInventory().firstEmpty() == -1) {
+                buyer.sendMessage("§cSeu inventário está cheio.");
+                return;
+            }
+
+            int requested = fullStack ? sample.getMaxStackSize() : 1;
+            int amount = Math.min(requested, countUnits(inventory, shopBlock.getItemId()));
+            List<ItemStack> taken = takeUnits(inventory, shopBlock.getItemId(), amount);
+
+            double total = shopBlock.getPrice() * amount;
+            UUID buyerUUID = buyer.getUniqueId();
+            String reason = "Compra de " + amount + "x " + shopBlock.getItemId() + " na loja " + shop.getShopName();
+
+            plugin.getMongoDBManager().withdraw(buyerUUID, total, reason).thenAccept(paid -> runSync(() -> {
+                if (!paid) {
+                    returnToContainer(shopBlock, taken);
+                    if (buyer.isOnline()) {
+                        buyer.sendMessage("§cVocê não tem dinheiro suficiente para comprar este item.");
+                    }
+                    return;
+                }
+
+                if (!buyer.isOnline()) {
+                    // O comprador saiu antes da entrega: devolve os itens e o dinheiro
+                    returnToContainer(shopBlock, taken);
+                    plugin.getMongoDBManager().deposit(buyerUUID, total, "Reembolso de compra não entregue na loja " + shop.getShopName());
+                    return;
+                }
+
+                // O que não couber no inventário é largado aos pés do jogador
+                for (ItemStack itemStack : taken) {
+                    for (ItemStack overflow : buyer.getInventory().addItem(itemStack).values()) {
+                        buyer.getWorld().dropItemNaturally(buyer.getLocation(), overflow);
+                    }
+                }
+                shop.creditSale(total);
+
+                String itemName = ModItemUtils.getItemName(taken.get(0));
+                buyer.sendMessage("§aVocê comprou §f" + amount + "x " + itemName + " §apor §f" +
+                                 plugin.getEconomyProvider().format(total) + "§a.");
+                Player owner = plugin.getServer().getPlayer(shop.getOwnerUUID());
+                if (owner != null && owner.isOnline()) {
+                    owner.sendMessage("§a" + buyer.getName() + " comprou §f" + amount + "x " + itemName +
+                                     " §ado baú da sua loja por §f" + plugin.getEconomyProvider().format(total) + "§a.");
+                }
+            }));
+        });
+    }
+
+    /**
+     * Localiza a loja do jogador mais próxima de uma posição, dentro do raio configurado
+     * @param player Dono das lojas
+     * @param location Posição do bloco
+     * @return Loja mais próxima, ou null se nenhuma estiver no raio
+     */
+    private PlayerShop findNearestShop(Player player, Location location) {
+        int radius = plugin.getConfigManager().getPlayerShopBlockRadius();
+        double best = (double) radius * radius;
+        PlayerShop nearest = null;
+        for (PlayerShop shop : shopManager.getPlayerShopsByOwner(player.getUniqueId())) {
+            Location shopLocation = shop.getLocation();
+            if (shopLocation == null || shopLocation.getWorld() == null ||
+                !shopLocation.getWorld().equals(location.getWorld())) {
+                continue;
+            }
+            double distance = shopLocation.distanceSquared(location);
+            if (distance <= best) {
+                best = distance;
+                nearest = shop;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Obtém o recipiente de um bloco de loja
+     * @param shopBlock Bloco de loja
+     * @return Recipiente, ou null se o mundo não estiver carregado ou o bloco não for mais um recipiente
+     */
+    private Container getContainer(ShopBlock shopBlock) {
+        World world = plugin.getServer().getWorld(shopBlock.getWorldName());
+        if (world == null) {
+            return null;
+        }
+        BlockState state = shopBlock.getContainerBlock(world).getState();
+        return state instanceof Container ? (Container) state : null;
+    }
+
+    /**
+     * Devolve ao recipiente itens retirados para uma compra que não foi concluída
+     * O que não couber (ou se o recipiente não existir mais) é largado na posição do bloco.
+     * @param shopBlock Bloco de loja
+     * @param items Itens retirados
+     */
+    private void returnToContainer(ShopBlock shopBlock, List<ItemStack> items) {
+        World world = plugin.getServer().getWorld(shopBlock.getWorldName());
+        if (world == null) {
+            plugin.getLogger().warning("Mundo " + shopBlock.getWorldName() + " não carregado; itens do bloco de loja " +
+                                      shopBlock.getId() + " não puderam ser devolvidos.");
+            return;
+        }
+
+        Container container = getContainer(shopBlock);
+        Location dropLocation = shopBlock.getContainerBlock(world).getLocation().add(0.5, 1.0, 0.5);
+        for (ItemStack itemStack : items) {
+            if (container != null) {
+                for (ItemStack overflow : container.getInventory().addItem(itemStack).values()) {
+                    world.dropItemNaturally(dropLocation, overflow);
+                }
+            } else {
+                world.dropItemNaturally(dropLocation, itemStack);
+            }
+        }
+    }
+
+    /**
+     * Obtém o primeiro stack do item vendido em um inventário
+     * @param inventory Inventário do recipiente
+     * @param itemId ID do item
+     * @return Stack encontrado, ou null se não houver estoque
+     */
+    private ItemStack findUnit(Inventory inventory, String itemId) {
+        for (ItemStack itemStack : inventory.getStorageContents()) {
+            if (itemStack != null && itemId.equals(ModItemUtils.getItemId(itemStack))) {
+                return itemStack;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Conta as unidades do item vendido em um inventário
+     * @param inventory Inventário do recipiente
+     * @param itemId ID do item
+     * @return Número de unidades
+     */
+    private int countUnits(Inventory inventory, String itemId) {
+        int count = 0;
+        for (ItemStack itemStack : inventory.getStorageContents()) {
+            if (itemStack != null && itemId.equals(ModItemUtils.getItemId(itemStack))) {
+                count += itemStack.getAmount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retira unidades do item vendido de um inventário
+     * @param inventory Inventário do recipiente
+     * @param itemId ID do item
+     * @param amount Unidades a retirar
+     * @return Stacks retirados
+     */
+    private List<ItemStack> takeUnits(Inventory inventory, String itemId, int amount) {
+        List<ItemStack> taken = new ArrayList<>();
+        ItemStack[] contents = inventory.getStorageContents();
+        int remaining = amount;
+        for (int slot = 0; slot < contents.length && remaining > 0; slot++) {
+            ItemStack itemStack = contents[slot];
+            if (itemStack == null || !itemId.equals(ModItemUtils.getItemId(itemStack))) {
+                continue;
+            }
+
+            int take = Math.min(remaining, itemStack.getAmount());
+            ItemStack part = itemStack.clone();
+            part.setAmount(take);
+            taken.add(part);
+            remaining -= take;
+
+            if (take == itemStack.getAmount()) {
+                inventory.setItem(slot, null);
+            } else {
+                itemStack.setAmount(itemStack.getAmount() - take);
+                inventory.setItem(slot, itemStack);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Escreve na placa do bloco de loja o nome da loja, o item e o preço
+     * @param shopBlock Bloco de loja
+     * @param shop Loja
+     */
+    private void writeSign(ShopBlock shopBlock, PlayerShop shop) {
+        Sign sign = getSign(shopBlock);
+        if (sign == null) {
+            return;
+        }
+        String itemId = shopBlock.getItemId();
+        sign.getSide(Side.FRONT).setLine(0, "§1[Loja]");
+        sign.getSide(Side.FRONT).setLine(1, truncate(shop.getShopName()));
+        sign.getSide(Side.FRONT).setLine(2, truncate(itemId));
+        sign.getSide(Side.FRONT).setLine(3, truncate(plugin.getEconomyProvider().format(shopBlock.getPrice()) + "/un"));
+        sign.update();
+    }
+
+    /**
+     * Apaga o texto da placa de um bloco de loja removido
+     * @param shopBlock Bloco de loja
+     */
+    private void clearSign(ShopBlock shopBlock) {
+        Sign sign = getSign(shopBlock);
+        if (sign == null) {
+            return;
+        }
+        for (int line = 0; line < 4; line++) {
+            sign.getSide(Side.FRONT).setLine(line, "");
+        }
+        sign.update();
+    }
+
+    private Sign getSign(ShopBlock shopBlock) {
+        World world = plugin.getServer().getWorld(shopBlock.getWorldName());
+        Block block = world != null ? shopBlock.getSignBlock(world) : null;
+        if (block == null) {
+            return null;
+        }
+        BlockState state = block.getState();
+        return state instanceof Sign ? (Sign) state : null;
+    }
+
+    private static String truncate(String text) {
+        return text.length() > 15 ? text.substring(0, 15) : text;
+    }
+
+    private void index(ShopBlock shopBlock) {
+        LongObjectMap<ShopBlock> blocks = byWorld.computeIfAbsent(shopBlock.getWorldName(), k -> new LongObjectMap<>());
+        blocks.put(shopBlock.getContainerKey(), shopBlock);
+        if (shopBlock.hasSign()) {
+            blocks.put(shopBlock.getSignKey(), shopBlock);
+        }
+        byShop.computeIfAbsent(shopBlock.getShopId(), k -> new ArrayList<>()).add(shopBlock);
+    }
+
+    private void unindex(ShopBlock shopBlock) {
+        LongObjectMap<ShopBlock> blocks = byWorld.get(shopBlock.getWorldName());
+        if (blocks != null) {
+            blocks.remove(shopBlock.getContainerKey());
+            if (shopBlock.hasSign()) {
+                blocks.remove(shopBlock.getSignKey());
+            }
+            if (blocks.isEmpty()) {
+                byWorld.remove(shopBlock.getWorldName());
+            }
+        }
+        List<ShopBlock> shopBlocks = byShop.get(shopBlock.getShopId());
+        if (shopBlocks != null) {
+            shopBlocks.remove(shopBlock);
+            if (shopBlocks.isEmpty()) {
+                byShop.remove(shopBlock.getShopId());
+            }
+        }
+    }
+
+    private MongoCollection<Document> getCollection() {
+        return plugin.getMongoDBManager().getDatabase().getCollection(ShopBlock.COLLECTION);
+    }
+
+    private void runSync(Runnable action) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                action.run();
+            }
+        }.runTask(plugin);
+    }
+}
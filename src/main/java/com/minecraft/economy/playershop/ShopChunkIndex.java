@@ -0,0 +1,109 @@
+package com.minecraft.economy.playershop;
+
+import org.bson.types.ObjectId;
+import org.bukkit.Location;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice espacial das lojas de jogadores, por mundo e chunk
+ * A chave do chunk empacota as coordenadas X e Z do chunk em um long, de modo que a consulta
+ * feita a cada carregamento de chunk é uma única busca em mapa.
+ */
+public class ShopChunkIndex {
+
+    private final Map<String, Map<Long, Set<ObjectId>>> byWorld = new ConcurrentHashMap<>();
+
+    /**
+     * Empacota as coordenadas de um chunk em um long
+     * @param chunkX Coordenada X do chunk
+     * @param chunkZ Coordenada Z do chunk
+     * @return Chave do chunk
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Obtém a chave do chunk de uma localização
+     * @param location Localização
+     * @return Chave do chunk
+     */
+    public static long chunkKey(Location location) {
+        return chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    /**
+     * Obtém a coordenada X de uma chave de chunk
+     * @param chunkKey Chave do chunk
+     * @return Coordenada X do chunk
+     */
+    public static int chunkX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    /**
+     * Obtém a coordenada Z de uma chave de chunk
+     * @param chunkKey Chave do chunk
+     * @return Coordenada Z do chunk
+     */
+    public static int chunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    /**
+     * Adiciona uma loja ao índice
+     * @param summary Resumo da loja
+     */
+    public void add(PlayerShopSummary summary) {
+        if (summary.getWorldName() == null) {
+            return;
+        }
+        byWorld.computeIfAbsent(summary.getWorldName(), k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(summary.getChunkKey(), k -> ConcurrentHashMap.newKeySet())
+            .add(summary.getId());
+    }
+
+    /**
+     * Remove uma loja do índice
+     * @param summary Resumo da loja
+     */
+    public void remove(PlayerShopSummary summary) {
+        if (summary.getWorldName() == null) {
+            return;
+        }
+        Map<Long, Set<ObjectId>> chunks = byWorld.get(summary.getWorldName());
+        if (chunks == null) {
+            return;
+        }
+        chunks.computeIfPresent(summary.getChunkKey(), (key, ids) -> {
+            ids.remove(summary.getId());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Obtém as lojas de um chunk
+     * @param worldName Nome do mundo
+     * @param chunkKey Chave do chunk
+     * @return IDs das lojas no chunk (vazio se não houver)
+     */
+    public Set<ObjectId> get(String worldName, long chunkKey) {
+        Map<Long, Set<ObjectId>> chunks = byWorld.get(worldName);
+        if (chunks == null) {
+            return Collections.emptySet();
+        }
+        Set<ObjectId> ids = chunks.get(chunkKey);
+        return ids != null ? ids : Collections.emptySet();
+    }
+
+    /**
+     * Remove todas as lojas do índice
+     */
+    public void clear() {
+        byWorld.clear();
+    }
+}
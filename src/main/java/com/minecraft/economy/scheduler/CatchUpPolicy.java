@@ -0,0 +1,39 @@
+package com.minecraft.economy.scheduler;
+
+/**
+ * O que fazer com as execuções de uma tarefa global perdidas enquanto nenhum servidor estava ativo
+ */
+public enum CatchUpPolicy {
+
+    /**
+     * Descarta as execuções perdidas; a tarefa volta a rodar no próximo horário futuro
+     */
+    SKIP,
+
+    /**
+     * Executa uma única vez por todas as execuções perdidas e volta ao próximo horário futuro
+     */
+    ONCE,
+
+    /**
+     * Executa uma vez para cada horário perdido, em sequência (ex.: decaimento diário)
+     */
+    ALL;
+
+    /**
+     * Interpreta o nome de uma política
+     * @param name Nome (skip, once ou all)
+     * @param defaultPolicy Política usada se o nome for nulo ou inválido
+     * @return Política
+     */
+    public static CatchUpPolicy fromName(String name, CatchUpPolicy defaultPolicy) {
+        if (name == null) {
+            return defaultPolicy;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultPolicy;
+        }
+    }
+}
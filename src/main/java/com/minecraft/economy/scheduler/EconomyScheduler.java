@@ -0,0 +1,351 @@
+package com.minecraft.economy.scheduler;
+
+import com.minecraft.economy.cluster.ClusterCoordinator;
+import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.utils.HierarchicalTimingWheel;
+import org.bson.Document;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+
+/**
+ * Agendador central das tarefas periódicas do plugin
+ * Todas as tarefas ficam em uma única roda de temporização hierárquica avançada a cada tick do
+ * servidor; o custo por tick não depende do número de tarefas nem da distância dos prazos. Cada
+ * tarefa tem uma especificação (intervalo ou cron), que pode ser sobrescrita em
+ * scheduler.jobs.&lt;nome&gt; junto com a política de recuperação e o atraso aleatório (jitter), e
+ * métricas de execução neste servidor.
+ *
+ * Tarefas locais rodam em todos os servidores (gravações em lote, sincronizações, limpezas).
+ * Tarefas globais rodam só no servidor líder (ver {@link ClusterCoordinator}); o próximo horário
+ * fica no banco, então sobrevive a reinícios e trocas de líder, e as execuções perdidas enquanto
+ * nenhum servidor estava ativo seguem a política de recuperação da tarefa.
+ */
+public class EconomyScheduler {
+
+    private static final long TICK_MILLIS = 50L;
+    private static final int WHEEL_SLOTS = 256;
+    private static final int WHEEL_LEVELS = 4; // 12,8 s, 55 min, 9,7 dias e 6,8 anos
+    private static final long MISSED_TOLERANCE_MILLIS = 60_000L; // Atraso que a política SKIP ainda executa
+
+    private final EconomyPlugin plugin;
+    private final HierarchicalTimingWheel<Runnable> wheel; // Acessada na thread principal
+    private final Map<String, ScheduledJob> jobs = new ConcurrentSkipListMap<>();
+
+    public EconomyScheduler(EconomyPlugin plugin) {
+        this.plugin = plugin;
+        this.wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, WHEEL_SLOTS, WHEEL_LEVELS, System.currentTimeMillis());
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                wheel.advance(System.currentTimeMillis(), Runnable::run);
+            }
+        }.runTaskTimer(plugin, 1L, 1L);
+
+        // Aplica as execuções globais feitas pelo líder e os horários gravados por outros servidores
+        scheduleLocal("scheduler.sync", ScheduleSpec.every(plugin.getConfigManager().getClusterHeartbeatSeconds() * 1000L),
+                      true, this::syncGlobalJobs);
+    }
+
+    /**
+     * Agenda uma tarefa local, executada em todos os servidores
+     * Se a tarefa ainda estiver rodando quando vencer de novo, a execução é pulada.
+     * @param name Nome da tarefa (chave em scheduler.jobs)
+     * @param defaultSpec Agendamento usado se não houver um configurado
+     * @param async true para executar fora da thread principal
+     * @param task Tarefa
+     * @return Tarefa agendada
+     */
+    public ScheduledJob scheduleLocal(String name, ScheduleSpec defaultSpec, boolean async, Runnable task) {
+        ScheduledJob job = new ScheduledJob(name, getConfiguredSpec(name, defaultSpec), CatchUpPolicy.ONCE,
+                                            getConfiguredJitter(name), false, true, async, task, null);
+        jobs.put(name, job);
+        runOnMain(() -> arm(job, nextAfter(job, System.currentTimeMillis())));
+        return job;
+    }
+
+    /**
+     * Agenda uma tarefa global, executada só no servidor líder e sempre fora da thread principal
+     * A primeira execução acontece no primeiro horário da especificação depois do registro no banco.
+     * @param name Nome da tarefa (chave em scheduler.jobs e no banco)
+     * @param defaultSpec Agendamento usado se não houver um configurado
+     * @param defaultCatchUp Política de recuperação usada se não houver uma configurada
+     * @param periodic false para executar só por {@link #runNow(String)}
+     * @param task Tarefa
+     * @param onCompleted Ação executada em todos os servidores quando uma execução (de qualquer servidor)
+     *                    é vista pela primeira vez, fora da thread principal; pode ser null
+     * @return Tarefa agendada
+     */
+    public ScheduledJob scheduleGlobal(String name, ScheduleSpec defaultSpec, CatchUpPolicy defaultCatchUp,
+                                       boolean periodic, Runnable task, Runnable onCompleted) {
+        CatchUpPolicy catchUp = CatchUpPolicy.fromName(plugin.getConfigManager().getSchedulerJobCatchUp(name), defaultCatchUp);
+        ScheduledJob job = new ScheduledJob(name, getConfiguredSpec(name, defaultSpec), catchUp,
+                                            getConfiguredJitter(name), true, periodic, true, task, onCompleted);
+        jobs.put(name, job);
+        if (periodic) {
+            runOnMain(() -> arm(job, System.currentTimeMillis()));
+        }
+        return job;
+    }
+
+    /**
+     * Agenda uma ação única na thread principal
+     * Deve ser chamado na thread principal.
+     * @param deadlineMillis Instante de execução
+     * @param action Ação
+     * @return Agendamento, que pode ser cancelado
+     */
+    public HierarchicalTimingWheel.Entry<Runnable> runAt(long deadlineMillis, Runnable action) {
+        return wheel.schedule(action, deadlineMillis);
+    }
+
+    /**
+     * Agenda a próxima verificação de uma tarefa, substituindo a anterior
+     * Deve ser chamado na thread principal.
+     */
+    private void arm(ScheduledJob job, long deadline) {
+        HierarchicalTimingWheel.Entry<Runnable> previous = job.getEntry();
+        if (previous != null) {
+            previous.cancel();
+        }
+        job.setNextRun(deadline);
+        job.setEntry(wheel.schedule(job.isGlobal() ? () -> fireGlobal(job) : () -> fireLocal(job), deadline));
+    }
+
+    private long nextAfter(ScheduledJob job, long after) {
+        long jitter = job.getJitterMillis() > 0 ? ThreadLocalRandom.current().nextLong(job.getJitterMillis() + 1) : 0L;
+        return job.getSpec().next(after) + jitter;
+    }
+
+    /**
+     * Dispara uma tarefa local vencida (chamado pela roda, na thread principal)
+     * O próximo horário é agendado antes da execução, então a frequência não depende da duração.
+     */
+    private void fireLocal(ScheduledJob job) {
+        job.setEntry(null);
+        arm(job, nextAfter(job, System.currentTimeMillis()));
+
+        if (!job.getRunning().compareAndSet(false, true)) {
+            job.recordOverlap();
+            return;
+        }
+        if (job.isAsync()) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> execute(job));
+        } else {
+            execute(job);
+        }
+    }
+
+    /**
+     * Dispara a verificação de uma tarefa global vencida (chamado pela roda, na thread principal)
+     */
+    private void fireGlobal(ScheduledJob job) {
+        job.setEntry(null);
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> checkGlobal(job));
+    }
+
+    /**
+     * Verifica uma tarefa global no banco e a executa se este servidor for o líder e o horário gravado
+     * tiver vencido
+     * A execução é reivindicada com uma atualização condicional sobre o horário lido, que já grava o
+     * próximo horário conforme a política de recuperação; seguidores apenas reagendam a verificação
+     * para o horário gravado ou, se ele venceu sem líder, para o próximo batimento.
+     * Deve ser chamado fora da thread principal.
+     */
+    private void checkGlobal(ScheduledJob job) {
+        ClusterCoordinator coordinator = plugin.getClusterCoordinator();
+        long now = System.currentTimeMillis();
+        long rearm = now + coordinator.getHeartbeatMillis();
+        try {
+            Document doc = coordinator.getJobDocument(job.getName());
+            Number scheduled = doc != null ? doc.get("next_run", Number.class) : null;
+            if (scheduled == null) {
+                rearm = nextAfter(job, now);
+                coordinator.initJob(job.getName(), rearm);
+            } else if (scheduled.longValue() > now) {
+                rearm = scheduled.longValue();
+            } else if (coordinator.isLeader()) {
+                long missedBy = now - scheduled.longValue();
+                boolean run = job.getCatchUp() != CatchUpPolicy.SKIP || missedBy <= MISSED_TOLERANCE_MILLIS;
+                long next = nextAfter(job, job.getCatchUp() == CatchUpPolicy.ALL ? scheduled.longValue() : now);
+
+                if (!run) {
+                    if (coordinator.advanceJob(job.getName(), scheduled.longValue(), next)) {
+                        plugin.getLogger().info("Tarefa global " + job.getName() + " atrasada " + (missedBy / 1000) + " s, pulada.");
+                        rearm = next;
+                    }
+                } else if (job.getRunning().compareAndSet(false, true)) {
+                    if (coordinator.claimJob(job.getName(), scheduled.longValue(), next)) {
+                        job.setScheduledRun(scheduled.longValue());
+                        execute(job);
+                        rearm = next;
+                    } else {
+                        job.getRunning().set(false);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.WARNING, "Erro ao verificar a tarefa global " + job.getName() + ": " + e.getMessage(), e);
+        }
+
+        long deadline = rearm;
+        runOnMain(() -> arm(job, deadline));
+    }
+
+    /**
+     * Executa uma tarefa e registra suas métricas
+     * Tarefas globais também gravam as métricas no banco.
+     */
+    private void execute(ScheduledJob job) {
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            job.getTask().run();
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            plugin.getLogger().log(Level.SEVERE, "Erro ao executar a tarefa " + job.getName() + ": " + error, e);
+        } finally {
+            long duration = System.nanoTime() - start;
+            job.recordRun(startMillis, duration, error != null);
+            try {
+                if (job.isGlobal()) {
+                    plugin.getClusterCoordinator().recordRun(job.getName(), duration / 1_000_000L, error);
+                }
+            } finally {
+                job.getRunning().set(false);
+            }
+        }
+    }
+
+    /**
+     * Executa uma tarefa global agora, neste servidor (comandos administrativos)
+     * Falha se a tarefa já estiver em execução em algum servidor. O horário periódico não muda.
+     * @param name Nome da tarefa
+     * @return CompletableFuture com true se a tarefa foi executada
+     */
+    public CompletableFuture<Boolean> runNow(String name) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        ScheduledJob job = jobs.get(name);
+        if (job == null || !job.isGlobal()) {
+            future.complete(false);
+            return future;
+        }
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!job.getRunning().compareAndSet(false, true)) {
+                        future.complete(false);
+                        return;
+                    }
+                    if (!plugin.getClusterCoordinator().claimJob(job.getName(), null, null)) {
+                        job.getRunning().set(false);
+                        future.complete(false);
+                        return;
+                    }
+                    job.setScheduledRun(System.currentTimeMillis());
+                    execute(job);
+                    future.complete(true);
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao executar a tarefa " + name + ": " + e.getMessage(), e);
+                    future.complete(false);
+                }
+            }
+        }.runTaskAsynchronously(plugin);
+
+        return future;
+    }
+
+    /**
+     * Lê o estado das tarefas globais em uma única consulta: aplica as execuções feitas por qualquer
+     * servidor e reagenda as verificações cujo horário gravado mudou
+     * Deve ser chamado fora da thread principal.
+     */
+    private void syncGlobalJobs() {
+        List<String> names = new ArrayList<>();
+        for (ScheduledJob job : jobs.values()) {
+            if (job.isGlobal()) {
+                names.add(job.getName());
+            }
+        }
+        if (names.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (Document doc : plugin.getClusterCoordinator().getJobDocuments(names)) {
+            ScheduledJob job = jobs.get(doc.getString("key").substring(ClusterCoordinator.JOB_PREFIX.length()));
+            if (job == null) {
+                continue;
+            }
+
+            Number lastRun = doc.get("last_run", Number.class);
+            if (lastRun != null && lastRun.longValue() > job.getLastSeenRun()) {
+                job.setLastSeenRun(lastRun.longValue());
+                if (job.getOnCompleted() != null) {
+                    try {
+                        job.getOnCompleted().run();
+                    } catch (Exception e) {
+                        plugin.getLogger().log(Level.WARNING, "Erro ao aplicar o resultado da tarefa " + job.getName() + ": " + e.getMessage(), e);
+                    }
+                }
+            }
+
+            Number nextRun = doc.get("next_run", Number.class);
+            if (job.isPeriodic() && !job.isRunning() && nextRun != null &&
+                nextRun.longValue() > now && nextRun.longValue() != job.getNextRun()) {
+                runOnMain(() -> arm(job, nextRun.longValue()));
+            }
+        }
+    }
+
+    /**
+     * Obtém as tarefas registradas neste servidor, ordenadas pelo nome
+     * @return Tarefas agendadas
+     */
+    public Collection<ScheduledJob> getJobs() {
+        return jobs.values();
+    }
+
+    private ScheduleSpec getConfiguredSpec(String name, ScheduleSpec defaultSpec) {
+        String configured = plugin.getConfigManager().getSchedulerJobSpec(name);
+        if (configured == null) {
+            return defaultSpec;
+        }
+        try {
+            return ScheduleSpec.parse(configured);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Agendamento inválido para a tarefa " + name + " (" + e.getMessage() +
+                                       "), usando " + defaultSpec);
+            return defaultSpec;
+        }
+    }
+
+    private long getConfiguredJitter(String name) {
+        return plugin.getConfigManager().getSchedulerJobJitterSeconds(name) * 1000L;
+    }
+
+    private void runOnMain(Runnable action) {
+        if (Bukkit.isPrimaryThread()) {
+            action.run();
+            return;
+        }
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                action.run();
+            }
+        }.runTask(plugin);
+    }
+}
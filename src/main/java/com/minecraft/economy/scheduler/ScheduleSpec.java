@@ -0,0 +1,251 @@
+package com.minecraft.economy.scheduler;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Especificação de agendamento de uma tarefa
+ * Aceita um intervalo ("50t" em ticks, "30s", "5m", "2h", "1d", com "every " opcional) ou uma
+ * expressão cron de cinco campos (minuto, hora, dia do mês, mês, dia da semana) no fuso do servidor,
+ * com "*", listas "1,15", faixas "1-5" e passos "*&#47;10" ou "0-30/5". Os intervalos são alinhados
+ * à época Unix (a cada 30m roda em :00 e :30), então os horários são os mesmos em todos os servidores
+ * e depois de um reinício. Nas mudanças de horário de verão, expressões com horas fixas rodam uma
+ * única vez por dia (um horário repetido roda na primeira ocorrência e um horário pulado roda
+ * deslocado pelo salto); expressões de toda hora seguem o relógio, como no cron.
+ */
+public final class ScheduleSpec {
+
+    private static final int MAX_CRON_YEARS = 5;
+
+    private final String text;
+    private final long intervalMillis; // 0 para expressões cron
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    private ScheduleSpec(String text, long intervalMillis) {
+        this.text = text;
+        this.intervalMillis = intervalMillis;
+        this.minutes = null;
+        this.hours = null;
+        this.daysOfMonth = null;
+        this.months = null;
+        this.daysOfWeek = null;
+        this.anyDayOfMonth = true;
+        this.anyDayOfWeek = true;
+    }
+
+    private ScheduleSpec(String text, String[] fields) {
+        this.text = text;
+        this.intervalMillis = 0;
+        this.minutes = parseField(fields[0], 0, 59);
+        this.hours = parseField(fields[1], 0, 23);
+        this.daysOfMonth = parseField(fields[2], 1, 31);
+        this.months = parseField(fields[3], 1, 12);
+        this.daysOfWeek = parseField(fields[4], 0, 7);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0); // 0 e 7 são domingo
+        }
+        this.anyDayOfMonth = fields[2].equals("*");
+        this.anyDayOfWeek = fields[4].equals("*");
+    }
+
+    /**
+     * Cria uma especificação de intervalo fixo
+     * @param intervalMillis Intervalo em milissegundos
+     * @return Especificação
+     */
+    public static ScheduleSpec every(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("O intervalo deve ser positivo: " + intervalMillis);
+        }
+        return new ScheduleSpec(formatInterval(intervalMillis), intervalMillis);
+    }
+
+    /**
+     * Interpreta uma especificação de intervalo ou cron
+     * @param text Especificação
+     * @return Especificação interpretada
+     * @throws IllegalArgumentException se a especificação for inválida
+     */
+    public static ScheduleSpec parse(String text) {
+        String spec = text.trim().toLowerCase(Locale.ROOT);
+        if (spec.startsWith("every ")) {
+            spec = spec.substring("every ".length()).trim();
+        }
+
+        String[] fields = spec.split("\\s+");
+        if (fields.length == 5) {
+            return new ScheduleSpec(text.trim(), fields);
+        }
+        if (fields.length != 1 || spec.length() < 2) {
+            throw new IllegalArgumentException("Agendamento inválido: " + text);
+        }
+
+        long unit;
+        switch (spec.charAt(spec.length() - 1)) {
+            case 't': unit = 50L; break;
+            case 's': unit = 1000L; break;
+            case 'm': unit = 60_000L; break;
+            case 'h': unit = 3_600_000L; break;
+            case 'd': unit = 86_400_000L; break;
+            default: throw new IllegalArgumentException("Unidade de intervalo inválida (use t, s, m, h ou d): " + text);
+        }
+        try {
+            return every(Long.parseLong(spec.substring(0, spec.length() - 1)) * unit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Agendamento inválido: " + text, e);
+        }
+    }
+
+    /**
+     * Obtém o primeiro horário de execução estritamente posterior a um instante
+     * @param afterMillis Instante de referência
+     * @return Próximo horário de execução
+     */
+    public long next(long afterMillis) {
+        return next(afterMillis, ZoneId.systemDefault());
+    }
+
+    /**
+     * Obtém o primeiro horário de execução estritamente posterior a um instante, em um fuso
+     * @param afterMillis Instante de referência
+     * @param zone Fuso das expressões cron
+     * @return Próximo horário de execução
+     */
+    long next(long afterMillis, ZoneId zone) {
+        if (intervalMillis > 0) {
+            return (Math.floorDiv(afterMillis, intervalMillis) + 1) * intervalMillis;
+        }
+        return hours.cardinality() == 24 ? nextOnTimeline(afterMillis, zone) : nextOnWallClock(afterMillis, zone);
+    }
+
+    /**
+     * Percorre os minutos em tempo real: a hora repetida roda de novo e a hora pulada não existe
+     */
+    private long nextOnTimeline(long afterMillis, ZoneId zone) {
+        ZonedDateTime time = ZonedDateTime.ofInstant(Instant.ofEpochMilli(afterMillis), zone)
+                .truncatedTo(ChronoUnit.MINUTES)
+                .plusMinutes(1);
+        ZonedDateTime limit = time.plusYears(MAX_CRON_YEARS);
+        while (time.isBefore(limit)) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time.toLocalDateTime())) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time.toInstant().toEpochMilli();
+            }
+        }
+        throw new IllegalStateException("O agendamento nunca é executado: " + text);
+    }
+
+    /**
+     * Percorre os horários locais: cada um vira um instante com o primeiro deslocamento do fuso
+     * (ou depois do salto, se cair em um horário pulado), então roda uma única vez
+     */
+    private long nextOnWallClock(long afterMillis, ZoneId zone) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(afterMillis), zone)
+                .truncatedTo(ChronoUnit.MINUTES)
+                .plusMinutes(1);
+        LocalDateTime limit = time.plusYears(MAX_CRON_YEARS);
+        while (time.isBefore(limit)) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matchesDay(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!hours.get(time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                // Na segunda passagem por um horário repetido, a primeira ocorrência já passou
+                long millis = ZonedDateTime.of(time, zone).toInstant().toEpochMilli();
+                if (millis > afterMillis) {
+                    return millis;
+                }
+                time = time.plusMinutes(1);
+            }
+        }
+        throw new IllegalStateException("O agendamento nunca é executado: " + text);
+    }
+
+    /**
+     * Com dia do mês e dia da semana restritos, basta um deles coincidir (como no cron)
+     */
+    private boolean matchesDay(LocalDateTime time) {
+        boolean dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+        boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+        if (anyDayOfMonth || anyDayOfWeek) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private static BitSet parseField(String field, int min, int max) {
+        BitSet values = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, field);
+                part = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else if (part.contains("-")) {
+                String[] range = part.split("-", 2);
+                from = parseNumber(range[0], min, max, field);
+                to = parseNumber(range[1], from, max, field);
+            } else {
+                from = parseNumber(part, min, max, field);
+                to = slash >= 0 ? max : from;
+            }
+            for (int value = from; value <= to; value += step) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    private static int parseNumber(String text, int min, int max, String field) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value >= min && value <= max) {
+                return value;
+            }
+        } catch (NumberFormatException ignored) {
+            // Tratado abaixo
+        }
+        throw new IllegalArgumentException("Campo cron inválido: " + field);
+    }
+
+    private static String formatInterval(long millis) {
+        if (millis % 86_400_000L == 0) return (millis / 86_400_000L) + "d";
+        if (millis % 3_600_000L == 0) return (millis / 3_600_000L) + "h";
+        if (millis % 60_000L == 0) return (millis / 60_000L) + "m";
+        if (millis % 1000L == 0) return (millis / 1000L) + "s";
+        if (millis % 50L == 0) return (millis / 50L) + "t";
+        return millis + "ms";
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,187 @@
+package com.minecraft.economy.scheduler;
+
+import com.minecraft.economy.utils.HierarchicalTimingWheel;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tarefa registrada no agendador, com suas métricas de execução neste servidor
+ * Tarefas locais rodam em todos os servidores; tarefas globais rodam só no servidor líder, com o
+ * próximo horário gravado no banco.
+ */
+public final class ScheduledJob {
+
+    private final String name;
+    private final ScheduleSpec spec;
+    private final CatchUpPolicy catchUp;
+    private final long jitterMillis;
+    private final boolean global;
+    private final boolean periodic;
+    private final boolean async;
+    private final Runnable task;
+    private final Runnable onCompleted;
+
+    // Estado do agendamento
+    private final AtomicBoolean running = new AtomicBoolean();
+    private HierarchicalTimingWheel.Entry<Runnable> entry; // Acessado na thread principal
+    private volatile long nextRun;
+    private volatile long scheduledRun; // Horário agendado da execução global em andamento
+    private volatile long lastSeenRun; // Última execução global já aplicada neste servidor
+
+    // Métricas deste servidor
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder overlaps = new LongAdder();
+    private final LongAdder totalDurationNanos = new LongAdder();
+    private final LongAccumulator maxDurationNanos = new LongAccumulator(Math::max, 0L);
+    private volatile long lastRun;
+    private volatile long lastDurationNanos;
+
+    ScheduledJob(String name, ScheduleSpec spec, CatchUpPolicy catchUp, long jitterMillis, boolean global,
+                 boolean periodic, boolean async, Runnable task, Runnable onCompleted) {
+        this.name = name;
+        this.spec = spec;
+        this.catchUp = catchUp;
+        this.jitterMillis = jitterMillis;
+        this.global = global;
+        this.periodic = periodic;
+        this.async = async;
+        this.task = task;
+        this.onCompleted = onCompleted;
+    }
+
+    void recordRun(long startMillis, long durationNanos, boolean failed) {
+        runs.increment();
+        if (failed) {
+            failures.increment();
+        }
+        totalDurationNanos.add(durationNanos);
+        maxDurationNanos.accumulate(durationNanos);
+        lastRun = startMillis;
+        lastDurationNanos = durationNanos;
+    }
+
+    void recordOverlap() {
+        overlaps.increment();
+    }
+
+    AtomicBoolean getRunning() {
+        return running;
+    }
+
+    HierarchicalTimingWheel.Entry<Runnable> getEntry() {
+        return entry;
+    }
+
+    void setEntry(HierarchicalTimingWheel.Entry<Runnable> entry) {
+        this.entry = entry;
+    }
+
+    void setNextRun(long nextRun) {
+        this.nextRun = nextRun;
+    }
+
+    void setScheduledRun(long scheduledRun) {
+        this.scheduledRun = scheduledRun;
+    }
+
+    long getLastSeenRun() {
+        return lastSeenRun;
+    }
+
+    void setLastSeenRun(long lastSeenRun) {
+        this.lastSeenRun = lastSeenRun;
+    }
+
+    Runnable getTask() {
+        return task;
+    }
+
+    Runnable getOnCompleted() {
+        return onCompleted;
+    }
+
+    long getJitterMillis() {
+        return jitterMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ScheduleSpec getSpec() {
+        return spec;
+    }
+
+    public CatchUpPolicy getCatchUp() {
+        return catchUp;
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    public boolean isPeriodic() {
+        return periodic;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Obtém o próximo horário de execução conhecido por este servidor
+     * @return Instante da próxima execução ou 0 se ainda não agendada
+     */
+    public long getNextRun() {
+        return nextRun;
+    }
+
+    /**
+     * Obtém o horário agendado da execução global em andamento (o instante do banco, igual em todos
+     * os servidores e em uma nova tentativa), ou o instante do comando em execuções manuais
+     * @return Horário agendado
+     */
+    public long getScheduledRun() {
+        return scheduledRun;
+    }
+
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Obtém quantas vezes a tarefa venceu enquanto a execução anterior ainda não tinha terminado
+     * @return Número de execuções puladas
+     */
+    public long getOverlaps() {
+        return overlaps.sum();
+    }
+
+    public long getLastRun() {
+        return lastRun;
+    }
+
+    public double getLastDurationMillis() {
+        return lastDurationNanos / 1_000_000.0;
+    }
+
+    public double getMaxDurationMillis() {
+        return maxDurationNanos.get() / 1_000_000.0;
+    }
+
+    public double getAverageDurationMillis() {
+        long count = runs.sum();
+        return count == 0 ? 0.0 : totalDurationNanos.sum() / 1_000_000.0 / count;
+    }
+}
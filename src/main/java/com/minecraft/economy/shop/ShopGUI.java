@@ -1,6 +1,7 @@
 package com.minecraft.economy.shop;
 
 import com.minecraft.economy.core.EconomyPlugin;
+import com.minecraft.economy.utils.IconCache;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -11,25 +12,53 @@ import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Interface gráfica da loja
+ * Os ícones são mantidos em cache por ID e versão do item, e as páginas de categoria e de venda
+ * são montadas uma única vez e apenas os slots cujo item mudou são reconstruídos.
+ * Os menus abertos são acompanhados para que alterações de preço sejam enviadas
+ * apenas para os slots afetados, uma vez por tick.
  */
 public class ShopGUI {
 
+    private static final int PAGE_SIZE = 45;
+    private static final int ICON_CACHE_SIZE = 4096;
+
     private final EconomyPlugin plugin;
     private final ShopManager shopManager;
-    private final Map<Player, Inventory> openInventories = new HashMap<>();
-    private final Map<Player, ShopCategory> currentCategory = new HashMap<>();
-    private final Map<Player, Integer> currentPage = new HashMap<>();
-    private final Map<Player, String> searchQuery = new HashMap<>();
+    private final IconCache iconCache = new IconCache(ICON_CACHE_SIZE);
+    private final Map<String, PageTemplate> pageCache = new HashMap<>();
+    private final Set<ShopMenuHolder> openViews = new HashSet<>();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean(false);
+    private final ItemStack backButton;
+    private final ItemStack prevButton;
+    private final ItemStack nextButton;
+    private final ItemStack searchButton;
+    private final ItemStack sellAllButton;
 
     public ShopGUI(EconomyPlugin plugin, ShopManager shopManager) {
         this.plugin = plugin;
         this.shopManager = shopManager;
+        
+        // Botões fixos são criados uma única vez
+        this.backButton = createButton(Material.ARROW, "§cVoltar");
+        this.prevButton = createButton(Material.PAPER, "§ePágina Anterior");
+        this.nextButton = createButton(Material.PAPER, "§ePróxima Página");
+        this.searchButton = createButton(Material.COMPASS, "§ePesquisar");
+        this.sellAllButton = createButton(Material.HOPPER, "§aVender Tudo");
+        ItemMeta sellAllMeta = sellAllButton.getItemMeta();
+        List<String> sellAllLore = new ArrayList<>();
+        sellAllLore.add("§7Vende de uma vez todos os itens do");
+        sellAllLore.add("§7seu inventário que a loja compra");
+        sellAllMeta.setLore(sellAllLore);
+        sellAllButton.setItemMeta(sellAllMeta);
     }
 
     /**
@@ -37,21 +66,19 @@ public class ShopGUI {
      * @param player Jogador
      */
     public void openMainMenu(Player player) {
-        Inventory inventory = Bukkit.createInventory(null, 54, "§8Loja - Menu Principal");
+        ShopMenuHolder holder = new ShopMenuHolder(ShopMenuHolder.MenuType.MAIN, null, 0, null, 54);
+        Inventory inventory = Bukkit.createInventory(holder, 54, "§8Loja - Menu Principal");
+        holder.setInventory(inventory);
         
         // Adiciona as categorias
         int slot = 10;
         for (ShopCategory category : shopManager.getCategories().values()) {
-            ItemStack icon = new ItemStack(category.getIcon());
-            ItemMeta meta = icon.getItemMeta();
-            meta.setDisplayName("§a" + category.getName());
-            
-            List<String> lore = new ArrayList<>();
-            lore.add("§7Clique para ver os itens desta categoria");
-            meta.setLore(lore);
+            if (slot >= 45) {
+                break;
+            }
             
-            icon.setItemMeta(meta);
-            inventory.setItem(slot, icon);
+            inventory.setItem(slot, iconCache.get("category:" + category.getId(), 0, () -> createCategoryIcon(category)));
+            holder.setCategory(slot, category);
             
             slot++;
             if ((slot % 9) == 8) {
@@ -60,16 +87,11 @@ public class ShopGUI {
         }
         
         // Adiciona botões de navegação
-        addNavigationButtons(inventory, player);
+        addNavigationButtons(inventory, 0);
         
         // Abre o inventário
         player.openInventory(inventory);
-        openInventories.put(player, inventory);
-        currentPage.put(player, 0);
-        
-        // Log para debug
-        plugin.getLogger().info("Abrindo menu principal da loja para " + player.getName());
-        plugin.getLogger().info("Total de categorias: " + shopManager.getCategories().size());
+        openViews.add(holder);
     }
 
     /**
@@ -78,90 +100,168 @@ public class ShopGUI {
      * @param categoryId ID da categoria
      */
     public void openCategoryMenu(Player player, String categoryId) {
+        openCategoryMenu(player, categoryId, 0);
+    }
+
+    /**
+     * Abre uma página do menu de uma categoria
+     * @param player Jogador
+     * @param categoryId ID da categoria
+     * @param page Página a ser exibida (começando em 0)
+     */
+    public void openCategoryMenu(Player player, String categoryId, int page) {
         ShopCategory category = shopManager.getCategory(categoryId);
         if (category == null) {
             player.sendMessage("§cCategoria não encontrada.");
             return;
         }
         
-        // Log para debug
-        plugin.getLogger().info("Abrindo categoria: " + categoryId + " - " + category.getName());
-        plugin.getLogger().info("Total de itens na categoria: " + category.getItems().size());
-        
-        Inventory inventory = Bukkit.createInventory(null, 54, "§8Loja - " + category.getName());
-        
-        // Adiciona os itens da categoria
-        List<ShopItem> items = new ArrayList<>(category.getItems().values());
-        int page = currentPage.getOrDefault(player, 0);
-        int startIndex = page * 45;
-        int endIndex = Math.min(startIndex + 45, items.size());
+        ShopMenuHolder holder = new ShopMenuHolder(ShopMenuHolder.MenuType.CATEGORY, category.getId(), page, null, 54);
+        Inventory inventory = Bukkit.createInventory(holder, 54, "§8Loja - " + category.getName());
+        holder.setInventory(inventory);
         
-        plugin.getLogger().info("Exibindo itens de " + startIndex + " a " + endIndex + " (total: " + items.size() + ")");
-        
-        int slot = 0;
-        for (int i = startIndex; i < endIndex; i++) {
-            ShopItem item = items.get(i);
-            ItemStack icon = item.createItemStack(1);
-            inventory.setItem(slot, icon);
-            
-            plugin.getLogger().info("Adicionando item " + item.getName() + " no slot " + slot);
-            
-            slot++;
-            if ((slot % 9) == 0 && slot >= 45) {
-                break;
-            }
-        }
-        
-        // Adiciona botões de navegação
-        addNavigationButtons(inventory, player);
+        // Copia a página montada (ícones e mapeamento de slots)
+        PageTemplate template = getPage("category:" + category.getId(), category.getItemsList(), page, false);
+        inventory.setContents(template.contents);
+        holder.setItems(template.items, template.versions);
         
         // Abre o inventário
         player.openInventory(inventory);
-        openInventories.put(player, inventory);
-        currentCategory.put(player, category);
+        openViews.add(holder);
     }
 
     /**
      * Adiciona botões de navegação ao inventário
      * @param inventory Inventário
-     * @param player Jogador
+     * @param page Página exibida (começando em 0)
      */
-    private void addNavigationButtons(Inventory inventory, Player player) {
-        // Botão de voltar
-        ItemStack backButton = new ItemStack(Material.ARROW);
-        ItemMeta backMeta = backButton.getItemMeta();
-        backMeta.setDisplayName("§cVoltar");
-        backButton.setItemMeta(backMeta);
+    private void addNavigationButtons(Inventory inventory, int page) {
         inventory.setItem(45, backButton);
-        
-        // Botão de página anterior
-        ItemStack prevButton = new ItemStack(Material.PAPER);
-        ItemMeta prevMeta = prevButton.getItemMeta();
-        prevMeta.setDisplayName("§ePágina Anterior");
-        prevButton.setItemMeta(prevMeta);
         inventory.setItem(48, prevButton);
-        
-        // Botão de página seguinte
-        ItemStack nextButton = new ItemStack(Material.PAPER);
-        ItemMeta nextMeta = nextButton.getItemMeta();
-        nextMeta.setDisplayName("§ePróxima Página");
-        nextButton.setItemMeta(nextMeta);
         inventory.setItem(50, nextButton);
-        
-        // Botão de pesquisa
-        ItemStack searchButton = new ItemStack(Material.COMPASS);
-        ItemMeta searchMeta = searchButton.getItemMeta();
-        searchMeta.setDisplayName("§ePesquisar");
-        searchButton.setItemMeta(searchMeta);
         inventory.setItem(49, searchButton);
+        inventory.setItem(53, getPageInfo(page));
+    }
+
+    /**
+     * Obtém uma página montada, reconstruindo apenas os slots cujo item mudou
+     * @param key Chave da lista de itens (categoria ou venda)
+     * @param items Itens da lista, na ordem de exibição
+     * @param page Página (começando em 0)
+     * @param sell true para ícones com preço de venda
+     * @return Página montada
+     */
+    private PageTemplate getPage(String key, List<ShopItem> items, int page, boolean sell) {
+        int startIndex = page * PAGE_SIZE;
+        int count = Math.max(0, Math.min(PAGE_SIZE, items.size() - startIndex));
+        
+        String pageKey = key + ":" + page;
+        PageTemplate template = pageCache.get(pageKey);
+        if (template == null || template.count != count) {
+            template = new PageTemplate(count);
+            ItemStack[] contents = template.contents;
+            contents[45] = backButton;
+            contents[48] = prevButton;
+            contents[49] = searchButton;
+            contents[50] = nextButton;
+            contents[53] = getPageInfo(page);
+            if (sell) {
+                contents[47] = sellAllButton;
+            }
+            pageCache.put(pageKey, template);
+        }
+        
+        for (int slot = 0; slot < count; slot++) {
+            ShopItem item = items.get(startIndex + slot);
+            int version = item.getVersion();
+            if (template.items[slot] != item || template.versions[slot] != version) {
+                template.items[slot] = item;
+                template.versions[slot] = version;
+                template.contents[slot] = sell ? getSellIcon(item) : getItemIcon(item);
+            }
+        }
+        
+        return template;
+    }
+
+    /**
+     * Obtém o ícone de um item para os menus de compra
+     * @param item Item da loja
+     * @return Ícone em cache
+     */
+    private ItemStack getItemIcon(ShopItem item) {
+        return iconCache.get("item:" + item.getId(), item.getVersion(), () -> item.createItemStack(1));
+    }
+
+    /**
+     * Obtém o ícone de um item para o menu de venda
+     * @param item Item da loja
+     * @return Ícone em cache
+     */
+    private ItemStack getSellIcon(ShopItem item) {
+        return iconCache.get("sell:" + item.getId(), item.getVersion(), () -> createSellIcon(item));
+    }
+
+    /**
+     * Obtém o indicador de página
+     * @param page Página (começando em 0)
+     * @return Ícone em cache
+     */
+    private ItemStack getPageInfo(int page) {
+        return iconCache.get("page:" + page, 0, () -> createButton(Material.BOOK, "§ePágina " + (page + 1)));
+    }
+
+    /**
+     * Cria o ícone de uma categoria
+     * @param category Categoria
+     * @return Ícone da categoria
+     */
+    private ItemStack createCategoryIcon(ShopCategory category) {
+        ItemStack icon = new ItemStack(category.getIcon());
+        ItemMeta meta = icon.getItemMeta();
+        meta.setDisplayName("§a" + category.getName());
         
-        // Informações da página
-        int page = currentPage.getOrDefault(player, 0) + 1;
-        ItemStack pageInfo = new ItemStack(Material.BOOK);
-        ItemMeta pageInfoMeta = pageInfo.getItemMeta();
-        pageInfoMeta.setDisplayName("§ePágina " + page);
-        pageInfo.setItemMeta(pageInfoMeta);
-        inventory.setItem(53, pageInfo);
+        List<String> lore = new ArrayList<>();
+        lore.add("§7Clique para ver os itens desta categoria");
+        meta.setLore(lore);
+        
+        icon.setItemMeta(meta);
+        return icon;
+    }
+
+    /**
+     * Cria o ícone de venda de um item
+     * @param item Item da loja
+     * @return Ícone de venda
+     */
+    private ItemStack createSellIcon(ShopItem item) {
+        double sellPrice = item.getCurrentPrice() * ShopManager.SELL_PRICE_FACTOR;
+        
+        ItemStack icon = new ItemStack(item.getMaterial());
+        ItemMeta meta = icon.getItemMeta();
+        meta.setDisplayName("§a" + item.getDisplayName());
+        
+        List<String> lore = new ArrayList<>();
+        lore.add("§7Preço de venda: §f" + String.format("%.2f", sellPrice) + " " + plugin.getConfigManager().getCurrencyNamePlural());
+        lore.add("§7Clique para vender este item");
+        meta.setLore(lore);
+        
+        icon.setItemMeta(meta);
+        return icon;
+    }
+
+    /**
+     * Cria um botão simples
+     * @param material Material do botão
+     * @param name Nome do botão
+     * @return Botão criado
+     */
+    private ItemStack createButton(Material material, String name) {
+        ItemStack button = new ItemStack(material);
+        ItemMeta meta = button.getItemMeta();
+        meta.setDisplayName(name);
+        button.setItemMeta(meta);
+        return button;
     }
 
     /**
@@ -170,11 +270,71 @@ public class ShopGUI {
      * @param shopItem Item da loja
      */
     public void openItemDetails(Player player, ShopItem shopItem) {
-        Inventory inventory = Bukkit.createInventory(null, 27, "§8Detalhes do Item");
+        ShopMenuHolder holder = new ShopMenuHolder(ShopMenuHolder.MenuType.DETAILS, categoryIdOf(shopItem), 0, shopItem, 27);
+        Inventory inventory = Bukkit.createInventory(holder, 27, "§8Detalhes do Item");
+        holder.setInventory(inventory);
         
+        renderItemDetails(inventory, shopItem);
+        
+        // Abre o inventário
+        player.openInventory(inventory);
+        openViews.add(holder);
+    }
+
+    /**
+     * Abre o menu de compra de um item
+     * @param player Jogador
+     * @param shopItem Item da loja
+     */
+    public void openBuyMenu(Player player, ShopItem shopItem) {
+        ShopMenuHolder holder = new ShopMenuHolder(ShopMenuHolder.MenuType.BUY, categoryIdOf(shopItem), 0, shopItem, 27);
+        Inventory inventory = Bukkit.createInventory(holder, 27, "§8Comprar Item");
+        holder.setInventory(inventory);
+        
+        renderBuyMenu(inventory, shopItem);
+        
+        // Abre o inventário
+        player.openInventory(inventory);
+        openViews.add(holder);
+    }
+
+    /**
+     * Abre o menu de venda de um item
+     * @param player Jogador
+     */
+    public void openSellMenu(Player player) {
+        openSellMenu(player, 0);
+    }
+
+    /**
+     * Abre uma página do menu de venda
+     * @param player Jogador
+     * @param page Página a ser exibida (começando em 0)
+     */
+    public void openSellMenu(Player player, int page) {
+        ShopMenuHolder holder = new ShopMenuHolder(ShopMenuHolder.MenuType.SELL, null, page, null, 54);
+        Inventory inventory = Bukkit.createInventory(holder, 54, "§8Vender Itens");
+        holder.setInventory(inventory);
+        
+        // Copia a página montada (ícones e mapeamento de slots)
+        List<ShopItem> itemList = new ArrayList<>(shopManager.getShopItems().values());
+        PageTemplate template = getPage("sell", itemList, page, true);
+        inventory.setContents(template.contents);
+        holder.setItems(template.items, template.versions);
+        
+        // Abre o inventário
+        player.openInventory(inventory);
+        openViews.add(holder);
+    }
+
+    /**
+     * Preenche o menu de detalhes com os dados atuais do item
+     * @param inventory Inventário
+     * @param shopItem Item da loja
+     */
+    private void renderItemDetails(Inventory inventory, ShopItem shopItem) {
         // Item
-        ItemStack item = shopItem.createItemStack(1);
-        inventory.setItem(13, item);
+        inventory.setItem(13, getItemIcon(shopItem));
         
         // Informações do item
         ItemStack info = new ItemStack(Material.PAPER);
@@ -208,31 +368,17 @@ public class ShopGUI {
         inventory.setItem(15, buyButton);
         
         // Botão de voltar
-        ItemStack backButton = new ItemStack(Material.ARROW);
-        ItemMeta backMeta = backButton.getItemMeta();
-        backMeta.setDisplayName("§cVoltar");
-        backButton.setItemMeta(backMeta);
         inventory.setItem(18, backButton);
-        
-        // Abre o inventário
-        player.openInventory(inventory);
-        openInventories.put(player, inventory);
-        
-        // Log para debug
-        plugin.getLogger().info("Abrindo detalhes do item: " + shopItem.getId() + " - " + shopItem.getName());
     }
 
     /**
-     * Abre o menu de compra de um item
-     * @param player Jogador
+     * Preenche o menu de compra com os preços atuais do item
+     * @param inventory Inventário
      * @param shopItem Item da loja
      */
-    public void openBuyMenu(Player player, ShopItem shopItem) {
-        Inventory inventory = Bukkit.createInventory(null, 27, "§8Comprar Item");
-        
+    private void renderBuyMenu(Inventory inventory, ShopItem shopItem) {
         // Item
-        ItemStack item = shopItem.createItemStack(1);
-        inventory.setItem(13, item);
+        inventory.setItem(13, getItemIcon(shopItem));
         
         // Botão de compra x1
         ItemStack buy1 = new ItemStack(Material.EMERALD, 1);
@@ -295,63 +441,90 @@ public class ShopGUI {
         inventory.setItem(15, buy64);
         
         // Botão de voltar
-        ItemStack backButton = new ItemStack(Material.ARROW);
-        ItemMeta backMeta = backButton.getItemMeta();
-        backMeta.setDisplayName("§cVoltar");
-        backButton.setItemMeta(backMeta);
         inventory.setItem(18, backButton);
-        
-        // Abre o inventário
-        player.openInventory(inventory);
-        openInventories.put(player, inventory);
     }
 
     /**
-     * Abre o menu de venda de um item
-     * @param player Jogador
+     * Remove um menu da lista de menus acompanhados
+     * @param holder Sessão do menu fechado
      */
-    public void openSellMenu(Player player) {
-        Inventory inventory = Bukkit.createInventory(null, 54, "§8Vender Itens");
-        
-        // Adiciona os itens disponíveis para venda
-        Map<String, ShopItem> items = shopManager.getShopItems();
-        int page = currentPage.getOrDefault(player, 0);
-        int startIndex = page * 45;
-        
-        List<ShopItem> itemList = new ArrayList<>(items.values());
-        int endIndex = Math.min(startIndex + 45, itemList.size());
+    public void untrack(ShopMenuHolder holder) {
+        openViews.remove(holder);
+    }
+
+    /**
+     * Agenda a atualização dos menus abertos após uma mudança de preços
+     * Pode ser chamado de qualquer thread; várias chamadas no mesmo tick geram uma única atualização
+     */
+    public void schedulePriceRefresh() {
+        if (!refreshScheduled.compareAndSet(false, true)) {
+            return;
+        }
         
-        int slot = 0;
-        for (int i = startIndex; i < endIndex; i++) {
-            ShopItem item = itemList.get(i);
-            
-            // Preço de venda é 70% do preço de compra
-            double sellPrice = item.getCurrentPrice() * 0.7;
-            
-            ItemStack icon = new ItemStack(item.getMaterial());
-            ItemMeta meta = icon.getItemMeta();
-            meta.setDisplayName("§a" + item.getDisplayName());
-            
-            List<String> lore = new ArrayList<>();
-            lore.add("§7Preço de venda: §f" + String.format("%.2f", sellPrice) + " " + plugin.getConfigManager().getCurrencyNamePlural());
-            lore.add("§7Clique para vender este item");
-            meta.setLore(lore);
-            
-            icon.setItemMeta(meta);
-            inventory.setItem(slot, icon);
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                refreshScheduled.set(false);
+                refreshOpenViews();
+            }
+        }.runTask(plugin);
+    }
+
+    /**
+     * Atualiza apenas os slots cujos itens mudaram em todos os menus abertos
+     */
+    private void refreshOpenViews() {
+        Iterator<ShopMenuHolder> iterator = openViews.iterator();
+        while (iterator.hasNext()) {
+            ShopMenuHolder holder = iterator.next();
+            Inventory inventory = holder.getInventory();
+            if (inventory == null || inventory.getViewers().isEmpty()) {
+                iterator.remove();
+                continue;
+            }
             
-            slot++;
-            if ((slot % 9) == 0 && slot >= 45) {
-                break;
+            switch (holder.getType()) {
+                case CATEGORY:
+                case SELL:
+                    boolean sell = holder.getType() == ShopMenuHolder.MenuType.SELL;
+                    for (int slot = 0; slot < PAGE_SIZE; slot++) {
+                        ShopItem item = holder.getItem(slot);
+                        if (item == null) {
+                            continue;
+                        }
+                        int version = item.getVersion();
+                        if (version != holder.getSlotVersion(slot)) {
+                            inventory.setItem(slot, sell ? getSellIcon(item) : getItemIcon(item));
+                            holder.setSlotVersion(slot, version);
+                        }
+                    }
+                    break;
+                case DETAILS:
+                case BUY:
+                    ShopItem focused = holder.getFocusedItem();
+                    int version = focused.getVersion();
+                    if (version != holder.getFocusedVersion()) {
+                        if (holder.getType() == ShopMenuHolder.MenuType.DETAILS) {
+                            renderItemDetails(inventory, focused);
+                        } else {
+                            renderBuyMenu(inventory, focused);
+                        }
+                        holder.setFocusedVersion(version);
+                    }
+                    break;
+                default:
+                    break;
             }
         }
-        
-        // Adiciona botões de navegação
-        addNavigationButtons(inventory, player);
-        
-        // Abre o inventário
-        player.openInventory(inventory);
-        openInventories.put(player, inventory);
+    }
+
+    /**
+     * Obtém o ID da categoria de um item, se houver
+     * @param shopItem Item da loja
+     * @return ID da categoria, ou null se o item não tiver categoria
+     */
+    private String categoryIdOf(ShopItem shopItem) {
+        return shopItem.getCategory() != null ? shopItem.getCategory().getId() : null;
     }
 
     /**
@@ -361,47 +534,8 @@ public class ShopGUI {
      * @param amount Quantidade
      */
     public void buyItem(Player player, ShopItem shopItem, int amount) {
-        // Verifica se o jogador tem dinheiro suficiente
-        double totalPrice = shopItem.getCurrentPrice() * amount;
-        
-        plugin.getAsyncMongoDBManager().hasBalance(player.getUniqueId(), totalPrice)
-            .thenAccept(hasMoney -> {
-                if (!hasMoney) {
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            player.sendMessage("§cVocê não tem dinheiro suficiente para comprar este item.");
-                            player.closeInventory();
-                        }
-                    }.runTask(plugin);
-                    return;
-                }
-                
-                // Cobra o jogador
-                plugin.getAsyncMongoDBManager().withdraw(player.getUniqueId(), totalPrice, "Compra de " + amount + "x " + shopItem.getDisplayName())
-                    .thenAccept(success -> {
-                        if (success) {
-                            // Dá o item ao jogador
-                            new BukkitRunnable() {
-                                @Override
-                                public void run() {
-                                    ItemStack itemStack = shopItem.createItemStack(amount);
-                                    player.getInventory().addItem(itemStack);
-                                    player.sendMessage("§aVocê comprou §f" + amount + "x " + shopItem.getDisplayName() + " §apor §f" + totalPrice + " " + plugin.getConfigManager().getCurrencyNamePlural() + "§a.");
-                                    player.closeInventory();
-                                }
-                            }.runTask(plugin);
-                        } else {
-                            new BukkitRunnable() {
-                                @Override
-                                public void run() {
-                                    player.sendMessage("§cOcorreu um erro ao processar a compra. Tente novamente mais tarde.");
-                                    player.closeInventory();
-                                }
-                            }.runTask(plugin);
-                        }
-                    });
-            });
+        player.closeInventory();
+        shopManager.buyItem(player, shopItem, amount);
     }
 
     /**
@@ -419,8 +553,7 @@ public class ShopGUI {
             return;
         }
         
-        // Preço de venda é 70% do preço de compra
-        double sellPrice = shopItem.getCurrentPrice() * 0.7;
+        double sellPrice = shopItem.getCurrentPrice() * ShopManager.SELL_PRICE_FACTOR;
         
         // Remove o item do inventário
         player.getInventory().removeItem(itemStack);
@@ -448,4 +581,18 @@ public class ShopGUI {
                 }
             });
     }
+
+    /**
+     * Página montada de um menu paginado
+     */
+    private static final class PageTemplate {
+        private final int count;
+        private final ShopItem[] items = new ShopItem[54];
+        private final int[] versions = new int[54];
+        private final ItemStack[] contents = new ItemStack[54];
+
+        private PageTemplate(int count) {
+            this.count = count;
+        }
+    }
 }
@@ -6,6 +6,7 @@ import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Representa um item na loja
@@ -17,9 +18,10 @@ public class ShopItem {
     private final ItemStack itemStack;
     private final String description;
     private final double basePrice;
-    private double currentPrice;
-    private int stock;
+    private volatile double currentPrice;
+    private volatile int stock;
     private final ShopCategory category;
+    private final AtomicInteger version = new AtomicInteger(); // Incrementada a cada alteração de preço ou estoque
 
     /**
      * Construtor completo do item
@@ -165,7 +167,10 @@ public class ShopItem {
      * @param currentPrice Novo preço atual
      */
     public void setCurrentPrice(double currentPrice) {
-        this.currentPrice = currentPrice;
+        if (this.currentPrice != currentPrice) {
+            this.currentPrice = currentPrice;
+            version.incrementAndGet();
+        }
     }
 
     /**
@@ -181,7 +186,18 @@ public class ShopItem {
      * @param stock Novo estoque
      */
     public void setStock(int stock) {
-        this.stock = stock;
+        if (this.stock != stock) {
+            this.stock = stock;
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Obtém a versão do item, incrementada a cada alteração de preço ou estoque
+     * @return Versão atual
+     */
+    public int getVersion() {
+        return version.get();
     }
 
     /**
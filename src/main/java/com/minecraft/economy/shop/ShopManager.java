@@ -1,26 +1,53 @@
 package com.minecraft.economy.shop;
 
 import com.minecraft.economy.core.EconomyPlugin;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 
 /**
  * Gerenciador da loja do servidor
  */
 public class ShopManager {
 
+    /**
+     * Fração do preço de compra paga ao jogador na venda
+     */
+    public static final double SELL_PRICE_FACTOR = 0.7;
+
+    private static final String PRICES_CONFIG_KEY = "shop.prices";
+    private static final int REFUND_ATTEMPTS = 5;
+    private static final long REFUND_RETRY_TICKS = 30 * 20L;
+
     private final EconomyPlugin plugin;
     private final Map<String, ShopItem> shopItems = new HashMap<>();
+    private final Map<Material, ShopItem> itemsByMaterial = new EnumMap<>(Material.class);
+    private final Set<UUID> pendingPurchases = ConcurrentHashMap.newKeySet();
     private final Map<String, ShopCategory> categories = new HashMap<>();
+    private final ShopGUI shopGUI;
 
     public ShopManager(EconomyPlugin plugin) {
         this.plugin = plugin;
+        this.shopGUI = new ShopGUI(plugin, this);
         loadShopItems();
     }
 
@@ -65,6 +92,13 @@ public class ShopManager {
                 addShopItem("crafting_table", "Mesa de Trabalho", Material.CRAFTING_TABLE, 30.0, "misc");
                 addShopItem("furnace", "Fornalha", Material.FURNACE, 60.0, "misc");
                 
+                // Preços calculados pelo servidor líder antes deste carregamento
+                try {
+                    loadMarketPrices();
+                } catch (Exception e) {
+                    plugin.getLogger().log(Level.WARNING, "Erro ao carregar os preços do mercado: " + e.getMessage(), e);
+                }
+                
                 plugin.getLogger().info("Itens da loja carregados com sucesso!");
                 plugin.getLogger().info("Total de categorias: " + categories.size());
                 
@@ -87,6 +121,7 @@ public class ShopManager {
         
         ShopItem item = new ShopItem(id, name, material, basePrice, category);
         shopItems.put(id, item);
+        itemsByMaterial.putIfAbsent(material, item);
         category.addItem(item);
         
         // Log para debug
@@ -95,33 +130,60 @@ public class ShopManager {
 
     /**
      * Atualiza os preços do mercado com base na oferta e demanda
+     * Tarefa global, executada só pelo servidor líder: os novos preços são gravados no banco e
+     * aplicados pelos demais servidores em {@link #loadMarketPrices()}.
+     * Deve ser chamado fora da thread principal.
      */
     public void updateMarketPrices() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                plugin.getLogger().info("Atualizando preços do mercado...");
-                
-                // Implementação básica para resolver erro de compilação
-                // Será expandida posteriormente
-                for (ShopItem item : shopItems.values()) {
-                    // Simula flutuação de preço baseada em oferta e demanda
-                    double priceFactor = 0.9 + Math.random() * 0.2; // Fator entre 0.9 e 1.1
-                    double newPrice = item.getBasePrice() * priceFactor;
-                    
-                    // Limita o preço aos valores mínimo e máximo
-                    double minPrice = item.getBasePrice() * 0.5;
-                    double maxPrice = item.getBasePrice() * 2.0;
-                    
-                    if (newPrice < minPrice) newPrice = minPrice;
-                    if (newPrice > maxPrice) newPrice = maxPrice;
-                    
-                    item.setCurrentPrice(newPrice);
-                }
-                
-                plugin.getLogger().info("Preços do mercado atualizados com sucesso!");
+        plugin.getLogger().info("Atualizando preços do mercado...");
+        
+        Document prices = new Document();
+        for (ShopItem item : shopItems.values()) {
+            // Simula flutuação de preço baseada em oferta e demanda
+            double priceFactor = 0.9 + Math.random() * 0.2; // Fator entre 0.9 e 1.1
+            double newPrice = item.getBasePrice() * priceFactor;
+            
+            // Limita o preço aos valores mínimo e máximo
+            double minPrice = item.getBasePrice() * 0.5;
+            double maxPrice = item.getBasePrice() * 2.0;
+            
+            if (newPrice < minPrice) newPrice = minPrice;
+            if (newPrice > maxPrice) newPrice = maxPrice;
+            
+            prices.append(item.getId(), newPrice);
+        }
+        
+        plugin.getMongoDBManager().getConfigCollection().updateOne(
+            Filters.eq("key", PRICES_CONFIG_KEY),
+            Updates.set("value", prices),
+            new UpdateOptions().upsert(true)
+        );
+        applyMarketPrices(prices);
+        
+        plugin.getLogger().info("Preços do mercado atualizados com sucesso!");
+    }
+    
+    /**
+     * Aplica os preços do mercado gravados no banco pelo servidor líder
+     * Deve ser chamado fora da thread principal.
+     */
+    public void loadMarketPrices() {
+        Document doc = plugin.getMongoDBManager().getConfigCollection().find(Filters.eq("key", PRICES_CONFIG_KEY)).first();
+        if (doc != null && doc.get("value") instanceof Document) {
+            applyMarketPrices(doc.get("value", Document.class));
+        }
+    }
+    
+    private void applyMarketPrices(Document prices) {
+        for (ShopItem item : shopItems.values()) {
+            Number price = prices.get(item.getId(), Number.class);
+            if (price != null) {
+                item.setCurrentPrice(price.doubleValue());
             }
-        }.runTaskAsynchronously(plugin);
+        }
+        
+        // Envia os novos preços para os menus abertos
+        shopGUI.schedulePriceRefresh();
     }
 
     /**
@@ -143,59 +205,156 @@ public class ShopManager {
      * Compra um item da loja
      */
     public CompletableFuture<Boolean> buyItem(Player player, String itemId, int amount) {
-        CompletableFuture<Boolean> future = new CompletableFuture<>();
-        
         ShopItem item = shopItems.get(itemId);
         if (item == null) {
-            future.complete(false);
-            return future;
+            return CompletableFuture.completedFuture(false);
         }
         
-        double totalPrice = item.getCurrentPrice() * amount;
+        return buyItem(player, item, amount);
+    }
+
+    /**
+     * Compra um item da loja
+     * Na thread principal verifica se há espaço no inventário e bloqueia novas compras do
+     * jogador até esta terminar; em seguida debita o valor com uma única escrita condicional
+     * e volta uma única vez à thread principal para entregar o item. Se o jogador saiu ou o
+     * item não coube mais, o valor não entregue é devolvido. Deve ser chamado na thread principal.
+     * @param player Jogador
+     * @param item Item da loja
+     * @param amount Quantidade
+     * @return CompletableFuture com true se a compra foi concluída
+     */
+    public CompletableFuture<Boolean> buyItem(Player player, ShopItem item, int amount) {
+        long startTime = System.nanoTime();
+        UUID playerId = player.getUniqueId();
         
-        // Verifica se o jogador tem dinheiro suficiente
-        plugin.getAsyncMongoDBManager().hasBalance(player.getUniqueId(), totalPrice)
-            .thenAccept(hasMoney -> {
-                if (!hasMoney) {
-                    new BukkitRunnable() {
-                        @Override
-                        public void run() {
-                            player.sendMessage("§cVocê não tem dinheiro suficiente para comprar este item.");
-                        }
-                    }.runTask(plugin);
-                    future.complete(false);
-                    return;
+        // Impede cliques repetidos de iniciar compras simultâneas
+        if (!pendingPurchases.add(playerId)) {
+            player.sendMessage("§cAguarde a conclusão da compra anterior.");
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        // Reserva: garante que há espaço para os itens antes de cobrar
+        ItemStack purchased = item.getItemStack();
+        purchased.setAmount(amount);
+        if (getFreeSpace(player.getInventory(), purchased) < amount) {
+            pendingPurchases.remove(playerId);
+            player.sendMessage("§cVocê não tem espaço suficiente no inventário.");
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        // O preço é fixado no momento do clique
+        double unitPrice = item.getCurrentPrice();
+        double totalPrice = unitPrice * amount;
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        
+        plugin.getMongoDBManager().withdraw(playerId, totalPrice, "Compra de " + amount + "x " + item.getName())
+            .whenComplete((success, error) -> {
+                if (error != null) {
+                    plugin.getLogger().log(Level.SEVERE, "Erro ao cobrar compra de " + playerId + ": " + error.getMessage(), error);
                 }
-                
-                // Cobra o jogador
-                plugin.getAsyncMongoDBManager().withdraw(player.getUniqueId(), totalPrice, "Compra de " + amount + "x " + item.getName())
-                    .thenAccept(success -> {
-                        if (success) {
-                            // Dá o item ao jogador
-                            new BukkitRunnable() {
-                                @Override
-                                public void run() {
-                                    ItemStack itemStack = new ItemStack(item.getMaterial(), amount);
-                                    player.getInventory().addItem(itemStack);
-                                    player.sendMessage("§aVocê comprou §f" + amount + "x " + item.getName() + " §apor §f" + totalPrice + " " + plugin.getConfigManager().getCurrencyNamePlural() + "§a.");
+                boolean paid = error == null && Boolean.TRUE.equals(success);
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (!paid) {
+                                if (player.isOnline()) {
+                                    player.sendMessage("§cVocê não tem dinheiro suficiente para comprar este item.");
                                 }
-                            }.runTask(plugin);
-                            future.complete(true);
-                        } else {
-                            new BukkitRunnable() {
-                                @Override
-                                public void run() {
-                                    player.sendMessage("§cOcorreu um erro ao processar a compra. Tente novamente mais tarde.");
+                                future.complete(false);
+                                return;
+                            }
+                            
+                            // Entrega o item ou compensa o que não pôde ser entregue
+                            int undelivered = amount;
+                            if (player.isOnline()) {
+                                Map<Integer, ItemStack> overflow = player.getInventory().addItem(purchased);
+                                undelivered = 0;
+                                for (ItemStack stack : overflow.values()) {
+                                    undelivered += stack.getAmount();
+                                }
+                            }
+                            
+                            if (undelivered > 0) {
+                                double refund = unitPrice * undelivered;
+                                refund(playerId, refund, "Reembolso de " + undelivered + "x " + item.getName() + " não entregue", REFUND_ATTEMPTS);
+                                if (player.isOnline()) {
+                                    player.sendMessage("§e" + undelivered + " itens não couberam no inventário e foram reembolsados.");
                                 }
-                            }.runTask(plugin);
-                            future.complete(false);
+                            }
+                            
+                            int delivered = amount - undelivered;
+                            if (delivered > 0) {
+                                player.sendMessage("§aVocê comprou §f" + delivered + "x " + item.getName() + " §apor §f" + 
+                                        String.format("%.2f", unitPrice * delivered) + " " + plugin.getConfigManager().getCurrencyNamePlural() + "§a.");
+                            }
+                            future.complete(delivered > 0);
+                        } finally {
+                            pendingPurchases.remove(playerId);
+                            
+                            long elapsedMs = (System.nanoTime() - startTime) / 1_000_000L;
+                            if (elapsedMs > plugin.getConfigManager().getPurchaseLatencyBudget()) {
+                                plugin.getLogger().warning("Compra de " + amount + "x " + item.getId() + " por " + player.getName() + 
+                                        " levou " + elapsedMs + "ms (limite: " + plugin.getConfigManager().getPurchaseLatencyBudget() + "ms)");
+                            }
                         }
-                    });
+                    }
+                }.runTask(plugin);
             });
         
         return future;
     }
 
+    /**
+     * Devolve a um jogador o valor de uma compra não entregue
+     * Se o depósito falhar, tenta de novo a cada 30 segundos; esgotadas as tentativas, o
+     * estorno fica registrado no log para correção manual.
+     * @param playerId UUID do jogador
+     * @param amount Valor a devolver
+     * @param reason Motivo da transação
+     * @param attemptsLeft Tentativas restantes
+     */
+    private void refund(UUID playerId, double amount, String reason, int attemptsLeft) {
+        plugin.getMongoDBManager().deposit(playerId, amount, reason).whenComplete((refunded, error) -> {
+            if (error == null && Boolean.TRUE.equals(refunded)) {
+                return;
+            }
+            if (attemptsLeft <= 1) {
+                plugin.getLogger().severe("Estorno de " + amount + " para " + playerId + " (" + reason +
+                        ") falhou em todas as tentativas; corrija o saldo manualmente.");
+                return;
+            }
+            plugin.getLogger().warning("Estorno de " + amount + " para " + playerId + " falhou; nova tentativa em " +
+                    (REFUND_RETRY_TICKS / 20) + " segundos.");
+            new BukkitRunnable() {
+                @Override
+                public void run() {
+                    refund(playerId, amount, reason, attemptsLeft - 1);
+                }
+            }.runTaskLaterAsynchronously(plugin, REFUND_RETRY_TICKS);
+        });
+    }
+
+    /**
+     * Calcula quantas unidades de um item ainda cabem no inventário
+     * @param inventory Inventário do jogador
+     * @param itemStack Item a ser adicionado
+     * @return Quantidade de unidades que cabem
+     */
+    private int getFreeSpace(PlayerInventory inventory, ItemStack itemStack) {
+        int maxStack = itemStack.getMaxStackSize();
+        int free = 0;
+        for (ItemStack stack : inventory.getStorageContents()) {
+            if (stack == null || stack.getType() == Material.AIR) {
+                free += maxStack;
+            } else if (stack.isSimilar(itemStack)) {
+                free += Math.max(0, maxStack - stack.getAmount());
+            }
+        }
+        return free;
+    }
+
     /**
      * Vende um item para a loja
      */
@@ -209,7 +368,7 @@ public class ShopManager {
         }
         
         // Preço de venda é 70% do preço de compra
-        double sellPrice = item.getCurrentPrice() * 0.7 * amount;
+        double sellPrice = item.getCurrentPrice() * SELL_PRICE_FACTOR * amount;
         
         // Verifica se o jogador tem o item
         new BukkitRunnable() {
@@ -243,9 +402,11 @@ public class ShopManager {
                                     new BukkitRunnable() {
                                         @Override
                                         public void run() {
-                                            player.sendMessage("§cOcorreu um erro ao processar a venda. Tente novamente mais tarde.");
                                             // Devolve o item ao jogador
-                                            player.getInventory().addItem(itemStack);
+                                            returnItems(player, List.of(itemStack));
+                                            if (player.isOnline()) {
+                                                player.sendMessage("§cOcorreu um erro ao processar a venda. Tente novamente mais tarde.");
+                                            }
                                         }
                                     }.runTask(plugin);
                                     future.complete(false);
@@ -294,4 +455,125 @@ public class ShopManager {
     public ShopCategory getCategory(String id) {
         return categories.get(id);
     }
+
+    /**
+     * Obtém a interface gráfica compartilhada da loja
+     * @return Interface gráfica da loja
+     */
+    public ShopGUI getShopGUI() {
+        return shopGUI;
+    }
+
+    /**
+     * Vende todos os itens do inventário do jogador que a loja compra
+     * O inventário é percorrido uma única vez, o preço de cada item é lido uma vez (mesmo
+     * snapshot para toda a venda), os itens são removidos de uma só vez e o valor total é
+     * depositado com uma única transação detalhada. Itens com nome, encantamento ou outros
+     * metadados não são vendidos. Deve ser chamado na thread principal.
+     * @param player Jogador
+     * @return CompletableFuture com o valor recebido (0 se nada foi vendido ou se a venda falhou)
+     */
+    public CompletableFuture<Double> sellAll(Player player) {
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getStorageContents();
+        
+        // Agrega os itens vendáveis por item da loja, com o preço fixado no início da venda
+        Map<ShopItem, double[]> sold = new LinkedHashMap<>(); // {quantidade, preço unitário}
+        List<ItemStack> removed = new ArrayList<>();
+        double total = 0;
+        
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack stack = contents[slot];
+            if (stack == null || stack.getType() == Material.AIR || stack.hasItemMeta()) {
+                continue;
+            }
+            
+            ShopItem item = itemsByMaterial.get(stack.getType());
+            if (item == null) {
+                continue;
+            }
+            
+            double[] entry = sold.computeIfAbsent(item, k -> new double[] {0, k.getCurrentPrice() * SELL_PRICE_FACTOR});
+            entry[0] += stack.getAmount();
+            total += entry[1] * stack.getAmount();
+            
+            removed.add(stack);
+            contents[slot] = null;
+        }
+        
+        if (sold.isEmpty()) {
+            player.sendMessage("§cVocê não tem itens que possam ser vendidos para a loja.");
+            return CompletableFuture.completedFuture(0.0);
+        }
+        
+        // Remove todos os itens vendidos de uma só vez
+        inventory.setStorageContents(contents);
+        
+        // Monta o registro detalhado da venda
+        List<Document> lines = new ArrayList<>();
+        int totalAmount = 0;
+        for (Map.Entry<ShopItem, double[]> entry : sold.entrySet()) {
+            int amount = (int) entry.getValue()[0];
+            double unitPrice = entry.getValue()[1];
+            totalAmount += amount;
+            lines.add(new Document("item_id", entry.getKey().getId())
+                    .append("amount", amount)
+                    .append("unit_price", unitPrice)
+                    .append("total", unitPrice * amount));
+        }
+        Document details = new Document("items", lines);
+        
+        final double saleTotal = total;
+        final int saleAmount = totalAmount;
+        CompletableFuture<Double> future = new CompletableFuture<>();
+        
+        plugin.getMongoDBManager().deposit(player.getUniqueId(), saleTotal, "Venda de " + saleAmount + " itens para a loja", details)
+            .thenAccept(success -> {
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        if (success) {
+                            player.sendMessage("§aVocê vendeu §f" + saleAmount + " itens §apor §f" + 
+                                    String.format("%.2f", saleTotal) + " " + plugin.getConfigManager().getCurrencyNamePlural() + "§a.");
+                            future.complete(saleTotal);
+                        } else {
+                            returnItems(player, removed);
+                            if (player.isOnline()) {
+                                player.sendMessage("§cOcorreu um erro ao processar a venda. Seus itens foram devolvidos.");
+                            }
+                            future.complete(0.0);
+                        }
+                    }
+                }.runTask(plugin);
+            });
+        
+        return future;
+    }
+
+    /**
+     * Devolve itens ao jogador, largando no chão o que não couber no inventário
+     * Se o jogador já saiu, o inventário dele não é mais salvo: os itens são largados onde ele estava.
+     * @param player Jogador
+     * @param items Itens a devolver
+     */
+    private void returnItems(Player player, List<ItemStack> items) {
+        if (!player.isOnline()) {
+            Location location = player.getLocation();
+            for (ItemStack stack : items) {
+                location.getWorld().dropItemNaturally(location, stack);
+            }
+            plugin.getLogger().warning("Venda de " + player.getName() + " falhou após a saída do jogador; " + items.size() +
+                    " pilhas de itens foram largadas em " + location.getWorld().getName() + " " +
+                    location.getBlockX() + ", " + location.getBlockY() + ", " + location.getBlockZ() + ".");
+            return;
+        }
+
+        Map<Integer, ItemStack> overflow = player.getInventory().addItem(items.toArray(new ItemStack[0]));
+        if (!overflow.isEmpty()) {
+            Location location = player.getLocation();
+            for (ItemStack stack : overflow.values()) {
+                player.getWorld().dropItemNaturally(location, stack);
+            }
+        }
+    }
 }
@@ -0,0 +1,193 @@
+package com.minecraft.economy.shop;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * Sessão de um menu da loja aberta por um jogador
+ * Guarda o tipo do menu, a página e o mapeamento de slots para itens/categorias,
+ * permitindo identificar o clique sem comparar títulos ou percorrer a loja
+ */
+public class ShopMenuHolder implements InventoryHolder {
+
+    /**
+     * Tipos de menu da loja
+     */
+    public enum MenuType {
+        MAIN,
+        CATEGORY,
+        DETAILS,
+        BUY,
+        SELL
+    }
+
+    private final MenuType type;
+    private final String categoryId;
+    private final int page;
+    private final ShopItem focusedItem;
+    private int focusedVersion;
+    private final ShopItem[] slotItems;
+    private final int[] slotVersions;
+    private final ShopCategory[] slotCategories;
+    private Inventory inventory;
+
+    /**
+     * Construtor da sessão
+     * @param type Tipo do menu
+     * @param categoryId ID da categoria exibida (ou null)
+     * @param page Página exibida
+     * @param focusedItem Item em foco nos menus de detalhes/compra (ou null)
+     * @param size Tamanho do inventário
+     */
+    public ShopMenuHolder(MenuType type, String categoryId, int page, ShopItem focusedItem, int size) {
+        this.type = type;
+        this.categoryId = categoryId;
+        this.page = page;
+        this.focusedItem = focusedItem;
+        this.focusedVersion = focusedItem != null ? focusedItem.getVersion() : 0;
+        this.slotItems = new ShopItem[size];
+        this.slotVersions = new int[size];
+        this.slotCategories = new ShopCategory[size];
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Associa o inventário criado a esta sessão
+     * @param inventory Inventário
+     */
+    public void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    /**
+     * Obtém o tipo do menu
+     * @return Tipo do menu
+     */
+    public MenuType getType() {
+        return type;
+    }
+
+    /**
+     * Obtém o ID da categoria exibida
+     * @return ID da categoria, ou null se o menu não for de categoria
+     */
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    /**
+     * Obtém a página exibida
+     * @return Página (começando em 0)
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * Obtém o item em foco (menus de detalhes e compra)
+     * @return Item em foco, ou null
+     */
+    public ShopItem getFocusedItem() {
+        return focusedItem;
+    }
+
+    /**
+     * Obtém a versão do item em foco no momento em que foi exibido
+     * @return Versão exibida
+     */
+    public int getFocusedVersion() {
+        return focusedVersion;
+    }
+
+    /**
+     * Define a versão exibida do item em foco
+     * @param focusedVersion Versão exibida
+     */
+    public void setFocusedVersion(int focusedVersion) {
+        this.focusedVersion = focusedVersion;
+    }
+
+    /**
+     * Associa um item a um slot
+     * @param slot Slot
+     * @param item Item exibido no slot
+     */
+    public void setItem(int slot, ShopItem item) {
+        slotItems[slot] = item;
+        slotVersions[slot] = item.getVersion();
+    }
+
+    /**
+     * Copia o mapeamento de slots de uma página já montada
+     * @param items Itens por slot
+     * @param versions Versão exibida de cada item
+     */
+    public void setItems(ShopItem[] items, int[] versions) {
+        int length = Math.min(items.length, slotItems.length);
+        System.arraycopy(items, 0, slotItems, 0, length);
+        System.arraycopy(versions, 0, slotVersions, 0, length);
+    }
+
+    /**
+     * Obtém a versão exibida do item de um slot
+     * @param slot Slot
+     * @return Versão exibida
+     */
+    public int getSlotVersion(int slot) {
+        return slotVersions[slot];
+    }
+
+    /**
+     * Define a versão exibida do item de um slot
+     * @param slot Slot
+     * @param version Versão exibida
+     */
+    public void setSlotVersion(int slot, int version) {
+        slotVersions[slot] = version;
+    }
+
+    /**
+     * Obtém o item exibido em um slot
+     * @param slot Slot clicado
+     * @return Item do slot, ou null se o slot não contém item da loja
+     */
+    public ShopItem getItem(int slot) {
+        if (slot < 0 || slot >= slotItems.length) {
+            return null;
+        }
+        return slotItems[slot];
+    }
+
+    /**
+     * Associa uma categoria a um slot
+     * @param slot Slot
+     * @param category Categoria exibida no slot
+     */
+    public void setCategory(int slot, ShopCategory category) {
+        slotCategories[slot] = category;
+    }
+
+    /**
+     * Obtém a categoria exibida em um slot
+     * @param slot Slot clicado
+     * @return Categoria do slot, ou null se o slot não contém categoria
+     */
+    public ShopCategory getCategory(int slot) {
+        if (slot < 0 || slot >= slotCategories.length) {
+            return null;
+        }
+        return slotCategories[slot];
+    }
+
+    /**
+     * Obtém o tamanho do inventário da sessão
+     * @return Número de slots
+     */
+    public int getSize() {
+        return slotItems.length;
+    }
+}
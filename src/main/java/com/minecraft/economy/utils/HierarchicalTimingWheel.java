@@ -0,0 +1,115 @@
+package com.minecraft.economy.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roda de temporização hierárquica
+ * Cada nível é uma {@link TimingWheel} cujo tick é uma volta inteira do nível abaixo. Uma tarefa
+ * entra no nível mais fino que cobre o seu prazo; quando o slot de um nível superior vence, a
+ * tarefa desce (cascateia) para um nível mais fino até disparar com a resolução do primeiro nível.
+ * Assim prazos de milissegundos a semanas convivem sem que tarefas distantes sejam revisitadas a
+ * cada volta da roda fina.
+ * Não é thread-safe: deve ser usada sempre pela mesma thread.
+ * @param <T> Tipo da tarefa agendada
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final List<TimingWheel<Entry<T>>> levels;
+    private final long[] spans;
+    private final Consumer<Entry<T>> cascade = this::place;
+    private long nowMillis;
+
+    /**
+     * Cria a roda
+     * @param tickMillis Duração de um tick do nível mais fino
+     * @param slotCount Número de slots de cada nível (potência de dois)
+     * @param levelCount Número de níveis
+     * @param nowMillis Instante atual
+     */
+    public HierarchicalTimingWheel(long tickMillis, int slotCount, int levelCount, long nowMillis) {
+        this.levels = new ArrayList<>(levelCount);
+        this.spans = new long[levelCount];
+        long levelTick = tickMillis;
+        for (int i = 0; i < levelCount; i++) {
+            levels.add(new TimingWheel<>(levelTick, slotCount, nowMillis));
+            spans[i] = levelTick * slotCount;
+            levelTick = spans[i];
+        }
+        this.nowMillis = nowMillis;
+    }
+
+    /**
+     * Agenda uma tarefa
+     * Prazos já vencidos disparam no próximo avanço da roda.
+     * @param task Tarefa
+     * @param deadlineMillis Instante de execução
+     * @return Agendamento, que pode ser cancelado
+     */
+    public Entry<T> schedule(T task, long deadlineMillis) {
+        Entry<T> entry = new Entry<>(task, deadlineMillis);
+        place(entry);
+        return entry;
+    }
+
+    private void place(Entry<T> entry) {
+        if (entry.cancelled) {
+            return;
+        }
+        long delay = entry.deadline - nowMillis;
+        int level = 0;
+        while (level < levels.size() - 1 && delay >= spans[level]) {
+            level++;
+        }
+        levels.get(level).schedule(entry, entry.deadline);
+    }
+
+    /**
+     * Avança a roda até o instante atual, disparando as tarefas vencidas
+     * Os níveis superiores avançam primeiro, para que as tarefas que descem ainda disparem neste avanço.
+     * @param nowMillis Instante atual
+     * @param action Ação executada para cada tarefa vencida
+     */
+    public void advance(long nowMillis, Consumer<T> action) {
+        this.nowMillis = nowMillis;
+        for (int i = levels.size() - 1; i > 0; i--) {
+            levels.get(i).advance(nowMillis, cascade);
+        }
+        levels.get(0).advance(nowMillis, entry -> {
+            if (!entry.cancelled) {
+                action.accept(entry.task);
+            }
+        });
+    }
+
+    /**
+     * Agendamento de uma tarefa na roda
+     * @param <T> Tipo da tarefa
+     */
+    public static final class Entry<T> {
+        private final T task;
+        private final long deadline;
+        private boolean cancelled;
+
+        private Entry(T task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancela o agendamento (a entrada é descartada quando o slot for examinado)
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public T getTask() {
+            return task;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.minecraft.economy.utils;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache de ícones prontos para interfaces gráficas
+ * Cada entrada é identificada por uma chave e uma versão; o ícone só é reconstruído
+ * quando a versão muda (por exemplo, após uma alteração de preço ou estoque).
+ * Os ícones retornados são compartilhados e não devem ser modificados; o inventário
+ * copia o ItemStack ao recebê-lo em setItem/setContents.
+ * Deve ser usado apenas na thread principal.
+ */
+public class IconCache {
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * Construtor do cache
+     * @param maxEntries Número máximo de ícones mantidos (os menos usados são descartados)
+     */
+    public IconCache(int maxEntries) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Obtém o ícone de uma chave, reconstruindo-o se a versão mudou
+     * @param key Chave do ícone
+     * @param version Versão atual do conteúdo
+     * @param builder Função que constrói o ícone
+     * @return Ícone em cache
+     */
+    public ItemStack get(String key, int version, Supplier<ItemStack> builder) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version != version) {
+            entry = new Entry(version, builder.get());
+            entries.put(key, entry);
+        }
+        return entry.icon;
+    }
+
+    /**
+     * Remove o ícone de uma chave
+     * @param key Chave do ícone
+     */
+    public void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove todos os ícones
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Obtém o número de ícones em cache
+     * @return Número de ícones
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final int version;
+        private final ItemStack icon;
+
+        private Entry(int version, ItemStack icon) {
+            this.version = version;
+            this.icon = icon;
+        }
+    }
+}
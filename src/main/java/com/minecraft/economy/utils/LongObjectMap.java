@@ -0,0 +1,205 @@
+package com.minecraft.economy.utils;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Mapa de chaves long primitivas para objetos, com endereçamento aberto e sondagem linear
+ * Não cria objetos por consulta (sem boxing da chave nem nós de entrada), então uma busca por
+ * uma chave ausente custa um hash e poucas comparações de long.
+ * Não é thread-safe; deve ser usado apenas na thread principal.
+ * @param <V> Tipo dos valores
+ */
+public class LongObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values; // null indica posição livre
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    /**
+     * Construtor do mapa com capacidade padrão
+     */
+    public LongObjectMap() {
+        this(16);
+    }
+
+    /**
+     * Construtor do mapa
+     * @param expectedSize Número esperado de entradas
+     */
+    public LongObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Obtém o valor de uma chave
+     * @param key Chave
+     * @return Valor, ou null se a chave não existir
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = mix(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Verifica se uma chave existe
+     * @param key Chave
+     * @return true se a chave existir
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associa um valor a uma chave
+     * @param key Chave
+     * @param value Valor (não pode ser null)
+     * @return Valor anterior, ou null se a chave não existia
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Valores nulos não são suportados");
+        }
+
+        int slot = mix(key) & mask;
+        Object current;
+        while ((current = values[slot]) != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return (V) current;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Remove uma chave
+     * @param key Chave
+     * @return Valor removido, ou null se a chave não existia
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = mix(key) & mask;
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (keys[slot] == key) {
+                shiftBack(slot);
+                size--;
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Percorre todos os valores do mapa
+     * @param action Ação executada para cada valor
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    /**
+     * Obtém o número de entradas
+     * @return Número de entradas
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Verifica se o mapa está vazio
+     * @return true se não houver entradas
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove todas as entradas
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Fecha o buraco deixado por uma remoção, puxando de volta as entradas da mesma sequência de sondagem
+     * @param slot Posição removida
+     */
+    private void shiftBack(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        Object value;
+        while ((value = values[next]) != null) {
+            int home = mix(keys[next]) & mask;
+            // A entrada pode ocupar o buraco se a sua posição de origem não estiver entre o buraco e ela
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = value;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            Object value = oldValues[i];
+            if (value != null) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Espalha os bits da chave (posições vizinhas diferem apenas nos bits baixos de cada eixo)
+     */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,118 @@
+package com.minecraft.economy.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roda de temporização com hash (hashed timing wheel)
+ * Cada tarefa fica no slot do tick em que vence (tick módulo o número de slots); avançar a roda
+ * só examina os slots dos ticks decorridos, então o custo por tick não depende do total de tarefas
+ * agendadas. Tarefas com prazo além de uma volta esperam no mesmo slot até a volta certa.
+ * Não é thread-safe: deve ser usada sempre pela mesma thread.
+ * @param <T> Tipo da tarefa agendada
+ */
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final List<Timeout<T>>[] slots;
+    private final int mask;
+    private final List<Timeout<T>> due = new ArrayList<>();
+    private long currentTick;
+
+    /**
+     * Cria a roda
+     * @param tickMillis Duração de um tick em milissegundos
+     * @param slotCount Número de slots (potência de dois)
+     * @param nowMillis Instante atual
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int slotCount, long nowMillis) {
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("O número de slots deve ser uma potência de dois: " + slotCount);
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new List[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.mask = slotCount - 1;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Agenda uma tarefa
+     * Prazos já vencidos disparam no próximo avanço da roda.
+     * @param task Tarefa
+     * @param deadlineMillis Instante de execução
+     * @return Agendamento, que pode ser cancelado
+     */
+    public Timeout<T> schedule(T task, long deadlineMillis) {
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick + 1);
+        Timeout<T> timeout = new Timeout<>(task, tick);
+        slots[(int) (tick & mask)].add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Avança a roda até o instante atual, disparando as tarefas vencidas
+     * Depois de um atraso maior que uma volta, cada slot é examinado uma única vez.
+     * @param nowMillis Instante atual
+     * @param action Ação executada para cada tarefa vencida
+     */
+    public void advance(long nowMillis, Consumer<T> action) {
+        long target = nowMillis / tickMillis;
+        if (target <= currentTick) {
+            return;
+        }
+
+        long steps = Math.min(target - currentTick, slots.length);
+        for (long i = 1; i <= steps; i++) {
+            List<Timeout<T>> slot = slots[(int) ((currentTick + i) & mask)];
+            for (int j = slot.size() - 1; j >= 0; j--) {
+                Timeout<T> timeout = slot.get(j);
+                if (timeout.cancelled || timeout.tick <= target) {
+                    // Remoção por troca com o último elemento
+                    slot.set(j, slot.get(slot.size() - 1));
+                    slot.remove(slot.size() - 1);
+                    if (!timeout.cancelled) {
+                        due.add(timeout);
+                    }
+                }
+            }
+        }
+        currentTick = target;
+
+        // As ações podem reagendar tarefas, então só rodam depois da varredura
+        for (Timeout<T> timeout : due) {
+            action.accept(timeout.task);
+        }
+        due.clear();
+    }
+
+    /**
+     * Agendamento de uma tarefa na roda
+     * @param <T> Tipo da tarefa
+     */
+    public static final class Timeout<T> {
+        private final T task;
+        private final long tick;
+        private boolean cancelled;
+
+        private Timeout(T task, long tick) {
+            this.task = task;
+            this.tick = tick;
+        }
+
+        /**
+         * Cancela o agendamento (a entrada é descartada quando o slot for examinado)
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public T getTask() {
+            return task;
+        }
+    }
+}
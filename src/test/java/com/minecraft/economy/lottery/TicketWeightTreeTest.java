@@ -0,0 +1,108 @@
+package com.minecraft.economy.lottery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TicketWeightTreeTest {
+
+    @Test
+    void findReturnsSlotAtEachBoundary() {
+        TicketWeightTree tree = new TicketWeightTree();
+        UUID[] players = players(4);
+        tree.add(players[0], 3);
+        tree.add(players[1], 0);
+        tree.add(players[2], 2);
+        tree.add(players[3], 5);
+
+        // Bilhetes 0-2 no slot 0, 3-4 no slot 2 (o slot 1 não tem bilhetes), 5-9 no slot 3
+        assertEquals(0, tree.find(0));
+        assertEquals(0, tree.find(2));
+        assertEquals(2, tree.find(3));
+        assertEquals(2, tree.find(4));
+        assertEquals(3, tree.find(5));
+        assertEquals(3, tree.find(9));
+        assertEquals(10, tree.getTotal());
+    }
+
+    @Test
+    void beforeSumsPreviousSlots() {
+        TicketWeightTree tree = new TicketWeightTree();
+        UUID[] players = players(4);
+        tree.add(players[0], 3);
+        tree.add(players[1], 0);
+        tree.add(players[2], 2);
+        tree.add(players[3], 5);
+
+        assertEquals(0, tree.before(0));
+        assertEquals(3, tree.before(1));
+        assertEquals(3, tree.before(2));
+        assertEquals(5, tree.before(3));
+        assertEquals(10, tree.before(4));
+    }
+
+    @Test
+    void ticketIndexWithinSlotCoversEveryTicket() {
+        TicketWeightTree tree = new TicketWeightTree();
+        UUID[] players = players(4);
+        long[] weights = {3, 1, 4, 2};
+        for (int i = 0; i < players.length; i++) {
+            tree.add(players[i], weights[i]);
+        }
+
+        // Como no sorteio: o bilhete sorteado é target - before(slot) dentro do slot encontrado
+        long target = 0;
+        for (int slot = 0; slot < players.length; slot++) {
+            for (long index = 0; index < weights[slot]; index++, target++) {
+                int found = tree.find(target);
+                assertEquals(slot, found);
+                assertEquals(players[slot], tree.playerAt(found));
+                assertEquals(index, target - tree.before(found));
+            }
+        }
+    }
+
+    @Test
+    void removedWinnerIsSkipped() {
+        TicketWeightTree tree = new TicketWeightTree();
+        UUID[] players = players(3);
+        tree.add(players[0], 2);
+        tree.add(players[1], 4);
+        tree.add(players[2], 1);
+
+        // Sem reposição: o vencedor do slot 1 sai da árvore
+        tree.add(players[1], -tree.weightAt(1));
+
+        assertEquals(3, tree.getTotal());
+        assertEquals(0, tree.find(1));
+        assertEquals(2, tree.find(2));
+        assertEquals(2, tree.before(2));
+    }
+
+    @Test
+    void findWorksAcrossGrowth() {
+        TicketWeightTree tree = new TicketWeightTree();
+        // Mais jogadores que a capacidade inicial (16), para forçar a reconstrução da árvore
+        UUID[] players = players(33);
+        for (UUID player : players) {
+            tree.add(player, 1);
+        }
+
+        assertEquals(33, tree.getTotal());
+        for (int slot = 0; slot < players.length; slot++) {
+            assertEquals(slot, tree.find(slot));
+            assertEquals(slot, tree.before(slot));
+            assertEquals(players[slot], tree.playerAt(slot));
+        }
+    }
+
+    private static UUID[] players(int count) {
+        UUID[] players = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = new UUID(0L, i + 1L);
+        }
+        return players;
+    }
+}
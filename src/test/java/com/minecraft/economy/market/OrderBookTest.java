@@ -0,0 +1,155 @@
+package com.minecraft.economy.market;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OrderBookTest {
+
+    private static final String ITEM = "minecraft:diamond";
+    private static final UUID SELLER = new UUID(0L, 1L);
+    private static final UUID BUYER = new UUID(0L, 2L);
+
+    private final RecordingJournal journal = new RecordingJournal();
+    private final OrderBook book = new OrderBook(ITEM, journal, Runnable::run);
+    private long sequence;
+
+    @Test
+    void partialFillExecutesAtRestingPrice() {
+        Order ask = order(Order.Side.SELL, SELLER, 5.0, 10);
+        assertEquals(0, book.match(ask));
+
+        Order bid = order(Order.Side.BUY, BUYER, 7.0, 4);
+        assertEquals(4, book.match(bid));
+
+        assertEquals(1, journal.fills.size());
+        Fill fill = journal.fills.get(0);
+        assertSame(bid, fill.taker);
+        assertSame(ask, fill.maker);
+        assertEquals(4, fill.quantity);
+        assertEquals(5.0, fill.price, 0.0);
+
+        // A ordem em espera continua no livro com o restante; a nova foi executada por inteiro
+        assertEquals(6, ask.getRemaining());
+        assertEquals(0, bid.getRemaining());
+        assertEquals(6, (int) journal.remaining.get(ask.getId()));
+        assertEquals(0, (int) journal.remaining.get(bid.getId()));
+    }
+
+    @Test
+    void incomingRemainderRestsAtItsOwnPrice() {
+        Order ask = order(Order.Side.SELL, SELLER, 5.0, 6);
+        book.match(ask);
+
+        Order bid = order(Order.Side.BUY, BUYER, 6.0, 10);
+        assertEquals(6, book.match(bid));
+        assertEquals(5.0, journal.fills.get(0).price, 0.0);
+        assertEquals(4, bid.getRemaining());
+        assertEquals(0, (int) journal.remaining.get(ask.getId()));
+
+        // Uma venda mais barata executa contra a compra em espera, ao preço dela
+        Order cheapAsk = order(Order.Side.SELL, SELLER, 4.0, 3);
+        assertEquals(3, book.match(cheapAsk));
+        Fill fill = journal.fills.get(1);
+        assertSame(bid, fill.maker);
+        assertEquals(6.0, fill.price, 0.0);
+        assertEquals(1, bid.getRemaining());
+    }
+
+    @Test
+    void samePriceFillsInArrivalOrder() {
+        Order first = order(Order.Side.SELL, SELLER, 5.0, 2);
+        Order second = order(Order.Side.SELL, SELLER, 5.0, 2);
+        book.match(first);
+        book.match(second);
+
+        assertEquals(3, book.match(order(Order.Side.BUY, BUYER, 5.0, 3)));
+
+        assertSame(first, journal.fills.get(0).maker);
+        assertEquals(2, journal.fills.get(0).quantity);
+        assertSame(second, journal.fills.get(1).maker);
+        assertEquals(1, journal.fills.get(1).quantity);
+        assertEquals(1, second.getRemaining());
+    }
+
+    @Test
+    void nonCrossingOrderRestsWithoutRecordingRemaining() {
+        book.match(order(Order.Side.SELL, SELLER, 5.0, 2));
+        Order bid = order(Order.Side.BUY, BUYER, 4.0, 2);
+
+        assertEquals(0, book.match(bid));
+        assertEquals(0, journal.fills.size());
+        assertNull(journal.remaining.get(bid.getId()));
+        assertEquals(2, bid.getRemaining());
+    }
+
+    @Test
+    void cancelReturnsUnfilledRemainder() {
+        Order ask = order(Order.Side.SELL, SELLER, 5.0, 10);
+        book.match(ask);
+        book.match(order(Order.Side.BUY, BUYER, 5.0, 4));
+
+        assertNull(book.cancel(ask.getId(), BUYER));
+        assertSame(ask, book.cancel(ask.getId(), SELLER));
+        assertEquals(6, (int) journal.cancelled.get(ask.getId()));
+        assertEquals(0, ask.getRemaining());
+
+        // Cancelada, a ordem não executa mais
+        assertEquals(0, book.match(order(Order.Side.BUY, BUYER, 5.0, 1)));
+    }
+
+    private Order order(Order.Side side, UUID player, double price, int quantity) {
+        return new Order(ITEM, side, player, "player", price, quantity, ++sequence);
+    }
+
+    /**
+     * Diário que só guarda em memória o que o livro registrou
+     */
+    private static final class RecordingJournal extends MarketJournal {
+        private final List<Fill> fills = new ArrayList<>();
+        private final Map<ObjectId, Integer> remaining = new HashMap<>();
+        private final Map<ObjectId, Integer> cancelled = new HashMap<>();
+
+        private RecordingJournal() {
+            super(null);
+        }
+
+        @Override
+        void recordFill(Order taker, Order maker, int quantity, double price) {
+            fills.add(new Fill(taker, maker, quantity, price));
+        }
+
+        @Override
+        void recordRemaining(Order order) {
+            remaining.put(order.getId(), order.getRemaining());
+        }
+
+        @Override
+        void recordCancel(Order order, int remaining) {
+            cancelled.put(order.getId(), remaining);
+        }
+    }
+
+    private static final class Fill {
+        private final Order taker;
+        private final Order maker;
+        private final int quantity;
+        private final double price;
+
+        private Fill(Order taker, Order maker, int quantity, double price) {
+            this.taker = taker;
+            this.maker = maker;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+}
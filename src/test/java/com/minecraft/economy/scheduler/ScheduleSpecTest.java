@@ -0,0 +1,114 @@
+package com.minecraft.economy.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScheduleSpecTest {
+
+    // Horário de verão em 2024: começa em 31/03 às 02:00 (+01:00 -> +02:00) e termina em 27/10 às 03:00
+    private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+
+    @Test
+    void intervalsAreAlignedToEpoch() {
+        ScheduleSpec spec = ScheduleSpec.parse("every 30m");
+
+        assertEquals(1_800_000L, spec.next(0L));
+        assertEquals(1_800_000L, spec.next(1_799_999L));
+        assertEquals(3_600_000L, spec.next(1_800_000L));
+    }
+
+    @Test
+    void dayOfMonthSkipsShorterMonths() {
+        ScheduleSpec spec = ScheduleSpec.parse("0 0 31 * *");
+
+        assertNext(spec, "2024-01-31T00:00+01:00", "2024-03-31T00:00+01:00");
+        assertNext(spec, "2024-03-31T00:00+01:00", "2024-05-31T00:00+02:00");
+    }
+
+    @Test
+    void firstOfMonthCrossesYearEnd() {
+        ScheduleSpec spec = ScheduleSpec.parse("0 0 1 * *");
+
+        assertNext(spec, "2024-12-31T23:59+01:00", "2025-01-01T00:00+01:00");
+    }
+
+    @Test
+    void leapDayWaitsForLeapYear() {
+        ScheduleSpec spec = ScheduleSpec.parse("0 12 29 2 *");
+
+        assertNext(spec, "2023-03-01T00:00+01:00", "2024-02-29T12:00+01:00");
+    }
+
+    @Test
+    void dayOfMonthOrDayOfWeekWhenBothRestricted() {
+        // Dia 13 ou qualquer sexta-feira; em outubro de 2024 o dia 13 é um domingo
+        ScheduleSpec spec = ScheduleSpec.parse("0 12 13 * 5");
+
+        assertNext(spec, "2024-10-05T00:00+02:00", "2024-10-11T12:00+02:00");
+        assertNext(spec, "2024-10-11T12:00+02:00", "2024-10-13T12:00+02:00");
+        assertNext(spec, "2024-10-13T12:00+02:00", "2024-10-18T12:00+02:00");
+    }
+
+    @Test
+    void dayOfWeekOnlyWhenDayOfMonthIsWildcard() {
+        // 7 também é domingo
+        ScheduleSpec spec = ScheduleSpec.parse("0 12 * * 7");
+
+        assertNext(spec, "2024-10-11T12:00+02:00", "2024-10-13T12:00+02:00");
+        assertNext(spec, "2024-10-13T12:00+02:00", "2024-10-20T12:00+02:00");
+    }
+
+    @Test
+    void skippedWallClockTimeRunsShiftedByTheGap() {
+        ScheduleSpec spec = ScheduleSpec.parse("30 2 * * *");
+
+        // 02:30 não existe em 31/03: roda uma vez, às 03:30, e volta ao normal no dia seguinte
+        assertNext(spec, "2024-03-31T00:00+01:00", "2024-03-31T03:30+02:00");
+        assertNext(spec, "2024-03-31T03:30+02:00", "2024-04-01T02:30+02:00");
+    }
+
+    @Test
+    void repeatedWallClockTimeRunsOnce() {
+        ScheduleSpec spec = ScheduleSpec.parse("30 2 * * *");
+
+        // 02:30 acontece duas vezes em 27/10: só a primeira conta
+        assertNext(spec, "2024-10-27T00:00+02:00", "2024-10-27T02:30+02:00");
+        assertNext(spec, "2024-10-27T02:30+02:00", "2024-10-28T02:30+01:00");
+        assertNext(spec, "2024-10-27T02:10+01:00", "2024-10-28T02:30+01:00");
+    }
+
+    @Test
+    void everyHourFollowsTheClockAcrossDst() {
+        ScheduleSpec spec = ScheduleSpec.parse("*/30 * * * *");
+
+        // A hora repetida roda de novo; a hora pulada não existe
+        assertNext(spec, "2024-10-27T02:30+02:00", "2024-10-27T02:00+01:00");
+        assertNext(spec, "2024-10-27T02:00+01:00", "2024-10-27T02:30+01:00");
+        assertNext(spec, "2024-03-31T01:30+01:00", "2024-03-31T03:00+02:00");
+    }
+
+    @Test
+    void invalidSpecsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ScheduleSpec.parse("61 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> ScheduleSpec.parse("0 0 * *"));
+        assertThrows(IllegalArgumentException.class, () -> ScheduleSpec.parse("5x"));
+    }
+
+    @Test
+    void impossibleCronNeverRuns() {
+        ScheduleSpec spec = ScheduleSpec.parse("0 0 31 2 *");
+
+        assertThrows(IllegalStateException.class, () -> spec.next(0L, ZONE));
+    }
+
+    private static void assertNext(ScheduleSpec spec, String after, String expected) {
+        long afterMillis = OffsetDateTime.parse(after).toInstant().toEpochMilli();
+        assertEquals(OffsetDateTime.parse(expected).toInstant(), Instant.ofEpochMilli(spec.next(afterMillis, ZONE)));
+    }
+}
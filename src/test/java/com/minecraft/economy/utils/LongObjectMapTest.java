@@ -0,0 +1,132 @@
+package com.minecraft.economy.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongObjectMapTest {
+
+    // Capacidade 8 (máscara 7) e redimensionamento só na 4ª entrada
+    private static final int SMALL_EXPECTED_SIZE = 4;
+    private static final int SMALL_MASK = 7;
+
+    @Test
+    void removeAtEndOfTablePullsBackWrappedEntries() {
+        LongObjectMap<String> map = new LongObjectMap<>(SMALL_EXPECTED_SIZE);
+        long[] lastSlot = keysWithHome(SMALL_MASK, 2);
+        long firstSlot = keysWithHome(0, 1)[0];
+
+        // a ocupa o slot 7; b dá a volta para o slot 0; c (origem 0) é empurrada para o slot 1
+        map.put(lastSlot[0], "a");
+        map.put(lastSlot[1], "b");
+        map.put(firstSlot, "c");
+
+        assertEquals("a", map.remove(lastSlot[0]));
+        assertEquals(2, map.size());
+        assertNull(map.get(lastSlot[0]));
+        assertEquals("b", map.get(lastSlot[1]));
+        assertEquals("c", map.get(firstSlot));
+
+        // Reinserida, a chave vai para o fim da sequência e as outras continuam acessíveis
+        assertNull(map.put(lastSlot[0], "a2"));
+        assertEquals("a2", map.get(lastSlot[0]));
+        assertEquals("b", map.get(lastSlot[1]));
+        assertEquals("c", map.get(firstSlot));
+
+        assertEquals("b", map.remove(lastSlot[1]));
+        assertEquals("a2", map.get(lastSlot[0]));
+        assertEquals("c", map.get(firstSlot));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void removeWrappedEntryKeepsEntryThatStartedAtSlotZero() {
+        LongObjectMap<String> map = new LongObjectMap<>(SMALL_EXPECTED_SIZE);
+        long[] lastSlot = keysWithHome(SMALL_MASK, 2);
+        long firstSlot = keysWithHome(0, 1)[0];
+
+        map.put(lastSlot[0], "a");
+        map.put(lastSlot[1], "b");
+        map.put(firstSlot, "c");
+
+        // Remover b (slot 0) deve trazer c de volta para a sua origem
+        assertEquals("b", map.remove(lastSlot[1]));
+        assertEquals("a", map.get(lastSlot[0]));
+        assertEquals("c", map.get(firstSlot));
+        assertFalse(map.containsKey(lastSlot[1]));
+
+        assertNull(map.put(lastSlot[1], "b2"));
+        assertEquals("b2", map.get(lastSlot[1]));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(42);
+        LongObjectMap<Long> map = new LongObjectMap<>(SMALL_EXPECTED_SIZE);
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            // Poucas chaves, para forçar colisões e sequências que dão a volta na tabela
+            long key = random.nextInt(24) - 12;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                long value = random.nextLong();
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (long key = -12; key < 12; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        List<Long> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(expected.size(), values.size());
+        assertTrue(expected.values().containsAll(values));
+    }
+
+    @Test
+    void clearRemovesAllEntries() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(1L, "a");
+        map.put(2L, "b");
+
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1L));
+        assertNull(map.put(1L, "c"));
+        assertEquals("c", map.get(1L));
+    }
+
+    /**
+     * Encontra chaves cuja posição de origem em uma tabela de capacidade 8 é a informada
+     */
+    private static long[] keysWithHome(int home, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            if ((mix(key) & SMALL_MASK) == home) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+
+    // Mesmo espalhamento de LongObjectMap
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}